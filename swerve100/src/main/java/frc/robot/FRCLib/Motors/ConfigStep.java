@@ -0,0 +1,99 @@
+package frc.robot.FRCLib.Motors;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+import com.revrobotics.REVLibError;
+
+/**
+ * One persistent motor controller setting: the value we want, a way to read
+ * back what the device holds now, and a way to write it.
+ *
+ * Steps are run by the {@link MotorConfigurator} on a worker thread, so the
+ * reader and writer must only touch the device they belong to.
+ */
+public final class ConfigStep {
+    /** Writes the desired value, returns true if the device acknowledged it. */
+    public interface Writer {
+        boolean write();
+    }
+
+    /** Relative tolerance for read-back, since devices store some values in fixed point. */
+    private static final double kRelativeTolerance = 1e-3;
+    private static final double kAbsoluteTolerance = 1e-9;
+
+    private final String m_name;
+    private final double m_desired;
+    private final DoubleSupplier m_reader;
+    private final Writer m_writer;
+
+    /**
+     * @param name    label for logging and hashing
+     * @param desired value to write
+     * @param reader  reads the current device value, or null if the device can't
+     *                report it, in which case the step is always written.
+     * @param writer  writes the desired value
+     */
+    public ConfigStep(String name, double desired, DoubleSupplier reader, Writer writer) {
+        m_name = name;
+        m_desired = desired;
+        m_reader = reader;
+        m_writer = writer;
+    }
+
+    /** A step for a CTRE parameter, read back with configGetParameter. */
+    public static ConfigStep ctre(
+            String name,
+            BaseMotorController motor,
+            ParamEnum param,
+            int ordinal,
+            int timeoutMs,
+            double desired,
+            Supplier<ErrorCode> writer) {
+        return new ConfigStep(name, desired,
+                () -> motor.configGetParameter(param, ordinal, timeoutMs),
+                () -> writer.get() == ErrorCode.OK);
+    }
+
+    /** A step for a REV parameter with a typed getter. */
+    public static ConfigStep rev(
+            String name,
+            double desired,
+            DoubleSupplier reader,
+            Supplier<REVLibError> writer) {
+        return new ConfigStep(name, desired, reader, () -> writer.get() == REVLibError.kOk);
+    }
+
+    public static double flag(boolean b) {
+        return b ? 1 : 0;
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    public double getDesired() {
+        return m_desired;
+    }
+
+    /** True if the device can report this value. */
+    boolean canRead() {
+        return m_reader != null;
+    }
+
+    /** True if the device already holds the desired value. */
+    boolean matchesDevice() {
+        if (m_reader == null)
+            return false;
+        double actual = m_reader.getAsDouble();
+        double tolerance = Math.max(kAbsoluteTolerance, kRelativeTolerance * Math.abs(m_desired));
+        return Math.abs(actual - m_desired) <= tolerance;
+    }
+
+    boolean write() {
+        return m_writer.write();
+    }
+}
@@ -7,7 +7,13 @@
 
 package frc.robot.FRCLib.Motors;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
 import com.revrobotics.SparkMaxAnalogSensor;
 import com.revrobotics.SparkMaxLimitSwitch;
 import com.revrobotics.SparkMaxPIDController;
@@ -16,10 +22,12 @@ import com.revrobotics.CANSparkMax.IdleMode;
 import com.revrobotics.CANSparkMax.SoftLimitDirection;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
+import team100.telemetry.TelemetryBinding;
 
 /**
  * An abstraction for the Talon FX for debugging information
@@ -78,63 +86,67 @@ public class FRCNEO implements Sendable {
         return (int)this.motor.getEncoder().getPosition();
     }
 
+    /**
+     * Updates the dynamic values; the configuration is published once, by
+     * build(), or by publishStatic() after a change.
+     */
     public void updateSmartDashboard() {
-        if (this.isSmartDashboardPutEnabled()) {
-
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/percentOutput",
-                    this.motor.getAppliedOutput());
-
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/allowableClosedLoopError",
-                    this.getAllowableClosedLoopError());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/auxPIDPolarity", this.isAuxPIDPolarity());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/canID", this.getCanID());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/closedLoopRampRate",
-                    this.getClosedLoopRampRate());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/currentLimit", this.getCurrentLimit());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/currentLimitEnabled",
-                    this.isCurrentLimitEnabled());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/feedbackPort", this.getFeedbackPort());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/forwardSoftLimitEnabled",
-                    this.isForwardSoftLimitEnabled());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/forwardSoftLimitThreshold",
-                    this.getForwardSoftLimitThreshold());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/inverted", this.getInverted());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kP", this.getkP());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kI", this.getkI());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kD", this.getkD());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kF", this.getkF());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionAcceleration",
-                    this.getMotionAcceleration());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionCruiseVelocity",
-                    this.getMotionCruiseVelocity());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionCurveStrength",
-                    this.getMotionCurveStrength());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionProfileTrajectoryPeriod",
-                    this.motionProfileTrajectoryPeriod);
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/neutralDeadband", this.getNeutralDeadband());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/neutralDeadband",
-                    (this.getNeutralMode() == IdleMode.kCoast) ? false : true);
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/openLoopRampRate", this.getOpenLoopRampRate());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/peakOutputForward", this.getPeakOutputForward());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/peakOutputReverse", this.getPeakOutputReverse());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/reverseSoftLimitEnabled",
-                    this.isReverseSoftLimitEnabled());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/reverseSoftLimitThreshold",
-                    this.getReverseSoftLimitThreshold());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/sensorPhase", this.isSensorPhase());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/analogMode", this.getAnalogMode().toString());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/SmartDashboardPath",
-                    this.getSmartDashboardPath());
-            if (Robot.isReal()) {
-                SmartDashboard.putNumber(this.getSmartDashboardPath() + "/timeout", this.getTimeout());
-                SmartDashboard.putNumber(this.getSmartDashboardPath() + "/velocityMeasurementPeriod",
-                        this.getVelocityMeasurementPeriod());
-                SmartDashboard.putNumber(this.getSmartDashboardPath() + "/velocityMeasurementWindow",
-                        this.getVelocityMeasurementWindow());
-            }
+        if (m_telemetry != null) {
+            m_telemetry.update();
+        }
+    }
 
+    /**
+     * Republishes the configuration values.
+     */
+    public void publishStatic() {
+        if (m_telemetry != null) {
+            m_telemetry.publishStatic();
         }
+    }
 
+    /**
+     * Creates the publishers, once, at build() time.
+     */
+    private void bindTelemetry() {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard")
+                .getSubTable(this.getSmartDashboardPath());
+        m_telemetry = new TelemetryBinding(table, this.getSmartDashboardDecimation());
+        m_telemetry.addDouble("percentOutput", () -> this.motor.getAppliedOutput());
+        m_telemetry.addStaticDouble("allowableClosedLoopError", () -> this.getAllowableClosedLoopError());
+        m_telemetry.addStaticBoolean("auxPIDPolarity", () -> this.isAuxPIDPolarity());
+        m_telemetry.addStaticDouble("canID", () -> this.getCanID());
+        m_telemetry.addStaticDouble("closedLoopRampRate", () -> this.getClosedLoopRampRate());
+        m_telemetry.addStaticDouble("currentLimit", () -> this.getCurrentLimit());
+        m_telemetry.addStaticBoolean("currentLimitEnabled", () -> this.isCurrentLimitEnabled());
+        m_telemetry.addStaticDouble("feedbackPort", () -> this.getFeedbackPort());
+        m_telemetry.addStaticBoolean("forwardSoftLimitEnabled", () -> this.isForwardSoftLimitEnabled());
+        m_telemetry.addStaticDouble("forwardSoftLimitThreshold", () -> this.getForwardSoftLimitThreshold());
+        m_telemetry.addStaticBoolean("inverted", () -> this.getInverted());
+        m_telemetry.addStaticDouble("kP", () -> this.getkP());
+        m_telemetry.addStaticDouble("kI", () -> this.getkI());
+        m_telemetry.addStaticDouble("kD", () -> this.getkD());
+        m_telemetry.addStaticDouble("kF", () -> this.getkF());
+        m_telemetry.addStaticDouble("motionAcceleration", () -> this.getMotionAcceleration());
+        m_telemetry.addStaticDouble("motionCruiseVelocity", () -> this.getMotionCruiseVelocity());
+        m_telemetry.addStaticDouble("motionCurveStrength", () -> this.getMotionCurveStrength());
+        m_telemetry.addStaticDouble("motionProfileTrajectoryPeriod", () -> this.motionProfileTrajectoryPeriod);
+        m_telemetry.addStaticDouble("neutralDeadband", () -> this.getNeutralDeadband());
+        m_telemetry.addStaticBoolean("brakeMode", () -> this.getNeutralMode() != IdleMode.kCoast);
+        m_telemetry.addStaticDouble("openLoopRampRate", () -> this.getOpenLoopRampRate());
+        m_telemetry.addStaticDouble("peakOutputForward", () -> this.getPeakOutputForward());
+        m_telemetry.addStaticDouble("peakOutputReverse", () -> this.getPeakOutputReverse());
+        m_telemetry.addStaticBoolean("reverseSoftLimitEnabled", () -> this.isReverseSoftLimitEnabled());
+        m_telemetry.addStaticDouble("reverseSoftLimitThreshold", () -> this.getReverseSoftLimitThreshold());
+        m_telemetry.addStaticBoolean("sensorPhase", () -> this.isSensorPhase());
+        m_telemetry.addStaticString("analogMode", () -> String.valueOf(this.getAnalogMode()));
+        m_telemetry.addStaticString("SmartDashboardPath", () -> this.getSmartDashboardPath());
+        if (Robot.isReal()) {
+            m_telemetry.addStaticDouble("timeout", () -> this.getTimeout());
+            m_telemetry.addStaticDouble("velocityMeasurementPeriod", () -> this.getVelocityMeasurementPeriod());
+            m_telemetry.addStaticDouble("velocityMeasurementWindow", () -> this.getVelocityMeasurementWindow());
+        }
+        m_telemetry.publishStatic();
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -266,6 +278,16 @@ public class FRCNEO implements Sendable {
      */
     private String smartDashboardPath;
 
+    /**
+     * Publish the dynamic values every this many calls to updateSmartDashboard
+     */
+    private int smartDashboardDecimation;
+
+    /**
+     * The publishers, bound at build() time if smartDashboardPutEnabled
+     */
+    private TelemetryBinding m_telemetry;
+
     /**
      * The ramp rate when controlled in open loop
      */
@@ -346,6 +368,17 @@ public class FRCNEO implements Sendable {
      */
     private int motionProfileTrajectoryPeriod;
 
+    /**
+     * Skip configuration entirely if the config hash file says it hasn't
+     * changed; settings are burned to flash so they survive a power cycle.
+     */
+    private boolean configCache;
+
+    /**
+     * Completes when the persistent settings have been written
+     */
+    private Future<?> m_configured;
+
     public void updatePIDController() {
         closedLoop.setP(this.getkP());
         closedLoop.setI(this.getkI());
@@ -353,6 +386,7 @@ public class FRCNEO implements Sendable {
         closedLoop.setFF(this.getkF());
 
         System.out.println("Wrote PID TO " + canID + ", KP = " + this.getkP() + ", KF VALUE " + this.getkF());
+        publishStatic();
     }
 
     public FRCNEO configure() {
@@ -360,86 +394,128 @@ public class FRCNEO implements Sendable {
 
         closedLoop = motor.getPIDController();
 
+        fwdLimitSwitch = motor.getForwardLimitSwitch(SparkMaxLimitSwitch.Type.kNormallyOpen);
+        revLimitSwitch = motor.getReverseLimitSwitch(SparkMaxLimitSwitch.Type.kNormallyOpen);
+
+        applyImmediateSettings();
+
+        MotorConfigurator configurator = MotorConfigurator.getInstance();
+        String key = this.getSmartDashboardPath();
+        m_configured = configurator.submit(key, this::factoryReset, configSteps(),
+                this.configCache ? configurator.fileStore(key) : null,
+                this.configCache ? motor::burnFlash : null);
+        return this;
+    }
+
+    /**
+     * Feedback, inversion and following don't block, so they're always set
+     * here rather than diffed, but the spark keeps them with its parameters.
+     */
+    private void applyImmediateSettings() {
         if (useAnalogForPID) {
             SparkMaxAnalogSensor analog = this.motor.getAnalog(analogMode);
             analog.setInverted(this.sensorPhase);
-            System.out.println("SET SENSOR PHASE");
             analog.setPositionConversionFactor(1/3.3);
             closedLoop.setFeedbackDevice(analog);
         } else {
             if (this.motorType == MotorType.kBrushless) closedLoop.setFeedbackDevice(this.motor.getEncoder());
         }
 
-        fwdLimitSwitch = motor.getForwardLimitSwitch(SparkMaxLimitSwitch.Type.kNormallyOpen);
-        revLimitSwitch = motor.getReverseLimitSwitch(SparkMaxLimitSwitch.Type.kNormallyOpen);
-
-        motor.restoreFactoryDefaults();
-
         motor.setInverted(this.isInverted);
-        System.out.println("Configuring Inverted");
-
-        if (this.currentLimitEnabled) {
-            motor.setSmartCurrentLimit(this.getCurrentLimit());
-            motor.setSecondaryCurrentLimit(this.getCurrentLimit());
-        }
 
-        if (this.isForwardSoftLimitEnabled()) {
-            motor.enableSoftLimit(SoftLimitDirection.kForward, this.isForwardSoftLimitEnabled());
-            motor.setSoftLimit(SoftLimitDirection.kForward, this.getForwardSoftLimitThreshold());
-            System.out.println("Configuring forward soft limit");
-        }
-
-        if (this.getMotionAcceleration() != 0) {
-            closedLoop.setSmartMotionMaxAccel(this.getMotionAcceleration(), 0);
-            closedLoop.setSmartMotionMaxVelocity(this.getMotionCruiseVelocity(), 0);
-            System.out.println("Configuring acceleration");
-        }
-
-        if (this.getNeutralMode() != null) {
-            motor.setIdleMode(this.getNeutralMode());
-            System.out.println("Setting Neutral Mode");
+        if (this.master != null) {
+            motor.follow(master.motor, this.getInverted());
         }
+    }
 
-        if (this.getOpenLoopRampRate() != 0) {
-            motor.setOpenLoopRampRate(this.getOpenLoopRampRate());
-            System.out.println("Setting Open Loop Ramp Rate");
-
-        }
+    /** The reset clears the immediate settings too, so they're set again. */
+    private boolean factoryReset() {
+        if (motor.restoreFactoryDefaults() != REVLibError.kOk)
+            return false;
+        applyImmediateSettings();
+        return true;
+    }
 
-        if (this.getPeakOutputForward() != 0 || this.getPeakOutputReverse() != 0) {
-            closedLoop.setOutputRange(this.getPeakOutputReverse(), this.getPeakOutputForward());
-            System.out.println("Setting Peak Output");
+    /**
+     * Blocks until the persistent settings have been written; use this before
+     * issuing other config calls that depend on them.
+     */
+    public void awaitConfigured() {
+        try {
+            m_configured.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("motor configuration error: " + e.getCause());
         }
+    }
 
-        if (this.isReverseSoftLimitEnabled()) {
-            motor.enableSoftLimit(SoftLimitDirection.kReverse, this.isReverseSoftLimitEnabled());
-            motor.setSoftLimit(SoftLimitDirection.kReverse, this.getReverseSoftLimitThreshold());
-            System.out.println("setting reverse soft limit enabled");
+    /**
+     * The settings we manage; the configurator factory resets the device
+     * first, so everything else is at the default.
+     */
+    private List<ConfigStep> configSteps() {
+        List<ConfigStep> steps = new ArrayList<>();
+        if (this.currentLimitEnabled) {
+            // the spark can't report its current limits, so these are always written.
+            steps.add(ConfigStep.rev("smartCurrentLimit", this.getCurrentLimit(), null,
+                    () -> motor.setSmartCurrentLimit(this.getCurrentLimit())));
+            steps.add(ConfigStep.rev("secondaryCurrentLimit", this.getCurrentLimit(), null,
+                    () -> motor.setSecondaryCurrentLimit(this.getCurrentLimit())));
         }
-
-        // if (this.isSensorPhase()) {
-        //     motor.getAnalog(Mode.kAbsolute);
-        //     System.out.println("setting sensor phase");
-        // }
-
-        if (this.motorType == MotorType.kBrushless && (this.getVelocityMeasurementPeriod() != 0 || this.getVelocityMeasurementWindow() != 0)) {
-            motor.getEncoder().setMeasurementPeriod(this.getVelocityMeasurementPeriod());
-            motor.getEncoder().setAverageDepth(this.getVelocityMeasurementWindow());
-            System.out.println("Setting Velocity Measurement Period");
+        steps.add(ConfigStep.rev("forwardSoftLimitEnable", ConfigStep.flag(this.isForwardSoftLimitEnabled()),
+                () -> ConfigStep.flag(motor.isSoftLimitEnabled(SoftLimitDirection.kForward)),
+                () -> motor.enableSoftLimit(SoftLimitDirection.kForward, this.isForwardSoftLimitEnabled())));
+        steps.add(ConfigStep.rev("forwardSoftLimitThreshold", this.getForwardSoftLimitThreshold(),
+                () -> motor.getSoftLimit(SoftLimitDirection.kForward),
+                () -> motor.setSoftLimit(SoftLimitDirection.kForward, this.getForwardSoftLimitThreshold())));
+        steps.add(ConfigStep.rev("reverseSoftLimitEnable", ConfigStep.flag(this.isReverseSoftLimitEnabled()),
+                () -> ConfigStep.flag(motor.isSoftLimitEnabled(SoftLimitDirection.kReverse)),
+                () -> motor.enableSoftLimit(SoftLimitDirection.kReverse, this.isReverseSoftLimitEnabled())));
+        steps.add(ConfigStep.rev("reverseSoftLimitThreshold", this.getReverseSoftLimitThreshold(),
+                () -> motor.getSoftLimit(SoftLimitDirection.kReverse),
+                () -> motor.setSoftLimit(SoftLimitDirection.kReverse, this.getReverseSoftLimitThreshold())));
+        steps.add(ConfigStep.rev("motionAcceleration", this.getMotionAcceleration(),
+                () -> closedLoop.getSmartMotionMaxAccel(0),
+                () -> closedLoop.setSmartMotionMaxAccel(this.getMotionAcceleration(), 0)));
+        steps.add(ConfigStep.rev("motionCruiseVelocity", this.getMotionCruiseVelocity(),
+                () -> closedLoop.getSmartMotionMaxVelocity(0),
+                () -> closedLoop.setSmartMotionMaxVelocity(this.getMotionCruiseVelocity(), 0)));
+        if (this.getNeutralMode() != null) {
+            steps.add(ConfigStep.rev("brakeMode", ConfigStep.flag(this.getNeutralMode() == IdleMode.kBrake),
+                    () -> ConfigStep.flag(motor.getIdleMode() == IdleMode.kBrake),
+                    () -> motor.setIdleMode(this.getNeutralMode())));
         }
-
-        System.out.println("MOTOR " + canID + ", KF "+ this.getkF());
-
-        if (this.getkP() != 0 || this.getkI() != 0 || this.getkD() != 0 || this.getkF() != 0) {
-            updatePIDController();
-            System.out.println("Setting PID Controller");
+        steps.add(ConfigStep.rev("openLoopRampRate", this.getOpenLoopRampRate(),
+                motor::getOpenLoopRampRate,
+                () -> motor.setOpenLoopRampRate(this.getOpenLoopRampRate())));
+        steps.add(ConfigStep.rev("peakOutputReverse", this.getPeakOutputReverse(),
+                closedLoop::getOutputMin,
+                () -> closedLoop.setOutputRange(this.getPeakOutputReverse(), this.getPeakOutputForward())));
+        steps.add(ConfigStep.rev("peakOutputForward", this.getPeakOutputForward(),
+                closedLoop::getOutputMax,
+                () -> closedLoop.setOutputRange(this.getPeakOutputReverse(), this.getPeakOutputForward())));
+        if (this.motorType == MotorType.kBrushless) {
+            steps.add(ConfigStep.rev("velocityMeasurementPeriod", this.getVelocityMeasurementPeriod(),
+                    () -> motor.getEncoder().getMeasurementPeriod(),
+                    () -> motor.getEncoder().setMeasurementPeriod(this.getVelocityMeasurementPeriod())));
+            steps.add(ConfigStep.rev("velocityMeasurementWindow", this.getVelocityMeasurementWindow(),
+                    () -> motor.getEncoder().getAverageDepth(),
+                    () -> motor.getEncoder().setAverageDepth(this.getVelocityMeasurementWindow())));
         }
+        steps.add(ConfigStep.rev("kP", this.getkP(), closedLoop::getP, () -> closedLoop.setP(this.getkP())));
+        steps.add(ConfigStep.rev("kI", this.getkI(), closedLoop::getI, () -> closedLoop.setI(this.getkI())));
+        steps.add(ConfigStep.rev("kD", this.getkD(), closedLoop::getD, () -> closedLoop.setD(this.getkD())));
+        steps.add(ConfigStep.rev("kF", this.getkF(), closedLoop::getFF, () -> closedLoop.setFF(this.getkF())));
+        return steps;
+    }
 
-        if (this.master != null) {
-            motor.follow(master.motor, this.getInverted());
-        }
+    public boolean isConfigCache() {
+        return configCache;
+    }
 
-        return this;
+    public void setConfigCache(boolean configCache) {
+        this.configCache = configCache;
     }
 
     public CANSparkMax getMotor() {
@@ -590,6 +666,14 @@ public class FRCNEO implements Sendable {
         this.smartDashboardPath = smartDashboardPath;
     }
 
+    public int getSmartDashboardDecimation() {
+        return smartDashboardDecimation;
+    }
+
+    public void setSmartDashboardDecimation(int smartDashboardDecimation) {
+        this.smartDashboardDecimation = smartDashboardDecimation;
+    }
+
     public double getOpenLoopRampRate() {
         return openLoopRampRate;
     }
@@ -741,6 +825,7 @@ public class FRCNEO implements Sendable {
         private IdleMode idleMode = IdleMode.kCoast;
         private boolean smartDashboardPutEnabled = false;
         private String smartDashboardPath;
+        private int smartDashboardDecimation = 1;
         private double openLoopRampRate = 0;
         private double closedLoopRampRate = 0;
         private double peakOutputForward = 1.0;
@@ -757,6 +842,7 @@ public class FRCNEO implements Sendable {
         private int motionAcceleration = 0;
         private int motionCurveStrength = 0;
         private int motionProfileTrajectoryPeriod = 0;
+        private boolean configCache = false;
         private FRCNEO master;
 
         public FRCNEOBuilder(int canID) {
@@ -858,6 +944,14 @@ public class FRCNEO implements Sendable {
             return this;
         }
 
+        /**
+         * Publish the dynamic values every this many calls to updateSmartDashboard
+         */
+        public FRCNEOBuilder withSmartDashboardDecimation(int smartDashboardDecimation) {
+            this.smartDashboardDecimation = smartDashboardDecimation;
+            return this;
+        }
+
         public FRCNEOBuilder withOpenLoopRampRate(double openLoopRampRate) {
             this.openLoopRampRate = openLoopRampRate;
             return this;
@@ -943,6 +1037,15 @@ public class FRCNEO implements Sendable {
             return this;
         }
 
+        /**
+         * Remember a hash of the configuration, burn it to flash, and skip
+         * configuration on the next boot if it hasn't changed.
+         */
+        public FRCNEOBuilder withConfigCache(boolean configCache) {
+            this.configCache = configCache;
+            return this;
+        }
+
         public FRCNEO build() {
             FRCNEO fRCNEO = new FRCNEO();
             fRCNEO.setCanID(canID);
@@ -959,6 +1062,7 @@ public class FRCNEO implements Sendable {
             fRCNEO.setNeutralMode(idleMode);
             fRCNEO.setSmartDashboardPutEnabled(smartDashboardPutEnabled);
             fRCNEO.setSmartDashboardPath(smartDashboardPath);
+            fRCNEO.setSmartDashboardDecimation(smartDashboardDecimation);
             fRCNEO.setOpenLoopRampRate(openLoopRampRate);
             fRCNEO.setClosedLoopRampRate(closedLoopRampRate);
             fRCNEO.setPeakOutputForward(peakOutputForward);
@@ -976,11 +1080,16 @@ public class FRCNEO implements Sendable {
             fRCNEO.setMotionCurveStrength(motionCurveStrength);
             fRCNEO.setMotionProfileTrajectoryPeriod(motionProfileTrajectoryPeriod);
             fRCNEO.setMaster(master);
+            fRCNEO.setConfigCache(configCache);
             fRCNEO.kF = this.kF;
             fRCNEO.kD = this.kD;
             fRCNEO.kI = this.kI;
             fRCNEO.kP = this.kP;
-            return fRCNEO.configure();
+            fRCNEO.configure();
+            if (smartDashboardPutEnabled) {
+                fRCNEO.bindTelemetry();
+            }
+            return fRCNEO;
         }
     }
 
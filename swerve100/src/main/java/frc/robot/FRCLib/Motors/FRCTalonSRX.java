@@ -7,13 +7,22 @@
 
 package frc.robot.FRCLib.Motors;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.ParamEnum;
 import com.ctre.phoenix.motorcontrol.*;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix.sensors.SensorVelocityMeasPeriod;
 
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.sendable.Sendable;
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import team100.telemetry.TelemetryBinding;
 
 /**
  * An abstraction for the Talon SRX for debugging information
@@ -64,73 +73,73 @@ public class FRCTalonSRX implements Sendable {
         return this.motor.getSelectedSensorPosition();
     }
 
+    /**
+     * Updates the dynamic values; the configuration is published once, by
+     * build(), or by publishStatic() after a change.
+     */
     public void updateSmartDashboard() {
-        if (this.isSmartDashboardPutEnabled()) {
-
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/percentOutput",
-                    this.motor.getMotorOutputPercent());
-
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/allowableClosedLoopError",
-                    this.getAllowableClosedLoopError());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/auxPIDPolarity", this.isAuxPIDPolarity());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/canID", this.getCanID());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/closedLoopRampRate",
-                    this.getClosedLoopRampRate());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/currentLimit", this.getCurrentLimit());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/currentLimitEnabled",
-                    this.isCurrentLimitEnabled());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/feedbackNotContinuous",
-                    this.isFeedbackNotContinuous());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/feedbackPort", this.getFeedbackPort());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/forwardSoftLimitEnabled",
-                    this.isForwardSoftLimitEnabled());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/forwardSoftLimitThreshold",
-                    this.getForwardSoftLimitThreshold());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/inverted", this.isInverted());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/invertType", this.getInvertType().toString());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kP", this.getkP());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kI", this.getkI());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kD", this.getkD());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/kF", this.getkF());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionAcceleration",
-                    this.getMotionAcceleration());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionCruiseVelocity",
-                    this.getMotionCruiseVelocity());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionCurveStrength",
-                    this.getMotionCurveStrength());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/motionProfileTrajectoryPeriod",
-                    this.motionProfileTrajectoryPeriod);
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/neutralDeadband", this.getNeutralDeadband());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/neutralDeadband",
-                    (this.getNeutralMode() == NeutralMode.Coast) ? false : true);
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/nominalOutputForward",
-                    this.getNominalOutputForward());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/nominalOutputReverse",
-                    this.getNominalOutputReverse());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/openLoopRampRate", this.getOpenLoopRampRate());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/peakOutputForward", this.getPeakOutputForward());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/peakOutputReverse", this.getPeakOutputReverse());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/reverseSoftLimitEnabled",
-                    this.isReverseSoftLimitEnabled());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/reverseSoftLimitThreshold",
-                    this.getReverseSoftLimitThreshold());
-            SmartDashboard.putBoolean(this.getSmartDashboardPath() + "/sensorPhase", this.isSensorPhase());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/SmartDashboardPath",
-                    this.getSmartDashboardPath());
-
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/statusFrame", this.getStatusFrame());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/statusFrameType",
-                    this.getStatusFrameType().toString());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/timeout", this.getTimeout());
-            SmartDashboard.putString(this.getSmartDashboardPath() + "/velocityMeasurementPeriod",
-                    this.getVelocityMeasurementPeriod().toString());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/velocityMeasurementWindow",
-                    this.getVelocityMeasurementWindow());
-            SmartDashboard.putNumber(this.getSmartDashboardPath() + "/voltageCompensationSaturation",
-                    this.getVoltageCompensationSaturation());
+        if (m_telemetry != null) {
+            m_telemetry.update();
+        }
+    }
 
+    /**
+     * Republishes the configuration values.
+     */
+    public void publishStatic() {
+        if (m_telemetry != null) {
+            m_telemetry.publishStatic();
         }
+    }
 
+    /**
+     * Creates the publishers, once, at build() time.
+     */
+    private void bindTelemetry() {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard")
+                .getSubTable(this.getSmartDashboardPath());
+        m_telemetry = new TelemetryBinding(table, this.getSmartDashboardDecimation());
+        m_telemetry.addDouble("percentOutput", () -> this.motor.getMotorOutputPercent());
+        m_telemetry.addStaticDouble("allowableClosedLoopError", () -> this.getAllowableClosedLoopError());
+        m_telemetry.addStaticBoolean("auxPIDPolarity", () -> this.isAuxPIDPolarity());
+        m_telemetry.addStaticDouble("canID", () -> this.getCanID());
+        m_telemetry.addStaticDouble("closedLoopRampRate", () -> this.getClosedLoopRampRate());
+        m_telemetry.addStaticDouble("currentLimit", () -> this.getCurrentLimit());
+        m_telemetry.addStaticBoolean("currentLimitEnabled", () -> this.isCurrentLimitEnabled());
+        m_telemetry.addStaticDouble("peakCurrentLimit", () -> this.getPeakCurrentLimit());
+        m_telemetry.addStaticDouble("peakCurrentDuration", () -> this.getPeakCurrentDuration());
+        m_telemetry.addStaticBoolean("feedbackNotContinuous", () -> this.isFeedbackNotContinuous());
+        m_telemetry.addStaticDouble("feedbackPort", () -> this.getFeedbackPort());
+        m_telemetry.addStaticBoolean("forwardSoftLimitEnabled", () -> this.isForwardSoftLimitEnabled());
+        m_telemetry.addStaticDouble("forwardSoftLimitThreshold", () -> this.getForwardSoftLimitThreshold());
+        m_telemetry.addStaticBoolean("inverted", () -> this.isInverted());
+        m_telemetry.addStaticString("invertType", () -> String.valueOf(this.getInvertType()));
+        m_telemetry.addStaticDouble("kP", () -> this.getkP());
+        m_telemetry.addStaticDouble("kI", () -> this.getkI());
+        m_telemetry.addStaticDouble("kD", () -> this.getkD());
+        m_telemetry.addStaticDouble("kF", () -> this.getkF());
+        m_telemetry.addStaticDouble("motionAcceleration", () -> this.getMotionAcceleration());
+        m_telemetry.addStaticDouble("motionCruiseVelocity", () -> this.getMotionCruiseVelocity());
+        m_telemetry.addStaticDouble("motionCurveStrength", () -> this.getMotionCurveStrength());
+        m_telemetry.addStaticDouble("motionProfileTrajectoryPeriod", () -> this.motionProfileTrajectoryPeriod);
+        m_telemetry.addStaticDouble("neutralDeadband", () -> this.getNeutralDeadband());
+        m_telemetry.addStaticBoolean("brakeMode", () -> this.getNeutralMode() != NeutralMode.Coast);
+        m_telemetry.addStaticDouble("nominalOutputForward", () -> this.getNominalOutputForward());
+        m_telemetry.addStaticDouble("nominalOutputReverse", () -> this.getNominalOutputReverse());
+        m_telemetry.addStaticDouble("openLoopRampRate", () -> this.getOpenLoopRampRate());
+        m_telemetry.addStaticDouble("peakOutputForward", () -> this.getPeakOutputForward());
+        m_telemetry.addStaticDouble("peakOutputReverse", () -> this.getPeakOutputReverse());
+        m_telemetry.addStaticBoolean("reverseSoftLimitEnabled", () -> this.isReverseSoftLimitEnabled());
+        m_telemetry.addStaticDouble("reverseSoftLimitThreshold", () -> this.getReverseSoftLimitThreshold());
+        m_telemetry.addStaticBoolean("sensorPhase", () -> this.isSensorPhase());
+        m_telemetry.addStaticString("SmartDashboardPath", () -> this.getSmartDashboardPath());
+        m_telemetry.addStaticDouble("statusFrame", () -> this.getStatusFrame());
+        m_telemetry.addStaticString("statusFrameType", () -> String.valueOf(this.getStatusFrameType()));
+        m_telemetry.addStaticDouble("timeout", () -> this.getTimeout());
+        m_telemetry.addStaticString("velocityMeasurementPeriod", () -> String.valueOf(this.getVelocityMeasurementPeriod()));
+        m_telemetry.addStaticDouble("velocityMeasurementWindow", () -> this.getVelocityMeasurementWindow());
+        m_telemetry.addStaticDouble("voltageCompensationSaturation", () -> this.getVoltageCompensationSaturation());
+        m_telemetry.publishStatic();
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -241,6 +250,19 @@ public class FRCTalonSRX implements Sendable {
      */
     private int currentLimit;
 
+    /**
+     * The peak current limit (amps), allowed for peakCurrentDuration before
+     * falling back to currentLimit
+     *
+     * currentLimitEnabled must be set for this to activate
+     */
+    private int peakCurrentLimit;
+
+    /**
+     * How long the peak current is allowed (ms)
+     */
+    private int peakCurrentDuration;
+
     /**
      * The neutral mode of the motor controller
      */
@@ -258,6 +280,16 @@ public class FRCTalonSRX implements Sendable {
      */
     private String smartDashboardPath;
 
+    /**
+     * Publish the dynamic values every this many calls to updateSmartDashboard
+     */
+    private int smartDashboardDecimation;
+
+    /**
+     * The publishers, bound at build() time if smartDashboardPutEnabled
+     */
+    private TelemetryBinding m_telemetry;
+
     /**
      * The ramp rate when controlled in open loop
      */
@@ -358,12 +390,27 @@ public class FRCTalonSRX implements Sendable {
      */
     private boolean feedbackNotContinuous;
 
+    /**
+     * Skip configuration entirely if the device reports the same config hash
+     */
+    private boolean configCache;
+
+    /**
+     * Completes when the persistent settings have been written
+     */
+    private Future<?> m_configured;
+
+    /**
+     * The device custom parameter holding the config hash
+     */
+    private static final int kConfigHashParam = 0;
+
     public void updatePIDController() {
         motor.config_kP(0, this.getkP());
         motor.config_kI(0, this.getkI());
         motor.config_kD(0, this.getkD());
         motor.config_kF(1, this.getkF());
-
+        publishStatic();
     }
 	
 	public int getRawAnalogSensor(){
@@ -372,92 +419,154 @@ public class FRCTalonSRX implements Sendable {
 
     public FRCTalonSRX configure() {
         motor = new WPI_TalonSRX(this.getCanID());
+
         m_sensorCollection = motor.getSensorCollection();
 
-        motor.configFactoryDefault();
+        // these are not persisted by the device, so they're always set, and
+        // they don't block.
         motor.setSafetyEnabled(false);
-
-        if (this.isInverted() || this.isInvertedWithType()) {
-            if (this.useInvertType) motor.setInverted(this.invertType);
-            else  motor.setInverted(this.isInverted());
-            System.out.println("Configuring Inverted");
-        }
-        if (this.isCurrentLimitEnabled()) {
-            motor.enableCurrentLimit(this.isCurrentLimitEnabled());
-            motor.configContinuousCurrentLimit(this.getCurrentLimit());
-            System.out.println("Configuring Current Limit");
-
-        }
-        if (this.isFeedbackNotContinuous()) {
-            motor.configFeedbackNotContinuous(this.isFeedbackNotContinuous(), this.getTimeout());
-            System.out.println("Configuring Feedback Continuity");
-        }
-
-        if (this.isForwardSoftLimitEnabled()) {
-            motor.configForwardSoftLimitEnable(this.isForwardSoftLimitEnabled());
-            motor.configForwardSoftLimitThreshold(this.getForwardSoftLimitThreshold());
-            System.out.println("Configuring forward soft limit");
-        }
-        if (this.getMotionAcceleration() != 0) {
-            motor.configMotionAcceleration(this.getMotionAcceleration());
-            motor.configMotionCruiseVelocity(this.getMotionCruiseVelocity());
-            System.out.println("Configuring acceleration");
-        }
+        motor.selectProfileSlot(0, 0);
+        if (this.useInvertType) motor.setInverted(this.invertType);
+        else motor.setInverted(this.isInverted());
+        motor.enableCurrentLimit(this.isCurrentLimitEnabled());
         if (this.getNeutralMode() != null) {
             motor.setNeutralMode(this.getNeutralMode());
-            System.out.println("Setting Neutral Mode");
         }
-        if (this.getNominalOutputForward() != 0 || this.getNominalOutputReverse() != 0) {
-            motor.configNominalOutputForward(this.getNominalOutputForward());
-            motor.configNominalOutputReverse(this.getNominalOutputReverse());
-            System.out.println("Setting Nominal Output");
-        }
-
-        if (this.getOpenLoopRampRate() != 0) {
-            motor.configOpenloopRamp(this.getOpenLoopRampRate());
-            System.out.println("Setting Open Loop Ramp Rate");
-
+        motor.setSensorPhase(this.isSensorPhase());
+        if (this.getStatusFrame() != 0) {
+            motor.setStatusFramePeriod(this.getStatusFrameType(), this.getStatusFrame());
         }
-
-        if (this.getPeakOutputForward() != 0 || this.getPeakOutputReverse() != 0) {
-            motor.configPeakOutputForward(this.getPeakOutputForward());
-            motor.configPeakOutputReverse(this.getPeakOutputReverse());
-            System.out.println("Setting Peak Output");
+        if (this.master != null) {
+            motor.follow(master.motor);
         }
 
-        if (this.isReverseSoftLimitEnabled()) {
-            motor.configReverseSoftLimitEnable(this.isReverseSoftLimitEnabled());
-            motor.configReverseSoftLimitThreshold(this.getReverseSoftLimitThreshold());
-            System.out.println("setting reverse soft limit enabled");
-        }
-        if (this.isSensorPhase()) {
-            motor.setSensorPhase(this.isSensorPhase());
-            System.out.println("setting sensor phase");
+        MotorConfigurator configurator = MotorConfigurator.getInstance();
+        m_configured = configurator.submit(this.getSmartDashboardPath(),
+                () -> motor.configFactoryDefault(this.getTimeout()) == ErrorCode.OK,
+                configSteps(),
+                this.configCache ? hashStore() : null, null);
+        return this;
+    }
 
+    /**
+     * Blocks until the persistent settings have been written; use this before
+     * issuing other config calls that depend on them.
+     */
+    public void awaitConfigured() {
+        try {
+            m_configured.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("motor configuration error: " + e.getCause());
         }
-        if (this.getStatusFrame() != 0) {
-            motor.setStatusFramePeriod(this.getStatusFrameType(), this.getStatusFrame());
-            System.out.println("Setting Frame Period");
+    }
 
+    /**
+     * The persistent settings we manage; the configurator factory resets the
+     * device first, so everything else is at the default.
+     */
+    private List<ConfigStep> configSteps() {
+        int t = this.getTimeout();
+        List<ConfigStep> steps = new ArrayList<>();
+        // zero leaves the factory default.
+        if (this.isCurrentLimitEnabled() && this.getCurrentLimit() != 0) {
+            steps.add(ConfigStep.ctre("currentLimit", motor, ParamEnum.eContinuousCurrentLimitAmps, 0, t,
+                    this.getCurrentLimit(),
+                    () -> motor.configContinuousCurrentLimit(this.getCurrentLimit(), t)));
         }
-        if (this.getVelocityMeasurementPeriod() != null || this.getVelocityMeasurementWindow() != 0) {
-            motor.configVelocityMeasurementPeriod(this.getVelocityMeasurementPeriod());
-            motor.configVelocityMeasurementWindow(this.getVelocityMeasurementWindow());
-            System.out.println("Setting Velocity Measurement Period");
+        if (this.isCurrentLimitEnabled() && this.getPeakCurrentLimit() != 0) {
+            steps.add(ConfigStep.ctre("peakCurrentLimit", motor, ParamEnum.ePeakCurrentLimitAmps, 0, t,
+                    this.getPeakCurrentLimit(),
+                    () -> motor.configPeakCurrentLimit(this.getPeakCurrentLimit(), t)));
         }
-        if (this.getVoltageCompensationSaturation() != 0) {
-            motor.configVoltageCompSaturation(this.getVoltageCompensationSaturation());
-            System.out.println("Setting Saturation");
-
+        if (this.isCurrentLimitEnabled() && this.getPeakCurrentDuration() != 0) {
+            steps.add(ConfigStep.ctre("peakCurrentDuration", motor, ParamEnum.ePeakCurrentLimitMs, 0, t,
+                    this.getPeakCurrentDuration(),
+                    () -> motor.configPeakCurrentDuration(this.getPeakCurrentDuration(), t)));
         }
-        if (this.getkP() != 0 || this.getkI() != 0 || this.getkD() != 0 || this.getkF() != 0) {
-            updatePIDController();
-            System.out.println("Setting PID Controller");
+        steps.add(ConfigStep.ctre("feedbackNotContinuous", motor, ParamEnum.eFeedbackNotContinuous, 0, t,
+                ConfigStep.flag(this.isFeedbackNotContinuous()),
+                () -> motor.configFeedbackNotContinuous(this.isFeedbackNotContinuous(), t)));
+        steps.add(ConfigStep.ctre("forwardSoftLimitEnable", motor, ParamEnum.eForwardSoftLimitEnable, 0, t,
+                ConfigStep.flag(this.isForwardSoftLimitEnabled()),
+                () -> motor.configForwardSoftLimitEnable(this.isForwardSoftLimitEnabled(), t)));
+        steps.add(ConfigStep.ctre("forwardSoftLimitThreshold", motor, ParamEnum.eForwardSoftLimitThreshold, 0, t,
+                this.getForwardSoftLimitThreshold(),
+                () -> motor.configForwardSoftLimitThreshold(this.getForwardSoftLimitThreshold(), t)));
+        steps.add(ConfigStep.ctre("reverseSoftLimitEnable", motor, ParamEnum.eReverseSoftLimitEnable, 0, t,
+                ConfigStep.flag(this.isReverseSoftLimitEnabled()),
+                () -> motor.configReverseSoftLimitEnable(this.isReverseSoftLimitEnabled(), t)));
+        steps.add(ConfigStep.ctre("reverseSoftLimitThreshold", motor, ParamEnum.eReverseSoftLimitThreshold, 0, t,
+                this.getReverseSoftLimitThreshold(),
+                () -> motor.configReverseSoftLimitThreshold(this.getReverseSoftLimitThreshold(), t)));
+        steps.add(ConfigStep.ctre("motionAcceleration", motor, ParamEnum.eMotMag_Accel, 0, t,
+                this.getMotionAcceleration(),
+                () -> motor.configMotionAcceleration(this.getMotionAcceleration(), t)));
+        steps.add(ConfigStep.ctre("motionCruiseVelocity", motor, ParamEnum.eMotMag_VelCruise, 0, t,
+                this.getMotionCruiseVelocity(),
+                () -> motor.configMotionCruiseVelocity(this.getMotionCruiseVelocity(), t)));
+        steps.add(ConfigStep.ctre("nominalOutputForward", motor, ParamEnum.eNominalPosOutput, 0, t,
+                this.getNominalOutputForward(),
+                () -> motor.configNominalOutputForward(this.getNominalOutputForward(), t)));
+        steps.add(ConfigStep.ctre("nominalOutputReverse", motor, ParamEnum.eNominalNegOutput, 0, t,
+                this.getNominalOutputReverse(),
+                () -> motor.configNominalOutputReverse(this.getNominalOutputReverse(), t)));
+        steps.add(ConfigStep.ctre("openLoopRampRate", motor, ParamEnum.eOpenloopRamp, 0, t,
+                this.getOpenLoopRampRate(),
+                () -> motor.configOpenloopRamp(this.getOpenLoopRampRate(), t)));
+        steps.add(ConfigStep.ctre("peakOutputForward", motor, ParamEnum.ePeakPosOutput, 0, t,
+                this.getPeakOutputForward(),
+                () -> motor.configPeakOutputForward(this.getPeakOutputForward(), t)));
+        steps.add(ConfigStep.ctre("peakOutputReverse", motor, ParamEnum.ePeakNegOutput, 0, t,
+                this.getPeakOutputReverse(),
+                () -> motor.configPeakOutputReverse(this.getPeakOutputReverse(), t)));
+        if (this.getVelocityMeasurementPeriod() != null) {
+            steps.add(ConfigStep.ctre("velocityMeasurementPeriod", motor, ParamEnum.eSampleVelocityPeriod, 0, t,
+                    this.getVelocityMeasurementPeriod().value,
+                    () -> motor.configVelocityMeasurementPeriod(this.getVelocityMeasurementPeriod(), t)));
         }
-        if (this.master != null) {
-            motor.follow(master.motor);
+        steps.add(ConfigStep.ctre("velocityMeasurementWindow", motor, ParamEnum.eSampleVelocityWindow, 0, t,
+                this.getVelocityMeasurementWindow(),
+                () -> motor.configVelocityMeasurementWindow(this.getVelocityMeasurementWindow(), t)));
+        if (this.getVoltageCompensationSaturation() != 0) {
+            steps.add(ConfigStep.ctre("voltageCompensationSaturation", motor, ParamEnum.eNominalBatteryVoltage, 0, t,
+                    this.getVoltageCompensationSaturation(),
+                    () -> motor.configVoltageCompSaturation(this.getVoltageCompensationSaturation(), t)));
         }
-        return this;
+        steps.add(ConfigStep.ctre("kP", motor, ParamEnum.eProfileParamSlot_P, 0, t,
+                this.getkP(), () -> motor.config_kP(0, this.getkP(), t)));
+        steps.add(ConfigStep.ctre("kI", motor, ParamEnum.eProfileParamSlot_I, 0, t,
+                this.getkI(), () -> motor.config_kI(0, this.getkI(), t)));
+        steps.add(ConfigStep.ctre("kD", motor, ParamEnum.eProfileParamSlot_D, 0, t,
+                this.getkD(), () -> motor.config_kD(0, this.getkD(), t)));
+        steps.add(ConfigStep.ctre("kF", motor, ParamEnum.eProfileParamSlot_F, 0, t,
+                this.getkF(), () -> motor.config_kF(0, this.getkF(), t)));
+        return steps;
+    }
+
+    /** The config hash lives in the device's custom parameter, so a swapped device is reconfigured. */
+    private MotorConfigurator.HashStore hashStore() {
+        int t = this.getTimeout();
+        return new MotorConfigurator.HashStore() {
+            @Override
+            public int read() {
+                return motor.configGetCustomParam(kConfigHashParam, t);
+            }
+
+            @Override
+            public void write(int hash) {
+                motor.configSetCustomParam(hash, kConfigHashParam, t);
+            }
+        };
+    }
+
+    public boolean isConfigCache() {
+        return configCache;
+    }
+
+    public void setConfigCache(boolean configCache) {
+        this.configCache = configCache;
     }
 
     public WPI_TalonSRX getMotor() {
@@ -600,6 +709,22 @@ public class FRCTalonSRX implements Sendable {
         this.currentLimit = currentLimit;
     }
 
+    public int getPeakCurrentLimit() {
+        return peakCurrentLimit;
+    }
+
+    public void setPeakCurrentLimit(int peakCurrentLimit) {
+        this.peakCurrentLimit = peakCurrentLimit;
+    }
+
+    public int getPeakCurrentDuration() {
+        return peakCurrentDuration;
+    }
+
+    public void setPeakCurrentDuration(int peakCurrentDuration) {
+        this.peakCurrentDuration = peakCurrentDuration;
+    }
+
     public NeutralMode getNeutralMode() {
         return neutralMode;
     }
@@ -624,6 +749,14 @@ public class FRCTalonSRX implements Sendable {
         this.smartDashboardPath = smartDashboardPath;
     }
 
+    public int getSmartDashboardDecimation() {
+        return smartDashboardDecimation;
+    }
+
+    public void setSmartDashboardDecimation(int smartDashboardDecimation) {
+        this.smartDashboardDecimation = smartDashboardDecimation;
+    }
+
     public double getOpenLoopRampRate() {
         return openLoopRampRate;
     }
@@ -805,9 +938,12 @@ public class FRCTalonSRX implements Sendable {
         private int statusFrame = 0;
         private boolean currentLimitEnabled = false;
         private int currentLimit = 0;
+        private int peakCurrentLimit = 0;
+        private int peakCurrentDuration = 0;
         private NeutralMode neutralMode = NeutralMode.Coast;
         private boolean smartDashboardPutEnabled = false;
         private String smartDashboardPath;
+        private int smartDashboardDecimation = 1;
         private double openLoopRampRate = 0;
         private double closedLoopRampRate = 0;
         private double nominalOutputForward = 0;
@@ -828,6 +964,7 @@ public class FRCTalonSRX implements Sendable {
         private int motionCurveStrength = 0;
         private int motionProfileTrajectoryPeriod = 0;
         private boolean feedbackNotContinuous = false;
+        private boolean configCache = false;
         private FRCTalonSRX master;
 
         public FRCTalonSRXBuilder(int canID) {
@@ -912,6 +1049,16 @@ public class FRCTalonSRX implements Sendable {
             return this;
         }
 
+        public FRCTalonSRXBuilder withPeakCurrentLimit(int peakCurrentLimit) {
+            this.peakCurrentLimit = peakCurrentLimit;
+            return this;
+        }
+
+        public FRCTalonSRXBuilder withPeakCurrentDuration(int peakCurrentDuration) {
+            this.peakCurrentDuration = peakCurrentDuration;
+            return this;
+        }
+
         public FRCTalonSRXBuilder withNeutralMode(NeutralMode neutralMode) {
             this.neutralMode = neutralMode;
             return this;
@@ -927,6 +1074,14 @@ public class FRCTalonSRX implements Sendable {
             return this;
         }
 
+        /**
+         * Publish the dynamic values every this many calls to updateSmartDashboard
+         */
+        public FRCTalonSRXBuilder withSmartDashboardDecimation(int smartDashboardDecimation) {
+            this.smartDashboardDecimation = smartDashboardDecimation;
+            return this;
+        }
+
         public FRCTalonSRXBuilder withOpenLoopRampRate(double openLoopRampRate) {
             this.openLoopRampRate = openLoopRampRate;
             return this;
@@ -1032,6 +1187,15 @@ public class FRCTalonSRX implements Sendable {
             return this;
         }
 
+        /**
+         * Remember a hash of the configuration on the device, and skip
+         * configuration on the next boot if it hasn't changed.
+         */
+        public FRCTalonSRXBuilder withConfigCache(boolean configCache) {
+            this.configCache = configCache;
+            return this;
+        }
+
         public FRCTalonSRX build() {
             FRCTalonSRX fRCTalonSRX = new FRCTalonSRX();
             fRCTalonSRX.setCanID(canID);
@@ -1045,9 +1209,12 @@ public class FRCTalonSRX implements Sendable {
             fRCTalonSRX.setStatusFrame(statusFrame);
             fRCTalonSRX.setCurrentLimitEnabled(currentLimitEnabled);
             fRCTalonSRX.setCurrentLimit(currentLimit);
+            fRCTalonSRX.setPeakCurrentLimit(peakCurrentLimit);
+            fRCTalonSRX.setPeakCurrentDuration(peakCurrentDuration);
             fRCTalonSRX.setNeutralMode(neutralMode);
             fRCTalonSRX.setSmartDashboardPutEnabled(smartDashboardPutEnabled);
             fRCTalonSRX.setSmartDashboardPath(smartDashboardPath);
+            fRCTalonSRX.setSmartDashboardDecimation(smartDashboardDecimation);
             fRCTalonSRX.setOpenLoopRampRate(openLoopRampRate);
             fRCTalonSRX.setClosedLoopRampRate(closedLoopRampRate);
             fRCTalonSRX.setNominalOutputForward(nominalOutputForward);
@@ -1069,11 +1236,16 @@ public class FRCTalonSRX implements Sendable {
             fRCTalonSRX.setMotionProfileTrajectoryPeriod(motionProfileTrajectoryPeriod);
             fRCTalonSRX.setFeedbackNotContinuous(feedbackNotContinuous);
             fRCTalonSRX.setMaster(master);
+            fRCTalonSRX.setConfigCache(configCache);
             fRCTalonSRX.kF = this.kF;
             fRCTalonSRX.kD = this.kD;
             fRCTalonSRX.kI = this.kI;
             fRCTalonSRX.kP = this.kP;
-            return fRCTalonSRX.configure();
+            fRCTalonSRX.configure();
+            if (smartDashboardPutEnabled) {
+                fRCTalonSRX.bindTelemetry();
+            }
+            return fRCTalonSRX;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package frc.robot.FRCLib.Motors;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Configures motor controllers in parallel at startup.
+ *
+ * Each device is one job, run on a small worker pool so that the blocking
+ * config calls for different devices overlap on the CAN bus. Within a job the
+ * device is factory reset, so settings we don't manage don't carry over from
+ * whatever ran last, then the steps run in order, and each step is written
+ * only if the device doesn't already hold the desired value.
+ *
+ * A device may also supply a {@link HashStore}: if the stored hash matches the
+ * hash of the desired configuration, the device is skipped entirely, reset
+ * included, which makes a redeploy with unchanged settings nearly free.
+ *
+ * A hash kept in a file, for devices that can't store one, e.g. the Spark,
+ * belongs to the CAN ID, not the device, so a replacement on the same ID
+ * would match it while sitting at factory settings. For those, a match only
+ * skips the reset: the steps the device can report are checked, and any
+ * mismatch means a full configuration, and the ones it can't, e.g. the
+ * Spark's current limits, are written anyway.
+ *
+ * Call {@link #awaitAll()} once all the devices have been built, e.g. at the
+ * end of robotInit.
+ */
+public final class MotorConfigurator {
+    /** Where a device remembers the hash of its last successful configuration. */
+    public interface HashStore {
+        /** Returns the stored hash, or 0 if there isn't one. */
+        int read();
+
+        void write(int hash);
+
+        /** False if the hash can outlive the device, e.g. in a file. */
+        default boolean isOnDevice() {
+            return true;
+        }
+    }
+
+    private static final int kThreads = 4;
+    /** Mixed into the hash; bump it to put every device through a full configuration once. */
+    private static final int kHashVersion = 2;
+    private static final String kHashFile = "motor-config.properties";
+
+    private static MotorConfigurator instance;
+
+    private final ExecutorService m_executor;
+    private final List<Future<?>> m_pending = new ArrayList<>();
+    private final Properties m_fileHashes = new Properties();
+    private final File m_hashFile;
+    private final AtomicInteger m_written = new AtomicInteger();
+    private final AtomicInteger m_matched = new AtomicInteger();
+    private final AtomicInteger m_skipped = new AtomicInteger();
+    private final AtomicInteger m_failed = new AtomicInteger();
+    private boolean m_fileHashesDirty;
+    private long m_startNs;
+
+    public static synchronized MotorConfigurator getInstance() {
+        if (instance == null) {
+            instance = new MotorConfigurator();
+        }
+        return instance;
+    }
+
+    private MotorConfigurator() {
+        m_executor = Executors.newFixedThreadPool(kThreads, r -> {
+            Thread t = new Thread(r, "MotorConfigurator");
+            t.setDaemon(true);
+            return t;
+        });
+        m_hashFile = new File(Filesystem.getOperatingDirectory(), kHashFile);
+        try (InputStream in = new FileInputStream(m_hashFile)) {
+            m_fileHashes.load(in);
+        } catch (IOException e) {
+            // no cache yet, every device is configured.
+        }
+    }
+
+    /**
+     * Queues the configuration of one device.
+     *
+     * @param key     unique device name, e.g. "TalonFX_11"
+     * @param reset   factory reset, run before the steps unless the hash matches
+     * @param steps   persistent settings, written in order
+     * @param store   hash store, or null to reset and diff every time
+     * @param persist run after the device is reset, e.g. burnFlash, or null
+     * @return completes when the device is configured
+     */
+    public synchronized Future<?> submit(
+            String key,
+            ConfigStep.Writer reset,
+            List<ConfigStep> steps,
+            HashStore store,
+            Runnable persist) {
+        if (m_pending.isEmpty()) {
+            m_startNs = System.nanoTime();
+        }
+        Future<?> f = m_executor.submit(() -> configure(key, reset, steps, store, persist));
+        m_pending.add(f);
+        return f;
+    }
+
+    /**
+     * A hash store kept in a file in the operating directory, for devices that
+     * can't store it themselves. Written out by {@link #awaitAll()}.
+     */
+    public HashStore fileStore(String key) {
+        return new HashStore() {
+            @Override
+            public int read() {
+                String s = m_fileHashes.getProperty(key);
+                if (s == null)
+                    return 0;
+                try {
+                    return Integer.parseUnsignedInt(s, 16);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+
+            @Override
+            public void write(int hash) {
+                m_fileHashes.setProperty(key, Integer.toHexString(hash));
+                synchronized (MotorConfigurator.this) {
+                    m_fileHashesDirty = true;
+                }
+            }
+
+            @Override
+            public boolean isOnDevice() {
+                return false;
+            }
+        };
+    }
+
+    /** Blocks until every submitted device is configured, then reports. */
+    public void awaitAll() {
+        List<Future<?>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(m_pending);
+            m_pending.clear();
+        }
+        if (pending.isEmpty())
+            return;
+        for (Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.out.println("motor configuration error: " + e.getCause());
+            }
+        }
+        saveFileHashes();
+        System.out.printf("Motor config: %d devices in %d ms, %d written, %d matched, %d skipped, %d failed\n",
+                pending.size(),
+                (System.nanoTime() - m_startNs) / 1000000,
+                m_written.get(), m_matched.get(), m_skipped.get(), m_failed.get());
+    }
+
+    /** Hash of the desired settings, never zero so zero can mean "none stored". */
+    static int hash(String key, List<ConfigStep> steps) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        h = fnv(h, kHashVersion);
+        h = fnv(h, key.hashCode());
+        for (ConfigStep step : steps) {
+            h = fnv(h, step.getName().hashCode());
+            long bits = Double.doubleToLongBits(step.getDesired());
+            h = fnv(h, (int) bits);
+            h = fnv(h, (int) (bits >>> 32));
+        }
+        int result = (int) (h ^ (h >>> 32));
+        return result == 0 ? 1 : result;
+    }
+
+    private static long fnv(long h, int v) {
+        for (int i = 0; i < 4; ++i) {
+            h ^= (v >>> (8 * i)) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private void configure(String key, ConfigStep.Writer reset, List<ConfigStep> steps, HashStore store,
+            Runnable persist) {
+        int hash = hash(key, steps);
+        if (store != null && store.read() == hash) {
+            if (store.isOnDevice() || verify(steps)) {
+                m_skipped.incrementAndGet();
+                return;
+            }
+            System.out.printf("motor configuration: %s doesn't match its stored hash, replaced?\n", key);
+        }
+        // the steps only cover what we set, so start from the defaults.
+        if (!(reset.write() || reset.write())) {
+            m_failed.incrementAndGet();
+            System.out.printf("motor configuration error: %s factory reset\n", key);
+            return;
+        }
+        int written = 0;
+        int failed = 0;
+        for (ConfigStep step : steps) {
+            if (step.matchesDevice()) {
+                m_matched.incrementAndGet();
+                continue;
+            }
+            // one retry, the bus is busy at startup.
+            if (step.write() || step.write()) {
+                written++;
+            } else {
+                failed++;
+                System.out.printf("motor configuration error: %s %s\n", key, step.getName());
+            }
+        }
+        m_written.addAndGet(written);
+        m_failed.addAndGet(failed);
+        if (failed > 0)
+            return;
+        // the reset changed the device even if no step did.
+        if (persist != null)
+            persist.run();
+        if (store != null)
+            store.write(hash);
+    }
+
+    /**
+     * For a hash from a file: true if the device holds every value it can
+     * report; then the ones it can't are written. False means configure it
+     * from scratch.
+     */
+    private boolean verify(List<ConfigStep> steps) {
+        for (ConfigStep step : steps) {
+            if (step.canRead() && !step.matchesDevice())
+                return false;
+        }
+        int written = 0;
+        for (ConfigStep step : steps) {
+            if (step.canRead())
+                continue;
+            if (!(step.write() || step.write()))
+                return false;
+            written++;
+        }
+        m_written.addAndGet(written);
+        return true;
+    }
+
+    private synchronized void saveFileHashes() {
+        if (!m_fileHashesDirty)
+            return;
+        try (OutputStream out = new FileOutputStream(m_hashFile)) {
+            m_fileHashes.store(out, "motor config hashes, delete to force full configuration");
+            m_fileHashesDirty = false;
+        } catch (IOException e) {
+            System.out.println("could not save motor config hashes: " + e.getMessage());
+        }
+    }
+}
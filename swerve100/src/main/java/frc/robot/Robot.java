@@ -4,14 +4,25 @@ import java.io.IOException;
 
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.util.WPILibVersion;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.FRCLib.Motors.MotorConfigurator;
+import frc.robot.subsystems.Arm.ArmTrajectoryLibrary;
 import team100.config.Identity;
+import team100.sensors.TiltEstimator;
+import team100.telemetry.GainTuner;
+import team100.telemetry.LoopProfiler;
+import team100.telemetry.TelemetryScheduler;
+import team100.trajectory.TrajectoryLibrary;
 
 public class Robot extends TimedRobot {
+    /** Time the command scheduler, see LoopProfiler. */
+    private static final boolean kProfileLoop = false;
+
     private Command m_autonomousCommand;
     UsbCamera manipulatorCamera;
 
@@ -19,9 +30,15 @@ public class Robot extends TimedRobot {
 
     @Override
     public void robotInit() {
+        // the data log is for our own entries, e.g. GainTuner's, not all of
+        // NetworkTables, which would be most of it.
+        DataLogManager.logNetworkTables(false);
+        DataLogManager.start();
         System.out.printf("WPILib Version: %s\n", WPILibVersion.Version); // 2023.2.1
         System.out.printf("RoboRIO serial number: %s\n", RobotController.getSerialNumber());
         System.out.printf("Identity: %s\n", Identity.get().name());
+        TrajectoryLibrary.getInstance().preloadAll();
+        ArmTrajectoryLibrary.getInstance().preload();
 
         manipulatorCamera = CameraServer.startAutomaticCapture(0);
         manipulatorCamera.setResolution(240, 160);
@@ -31,18 +48,27 @@ public class Robot extends TimedRobot {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        // pitch rate for balancing, fresher than the main loop.
+        addPeriodic(m_robotContainer::sampleTilt, TiltEstimator.kPeriodS);
+        MotorConfigurator.getInstance().awaitAll();
+        if (kProfileLoop)
+            LoopProfiler.getInstance().enable();
     }
 
     @Override
     public void robotPeriodic() {
+        LoopProfiler.getInstance().beginCycle();
+        // edits from the dashboard take effect before anything runs.
+        GainTuner.getInstance().apply();
         CommandScheduler.getInstance().run();
+        LoopProfiler.getInstance().endCycle();
+        TelemetryScheduler.getInstance().run();
     }
 
     @Override
     public void disabledInit() {
+        LoopProfiler.getInstance().dump();
         // m_robotContainer.ledStop();
-        m_robotContainer.ledStart();
-
     }
 
     @Override
@@ -65,7 +91,6 @@ public class Robot extends TimedRobot {
     @Override
     public void teleopInit() {
         System.out.println("teleopInit");
-        // m_robotContainer.ledStart();
         if (m_autonomousCommand != null) {
             m_autonomousCommand.cancel();
         }
@@ -35,7 +35,6 @@ import frc.robot.commands.DriveSlow;
 import frc.robot.commands.DriveWithHeading;
 import frc.robot.commands.ResetPose;
 import frc.robot.commands.ResetRotation;
-import frc.robot.commands.AutoLevel;
 import frc.robot.commands.Arm.ArmTrajectory;
 import frc.robot.commands.Arm.DriveToSetpoint;
 import frc.robot.commands.Arm.ManualArm;
@@ -51,10 +50,15 @@ import frc.robot.subsystems.Manipulator;
 import frc.robot.subsystems.SwerveDriveSubsystem;
 import frc.robot.subsystems.Arm.ArmController;
 import frc.robot.subsystems.Arm.ArmPosition;
+import team100.commands.AutoBalance;
 import team100.commands.Defense;
 import team100.commands.DriveManually;
 import team100.commands.GripManually;
 import team100.control.DualXboxControl;
+import team100.indicator.IndicatorSubsystem;
+import team100.indicator.LedCompositor.Face;
+import team100.indicator.LedCompositor.Zone;
+import team100.sensors.TiltEstimator;
 
 @SuppressWarnings("unused")
 public class RobotContainer implements Sendable {
@@ -68,12 +72,14 @@ public class RobotContainer implements Sendable {
     private final Manipulator manipulator;
     private final ArmController armController;
     private final AHRSClass ahrsclass;
+    private final TiltEstimator tilt;
+    private final IndicatorSubsystem indicator;
 
     // CONTROL
     private final DualXboxControl control;
 
     // COMMANDS
-    private final AutoLevel autoLevel;
+    private final AutoBalance autoBalance;
     private final DriveManually driveManually;
     private final GripManually gripManually;
     private final ManualArm manualArm;
@@ -112,7 +118,12 @@ public class RobotContainer implements Sendable {
     public RobotContainer() throws IOException {
         // THIS IS FROM BOB'S DELETED CODE
         final double kDriveCurrentLimit = 40;
+        final double kApproachPrecomputeRangeM = 1.5;
+        final int kLedPort = 4;
+        final int kLedLength = 60;
+        final int kLedDecimation = 3;
         ahrsclass = new AHRSClass();
+        tilt = new TiltEstimator(ahrsclass::getRedundantPitch);
         manipulator = new Manipulator();
         armController = new ArmController();
 
@@ -124,6 +135,16 @@ public class RobotContainer implements Sendable {
 
         m_robotDrive = new SwerveDriveSubsystem(m_alliance, kDriveCurrentLimit, ahrsclass);
 
+        // one 60-LED strip, half facing each way; render at about 17 Hz.
+        indicator = new IndicatorSubsystem(kLedPort, kLedLength, kLedDecimation,
+                m_robotDrive::getRadians,
+                m_robotDrive.visionDataProvider::hasFix,
+                () -> !armController.cubeMode,
+                new Zone(0, kLedLength / 2, Face.FRONT),
+                new Zone(kLedLength / 2, kLedLength, Face.BACK));
+
+        // DriveToPose, which replans every cycle, can take over the grids once
+        // it's been run on the robot; HolonomicProfileTest compares them in sim.
         if (m_alliance == DriverStation.Alliance.Blue) {
             // driveToLeftGrid = DriveToAprilTag.newDriveToAprilTag(6, 0.95, .55, control::goalOffset, m_robotDrive, ahrsclass);
             driveToLeftGrid = DriveToAprilTag.newDriveToAprilTag(6, 1.5, 0, control::goalOffset, m_robotDrive,  ahrsclass);
@@ -137,6 +158,10 @@ public class RobotContainer implements Sendable {
             driveToRightGrid = DriveToAprilTag.newDriveToAprilTag(3, 0.95, .55, control::goalOffset, m_robotDrive, ahrsclass);
             driveToSubstation = DriveToAprilTag.newDriveToAprilTag(5, 0.53, -0.749, control::goalOffset, m_robotDrive, ahrsclass);
         }
+        // plan the scoring approaches in the background, see TrajectoryCache.
+        driveToLeftGrid.precompute(kApproachPrecomputeRangeM);
+        driveToCenterGrid.precompute(kApproachPrecomputeRangeM);
+        driveToRightGrid.precompute(kApproachPrecomputeRangeM);
 
         
         armHigh = new ArmTrajectory(ArmPosition.HIGH, armController);
@@ -146,7 +171,7 @@ public class RobotContainer implements Sendable {
         armSubstation = new ArmTrajectory(ArmPosition.SUB, armController);
 
         ResetRotation resetRotation = new ResetRotation(m_robotDrive, new Rotation2d());
-        autoLevel = new AutoLevel(false, m_robotDrive, ahrsclass);
+        autoBalance = new AutoBalance(false, m_robotDrive, tilt);
 
         ResetPose resetPose = new ResetPose(m_robotDrive, 0, 0, 0);
 
@@ -189,7 +214,8 @@ public class RobotContainer implements Sendable {
 
         armSafeBack = new ArmTrajectory(ArmPosition.SAFEBACK, armController);
 
-        // control.autoLevel(autoLevel);
+        // unbound until AutoBalance's signs are checked on the robot.
+        // control.autoBalance(autoBalance);
         control.driveToLeftGrid(driveToLeftGrid);
         control.driveToCenterGrid(driveToCenterGrid);
         control.driveToRightGrid(driveToRightGrid);
@@ -255,6 +281,11 @@ public class RobotContainer implements Sendable {
 
     
 
+    /** Faster than the main loop, see Robot. */
+    public void sampleTilt() {
+        tilt.sample();
+    }
+
     public Command getAutonomousCommand2() {
         // return new SequentialCommandGroup(
         // new IshanAutonomous(m_robotDrive),
@@ -309,11 +340,7 @@ public class RobotContainer implements Sendable {
 
     }
 
-    public void ledStart(){
-        m_robotDrive.visionDataProvider.indicator.orange();
-    }
-
     public void ledStop(){
-        m_robotDrive.visionDataProvider.indicator.close();
+        indicator.close();
     }
 }
@@ -43,7 +43,7 @@ public class Circle extends CommandBase {
             m_robotDrive.thetaController,
             () -> new Rotation2d(),
             m_robotDrive::setModuleStates,
-            m_gyro,
+            m_robotDrive.getChassisSpeedFactory(),
             m_robotDrive);
 
         CommandScheduler.getInstance().schedule(s);
@@ -1,6 +1,5 @@
 package frc.robot.autonomous;
 
-import java.util.List;
 import java.util.function.Supplier;
 
 import edu.wpi.first.math.controller.PIDController;
@@ -11,8 +10,6 @@ import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGenerationException;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
@@ -21,6 +18,8 @@ import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.commands.GoalOffset;
 import frc.robot.subsystems.AHRSClass;
 import frc.robot.subsystems.SwerveDriveSubsystem;
+import team100.trajectory.AsyncTrajectory;
+import team100.trajectory.TrajectoryCache;
 
 /**
  * This is a simpler way to drive to a waypoint. It's just like
@@ -55,14 +54,11 @@ public class DriveToWaypoint2 extends CommandBase {
     // DoublePublisher holonomicYMeasurment = inst.getTable("Drive To Waypoint").getDoubleTopic("Holonomic Y Measurment").publish();
     // DoublePublisher holonomicXMeasurment= inst.getTable("Drive To Waypoint").getDoubleTopic("Holonomic X Measurment").publish();
 
-    private final Timer m_timer = new Timer();
-
     private final SwerveDriveSubsystem m_swerve;
     private final Pose2d goal;
     private final Supplier<GoalOffset> goalOffsetSupplier;
     private final double m_yOffset;
     private GoalOffset previousOffset;
-    private Transform2d goalTransform;
 
     private final TrajectoryConfig translationConfig;
     private final ProfiledPIDController m_rotationController;
@@ -72,7 +68,7 @@ public class DriveToWaypoint2 extends CommandBase {
 
     // private Translation2d globalGoalTranslation;
 
-    private Trajectory m_trajectory;
+    private final AsyncTrajectory m_trajectory = new AsyncTrajectory();
     private boolean isFinished = false;
 
     int count = 0;
@@ -102,12 +98,10 @@ public class DriveToWaypoint2 extends CommandBase {
         yController = new PIDController(0.7, 0, 0);
         yController.setIntegratorRange(-0.3, 0.3);
         // yController.setTolerance(0.05);
-        m_controller = new HolonomicDriveController2(xController, yController, m_rotationController, m_gyro);
+        m_controller = new HolonomicDriveController2(xController, yController, m_rotationController,
+                m_swerve.getChassisSpeedFactory());
         
-        translationConfig = new TrajectoryConfig(
-                5, // velocity m/s
-                2 // accel m/s/s
-        ).setKinematics(SwerveDriveSubsystem.kDriveKinematics);
+        translationConfig = config(0);
 
         // globalGoalTranslation = new Translation2d();
 
@@ -117,40 +111,52 @@ public class DriveToWaypoint2 extends CommandBase {
 
     }
 
-    private Trajectory makeTrajectory(GoalOffset goalOffset, double startVelocity) {
-        Pose2d currentPose = m_swerve.getPose();
-        Translation2d currentTranslation = currentPose.getTranslation();
-        goalTransform = new Transform2d();
+    private static TrajectoryConfig config(double startVelocity) {
+        return new TrajectoryConfig(
+                5, // velocity m/s
+                2 // accel m/s/s
+        ).setKinematics(SwerveDriveSubsystem.kPlannerKinematics)
+                .setStartVelocity(startVelocity);
+    }
+
+    /**
+     * Plans in the background, from the TrajectoryCache if possible.
+     * 
+     * @param from the state of the plan being followed, to carry on at its
+     *             speed and course, or null to start standing.
+     */
+    private void requestTrajectory(GoalOffset goalOffset, Trajectory.State from) {
+        Translation2d currentTranslation = m_swerve.getPose().getTranslation();
+        Translation2d goalTranslation = goalFor(goalOffset).getTranslation();
+        double startVelocity = from == null ? 0 : from.velocityMetersPerSecond;
+        Rotation2d course = startVelocity == 0 ? null : from.poseMeters.getRotation();
+        Rotation2d heading = course == null ? goalTranslation.minus(currentTranslation).getAngle() : course;
+        m_trajectory.request(
+                new Pose2d(currentTranslation, heading),
+                TrajectoryCache.getInstance().plan(currentTranslation, course, goalTranslation,
+                        startVelocity == 0 ? translationConfig : config(startVelocity)),
+                Timer.getFPGATimestamp());
+    }
+
+    private Pose2d goalFor(GoalOffset goalOffset) {
+        Transform2d goalTransform = new Transform2d();
         // TODO: Change based on task
         if (goalOffset == GoalOffset.left) {
-
             goalTransform = new Transform2d(new Translation2d(0, -m_yOffset), new Rotation2d());
-            System.out.println("lalallalalalalalalalalalalallalalalala");
         }
         if (goalOffset == GoalOffset.right) {
             goalTransform = new Transform2d(new Translation2d(0, m_yOffset), new Rotation2d());
-            System.out.println("fffffffffffffffffffffffffffffffffffffffffffff");
         }
-        Pose2d transformedGoal = goal.plus(goalTransform);
-        System.out.println(goalOffset);
-        Translation2d goalTranslation = transformedGoal.getTranslation();
-        Translation2d translationToGoal = goalTranslation.minus(currentTranslation);
-        Rotation2d angleToGoal = translationToGoal.getAngle();
-        TrajectoryConfig withStartVelocityConfig = new TrajectoryConfig(5, 2)
-                .setKinematics(SwerveDriveSubsystem.kDriveKinematics);
-        withStartVelocityConfig.setStartVelocity(startVelocity);
-
-        // globalGoalTranslation = goalTranslation;
-        // TODO: Change starting waypoint to align with starting velocity
-        try {
-            return TrajectoryGenerator.generateTrajectory(
-                    new Pose2d(currentTranslation, angleToGoal),
-                    List.of(),
-                    new Pose2d(goalTranslation, angleToGoal),
-                    translationConfig);
-        } catch (TrajectoryGenerationException e) {
-            isFinished = true;
-            return null;
+        return goal.plus(goalTransform);
+    }
+
+    /**
+     * Plans approaches to every offset of the goal from nearby, in the
+     * background, so that scheduling this command finds them cached.
+     */
+    public void precompute(double rangeM) {
+        for (GoalOffset offset : GoalOffset.values()) {
+            TrajectoryCache.getInstance().precompute(goalFor(offset).getTranslation(), translationConfig, rangeM);
         }
     }
 
@@ -160,10 +166,9 @@ public class DriveToWaypoint2 extends CommandBase {
         // System.out.println("START TO WAYPOINT*************************" +
         // this.desiredX);
         isFinished = false;
-        m_timer.restart();
-        // m_timer.start();
         count = 0;
-        m_trajectory = makeTrajectory(previousOffset, 0);
+        m_trajectory.clear();
+        requestTrajectory(previousOffset, null);
     }
 
     @Override
@@ -174,25 +179,22 @@ public class DriveToWaypoint2 extends CommandBase {
     @Override
     public void end(boolean interrupted) {
         // System.out.println("END");
-        m_timer.stop();
+        m_trajectory.clear();
 
     }
 
     public void execute() {
-        if (m_trajectory == null) {
+        if (m_trajectory.isFailed()) {
+            isFinished = true;
             return;
         }
+        double now = Timer.getFPGATimestamp();
+        // follows the previous plan (or holds position) until the new one is ready
+        Trajectory.State desiredState = m_trajectory.sample(now);
         if (goalOffsetSupplier.get() != previousOffset) {
-            m_trajectory = makeTrajectory(goalOffsetSupplier.get(),
-                    m_trajectory.sample(m_timer.get()).velocityMetersPerSecond);
+            requestTrajectory(goalOffsetSupplier.get(), desiredState);
             previousOffset = goalOffsetSupplier.get();
-            m_timer.restart();
-        }
-        if (m_trajectory == null) {
-            return;
         }
-        double curTime = m_timer.get();
-        var desiredState = m_trajectory.sample(curTime);
 
         this.desiredX = desiredState.poseMeters.getX();
 
@@ -200,7 +202,6 @@ public class DriveToWaypoint2 extends CommandBase {
 
         // System.out.println("*****************"+goal);
         var targetChassisSpeeds = m_controller.calculate(m_swerve.getPose(), desiredState, goal.getRotation());
-        var targetModuleStates = SwerveDriveSubsystem.kDriveKinematics.toSwerveModuleStates(targetChassisSpeeds);
 
         desiredXPublisher.set(desiredX);
         desiredYPublisher.set(desiredY);
@@ -217,7 +218,7 @@ public class DriveToWaypoint2 extends CommandBase {
         // holonomicXSetpoint.set(m_controller.getSetpoint());
 
 
-        m_swerve.setModuleStates(targetModuleStates);
+        m_swerve.setChassisSpeeds(targetChassisSpeeds);
 
         // if( Math.abs(globalGoalTranslation.getX() - m_swerve.getPose().getX()) < 0.15
         // && Math.abs(globalGoalTranslation.getY() - m_swerve.getPose().getY()) < 0.15
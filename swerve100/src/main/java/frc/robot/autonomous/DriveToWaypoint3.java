@@ -10,8 +10,6 @@ import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGenerationException;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
@@ -20,6 +18,7 @@ import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.commands.GoalOffset;
 import frc.robot.subsystems.AHRSClass;
 import frc.robot.subsystems.SwerveDriveSubsystem;
+import team100.trajectory.AsyncTrajectory;
 
 /**
  * This is a simpler way to drive to a waypoint. It's just like
@@ -42,8 +41,6 @@ public class DriveToWaypoint3 extends CommandBase {
     DoublePublisher poseXPublisher = inst.getTable("Drive To Waypoint").getDoubleTopic("Pose X PUB").publish();
     DoublePublisher poseYPublisher = inst.getTable("Drive To Waypoint").getDoubleTopic("Pose Y PUB").publish();
 
-    private final Timer m_timer = new Timer();
-
     private final SwerveDriveSubsystem m_swerve;
     private final Pose2d goal;
     private final double m_yOffset;
@@ -58,7 +55,7 @@ public class DriveToWaypoint3 extends CommandBase {
     private final PIDController yController;
     private final HolonomicDriveController2 m_controller;
 
-    private Trajectory m_trajectory;
+    private final AsyncTrajectory m_trajectory = new AsyncTrajectory();
     private boolean isFinished = false;
 
     int count = 0;
@@ -83,12 +80,13 @@ public class DriveToWaypoint3 extends CommandBase {
         yController = new PIDController(1.1, 1, 0);
         yController.setIntegratorRange(-0.6, 0.5);
         // yController.setTolerance(0.05);
-        m_controller = new HolonomicDriveController2(xController, yController, m_rotationController, m_gyro);
+        m_controller = new HolonomicDriveController2(xController, yController, m_rotationController,
+                m_swerve.getChassisSpeedFactory());
         
         translationConfig = new TrajectoryConfig(
                 5, // velocity m/s
                 1.25 // accel m/s/s
-        ).setKinematics(SwerveDriveSubsystem.kDriveKinematics);
+        ).setKinematics(SwerveDriveSubsystem.kPlannerKinematics);
 
         globalGoalTranslation = new Translation2d();
 
@@ -98,7 +96,8 @@ public class DriveToWaypoint3 extends CommandBase {
 
     }
 
-    private Trajectory makeTrajectory(GoalOffset goalOffset, double startVelocity) {
+    /** Plans in the background, see AsyncTrajectory. */
+    private void requestTrajectory(GoalOffset goalOffset, double startVelocity) {
         Pose2d currentPose = m_swerve.getPose();
         Translation2d currentTranslation = currentPose.getTranslation();
         goalTransform = new Transform2d();
@@ -116,24 +115,20 @@ public class DriveToWaypoint3 extends CommandBase {
 
         globalGoalTranslation = goalTranslation;
         // TODO: Change starting waypoint to align with starting velocity
-        try {
-            return TrajectoryGenerator.generateTrajectory(
-                    new Pose2d(currentTranslation, angleToGoal),
-                    List.of(),
-                    new Pose2d(goalTranslation, angleToGoal),
-                    translationConfig);
-        } catch (TrajectoryGenerationException e) {
-            isFinished = true;
-            return null;
-        }
+        m_trajectory.request(
+                new Pose2d(currentTranslation, angleToGoal),
+                List.of(),
+                new Pose2d(goalTranslation, angleToGoal),
+                translationConfig,
+                Timer.getFPGATimestamp());
     }
 
     @Override
     public void initialize() {
         isFinished = false;
-        m_timer.restart();
         count = 0;
-        m_trajectory = makeTrajectory(previousOffset, 0);
+        m_trajectory.clear();
+        requestTrajectory(previousOffset, 0);
     }
 
     @Override
@@ -152,20 +147,16 @@ public class DriveToWaypoint3 extends CommandBase {
 
         m_swerve.m_rearRight.setOutput(0, 0);
 
-        m_timer.stop();
-
+        m_trajectory.clear();
     }
 
     public void execute() {
-        if (m_trajectory == null) {
-            return;
-        }
-        
-        if (m_trajectory == null) {
+        if (m_trajectory.isFailed()) {
+            isFinished = true;
             return;
         }
-        double curTime = m_timer.get();
-        var desiredState = m_trajectory.sample(curTime);
+        // holds position until the first plan is ready
+        Trajectory.State desiredState = m_trajectory.sample(Timer.getFPGATimestamp());
 
         this.desiredX = desiredState.poseMeters.getX();
 
@@ -173,14 +164,13 @@ public class DriveToWaypoint3 extends CommandBase {
 
         // System.out.println("*****************"+goal);
         var targetChassisSpeeds = m_controller.calculate(m_swerve.getPose(), desiredState, goal.getRotation());
-        var targetModuleStates = SwerveDriveSubsystem.kDriveKinematics.toSwerveModuleStates(targetChassisSpeeds);
 
         desiredXPublisher.set(desiredX);
         desiredYPublisher.set(desiredY);
         poseXPublisher.set(m_swerve.getPose().getX());
         poseYPublisher.set(m_swerve.getPose().getY());
 
-        m_swerve.setModuleStates(targetModuleStates);
+        m_swerve.setChassisSpeeds(targetChassisSpeeds);
 
         if( Math.abs(globalGoalTranslation.getX() - m_swerve.getPose().getX()) < 0.15
         && Math.abs(globalGoalTranslation.getY() - m_swerve.getPose().getY()) < 0.15
@@ -4,6 +4,7 @@
 
 package frc.robot.autonomous;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -13,7 +14,9 @@ import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import frc.robot.subsystems.AHRSClass;
+import team100.geometry.MutableChassisSpeeds;
+import team100.kinematics.ChassisSpeedFactory;
+import team100.trajectory.TrajectorySampler;
 
 /**
  * This holonomic drive controller can be used to follow trajectories using a holonomic drivetrain
@@ -27,11 +30,14 @@ import frc.robot.subsystems.AHRSClass;
  * point toward. This heading reference is profiled for smoothness.
  */
 public class HolonomicDriveController2 {
-  private Pose2d m_poseError = new Pose2d();
-  private Rotation2d m_rotationError = new Rotation2d();
+  // Pose error in the robot frame, and heading error, from the last calculate().
+  private double m_errorX;
+  private double m_errorY;
+  private double m_errorTheta;
   private Pose2d m_poseTolerance = new Pose2d();
   private boolean m_enabled = true;
-  private final AHRSClass m_gyro;
+  private final ChassisSpeedFactory m_chassisSpeeds;
+  private final MutableChassisSpeeds m_output = new MutableChassisSpeeds();
 
   private final PIDController m_xController;
   private final PIDController m_yController;
@@ -54,10 +60,12 @@ public class HolonomicDriveController2 {
    * @param xController A PID Controller to respond to error in the field-relative x direction.
    * @param yController A PID Controller to respond to error in the field-relative y direction.
    * @param thetaController A profiled PID controller to respond to error in angle.
+   * @param chassisSpeeds The drive's, for lag correction and discretization.
    */
   public HolonomicDriveController2(
-      PIDController xController, PIDController yController, ProfiledPIDController thetaController, AHRSClass gyro) {
-    m_gyro = gyro;
+      PIDController xController, PIDController yController, ProfiledPIDController thetaController,
+      ChassisSpeedFactory chassisSpeeds) {
+    m_chassisSpeeds = chassisSpeeds;
     m_xController = xController;
     m_yController = yController;
     m_thetaController = thetaController;
@@ -70,13 +78,11 @@ public class HolonomicDriveController2 {
    * @return True if the pose error is within tolerance of the reference.
    */
   public boolean atReference() {
-    final var eTranslate = m_poseError.getTranslation();
-    final var eRotate = m_rotationError;
     final var tolTranslate = m_poseTolerance.getTranslation();
     final var tolRotate = m_poseTolerance.getRotation();
-    return Math.abs(eTranslate.getX()) < tolTranslate.getX()
-        && Math.abs(eTranslate.getY()) < tolTranslate.getY()
-        && Math.abs(eRotate.getRadians()) < tolRotate.getRadians();
+    return Math.abs(m_errorX) < tolTranslate.getX()
+        && Math.abs(m_errorY) < tolTranslate.getY()
+        && Math.abs(m_errorTheta) < tolRotate.getRadians();
   }
 
   /**
@@ -102,60 +108,128 @@ public class HolonomicDriveController2 {
       Pose2d trajectoryPose,
       double desiredLinearVelocityMetersPerSecond,
       Rotation2d desiredHeading) {
+    ChassisSpeeds output = new ChassisSpeeds();
+    calculate(
+        currentPose.getX(),
+        currentPose.getY(),
+        currentPose.getRotation().getRadians(),
+        trajectoryPose.getX(),
+        trajectoryPose.getY(),
+        trajectoryPose.getRotation().getRadians(),
+        desiredLinearVelocityMetersPerSecond,
+        desiredHeading.getRadians(),
+        output);
+    return output;
+  }
+
+  /**
+   * Returns the next output of the holonomic drive controller.
+   *
+   * @param currentPose The current pose, as measured by odometry or pose estimator.
+   * @param desiredState The desired trajectory pose, as sampled for the current timestep.
+   * @param desiredHeading The desired heading.
+   * @return The next output of the holonomic drive controller.
+   */
+  public ChassisSpeeds calculate(
+    Pose2d currentPose, Trajectory.State desiredState, Rotation2d desiredHeading) {
+    return calculate(
+        currentPose, desiredState.poseMeters, desiredState.velocityMetersPerSecond, desiredHeading);
+  }
+
+  /**
+   * Computes the next output from a sampler, writing into the given output
+   * rather than allocating one.
+   *
+   * @param currentPose The current pose, as measured by odometry or pose estimator.
+   * @param reference The trajectory, already sampled for the current timestep.
+   * @param desiredHeadingRadians The desired heading.
+   * @param output Receives the robot-relative speeds.
+   */
+  public void calculate(
+      Pose2d currentPose, TrajectorySampler reference, double desiredHeadingRadians, ChassisSpeeds output) {
+    calculate(
+        currentPose.getX(),
+        currentPose.getY(),
+        currentPose.getRotation().getRadians(),
+        reference.getX(),
+        reference.getY(),
+        reference.getHeading(),
+        reference.getVelocity(),
+        desiredHeadingRadians,
+        output);
+  }
+
+  /**
+   * Computes the next output from primitives, without allocating geometry.
+   * All the other calculate() methods end up here.
+   *
+   * @param currentX Measured field-relative x, meters.
+   * @param currentY Measured field-relative y, meters.
+   * @param currentTheta Measured heading, radians.
+   * @param referenceX Trajectory x, meters.
+   * @param referenceY Trajectory y, meters.
+   * @param referenceTheta Trajectory course, i.e. direction of travel, radians.
+   * @param desiredLinearVelocityMetersPerSecond The desired linear velocity.
+   * @param desiredHeading The desired heading, radians.
+   * @param output Receives the robot-relative speeds.
+   */
+  public void calculate(
+      double currentX,
+      double currentY,
+      double currentTheta,
+      double referenceX,
+      double referenceY,
+      double referenceTheta,
+      double desiredLinearVelocityMetersPerSecond,
+      double desiredHeading,
+      ChassisSpeeds output) {
 
     // If this is the first run, then we need to reset the theta controller to the current pose's
     // heading.
     if (m_firstRun) {
-      m_thetaController.reset(currentPose.getRotation().getRadians());
+      m_thetaController.reset(currentTheta);
       m_firstRun = false;
     }
 
     // Calculate feedforward velocities (field-relative).
-    
-    
-    double xFF = desiredLinearVelocityMetersPerSecond * trajectoryPose.getRotation().getCos();
+    double xFF = desiredLinearVelocityMetersPerSecond * Math.cos(referenceTheta);
+
+    double yFF = desiredLinearVelocityMetersPerSecond * Math.sin(referenceTheta);
 
-    double yFF = desiredLinearVelocityMetersPerSecond * trajectoryPose.getRotation().getSin();
-    
-    double thetaFF =
-        m_thetaController.calculate(
-            currentPose.getRotation().getRadians(), desiredHeading.getRadians());
+    double thetaFF = m_thetaController.calculate(currentTheta, desiredHeading);
 
     xFFPublisher.set(xFF);
     yFFPublisher.set(yFF);
 
-    m_poseError = trajectoryPose.relativeTo(currentPose);
-    m_rotationError = desiredHeading.minus(currentPose.getRotation());
+    // Pose error in the robot frame, as trajectoryPose.relativeTo(currentPose).
+    double cos = Math.cos(currentTheta);
+    double sin = Math.sin(currentTheta);
+    double dx = referenceX - currentX;
+    double dy = referenceY - currentY;
+    m_errorX = dx * cos + dy * sin;
+    m_errorY = -dx * sin + dy * cos;
+    m_errorTheta = MathUtil.angleModulus(desiredHeading - currentTheta);
 
     if (!m_enabled) {
-      return ChassisSpeeds.fromFieldRelativeSpeeds(xFF, yFF, thetaFF, currentPose.getRotation());
+      toRobotRelative(xFF, yFF, thetaFF, currentTheta, output);
+      return;
     }
 
     // Calculate feedback velocities (based on position error).
-    double xFeedback = m_xController.calculate(currentPose.getX(), trajectoryPose.getX());
-    double yFeedback = m_yController.calculate(currentPose.getY(), trajectoryPose.getY());
+    double xFeedback = m_xController.calculate(currentX, referenceX);
+    double yFeedback = m_yController.calculate(currentY, referenceY);
 
     xFBPublisher.set(xFeedback);
     yFBPublisher.set(yFeedback);
     // Return next output.
-    double gyroRate = m_gyro.getRedundantGyroRate() * 0.25;
-    Rotation2d rotation2 = currentPose.getRotation().minus(new Rotation2d(gyroRate));
-    return ChassisSpeeds.fromFieldRelativeSpeeds(
-        xFF + xFeedback, yFF + yFeedback, thetaFF, rotation2);
+    toRobotRelative(xFF + xFeedback, yFF + yFeedback, thetaFF, currentTheta, output);
   }
 
-  /**
-   * Returns the next output of the holonomic drive controller.
-   *
-   * @param currentPose The current pose, as measured by odometry or pose estimator.
-   * @param desiredState The desired trajectory pose, as sampled for the current timestep.
-   * @param desiredHeading The desired heading.
-   * @return The next output of the holonomic drive controller.
-   */
-  public ChassisSpeeds calculate(
-    Pose2d currentPose, Trajectory.State desiredState, Rotation2d desiredHeading) {
-    return calculate(
-        currentPose, desiredState.poseMeters, desiredState.velocityMetersPerSecond, desiredHeading);
+  /** Corrected for lag and discretized, into an existing output. */
+  private void toRobotRelative(
+      double vx, double vy, double omega, double robotAngle, ChassisSpeeds output) {
+    m_chassisSpeeds.fromFieldRelativeSpeeds(vx, vy, omega, robotAngle, m_output);
+    m_output.copyTo(output);
   }
 
   /**
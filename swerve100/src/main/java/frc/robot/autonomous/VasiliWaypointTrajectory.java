@@ -1,22 +1,15 @@
 package frc.robot.autonomous;
 
-import java.io.IOException;
-import java.nio.file.Path;
 import java.util.function.Supplier;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
 import edu.wpi.first.math.trajectory.TrajectoryGenerator.ControlVectorList;
-import edu.wpi.first.math.trajectory.TrajectoryUtil;
-import edu.wpi.first.math.trajectory.constraint.CentripetalAccelerationConstraint;
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.subsystems.AHRSClass;
 import frc.robot.subsystems.SwerveDriveSubsystem;
+import team100.trajectory.TrajectoryLibrary;
 
 
 public class VasiliWaypointTrajectory extends TrajectoryCommand {
@@ -55,27 +48,9 @@ public class VasiliWaypointTrajectory extends TrajectoryCommand {
 
         // String trajecJSON = "GoToCube.wpilib.json"; 
         
-        Trajectory trajectory = new Trajectory(); 
+        // preloaded at boot, see Robot.robotInit()
+        Trajectory trajectory = TrajectoryLibrary.getInstance().get(path);
 
-
-        
-
-        try {
-            Path trajectoryPath = Filesystem.getDeployDirectory().toPath().resolve(path);
-            trajectory = TrajectoryUtil.fromPathweaverJson(trajectoryPath);
-        } catch (IOException ex) {
-            DriverStation.reportError("Unable to open trajectory: " + path, ex.getStackTrace());
-        }
-
-
-        
-        Trajectory t = TrajectoryGenerator.generateTrajectory(
-                controlVectors, getConfig());
-
-        for (double time = 0; time < t.getTotalTimeSeconds(); time += 0.1) {
-            Trajectory.State s = t.sample(time);
-            System.out.printf("%5.3f %5.3f\n", s.poseMeters.getX(), s.poseMeters.getY());
-        }
         // TrajectoryConfig trajectoryConfig = new TrajectoryConfig(
         // 5,
         // 5)
@@ -108,14 +83,4 @@ public class VasiliWaypointTrajectory extends TrajectoryCommand {
         super.initSendable(builder);
         builder.addDoubleProperty("IsRunning", () -> IsRunning, null);
     }
-
-    private static TrajectoryConfig getConfig() {
-        TrajectoryConfig config = new TrajectoryConfig(
-                5, // max velocity 1 m/s
-                5); // max acceleration 1 m/s/s
-        config.setStartVelocity(0); // zero starting velocity
-        config.setEndVelocity(0); // zero ending velocity
-        config.addConstraint(new CentripetalAccelerationConstraint(1)); // max accel 1 m/s/s
-        return config;
-    }
 }
\ No newline at end of file
@@ -1,24 +1,18 @@
 package frc.robot.commands.Arm;
 
-import java.util.List;
-
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
-import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.trajectory.Trajectory;
-import edu.wpi.first.math.trajectory.TrajectoryConfig;
-import edu.wpi.first.math.trajectory.TrajectoryGenerator;
-import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGenerationException;
 import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.Arm.ArmController;
+import frc.robot.subsystems.Arm.ArmDynamics;
 import frc.robot.subsystems.Arm.ArmPosition;
+import frc.robot.subsystems.Arm.ArmTrajectoryLibrary;
 // import frc.robot.subsystems.Arm.ArmTrajecs;
-import frc.robot.subsystems.Arm.InverseKinematicsAngle;
+import frc.robot.subsystems.Arm.JointTrajectory;
+import team100.telemetry.GainTuner;
 
 public class ArmTrajectory extends CommandBase {
     NetworkTableInstance inst = NetworkTableInstance.getDefault();
@@ -31,17 +25,28 @@ public class ArmTrajectory extends CommandBase {
     DoublePublisher measurmentY = inst.getTable("Arm Trajec").getDoubleTopic("measurmentY").publish();
     DoublePublisher setpointUpper = inst.getTable("Arm Trajec").getDoubleTopic("Setpoint Upper").publish();
     DoublePublisher setpointLower = inst.getTable("Arm Trajec").getDoubleTopic("Setpoint Lower").publish();
+    DoublePublisher feedforwardUpper = inst.getTable("Arm Trajec").getDoubleTopic("Feedforward Upper").publish();
+    DoublePublisher feedforwardLower = inst.getTable("Arm Trajec").getDoubleTopic("Feedforward Lower").publish();
+
+    /**
+     * Shared by every trajectory, which is fine since they all require the
+     * arm, so only one runs at a time; that way they're registered for tuning
+     * once, not once per command.
+     */
+    private static final PIDController upperController = new PIDController(3, 0, 0);
+    private static final PIDController lowerController = new PIDController(3, 0, 0);
+
+    static {
+        GainTuner.getInstance().add("Arm Upper", upperController);
+        GainTuner.getInstance().add("Arm Lower", lowerController);
+    }
 
     private final Timer m_timer = new Timer();
-    private final PIDController upperController;
-    private final PIDController lowerController;
 
-    private Trajectory m_trajectory;
+    private JointTrajectory m_trajectory;
 
-    private final TrajectoryConfig trajecConfig;
-
-    SimpleMotorFeedforward upperArmFeedforward = new SimpleMotorFeedforward(0.0, 0.3);
-    SimpleMotorFeedforward lowerArmFeedforward = new SimpleMotorFeedforward(0.0, 0.3);
+    /** Gravity and inertia, so the PID only corrects the model error. */
+    private final ArmDynamics m_dynamics = ArmDynamics.compBot();
 
     // Pose2d m_goal;
     ArmController m_arm;
@@ -59,180 +64,44 @@ public class ArmTrajectory extends CommandBase {
         //         3 // accel rad/s^2
         // );
 
-        upperController = new PIDController(3, 0, 0);
-        lowerController = new PIDController(3, 0, 0);
-
-        if (m_position != ArmPosition.SAFE) {
-            trajecConfig = new TrajectoryConfig(12, 2);
-        } else {
-            trajecConfig = new TrajectoryConfig(12, 1);
-        }
-
         addRequirements(m_arm);
     }
 
     // Called when the command is initially scheduled.
 
-    private Trajectory makeTrajectory() {
-
-        // Cone
-        InverseKinematicsAngle highGoalCone = new InverseKinematicsAngle(1.05, 0.58); // tuned for our mock up
-        InverseKinematicsAngle midGoalCone = new InverseKinematicsAngle(1.53, 0.18); //not real
-        InverseKinematicsAngle lowGoalCone = new InverseKinematicsAngle(2.21, 0); // not real
-        InverseKinematicsAngle subCone = new InverseKinematicsAngle(1.473078, -0.462283 ); // tuned for our mock up
-
-        // Cube
-        InverseKinematicsAngle highGoalCube = new InverseKinematicsAngle(1.390242,0.648938); //not real
-        InverseKinematicsAngle midGoalCube = new InverseKinematicsAngle(1.91, 0.19); //not real
-        InverseKinematicsAngle lowGoalCube = new InverseKinematicsAngle(2.271662, -0.049849); //not real
-        InverseKinematicsAngle subCube = new InverseKinematicsAngle(1.473078, -0.462283);//not real
-        InverseKinematicsAngle subToCube = new InverseKinematicsAngle(1.100452, -0.734924);//not real
-
-
-        InverseKinematicsAngle safeBack = new InverseKinematicsAngle(1.97, -0.55);
-
-        InverseKinematicsAngle safeGoal = m_arm.calculate(0.2, 0.125);
-
-        InverseKinematicsAngle safeWaypoint = m_arm.calculate(0.7, 0.44);
-
-        // boolean notSafe = true;
-
-        try{
-
-        if (m_position == ArmPosition.SAFE) {
-            return TrajectoryGenerator.generateTrajectory(
-                    new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), Rotation2d.fromDegrees(-180)),
-                    List.of(new Translation2d(safeWaypoint.upperTheta, safeWaypoint.lowerTheta)),
-                    new Pose2d(safeGoal.upperTheta, safeGoal.lowerTheta, Rotation2d.fromDegrees(-180)),
-                    trajecConfig);
-        }
-
-        if(m_position == ArmPosition.SAFEBACK){
-            return TrajectoryGenerator.generateTrajectory(
-                    new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), Rotation2d.fromDegrees(-180)),
-                    List.of(new Translation2d(safeWaypoint.upperTheta, safeWaypoint.lowerTheta)),
-                    new Pose2d(safeBack.upperTheta, safeBack.lowerTheta, Rotation2d.fromDegrees(-180)),
-                    trajecConfig);
-        }
-
-        if (!m_arm.cubeMode) {
-            if (m_position == ArmPosition.HIGH) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(highGoalCone.upperTheta, highGoalCone.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.MID) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(midGoalCone.upperTheta, midGoalCone.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.LOW) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(lowGoalCone.upperTheta, lowGoalCone.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.SUB) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(subCone.upperTheta, subCone.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.SUBTOCUBE) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(subToCube.upperTheta, subToCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            }
-        } else {
-            if (m_position == ArmPosition.HIGH) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(highGoalCube.upperTheta, highGoalCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.MID) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(midGoalCube.upperTheta, midGoalCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.LOW) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(lowGoalCube.upperTheta, lowGoalCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.SUB) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(subCube.upperTheta, subCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            } else if (m_position == ArmPosition.SUBTOCUBE) {
-                return TrajectoryGenerator.generateTrajectory(
-                        new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new Rotation2d(Math.PI / 2)),
-                        List.of(),
-                        new Pose2d(subToCube.upperTheta, subToCube.lowerTheta, new Rotation2d(Math.PI / 2)),
-                        trajecConfig);
-            }
-        }
-
-    }catch(TrajectoryGenerationException e){
-        return null;
-
-    }
-
-    return null;
-
-
-        // if(m_position == ArmPosition.SAFE){
-        // return TrajectoryGenerator.generateTrajectory(
-        // new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(),
-        // Rotation2d.fromDegrees(-180)),
-        // List.of(),
-        // new Pose2d(safeGoal.upperTheta, safeGoal.lowerTheta,
-        // Rotation2d.fromDegrees(-180)),
-        // trajecConfig);
-        // } else {
-        // return TrajectoryGenerator.generateTrajectory(
-        // new Pose2d(m_arm.getUpperArm(), m_arm.getLowerArm(), new
-        // Rotation2d(Math.PI/2)),
-        // List.of(),
-        // new Pose2d(highGoalCone.upperTheta, highGoalCone.lowerTheta, new
-        // Rotation2d(Math.PI/2)),
-        // trajecConfig);
-        // }
-
-        // return ArmTrajecs.getTrajectory(() -> m_arm.getUpperArm(), ()
-        // ->m_arm.getLowerArm(), m_position, m_arm, trajecConfig);
-
-    }
-
     @Override
     public void initialize() {
         m_timer.restart();
-        m_trajectory = makeTrajectory();
+        upperController.reset();
+        lowerController.reset();
+        m_trajectory = ArmTrajectoryLibrary.getInstance().get(
+                m_position, m_arm.cubeMode, m_arm.getLowerArm(), m_arm.getUpperArm());
+        if (m_trajectory == null) {
+            // nowhere to go, or no feasible plan: hold still.
+            m_trajectory = JointTrajectory.stationary(m_arm.getLowerArm(), m_arm.getUpperArm());
+        }
     }
 
     // Called every time the scheduler runs while the command is scheduled.
     public void execute() {
         double curTime = m_timer.get();
-        var desiredState = m_trajectory.sample(curTime);
+        m_trajectory.sample(curTime);
 
-        double desiredUpper = desiredState.poseMeters.getX();
-        double desiredLower = desiredState.poseMeters.getY();
+        double desiredUpper = m_trajectory.getUpper();
+        double desiredLower = m_trajectory.getLower();
 
-        double upperSpeed = upperController.calculate(m_arm.getUpperArm(), desiredUpper);
-        double lowerSpeed = lowerController.calculate(m_arm.getLowerArm(), desiredLower);
+        double upperFF = m_dynamics.upperFeedforward(
+                desiredLower, desiredUpper,
+                m_trajectory.getLowerVelocity(), m_trajectory.getUpperVelocity(),
+                m_trajectory.getLowerAccel(), m_trajectory.getUpperAccel());
+        double lowerFF = m_dynamics.lowerFeedforward(
+                desiredLower, desiredUpper,
+                m_trajectory.getLowerVelocity(), m_trajectory.getUpperVelocity(),
+                m_trajectory.getLowerAccel(), m_trajectory.getUpperAccel());
+        double volts = RobotController.getBatteryVoltage();
 
-        // double uFF =
-        // upperArmFeedforward.calculate(desiredState.velocityMetersPerSecond, 0);
-        // double lFF =
-        // upperArmFeedforward.calculate(desiredState.velocityMetersPerSecond, 0);
+        double upperSpeed = upperController.calculate(m_arm.getUpperArm(), desiredUpper) + upperFF / volts;
+        double lowerSpeed = lowerController.calculate(m_arm.getLowerArm(), desiredLower) + lowerFF / volts;
 
         m_arm.setUpperArm(upperSpeed);
         m_arm.setLowerArm(lowerSpeed);
@@ -241,6 +110,8 @@ public class ArmTrajectory extends CommandBase {
         measurmentY.set(m_arm.getLowerArm());
         setpointX.set(desiredUpper);
         setpointY.set(desiredLower);
+        feedforwardUpper.set(upperFF);
+        feedforwardLower.set(lowerFF);
 
     }
 
@@ -1,10 +1,18 @@
 package frc.robot.commands.Arm;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.Arm.ArmController;
 
+/**
+ * Moves the arm tip with the sticks, left stick up and down, right stick
+ * forward and back, see ArmController.driveCartesian().
+ */
 public class ManualArm extends CommandBase {
+    /** Tip speed at full stick, m/s. */
+    private static final double kMaxSpeedMS = 0.5;
+
     private final ArmController arm;
     private final XboxController m_controller;
 
@@ -15,8 +23,15 @@ public class ManualArm extends CommandBase {
         addRequirements(arm);
     }
 
+    @Override
+    public void initialize() {
+        arm.resetSetpoint();
+    }
+
     @Override
     public void execute() {
-        arm.driveManually(m_controller.getLeftY()/4, m_controller.getRightX()/4);
+        double xSpeed = -MathUtil.applyDeadband(m_controller.getLeftY(), 0.15) * kMaxSpeedMS;
+        double ySpeed = MathUtil.applyDeadband(m_controller.getRightX(), 0.15) * kMaxSpeedMS;
+        arm.driveCartesian(xSpeed, ySpeed);
     }
 }
@@ -28,7 +28,6 @@ public class SetConeMode extends CommandBase {
   @Override
   public void initialize() {
     m_arm.cubeMode = false;
-    m_robotDrive.visionDataProvider.indicator.cone();
 
     done = true;
   }
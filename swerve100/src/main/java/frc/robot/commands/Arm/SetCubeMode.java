@@ -18,7 +18,6 @@ public class SetCubeMode extends CommandBase {
     @Override
     public void initialize() {
         m_arm.cubeMode = true;
-        m_robotDrive.visionDataProvider.indicator.cube();
         done = true;
     }
 
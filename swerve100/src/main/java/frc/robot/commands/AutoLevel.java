@@ -37,12 +37,11 @@ public class AutoLevel extends CommandBase {
 
     if(reversed){
         if(m_robotDrive.getPose().getX() <= 4.255){ //4.125
-            double Roll = m_gyro.getRedundantYaw();
+            double Roll = m_gyro.getRedundantRoll();
             double Pitch = m_gyro.getRedundantPitch();
                 // System.out.println(Roll);
                 double driveRollAmount = MathUtil.clamp(0.005 * Roll, -0.08, 0.08);
                 double drivePitchAmount = MathUtil.clamp(0.005   * Pitch, -0.08, 0.08);
-                System.out.println(drivePitchAmount);
         
                if(Math.abs(Roll) > 2.5 || Math.abs(Pitch) > 2.5){   
                 count = 0;
@@ -60,7 +59,6 @@ public class AutoLevel extends CommandBase {
                 // System.out.println(Roll);
                 double driveRollAmount = MathUtil.clamp(0.004 * Roll, -0.08, 0.08);
                 double drivePitchAmount = MathUtil.clamp(0.004   * Pitch, -0.08, 0.08);
-                System.out.println(drivePitchAmount);
         
                if(Math.abs(Roll) > 2.5 || Math.abs(Pitch) > 2.5){   
                 count = 0;
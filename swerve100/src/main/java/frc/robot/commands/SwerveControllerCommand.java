@@ -9,6 +9,7 @@ import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.trajectory.Trajectory;
@@ -16,7 +17,8 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import frc.robot.autonomous.HolonomicDriveController2;
-import frc.robot.subsystems.AHRSClass;
+import team100.kinematics.ChassisSpeedFactory;
+import team100.trajectory.TrajectorySampler;
 
 /**
  * A command that uses two PID controllers ({@link PIDController}) and a
@@ -42,6 +44,8 @@ import frc.robot.subsystems.AHRSClass;
 public class SwerveControllerCommand extends CommandBase {
     private final Timer m_timer = new Timer();
     private final Trajectory m_trajectory;
+    private final TrajectorySampler m_sampler;
+    private final ChassisSpeeds m_targetChassisSpeeds = new ChassisSpeeds();
     private final Supplier<Pose2d> m_pose;
     private final SwerveDriveKinematics m_kinematics;
     private final HolonomicDriveController2 m_controller;
@@ -53,7 +57,6 @@ public class SwerveControllerCommand extends CommandBase {
     ///////////////////////////////
     ///////////////////////////////
     private final Supplier<Rotation2d> m_desiredRotation;
-    private final AHRSClass m_gyro;
 
     /**
      * Constructs a new SwerveControllerCommand that when executed will follow the
@@ -96,7 +99,7 @@ public class SwerveControllerCommand extends CommandBase {
             ProfiledPIDController thetaController,
             Supplier<Rotation2d> desiredRotation,
             Consumer<SwerveModuleState[]> outputModuleStates,
-            AHRSClass gyro,
+            ChassisSpeedFactory chassisSpeeds,
             Subsystem... requirements) {
         this(
                 trajectory,
@@ -105,10 +108,9 @@ public class SwerveControllerCommand extends CommandBase {
                 new HolonomicDriveController2(
                         requireNonNullParam(xController, "xController", "SwerveControllerCommand"),
                         requireNonNullParam(yController, "yController", "SwerveControllerCommand"),
-                        requireNonNullParam(thetaController, "thetaController", "SwerveControllerCommand"), gyro),
+                        requireNonNullParam(thetaController, "thetaController", "SwerveControllerCommand"), chassisSpeeds),
                 desiredRotation,
                 outputModuleStates,
-                gyro,
                 requirements);
     }
 
@@ -157,7 +159,7 @@ public class SwerveControllerCommand extends CommandBase {
             PIDController yController,
             ProfiledPIDController thetaController,
             Consumer<SwerveModuleState[]> outputModuleStates,
-            AHRSClass gyro,
+            ChassisSpeedFactory chassisSpeeds,
             Subsystem... requirements) {
         this(
                 trajectory,
@@ -168,7 +170,7 @@ public class SwerveControllerCommand extends CommandBase {
                 thetaController,
                 () -> trajectory.getStates().get(trajectory.getStates().size() - 1).poseMeters.getRotation(),
                 outputModuleStates,
-                gyro,
+                chassisSpeeds,
                 requirements);
     }
 
@@ -210,7 +212,6 @@ public class SwerveControllerCommand extends CommandBase {
             SwerveDriveKinematics kinematics,
             HolonomicDriveController2 controller,
             Consumer<SwerveModuleState[]> outputModuleStates,
-            AHRSClass gyro,
             Subsystem... requirements) {
         this(
                 trajectory,
@@ -219,7 +220,6 @@ public class SwerveControllerCommand extends CommandBase {
                 controller,
                 () -> trajectory.getStates().get(trajectory.getStates().size() - 1).poseMeters.getRotation(),
                 outputModuleStates,
-                gyro,
                 requirements);
     }
 
@@ -256,13 +256,12 @@ public class SwerveControllerCommand extends CommandBase {
             HolonomicDriveController2 controller,
             Supplier<Rotation2d> desiredRotation,
             Consumer<SwerveModuleState[]> outputModuleStates,
-            AHRSClass gyro,
             Subsystem... requirements) {
         m_trajectory = requireNonNullParam(trajectory, "trajectory", "SwerveControllerCommand");
+        m_sampler = new TrajectorySampler(m_trajectory);
         m_pose = requireNonNullParam(pose, "pose", "SwerveControllerCommand");
         m_kinematics = requireNonNullParam(kinematics, "kinematics", "SwerveControllerCommand");
         m_controller = requireNonNullParam(controller, "controller", "SwerveControllerCommand");
-        m_gyro = gyro;
         m_desiredRotation = requireNonNullParam(desiredRotation, "desiredRotation", "SwerveControllerCommand");
 
         m_outputModuleStates = requireNonNullParam(outputModuleStates, "outputModuleStates", "SwerveControllerCommand");
@@ -273,12 +272,9 @@ public class SwerveControllerCommand extends CommandBase {
   @Override
   public void execute() {
     double curTime = m_timer.get();
-    var desiredState = m_trajectory.sample(curTime);
-    double gyroRate = m_gyro.getRedundantGyroRate() * 0.25;
-    Rotation2d  rotation2 = m_desiredRotation.get().minus(new Rotation2d(gyroRate));
-    var targetChassisSpeeds =
-        m_controller.calculate(m_pose.get(), desiredState, rotation2);
-    var targetModuleStates = m_kinematics.toSwerveModuleStates(targetChassisSpeeds);
+    m_sampler.sample(curTime);
+    m_controller.calculate(m_pose.get(), m_sampler, m_desiredRotation.get().getRadians(), m_targetChassisSpeeds);
+    var targetModuleStates = m_kinematics.toSwerveModuleStates(m_targetChassisSpeeds);
     m_outputModuleStates.accept(targetModuleStates);
   }
     @Override
@@ -5,15 +5,17 @@
 package frc.robot.subsystems;
 
 import com.kauailabs.navx.frc.AHRS;
+import com.kauailabs.navx.frc.AHRS.SerialDataType;
 
-import edu.wpi.first.util.sendable.Sendable;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.I2C;
 import edu.wpi.first.wpilibj.SerialPort;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 /** Add your docs here. */
-public class AHRSClass implements Sendable {
+public class AHRSClass {
+    /** The most the navX does; the balance controller wants a fresh pitch rate. */
+    private static final byte kUpdateRateHz = (byte) 200;
     private boolean gyrosWorking = true;
     private final AHRS m_gyro1;
     private final AHRS m_gyro2;
@@ -22,8 +24,8 @@ public class AHRSClass implements Sendable {
     private float gyroZOffset_I2C;
     private float gyroZOffset_USB;
     public AHRSClass() {
-        m_gyro1 = new AHRS(SerialPort.Port.kUSB);
-        m_gyro2 = new AHRS(I2C.Port.kMXP);
+        m_gyro1 = new AHRS(SerialPort.Port.kUSB, SerialDataType.kProcessedData, kUpdateRateHz);
+        m_gyro2 = new AHRS(I2C.Port.kMXP, kUpdateRateHz);
         m_gyro1.enableBoardlevelYawReset(true);
         m_gyro2.enableBoardlevelYawReset(true);
          while (m_gyro1.isConnected() && m_gyro1.isCalibrating() || m_gyro2.isConnected() && m_gyro2.isCalibrating()) {
@@ -33,8 +35,18 @@ public class AHRSClass implements Sendable {
         m_gyro2.calibrate();
         gyroZOffset_I2C = -m_gyro2.getRawGyroZ();
         gyroZOffset_USB = -m_gyro1.getRawGyroZ();
-        SmartDashboard.putData("AHRSClass", this);
+        registerTelemetry();
     }
+
+    /**
+     * For simulation, with no calibration or telemetry. The devices may be null
+     * if the subclass overrides all the getters.
+     */
+    protected AHRSClass(AHRS gyro1, AHRS gyro2) {
+        m_gyro1 = gyro1;
+        m_gyro2 = gyro2;
+    }
+
         public float getRedundantYaw() {
             if (!m_gyro1.isConnected()) {
                 gyro1Connected = false;
@@ -157,21 +169,22 @@ public class AHRSClass implements Sendable {
         public boolean getGyroWorking() {
             return gyrosWorking;
         }
-        public void initSendable(SendableBuilder builder) {
-        builder.addDoubleProperty("Gyro Redundant Roll (deg)", () -> getRedundantRoll(), null);
-        builder.addDoubleProperty("Gyro Redundant Pitch (deg)", () -> getRedundantPitch(), null);
-        builder.addDoubleProperty("Gyro 1 Angle (deg)", () -> m_gyro1.getAngle(), null);
-        builder.addDoubleProperty("Gyro 2 Angle (deg)", () -> m_gyro2.getAngle(), null);
-        builder.addDoubleProperty("Gyro 1 Fused (deg)", () -> m_gyro1.getFusedHeading(), null);
-        builder.addDoubleProperty("Gyro 2 Fused (deg)", () -> m_gyro2.getFusedHeading(), null);
-        builder.addDoubleProperty("Gyro Redundant Rate (rad/s)", () -> getRedundantGyroRate(), null);
-        builder.addDoubleProperty("Gyro Yaw", () -> getRedundantYaw(), null);
-        builder.addDoubleProperty("Gyro 1 Angle Mod 360 (deg)", () -> m_gyro1.getAngle() % 360, null);
-        builder.addDoubleProperty("Gyro 2 Angle Mod 360 (deg)", () -> m_gyro2.getAngle() % 360, null);
-        builder.addDoubleProperty("Gyro 1 Compass Heading (deg)", () -> m_gyro1.getCompassHeading(), null);
-        builder.addDoubleProperty("Gyro 2 Compass Heading (deg)", () -> m_gyro2.getCompassHeading(), null);
-        builder.addBooleanProperty("Gyro 1 Connected", () -> gyro1Connected, null);
-        builder.addBooleanProperty("Gyro 2 Connected", () -> gyro2Connected, null);
-        builder.addBooleanProperty("Any Gyros Working", () -> gyrosWorking, null);
+        private void registerTelemetry() {
+        TelemetryScheduler.getInstance().group("AHRSClass")
+                .addDouble("Gyro Redundant Roll (deg)", Tier.MEDIUM, this::getRedundantRoll)
+                .addDouble("Gyro Redundant Pitch (deg)", Tier.MEDIUM, this::getRedundantPitch)
+                .addDouble("Gyro 1 Angle (deg)", Tier.MEDIUM, m_gyro1::getAngle)
+                .addDouble("Gyro 2 Angle (deg)", Tier.MEDIUM, m_gyro2::getAngle)
+                .addDouble("Gyro 1 Fused (deg)", Tier.SLOW, m_gyro1::getFusedHeading)
+                .addDouble("Gyro 2 Fused (deg)", Tier.SLOW, m_gyro2::getFusedHeading)
+                .addDouble("Gyro Redundant Rate (rad/s)", Tier.FAST, this::getRedundantGyroRate)
+                .addDouble("Gyro Yaw", Tier.FAST, this::getRedundantYaw)
+                .addDouble("Gyro 1 Angle Mod 360 (deg)", Tier.SLOW, () -> m_gyro1.getAngle() % 360)
+                .addDouble("Gyro 2 Angle Mod 360 (deg)", Tier.SLOW, () -> m_gyro2.getAngle() % 360)
+                .addDouble("Gyro 1 Compass Heading (deg)", Tier.SLOW, m_gyro1::getCompassHeading)
+                .addDouble("Gyro 2 Compass Heading (deg)", Tier.SLOW, m_gyro2::getCompassHeading)
+                .addBoolean("Gyro 1 Connected", Tier.SLOW, () -> gyro1Connected)
+                .addBoolean("Gyro 2 Connected", Tier.SLOW, () -> gyro2Connected)
+                .addBoolean("Any Gyros Working", Tier.SLOW, () -> gyrosWorking);
         }
 }
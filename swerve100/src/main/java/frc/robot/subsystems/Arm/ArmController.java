@@ -2,19 +2,31 @@ package frc.robot.subsystems.Arm;
 
 import com.revrobotics.CANSparkMax.IdleMode;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.AnalogEncoder;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.FRCLib.Motors.FRCNEO;
+import team100.telemetry.LoopProfiler;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 public class ArmController extends SubsystemBase {
 
     // private static final double kArmMaxXCoordinate = 1.4;
     // private static final double kArmMaxYCoordinate = 1.4;
 
+    /** Manual moves stop this far short of an obstacle, in joint space. */
+    private static final double kManualLookaheadRad = 0.1;
+    /** Manual tip speed at full stick, m/s. */
+    private static final double kManualSpeedMS = 0.5;
+    /** Holds the manual setpoint, as ArmTrajectory. */
+    private static final double kManualP = 3;
+    private static final double kDtS = 0.02;
+
     private double xSetpoint = 1;
     private double ySetpoint = 1;
 
@@ -22,6 +34,8 @@ public class ArmController extends SubsystemBase {
 
     private double upperAngleSetpoint = 0;
     private double lowerAngleSetpoint = 0;
+    private double m_upperVelocitySetpoint = 0;
+    private double m_lowerVelocitySetpoint = 0;
 
     // Lower arm objects
     public ArmSegment lowerArmSegment;
@@ -34,6 +48,15 @@ public class ArmController extends SubsystemBase {
 
     private final AnalogEncoder upperArmEncoder = new AnalogEncoder(5);
 
+    // Arm end position, updated in periodic()
+    private Translation2d m_position;
+
+    private final ArmOccupancyGrid m_grid = ArmOccupancyGrid.getInstance();
+    private final ArmDynamics m_dynamics = ArmDynamics.compBot();
+    private final ArmResolvedRate m_resolvedRate = new ArmResolvedRate(ArmTrajectoryLibrary.kMaxVelocity);
+
+    private final LoopProfiler.Section m_profile = LoopProfiler.getInstance().section("Arm Subsystem.periodic()");
+
     public ArmController() {
         // TrapezoidProfile.Constraints constraints = new TrapezoidProfile.Constraints(
         //         0.3, // velocity rad/s
@@ -48,6 +71,7 @@ public class ArmController extends SubsystemBase {
                 .withPeakOutputForward(0.5)
                 .withPeakOutputReverse(-0.5)
                 .withNeutralMode(IdleMode.kBrake)
+                .withConfigCache(true)
                 .build();
 
         upperArmMotor = new FRCNEO.FRCNEOBuilder(42)
@@ -60,17 +84,20 @@ public class ArmController extends SubsystemBase {
                 .withPeakOutputReverse(-0.5)
                 .withNeutralMode(IdleMode.kBrake)
                 .withForwardSoftLimitEnabled(false)
+                .withConfigCache(true)
                 .build();
 
         lowerArmSegment = new ArmSegment(this::getLowerArm, lowerArmMotor, "Lower Motor");
         upperArmSegment = new ArmSegment(this::getUpperArm, upperArmMotor, "Upper Motor");
 
         Translation2d initial = ArmKinematics.getArmPosition(getLowerArm(), getUpperArm());
+        m_position = initial;
 
         xSetpoint = initial.getX();
         ySetpoint = initial.getY();
 
         SmartDashboard.putData("Arm Subsystem", this);
+        registerTelemetry();
 
     }
 
@@ -86,48 +113,64 @@ public class ArmController extends SubsystemBase {
      * @param y horizontal axis coordinate
      */
     public InverseKinematicsAngle manualSetpoint(XboxController m_driverController) {
+        double xSpeed = -MathUtil.applyDeadband(m_driverController.getLeftY(), 0.15) * kManualSpeedMS;
+        double ySpeed = MathUtil.applyDeadband(m_driverController.getRightX(), 0.15) * kManualSpeedMS;
+        moveSetpoint(xSpeed, ySpeed);
+        return new InverseKinematicsAngle(upperAngleSetpoint, lowerAngleSetpoint); // upper theta, lower theta
+    }
 
-        double dx = -m_driverController.getLeftY();
-        double dy = m_driverController.getRightX();
-
-        if (Math.abs(dx) <= 0.15) {
-            dx = 0;
-        } else {
-            dx = (dx - 0.15) / 0.85;
-        }
-
-        if (Math.abs(dy) <= 0.15) {
-            dy = 0;
-        } else {
-            dy = (dy - 0.15) / 0.85;
-        }
-
-        Translation2d current = ArmKinematics.getArmPosition(getLowerArm(), getUpperArm());
-
-        dx *= 0.2;
-        dy *= 0.2;
-
-        double x = current.getX() + dx;
-        double y = current.getY() + dy;
-
-        double[] coords = { x, y };
-
-        double[] angles = ArmKinematics.algorithm2RIKS(coords[0], coords[1]);
+    /**
+     * Cartesian velocity control: moves the setpoint at the given tip velocity
+     * and follows it with the feedforward, holding it against gravity when the
+     * speeds are zero. Call {@link #resetSetpoint()} first.
+     * 
+     * @param xSpeed tip velocity up, m/s
+     * @param ySpeed tip velocity forward, m/s
+     */
+    public void driveCartesian(double xSpeed, double ySpeed) {
+        moveSetpoint(xSpeed, ySpeed);
+        double lowerFF = m_dynamics.lowerFeedforward(
+                lowerAngleSetpoint, upperAngleSetpoint, m_lowerVelocitySetpoint, m_upperVelocitySetpoint, 0, 0);
+        double upperFF = m_dynamics.upperFeedforward(
+                lowerAngleSetpoint, upperAngleSetpoint, m_lowerVelocitySetpoint, m_upperVelocitySetpoint, 0, 0);
+        double volts = RobotController.getBatteryVoltage();
+        lowerArmMotor.drivePercentOutput(lowerFF / volts + kManualP * (lowerAngleSetpoint - getLowerArm()));
+        upperArmMotor.drivePercentOutput(upperFF / volts + kManualP * (upperAngleSetpoint - getUpperArm()));
+    }
 
-        if (angles == null) {
-            return new InverseKinematicsAngle();
+    /**
+     * Integrates the joint velocities for the tip velocity, from the
+     * setpoint, not the measurement, so there's no drift, and no inverse
+     * kinematics, so there's no jump at the edge of the reach. Moves that
+     * would hit something stop.
+     */
+    private void moveSetpoint(double xSpeed, double ySpeed) {
+        m_resolvedRate.calculate(lowerAngleSetpoint, upperAngleSetpoint, xSpeed, ySpeed);
+        double lowerVelocity = m_resolvedRate.getLowerVelocity();
+        double upperVelocity = m_resolvedRate.getUpperVelocity();
+        double lower = lowerAngleSetpoint + lowerVelocity * kDtS;
+        double upper = upperAngleSetpoint + upperVelocity * kDtS;
+        if (!m_grid.isFree(lower, upper) && m_grid.isFree(lowerAngleSetpoint, upperAngleSetpoint)) {
+            // it would hit something, stay where we were.
+            m_lowerVelocitySetpoint = 0;
+            m_upperVelocitySetpoint = 0;
+            return;
         }
-
-        upperAngleSetpoint = angles[0];
-        lowerAngleSetpoint = angles[1];
-
-        xSetpoint = coords[0];
-        ySetpoint = coords[1];
-        return new InverseKinematicsAngle(angles[0], angles[1]); // upper theta, lower theta
+        m_lowerVelocitySetpoint = lowerVelocity;
+        m_upperVelocitySetpoint = upperVelocity;
+        lowerAngleSetpoint = lower;
+        upperAngleSetpoint = upper;
+        Translation2d setpoint = ArmKinematicsTable.forward(lower, upper);
+        xSetpoint = setpoint.getX();
+        ySetpoint = setpoint.getY();
     }
 
     public void resetSetpoint() {
-        Translation2d current = ArmKinematics.getArmPosition(getLowerArm(), getUpperArm());
+        lowerAngleSetpoint = getLowerArm();
+        upperAngleSetpoint = getUpperArm();
+        m_lowerVelocitySetpoint = 0;
+        m_upperVelocitySetpoint = 0;
+        Translation2d current = ArmKinematicsTable.forward(lowerAngleSetpoint, upperAngleSetpoint);
         xSetpoint = current.getX();
         ySetpoint = current.getY();
     }
@@ -140,22 +183,32 @@ public class ArmController extends SubsystemBase {
             y = 0;
         }
 
+        // positive output drives the angle positive. stop each joint short
+        // of anything in its way, unless it's already stuck, so it can back out.
+        double lower = getLowerArm();
+        double upper = getUpperArm();
+        if (m_grid.isFree(lower, upper)) {
+            if (!m_grid.isFree(lower, upper + Math.signum(x) * kManualLookaheadRad))
+                x = 0;
+            if (!m_grid.isFree(lower + Math.signum(y) * kManualLookaheadRad, upper))
+                y = 0;
+        }
+
         upperArmMotor.drivePercentOutput(x);
         lowerArmMotor.drivePercentOutput(y);
     }
 
     public Translation2d getPose() {
-        return ArmKinematics.getArmPosition(getLowerArm(), getUpperArm());
+        return ArmKinematicsTable.forward(getLowerArm(), getUpperArm());
     }
 
     public InverseKinematicsAngle calculate(double x, double y) {
-        double[] angles = ArmKinematics.algorithm2RIKS(x, y);
+        double[] angles = ArmKinematicsTable.inverse(x, y);
         return new InverseKinematicsAngle(angles[0], angles[1]); // upper theta, lower theta
     }
 
     /**
      * Clamps the coordinates to the max values.
-     * TODO: Make sure the arm doesn't collide with itself or the robot
      * 
      * @param x
      * @param y
@@ -215,99 +268,28 @@ public class ArmController extends SubsystemBase {
 
 
     @Override
-    public void initSendable(SendableBuilder builder) {
-        super.initSendable(builder);
-        builder.addDoubleProperty("ARM X", () -> ArmKinematics.getArmPosition(getLowerArm(), getUpperArm()).getX(),
-                null);
-        builder.addDoubleProperty("ARM Y", () -> ArmKinematics.getArmPosition(getLowerArm(), getUpperArm()).getY(),
-                null);
-        builder.addDoubleProperty("Upper Arm Absolute Angle", () -> upperArmEncoder.getAbsolutePosition(), null);
-        builder.addDoubleProperty("Lower Arm Absolute Angle", () -> lowerArmEncoder.getAbsolutePosition(), null);
-        builder.addDoubleProperty("Upper Arm Absolute Radians", () -> getUpperArm(), null);
-        builder.addDoubleProperty("Lower Arm Absolute Rasians", () -> getLowerArm(), null);
-        builder.addDoubleProperty("Upper Arm Absolute Degrees", () -> getUpperArmDegrees(), null);
-        builder.addDoubleProperty("Lower Arm Absolute Degrees", () -> getLowerArmDegrees(), null);
-        builder.addBooleanProperty("Cube Mode", () -> cubeMode, null);
-        builder.addDoubleProperty("X Setpoint", () -> xSetpoint, null);
-        builder.addDoubleProperty("Y Setpoint", () -> ySetpoint, null);
-        builder.addDoubleProperty("Upper Angle Setpoint", () -> upperAngleSetpoint, null);
-        builder.addDoubleProperty("Lower Angle Setpoint", () -> lowerAngleSetpoint, null);
-        builder.addBooleanProperty("Cube Mode", () -> cubeMode, null);
-
-    }
-
-}
-
-class ArmKinematics {
-    private static final double kUpperArmLength = 0.905;
-    private static final double kLowerArmLength = 0.93;
-
-    /**
-     * Calculates the position of the arm based on the angles of the segments
-     * 
-     * @param lowerArmAngle
-     * @param upperArmAngle
-     * @return Translation2d object containing the position of the arm
-     */
-    public static Translation2d getArmPosition(double lowerArmAngle, double upperArmAngle) {
-        // upperArmAngle += lowerArmAngle;
-        double upperArmX = kUpperArmLength * Math.cos(upperArmAngle);
-        double upperArmY = kUpperArmLength * Math.sin(upperArmAngle);
-
-        double lowerArmX = kLowerArmLength * Math.cos(lowerArmAngle);
-        double lowerArmY = kLowerArmLength * Math.sin(lowerArmAngle);
-
-        return new Translation2d(upperArmX + lowerArmX, upperArmY + lowerArmY);
+    public void periodic() {
+        // measured once per cycle for telemetry, instead of once per property.
+        m_profile.begin();
+        m_position = getPose();
+        m_profile.end();
     }
 
-    /**
-     * Calculates the angles the arm should be at to reach the setpoint.
-     * Accounts for the fact that our segment angles are independent.
-     * 
-     * @param x
-     * @param y
-     * @return array containing the angles [lowerArmAngle, upperArmAngle]
-     */
-    static double[] algorithm2RIK(double x, double y) {
-        double[] angles = new double[2];
-
-        double c2 = (x * x + y * y - kUpperArmLength * kUpperArmLength - kLowerArmLength * kLowerArmLength)
-                / (2 * kUpperArmLength * kLowerArmLength);
-        double s2 = Math.sqrt(1 - c2 * c2);
-        angles[1] = Math.atan2(s2, c2);
-
-        double k1 = kUpperArmLength + kLowerArmLength * c2;
-        double k2 = kLowerArmLength * s2;
-        angles[0] = Math.atan2(y, x) - Math.atan2(k2, k1);
-
-        return angles;
+    private void registerTelemetry() {
+        TelemetryScheduler.getInstance().group("Arm Subsystem")
+                .addDouble("ARM X", Tier.MEDIUM, () -> m_position.getX())
+                .addDouble("ARM Y", Tier.MEDIUM, () -> m_position.getY())
+                .addDouble("Upper Arm Absolute Angle", Tier.SLOW, upperArmEncoder::getAbsolutePosition)
+                .addDouble("Lower Arm Absolute Angle", Tier.SLOW, lowerArmEncoder::getAbsolutePosition)
+                .addDouble("Upper Arm Absolute Radians", Tier.MEDIUM, this::getUpperArm)
+                .addDouble("Lower Arm Absolute Rasians", Tier.MEDIUM, this::getLowerArm)
+                .addDouble("Upper Arm Absolute Degrees", Tier.SLOW, this::getUpperArmDegrees)
+                .addDouble("Lower Arm Absolute Degrees", Tier.SLOW, this::getLowerArmDegrees)
+                .addBoolean("Cube Mode", Tier.MEDIUM, () -> cubeMode)
+                .addDouble("X Setpoint", Tier.MEDIUM, () -> xSetpoint)
+                .addDouble("Y Setpoint", Tier.MEDIUM, () -> ySetpoint)
+                .addDouble("Upper Angle Setpoint", Tier.MEDIUM, () -> upperAngleSetpoint)
+                .addDouble("Lower Angle Setpoint", Tier.MEDIUM, () -> lowerAngleSetpoint);
     }
 
-    static double[] algorithm2RIKS(double x, double y) {
-        // https://www.youtube.com/watch?v=RH3iAmMsolo&t=7s
-
-        double[] angles = new double[2];
-        double xSquared = Math.pow(x, 2);
-        double ySquared = Math.pow(y, 2);
-
-        if (Math.sqrt(ySquared + xSquared) + 0.05 >= kLowerArmLength + kUpperArmLength) {
-            return null;
-        }
-
-        double upperLengthSquare = Math.pow(kUpperArmLength, 2);
-        double lowerLengthSquare = Math.pow(kLowerArmLength, 2);
-        double lengthSquared = upperLengthSquare + lowerLengthSquare;
-        double q2 = Math.PI
-                - Math.acos((lengthSquared - xSquared - ySquared) / (2 * kUpperArmLength * kLowerArmLength));
-        // maybe x/y try if it dosent work
-        double q1 = Math.atan(y / x)
-                - Math.atan((kUpperArmLength * Math.sin(q2)) / (kLowerArmLength + kUpperArmLength * Math.cos(q2)));
-
-        angles[0] = q1 + q2; // upper theta
-        angles[1] = q1; // lower theta
-
-        return angles;
-
-    }
-
-}
\ No newline at end of file
+}
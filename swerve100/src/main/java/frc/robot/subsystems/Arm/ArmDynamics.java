@@ -0,0 +1,182 @@
+package frc.robot.subsystems.Arm;
+
+/**
+ * Rigid-body model of the two-link arm, and of the motors driving it.
+ *
+ * Angles are absolute, as in {@link ArmKinematics}, and both motors drive
+ * their segment relative to the frame, so the lower motor carries the weight
+ * of the upper segment at the elbow, and the segments are coupled only
+ * through the elbow force. Zero is straight up, so gravity pulls with
+ * m * g * r * sin(angle).
+ *
+ * Torques are at the joint, after the gear reduction; positive output drives
+ * the angle positive.
+ */
+public class ArmDynamics {
+    private static final double kG = 9.81;
+
+    // REV NEO, as in WPILib DCMotor.getNEO()
+    private static final double kNominalVolts = 12;
+    private static final double kStallTorqueNm = 2.6;
+    private static final double kStallCurrentA = 105;
+    private static final double kFreeCurrentA = 1.8;
+    private static final double kFreeSpeedRadS = 5676 * 2 * Math.PI / 60;
+    private static final double kResistanceOhm = kNominalVolts / kStallCurrentA;
+    private static final double kKv = kFreeSpeedRadS / (kNominalVolts - kResistanceOhm * kFreeCurrentA);
+    private static final double kKt = kStallTorqueNm / kStallCurrentA;
+
+    private final double m_lowerReduction;
+    private final double m_upperReduction;
+    private final double m_maxVolts;
+    private final double m_currentLimitA;
+
+    /** Mass matrix diagonal, and the coefficient of the coupling term. */
+    private final double m_m11;
+    private final double m_m22;
+    private final double m_coupling;
+    /** Gravity torque coefficients, multiplied by sin(angle). */
+    private final double m_lowerGravityNm;
+    private final double m_upperGravityNm;
+
+    /**
+     * The segments are modeled as uniform rods plus a point mass, lumped into
+     * a mass and a center of gravity.
+     *
+     * @param lowerMassKg    lower segment mass
+     * @param lowerCgM       lower segment center of gravity, from the shoulder
+     * @param upperMassKg    upper segment mass, including the manipulator
+     * @param upperCgM       upper segment center of gravity, from the elbow
+     * @param lowerReduction lower motor turns per segment turn
+     * @param upperReduction upper motor turns per segment turn
+     * @param peakOutput     motor output limit, as in the motor config
+     * @param currentLimitA  motor current limit, as in the motor config
+     */
+    public ArmDynamics(
+            double lowerMassKg,
+            double lowerCgM,
+            double upperMassKg,
+            double upperCgM,
+            double lowerReduction,
+            double upperReduction,
+            double peakOutput,
+            double currentLimitA) {
+        m_lowerReduction = lowerReduction;
+        m_upperReduction = upperReduction;
+        m_maxVolts = peakOutput * kNominalVolts;
+        m_currentLimitA = currentLimitA;
+
+        double lowerLength = ArmKinematics.kLowerArmLength;
+        double upperLength = ArmKinematics.kUpperArmLength;
+        // inertia about the center of gravity, as a uniform rod
+        double lowerCgInertia = lowerMassKg * lowerLength * lowerLength / 12;
+        double upperCgInertia = upperMassKg * upperLength * upperLength / 12;
+        m_m11 = lowerMassKg * lowerCgM * lowerCgM + lowerCgInertia + upperMassKg * lowerLength * lowerLength;
+        m_m22 = upperMassKg * upperCgM * upperCgM + upperCgInertia;
+        m_coupling = upperMassKg * lowerLength * upperCgM;
+        m_lowerGravityNm = (lowerMassKg * lowerCgM + upperMassKg * lowerLength) * kG;
+        m_upperGravityNm = upperMassKg * upperCgM * kG;
+    }
+
+    /**
+     * The comp bot arm. The masses and reductions are estimates from CAD, not
+     * measured; output and current limits match ArmController.
+     */
+    public static ArmDynamics compBot() {
+        return new ArmDynamics(3.0, 0.45, 2.5, 0.55, 150, 150, 0.5, 40);
+    }
+
+    /** Torque the lower motor must supply for the given motion. */
+    public double lowerTorque(
+            double lower, double upper,
+            double lowerVelocity, double upperVelocity,
+            double lowerAccel, double upperAccel) {
+        double delta = lower - upper;
+        return m_m11 * lowerAccel
+                + m_coupling * Math.cos(delta) * upperAccel
+                + m_coupling * Math.sin(delta) * upperVelocity * upperVelocity
+                - m_lowerGravityNm * Math.sin(lower);
+    }
+
+    /** Torque the upper motor must supply for the given motion. */
+    public double upperTorque(
+            double lower, double upper,
+            double lowerVelocity, double upperVelocity,
+            double lowerAccel, double upperAccel) {
+        double delta = lower - upper;
+        return m_m22 * upperAccel
+                + m_coupling * Math.cos(delta) * lowerAccel
+                - m_coupling * Math.sin(delta) * lowerVelocity * lowerVelocity
+                - m_upperGravityNm * Math.sin(upper);
+    }
+
+    /**
+     * Lower motor volts for the given motion, i.e. the feedforward: enough
+     * current for the torque, plus the back-EMF at the joint speed.
+     */
+    public double lowerFeedforward(
+            double lower, double upper,
+            double lowerVelocity, double upperVelocity,
+            double lowerAccel, double upperAccel) {
+        double torque = lowerTorque(lower, upper, lowerVelocity, upperVelocity, lowerAccel, upperAccel);
+        return motorVolts(m_lowerReduction, torque, lowerVelocity);
+    }
+
+    /** Upper motor volts for the given motion. */
+    public double upperFeedforward(
+            double lower, double upper,
+            double lowerVelocity, double upperVelocity,
+            double lowerAccel, double upperAccel) {
+        double torque = upperTorque(lower, upper, lowerVelocity, upperVelocity, lowerAccel, upperAccel);
+        return motorVolts(m_upperReduction, torque, upperVelocity);
+    }
+
+    /**
+     * The inverse of the torque methods: joint accelerations, {lower, upper},
+     * resulting from the given joint torques, for simulation.
+     */
+    public double[] accelerations(
+            double lower, double upper,
+            double lowerVelocity, double upperVelocity,
+            double lowerTorque, double upperTorque) {
+        double delta = lower - upper;
+        double m12 = m_coupling * Math.cos(delta);
+        // torque left over for acceleration, in each row of the mass matrix
+        double r1 = lowerTorque
+                - m_coupling * Math.sin(delta) * upperVelocity * upperVelocity
+                + m_lowerGravityNm * Math.sin(lower);
+        double r2 = upperTorque
+                + m_coupling * Math.sin(delta) * lowerVelocity * lowerVelocity
+                + m_upperGravityNm * Math.sin(upper);
+        double det = m_m11 * m_m22 - m12 * m12;
+        return new double[] {
+                (m_m22 * r1 - m12 * r2) / det,
+                (m_m11 * r2 - m12 * r1) / det };
+    }
+
+    /** Most volts the motors are allowed, i.e. peak output times nominal. */
+    public double getMaxVolts() {
+        return m_maxVolts;
+    }
+
+    /** Lower joint torque at the given volts and joint speed. */
+    public double lowerMotorTorque(double volts, double speedRadS) {
+        return motorTorque(m_lowerReduction, volts, speedRadS);
+    }
+
+    /** Upper joint torque at the given volts and joint speed. */
+    public double upperMotorTorque(double volts, double speedRadS) {
+        return motorTorque(m_upperReduction, volts, speedRadS);
+    }
+
+    private double motorTorque(double reduction, double volts, double speedRadS) {
+        double currentA = (volts - speedRadS * reduction / kKv) / kResistanceOhm;
+        currentA = Math.max(-m_currentLimitA, Math.min(m_currentLimitA, currentA));
+        return currentA * kKt * reduction;
+    }
+
+    /** Ignores the current limit: a feedforward beyond it is infeasible anyway. */
+    private double motorVolts(double reduction, double torqueNm, double speedRadS) {
+        double currentA = torqueNm / (kKt * reduction);
+        return currentA * kResistanceOhm + speedRadS * reduction / kKv;
+    }
+}
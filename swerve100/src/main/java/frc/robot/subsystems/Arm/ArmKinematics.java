@@ -0,0 +1,88 @@
+package frc.robot.subsystems.Arm;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Two-link arm geometry. The segment angles are both absolute, i.e. measured
+ * from the same axis, not the upper relative to the lower.
+ *
+ * The coordinate grid is cartesian but rotated 90 degrees CCW: positive X is
+ * upwards and positive Y is forward.
+ */
+public class ArmKinematics {
+    public static final double kUpperArmLength = 0.905;
+    public static final double kLowerArmLength = 0.93;
+
+    /**
+     * Calculates the position of the arm based on the angles of the segments
+     * 
+     * @param lowerArmAngle
+     * @param upperArmAngle
+     * @return Translation2d object containing the position of the arm
+     */
+    public static Translation2d getArmPosition(double lowerArmAngle, double upperArmAngle) {
+        // upperArmAngle += lowerArmAngle;
+        double upperArmX = kUpperArmLength * Math.cos(upperArmAngle);
+        double upperArmY = kUpperArmLength * Math.sin(upperArmAngle);
+
+        double lowerArmX = kLowerArmLength * Math.cos(lowerArmAngle);
+        double lowerArmY = kLowerArmLength * Math.sin(lowerArmAngle);
+
+        return new Translation2d(upperArmX + lowerArmX, upperArmY + lowerArmY);
+    }
+
+    /**
+     * Calculates the angles the arm should be at to reach the setpoint.
+     * Accounts for the fact that our segment angles are independent.
+     * 
+     * @param x
+     * @param y
+     * @return array containing the angles [lowerArmAngle, upperArmAngle]
+     */
+    static double[] algorithm2RIK(double x, double y) {
+        double[] angles = new double[2];
+
+        double c2 = (x * x + y * y - kUpperArmLength * kUpperArmLength - kLowerArmLength * kLowerArmLength)
+                / (2 * kUpperArmLength * kLowerArmLength);
+        double s2 = Math.sqrt(1 - c2 * c2);
+        angles[1] = Math.atan2(s2, c2);
+
+        double k1 = kUpperArmLength + kLowerArmLength * c2;
+        double k2 = kLowerArmLength * s2;
+        angles[0] = Math.atan2(y, x) - Math.atan2(k2, k1);
+
+        return angles;
+    }
+
+    /**
+     * Inverse kinematics, with the elbow bent forward. Works in every
+     * quadrant; see {@link ArmKinematicsTable} for a faster approximation.
+     *
+     * @return [upper theta, lower theta], or null if out of reach
+     */
+    static double[] algorithm2RIKS(double x, double y) {
+        // https://www.youtube.com/watch?v=RH3iAmMsolo&t=7s
+
+        double[] angles = new double[2];
+        double rSquared = x * x + y * y;
+
+        if (Math.sqrt(rSquared) + 0.05 >= kLowerArmLength + kUpperArmLength) {
+            return null;
+        }
+
+        double lengthSquared = kUpperArmLength * kUpperArmLength + kLowerArmLength * kLowerArmLength;
+        // clamped for points closer than the difference of the lengths
+        double c = (lengthSquared - rSquared) / (2 * kUpperArmLength * kLowerArmLength);
+        double q2 = Math.PI - Math.acos(Math.max(-1, Math.min(1, c)));
+        // atan2, not atan(y/x), so it works behind and below the shoulder.
+        double q1 = Math.atan2(y, x)
+                - Math.atan2(kUpperArmLength * Math.sin(q2), kLowerArmLength + kUpperArmLength * Math.cos(q2));
+
+        angles[0] = q1 + q2; // upper theta
+        angles[1] = q1; // lower theta
+
+        return angles;
+
+    }
+
+}
\ No newline at end of file
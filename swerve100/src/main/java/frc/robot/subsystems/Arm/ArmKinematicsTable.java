@@ -0,0 +1,154 @@
+package frc.robot.subsystems.Arm;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Table-driven versions of {@link ArmKinematics}, for the control loop.
+ *
+ * Inverse kinematics interpolates bilinearly in a table of the analytic
+ * solution over a square grid covering the reach. Where interpolation is
+ * poor, i.e. near the reach limit and near the shoulder, where the elbow
+ * angle changes fastest, and across the branch cut straight below the
+ * shoulder, where the angles wrap, it falls back to the analytic solution.
+ * Forward kinematics interpolates linearly in sine and cosine tables.
+ *
+ * Error bounds versus the analytic solution, checked by
+ * ArmKinematicsTableTest: inverse within 0.002 rad on each joint, forward
+ * within 0.00001 m.
+ */
+public final class ArmKinematicsTable {
+    /** As algorithm2RIKS. */
+    private static final double kReachM = ArmKinematics.kLowerArmLength + ArmKinematics.kUpperArmLength - 0.05;
+    private static final double kStepM = 0.02;
+    /** Use the analytic solution within this of the reach limit. */
+    private static final double kEdgeM = 0.15;
+    /** Use the analytic solution within this of the shoulder. */
+    private static final double kCoreM = 0.2;
+    /** Cells whose corner angles differ by more than this straddle the branch cut. */
+    private static final double kMaxSpreadRad = 0.5;
+    private static final int kNodes = (int) Math.ceil(2 * kReachM / kStepM) + 1;
+    private static final int kCells = kNodes - 1;
+
+    /** Samples per revolution, a power of two. */
+    private static final int kTrigSteps = 4096;
+    private static final double kTrigStepsPerRad = kTrigSteps / (2 * Math.PI);
+
+    // angles at each node, x-major
+    private static final float[] kUpper = new float[kNodes * kNodes];
+    private static final float[] kLower = new float[kNodes * kNodes];
+    private static final boolean[] kAnalytic = new boolean[kCells * kCells];
+    private static final double[] kCos = new double[kTrigSteps + 1];
+    private static final double[] kSin = new double[kTrigSteps + 1];
+
+    static {
+        for (int i = 0; i < kNodes; ++i) {
+            for (int j = 0; j < kNodes; ++j) {
+                double[] angles = analytic(node(i), node(j));
+                kUpper[i * kNodes + j] = (float) angles[0];
+                kLower[i * kNodes + j] = (float) angles[1];
+            }
+        }
+        for (int i = 0; i < kCells; ++i) {
+            for (int j = 0; j < kCells; ++j) {
+                kAnalytic[i * kCells + j] = needsAnalytic(i, j);
+            }
+        }
+        for (int k = 0; k <= kTrigSteps; ++k) {
+            kCos[k] = Math.cos(k / kTrigStepsPerRad);
+            kSin[k] = Math.sin(k / kTrigStepsPerRad);
+        }
+    }
+
+    private ArmKinematicsTable() {
+    }
+
+    /**
+     * As {@link ArmKinematics#algorithm2RIKS}.
+     *
+     * @return [upper theta, lower theta], or null if out of reach
+     */
+    public static double[] inverse(double x, double y) {
+        if (x * x + y * y >= kReachM * kReachM)
+            return null;
+        double gx = (x + kReachM) / kStepM;
+        double gy = (y + kReachM) / kStepM;
+        int i = Math.min((int) gx, kCells - 1);
+        int j = Math.min((int) gy, kCells - 1);
+        if (kAnalytic[i * kCells + j])
+            return ArmKinematics.algorithm2RIKS(x, y);
+        double fx = gx - i;
+        double fy = gy - j;
+        int k = i * kNodes + j;
+        return new double[] {
+                bilinear(kUpper, k, fx, fy),
+                bilinear(kLower, k, fx, fy) };
+    }
+
+    /** As {@link ArmKinematics#getArmPosition}. */
+    public static Translation2d forward(double lowerArmAngle, double upperArmAngle) {
+        return new Translation2d(
+                ArmKinematics.kLowerArmLength * cos(lowerArmAngle)
+                        + ArmKinematics.kUpperArmLength * cos(upperArmAngle),
+                ArmKinematics.kLowerArmLength * sin(lowerArmAngle)
+                        + ArmKinematics.kUpperArmLength * sin(upperArmAngle));
+    }
+
+    static double cos(double angle) {
+        return trig(kCos, angle);
+    }
+
+    static double sin(double angle) {
+        return trig(kSin, angle);
+    }
+
+    private static double trig(double[] table, double angle) {
+        double t = angle * kTrigStepsPerRad;
+        double floor = Math.floor(t);
+        int k = (int) ((long) floor & (kTrigSteps - 1));
+        double f = t - floor;
+        return table[k] + f * (table[k + 1] - table[k]);
+    }
+
+    private static double bilinear(float[] table, int k, double fx, double fy) {
+        double a = table[k];
+        double b = table[k + 1];
+        double c = table[k + kNodes];
+        double d = table[k + kNodes + 1];
+        return (a + fy * (b - a)) * (1 - fx) + (c + fy * (d - c)) * fx;
+    }
+
+    private static boolean needsAnalytic(int i, int j) {
+        for (int di = 0; di <= 1; ++di) {
+            for (int dj = 0; dj <= 1; ++dj) {
+                double r = Math.hypot(node(i + di), node(j + dj));
+                if (r > kReachM - kEdgeM || r < kCoreM)
+                    return true;
+            }
+        }
+        int k = i * kNodes + j;
+        return spread(kUpper, k) > kMaxSpreadRad || spread(kLower, k) > kMaxSpreadRad;
+    }
+
+    private static double spread(float[] table, int k) {
+        double a = table[k];
+        double b = table[k + 1];
+        double c = table[k + kNodes];
+        double d = table[k + kNodes + 1];
+        return Math.max(Math.max(a, b), Math.max(c, d)) - Math.min(Math.min(a, b), Math.min(c, d));
+    }
+
+    private static double node(int i) {
+        return -kReachM + i * kStepM;
+    }
+
+    /** The analytic solution, even out of reach, so every node has a value. */
+    private static double[] analytic(double x, double y) {
+        double r = Math.hypot(x, y);
+        if (r >= kReachM) {
+            double scale = (kReachM - 1e-6) / r;
+            x *= scale;
+            y *= scale;
+        }
+        return ArmKinematics.algorithm2RIKS(x, y);
+    }
+}
@@ -0,0 +1,188 @@
+package frc.robot.subsystems.Arm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * {@link ArmWorkspace} sampled over joint space: one bit per cell, set if the
+ * arm is free with the joints at the cell center, so checking a
+ * configuration is an array lookup.
+ *
+ * Within a cell the tip moves at most about 5 cm, which is the clearance the
+ * workspace is built with. Configurations outside the grid are blocked; the
+ * grid covers the full encoder range of each joint.
+ *
+ * Building takes tens of milliseconds, so the grid is stored in the deploy
+ * directory, with a fingerprint of the geometry it was built from. If the
+ * geometry changes, robotInit rebuilds it and warns; run {@link #main} to
+ * store the new one.
+ */
+public final class ArmOccupancyGrid {
+    public static final double kLowerMin = -Math.PI;
+    public static final double kLowerMax = Math.PI;
+    public static final double kUpperMin = -1.6;
+    public static final double kUpperMax = 4.6;
+    public static final double kCellRad = 0.04;
+    public static final double kClearanceM = 0.05;
+    static final int kLowerCells = (int) Math.ceil((kLowerMax - kLowerMin) / kCellRad);
+    static final int kUpperCells = (int) Math.ceil((kUpperMax - kUpperMin) / kCellRad);
+
+    private static final String kFile = "arm-occupancy.bin";
+    private static final int kMagic = 0x41313030; // "A100"
+    private static final int kVersion = 1;
+    private static final int kHeaderBytes = 4 + 4 + 8 + 4 + 4;
+
+    private static ArmOccupancyGrid instance;
+
+    /** Bit per cell, lower-major. */
+    private final long[] m_free;
+
+    public static synchronized ArmOccupancyGrid getInstance() {
+        if (instance == null) {
+            instance = load(Filesystem.getDeployDirectory().toPath().resolve(kFile), new ArmWorkspace(kClearanceM));
+        }
+        return instance;
+    }
+
+    private ArmOccupancyGrid(long[] free) {
+        m_free = free;
+    }
+
+    /** Samples the workspace at every cell center. */
+    public static ArmOccupancyGrid build(ArmWorkspace workspace) {
+        long[] free = new long[(kLowerCells * kUpperCells + 63) / 64];
+        for (int i = 0; i < kLowerCells; ++i) {
+            for (int j = 0; j < kUpperCells; ++j) {
+                if (workspace.isFree(lowerCenter(i), upperCenter(j))) {
+                    int k = i * kUpperCells + j;
+                    free[k >> 6] |= 1L << k;
+                }
+            }
+        }
+        return new ArmOccupancyGrid(free);
+    }
+
+    /**
+     * The stored grid, if it was built from this workspace, otherwise a new
+     * one.
+     */
+    public static ArmOccupancyGrid load(Path path, ArmWorkspace workspace) {
+        try {
+            if (isCurrent(path, workspace))
+                return read(path);
+            DriverStation.reportWarning("Arm occupancy grid is stale, rebuilding: " + path, false);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Unable to read arm occupancy grid: " + e.getMessage(), false);
+        }
+        return build(workspace);
+    }
+
+    /** True if the arm is free with the joints at these angles. */
+    public boolean isFree(double lower, double upper) {
+        int i = lowerCell(lower);
+        int j = upperCell(upper);
+        if (i < 0 || j < 0)
+            return false;
+        return isFree(i * kUpperCells + j);
+    }
+
+    boolean isFree(int cell) {
+        return (m_free[cell >> 6] & (1L << cell)) != 0;
+    }
+
+    /** @return the cell index, or -1 if outside the grid. */
+    static int lowerCell(double lower) {
+        int i = (int) Math.floor((lower - kLowerMin) / kCellRad);
+        return i < 0 || i >= kLowerCells ? -1 : i;
+    }
+
+    /** @return the cell index, or -1 if outside the grid. */
+    static int upperCell(double upper) {
+        int j = (int) Math.floor((upper - kUpperMin) / kCellRad);
+        return j < 0 || j >= kUpperCells ? -1 : j;
+    }
+
+    static double lowerCenter(int i) {
+        return kLowerMin + (i + 0.5) * kCellRad;
+    }
+
+    static double upperCenter(int j) {
+        return kUpperMin + (j + 0.5) * kCellRad;
+    }
+
+    /** Writes atomically, via a temporary file, as TrajectoryFile does. */
+    public void write(Path path, ArmWorkspace workspace) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(kHeaderBytes + m_free.length * 8);
+        buf.putInt(kMagic);
+        buf.putInt(kVersion);
+        buf.putLong(fingerprint(workspace));
+        buf.putInt(kLowerCells);
+        buf.putInt(kUpperCells);
+        for (long bits : m_free)
+            buf.putLong(bits);
+        buf.flip();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining())
+                ch.write(buf);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** True if the stored grid was built from this workspace, with this layout. */
+    static boolean isCurrent(Path path, ArmWorkspace workspace) throws IOException {
+        if (!Files.isRegularFile(path))
+            return false;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < kHeaderBytes)
+                return false;
+            ByteBuffer header = ByteBuffer.allocate(kHeaderBytes);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+            }
+            header.flip();
+            return header.getInt() == kMagic
+                    && header.getInt() == kVersion
+                    && header.getLong() == fingerprint(workspace)
+                    && header.getInt() == kLowerCells
+                    && header.getInt() == kUpperCells;
+        }
+    }
+
+    private static ArmOccupancyGrid read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, kHeaderBytes, ch.size() - kHeaderBytes);
+            long[] free = new long[(kLowerCells * kUpperCells + 63) / 64];
+            if (buf.remaining() < free.length * 8)
+                throw new IOException("truncated arm occupancy grid: " + path);
+            buf.asLongBuffer().get(free);
+            return new ArmOccupancyGrid(free);
+        }
+    }
+
+    /** The workspace and the grid layout. */
+    private static long fingerprint(ArmWorkspace workspace) {
+        long h = workspace.fingerprint();
+        h = 31 * h + Double.doubleToLongBits(kLowerMin);
+        h = 31 * h + Double.doubleToLongBits(kUpperMin);
+        h = 31 * h + Double.doubleToLongBits(kCellRad);
+        return h;
+    }
+
+    /** Stores the grid in src/main/deploy; run from the project directory. */
+    public static void main(String... args) throws IOException {
+        ArmWorkspace workspace = new ArmWorkspace(kClearanceM);
+        build(workspace).write(Paths.get("src", "main", "deploy", kFile), workspace);
+    }
+}
@@ -0,0 +1,322 @@
+package frc.robot.subsystems.Arm;
+
+/**
+ * Time-optimal joint-space trajectories for the arm.
+ *
+ * The path is fixed first: a straight line in joint space from start to end,
+ * or, with waypoints, a Catmull-Rom spline through them. Then the timing
+ * along it is the fastest that keeps every joint within its velocity and
+ * acceleration limits and within what its motor can do, according to
+ * {@link ArmDynamics}: gravity, the coupling between the segments, and the
+ * back-EMF that takes torque away at speed.
+ *
+ * The timing is the usual phase-plane method: along the path parameter s,
+ * accelerate as hard as the limits allow going forward, brake as hard as
+ * they allow coming back from the end, and take the lower of the two. The
+ * path is divided into {@link #kSteps} steps, so planning is a few hundred
+ * dynamics evaluations, well under a millisecond.
+ *
+ * The result is smooth in position and velocity; acceleration is piecewise
+ * constant, bang-bang as time-optimal motion always is.
+ */
+public class ArmPlanner {
+    static final int kSteps = 100;
+    private static final int kBisections = 12;
+    private static final int kBrakingIterations = 3;
+    /**
+     * Plan to use only this much of the available voltage, leaving the rest
+     * for feedback, and staying clear of free speed.
+     */
+    private static final double kVoltageMargin = 0.9;
+    /** ds/dt squared limit where the path barely moves. */
+    private static final double kMaxX = 1e4;
+
+    private final ArmDynamics m_dynamics;
+    private final double m_maxLowerVelocity;
+    private final double m_maxUpperVelocity;
+    private final double m_maxLowerAccel;
+    private final double m_maxUpperAccel;
+
+    // path geometry at each step: position, and first and second derivatives
+    // with respect to s.
+    private final double[] m_lower = new double[kSteps + 1];
+    private final double[] m_upper = new double[kSteps + 1];
+    private final double[] m_dLower = new double[kSteps + 1];
+    private final double[] m_dUpper = new double[kSteps + 1];
+    private final double[] m_ddLower = new double[kSteps + 1];
+    private final double[] m_ddUpper = new double[kSteps + 1];
+    // torque at each step is a * sdd + b * x + g, see bounds().
+    private final double[] m_aLower = new double[kSteps + 1];
+    private final double[] m_aUpper = new double[kSteps + 1];
+    private final double[] m_bLower = new double[kSteps + 1];
+    private final double[] m_bUpper = new double[kSteps + 1];
+    private final double[] m_gLower = new double[kSteps + 1];
+    private final double[] m_gUpper = new double[kSteps + 1];
+    /** ds/dt squared at each step */
+    private final double[] m_x = new double[kSteps + 1];
+
+    // admissible range of s double-dot, from bounds()
+    private double m_min;
+    private double m_max;
+
+    /**
+     * @param dynamics         the arm and motor model
+     * @param maxLowerVelocity rad/s
+     * @param maxUpperVelocity rad/s
+     * @param maxLowerAccel    rad/s^2
+     * @param maxUpperAccel    rad/s^2
+     */
+    public ArmPlanner(
+            ArmDynamics dynamics,
+            double maxLowerVelocity,
+            double maxUpperVelocity,
+            double maxLowerAccel,
+            double maxUpperAccel) {
+        m_dynamics = dynamics;
+        m_maxLowerVelocity = maxLowerVelocity;
+        m_maxUpperVelocity = maxUpperVelocity;
+        m_maxLowerAccel = maxLowerAccel;
+        m_maxUpperAccel = maxUpperAccel;
+    }
+
+    /**
+     * Straight in joint space, from rest to rest.
+     *
+     * @return the trajectory, or null if the motors can't hold the arm
+     *         somewhere along the way.
+     */
+    public JointTrajectory plan(double lowerStart, double upperStart, double lowerEnd, double upperEnd) {
+        return plan(new double[] { lowerStart, lowerEnd }, new double[] { upperStart, upperEnd });
+    }
+
+    /**
+     * Through the given points, from rest to rest. The first point is the
+     * start and the last is the end. Each planner reuses its scratch arrays,
+     * so calls are serialized.
+     *
+     * @return the trajectory, or null if the motors can't hold the arm
+     *         somewhere along the way.
+     */
+    public synchronized JointTrajectory plan(double[] lower, double[] upper) {
+        int n = lower.length - 1;
+        boolean moving = false;
+        for (int j = 1; j <= n; ++j) {
+            if (lower[j] != lower[0] || upper[j] != upper[0])
+                moving = true;
+        }
+        if (!moving)
+            return JointTrajectory.stationary(lower[0], upper[0]);
+
+        for (int k = 0; k <= kSteps; ++k) {
+            path(lower, upper, (double) k / kSteps, k);
+            torqueCoefficients(k);
+        }
+        double ds = 1.0 / kSteps;
+
+        // accelerate forward from rest, as fast as the limits allow, which
+        // near free speed means finding the fastest feasible speed.
+        m_x[0] = 0;
+        if (!bounds(0, 0))
+            return null;
+        for (int k = 0; k < kSteps; ++k) {
+            bounds(k, m_x[k]);
+            double x = Math.max(0, Math.min(velocityLimit(k + 1), m_x[k] + 2 * ds * m_max));
+            if (!bounds(k + 1, x)) {
+                if (!bounds(k + 1, 0))
+                    return null;
+                double lo = 0;
+                double hi = x;
+                if (m_x[k] < x) {
+                    if (bounds(k + 1, m_x[k]))
+                        lo = m_x[k];
+                    else
+                        hi = m_x[k];
+                }
+                for (int b = 0; b < kBisections; ++b) {
+                    double mid = (lo + hi) / 2;
+                    if (bounds(k + 1, mid))
+                        lo = mid;
+                    else
+                        hi = mid;
+                }
+                x = lo;
+            }
+            m_x[k + 1] = x;
+        }
+        // brake backward to rest. The braking limit belongs to the start of
+        // each step, where the speed is the unknown, so iterate a little.
+        m_x[kSteps] = 0;
+        for (int k = kSteps - 1; k >= 0; --k) {
+            double cap = m_x[k];
+            bounds(k + 1, m_x[k + 1]);
+            double x = Math.max(0, Math.min(cap, m_x[k + 1] - 2 * ds * m_min));
+            for (int i = 0; i < kBrakingIterations; ++i) {
+                if (!bounds(k, x))
+                    break;
+                x = Math.max(0, Math.min(cap, m_x[k + 1] - 2 * ds * m_min));
+            }
+            m_x[k] = x;
+        }
+
+        double[] t = new double[kSteps + 1];
+        double[] lowerVelocity = new double[kSteps + 1];
+        double[] upperVelocity = new double[kSteps + 1];
+        double[] lowerAccel = new double[kSteps + 1];
+        double[] upperAccel = new double[kSteps + 1];
+        for (int k = 0; k <= kSteps; ++k) {
+            double sDot = Math.sqrt(m_x[k]);
+            lowerVelocity[k] = m_dLower[k] * sDot;
+            upperVelocity[k] = m_dUpper[k] * sDot;
+            if (k == kSteps)
+                break;
+            double sDotNext = Math.sqrt(m_x[k + 1]);
+            if (sDot + sDotNext <= 0) {
+                // stuck, e.g. can't get started against gravity.
+                return null;
+            }
+            t[k + 1] = t[k] + 2 * ds / (sDot + sDotNext);
+            double sDDot = (m_x[k + 1] - m_x[k]) / (2 * ds);
+            lowerAccel[k] = m_dLower[k] * sDDot + m_ddLower[k] * m_x[k];
+            upperAccel[k] = m_dUpper[k] * sDDot + m_ddUpper[k] * m_x[k];
+        }
+        return new JointTrajectory(
+                t,
+                m_lower.clone(),
+                m_upper.clone(),
+                lowerVelocity,
+                upperVelocity,
+                lowerAccel,
+                upperAccel);
+    }
+
+    /**
+     * Evaluates the spline at s in [0, 1] into step k. Each span is a cubic
+     * Hermite with Catmull-Rom tangents; the end tangents are the end spans,
+     * so a single span is a straight line.
+     */
+    private void path(double[] lower, double[] upper, double s, int k) {
+        int n = lower.length - 1;
+        int j = Math.min((int) (s * n), n - 1);
+        double u = s * n - j;
+        double u2 = u * u;
+        double u3 = u2 * u;
+        double h00 = 2 * u3 - 3 * u2 + 1;
+        double h10 = u3 - 2 * u2 + u;
+        double h01 = -2 * u3 + 3 * u2;
+        double h11 = u3 - u2;
+        double d00 = 6 * u2 - 6 * u;
+        double d10 = 3 * u2 - 4 * u + 1;
+        double d01 = -6 * u2 + 6 * u;
+        double d11 = 3 * u2 - 2 * u;
+        double dd00 = 12 * u - 6;
+        double dd10 = 6 * u - 4;
+        double dd01 = -12 * u + 6;
+        double dd11 = 6 * u - 2;
+
+        double ml0 = tangent(lower, j);
+        double ml1 = tangent(lower, j + 1);
+        double mu0 = tangent(upper, j);
+        double mu1 = tangent(upper, j + 1);
+
+        // d/ds = n * d/du
+        m_lower[k] = h00 * lower[j] + h10 * ml0 + h01 * lower[j + 1] + h11 * ml1;
+        m_upper[k] = h00 * upper[j] + h10 * mu0 + h01 * upper[j + 1] + h11 * mu1;
+        m_dLower[k] = n * (d00 * lower[j] + d10 * ml0 + d01 * lower[j + 1] + d11 * ml1);
+        m_dUpper[k] = n * (d00 * upper[j] + d10 * mu0 + d01 * upper[j + 1] + d11 * mu1);
+        m_ddLower[k] = n * n * (dd00 * lower[j] + dd10 * ml0 + dd01 * lower[j + 1] + dd11 * ml1);
+        m_ddUpper[k] = n * n * (dd00 * upper[j] + dd10 * mu0 + dd01 * upper[j + 1] + dd11 * mu1);
+    }
+
+    /** Catmull-Rom tangent at point j, per span. */
+    private static double tangent(double[] p, int j) {
+        int n = p.length - 1;
+        if (j == 0)
+            return p[1] - p[0];
+        if (j == n)
+            return p[n] - p[n - 1];
+        return (p[j + 1] - p[j - 1]) / 2;
+    }
+
+    /**
+     * Splits the torque along the path into the part proportional to sdd, the
+     * part proportional to x = ds/dt squared, and gravity. The joint velocity
+     * is q' * sqrt(x) and the acceleration is q' * sdd + q'' * x.
+     */
+    private void torqueCoefficients(int k) {
+        double q1 = m_lower[k];
+        double q2 = m_upper[k];
+        double dq1 = m_dLower[k];
+        double dq2 = m_dUpper[k];
+        double ddq1 = m_ddLower[k];
+        double ddq2 = m_ddUpper[k];
+        m_gLower[k] = m_dynamics.lowerTorque(q1, q2, 0, 0, 0, 0);
+        m_gUpper[k] = m_dynamics.upperTorque(q1, q2, 0, 0, 0, 0);
+        m_aLower[k] = m_dynamics.lowerTorque(q1, q2, 0, 0, dq1, dq2) - m_gLower[k];
+        m_aUpper[k] = m_dynamics.upperTorque(q1, q2, 0, 0, dq1, dq2) - m_gUpper[k];
+        m_bLower[k] = m_dynamics.lowerTorque(q1, q2, dq1, dq2, ddq1, ddq2) - m_gLower[k];
+        m_bUpper[k] = m_dynamics.upperTorque(q1, q2, dq1, dq2, ddq1, ddq2) - m_gUpper[k];
+    }
+
+    /** Largest ds/dt squared within the joint velocity limits at step k. */
+    private double velocityLimit(int k) {
+        // not infinite, where the path is stationary, so bisection works.
+        double x = kMaxX;
+        if (m_dLower[k] != 0)
+            x = Math.min(x, square(m_maxLowerVelocity / m_dLower[k]));
+        if (m_dUpper[k] != 0)
+            x = Math.min(x, square(m_maxUpperVelocity / m_dUpper[k]));
+        return x;
+    }
+
+    /**
+     * Finds the range of s double-dot allowed at step k at speed x = ds/dt
+     * squared, into m_min and m_max.
+     *
+     * The joint acceleration and the torque are both linear in sdd, so each
+     * limit is a bound on sdd.
+     *
+     * @return false if the range is empty.
+     */
+    private boolean bounds(int k, double x) {
+        m_min = Double.NEGATIVE_INFINITY;
+        m_max = Double.POSITIVE_INFINITY;
+
+        // acceleration limits
+        if (!limit(m_dLower[k], m_ddLower[k] * x, -m_maxLowerAccel, m_maxLowerAccel))
+            return false;
+        if (!limit(m_dUpper[k], m_ddUpper[k] * x, -m_maxUpperAccel, m_maxUpperAccel))
+            return false;
+
+        // torque limits, which shrink with joint speed
+        double sDot = Math.sqrt(x);
+        double v = m_dynamics.getMaxVolts() * kVoltageMargin;
+        double w1 = m_dLower[k] * sDot;
+        double w2 = m_dUpper[k] * sDot;
+        if (!limit(m_aLower[k], m_bLower[k] * x + m_gLower[k],
+                m_dynamics.lowerMotorTorque(-v, w1), m_dynamics.lowerMotorTorque(v, w1)))
+            return false;
+        if (!limit(m_aUpper[k], m_bUpper[k] * x + m_gUpper[k],
+                m_dynamics.upperMotorTorque(-v, w2), m_dynamics.upperMotorTorque(v, w2)))
+            return false;
+        return m_min <= m_max;
+    }
+
+    /**
+     * Narrows m_min and m_max by lo <= a * sdd + c <= hi.
+     *
+     * @return false if no sdd satisfies it.
+     */
+    private boolean limit(double a, double c, double lo, double hi) {
+        if (Math.abs(a) < 1e-9)
+            return c >= lo && c <= hi;
+        double p = (lo - c) / a;
+        double q = (hi - c) / a;
+        m_min = Math.max(m_min, Math.min(p, q));
+        m_max = Math.min(m_max, Math.max(p, q));
+        return true;
+    }
+
+    private static double square(double x) {
+        return x * x;
+    }
+}
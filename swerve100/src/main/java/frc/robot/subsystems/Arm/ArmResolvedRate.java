@@ -0,0 +1,85 @@
+package frc.robot.subsystems.Arm;
+
+/**
+ * Maps a Cartesian velocity of the arm tip to joint velocities through the
+ * inverse of the arm Jacobian, so manual control moves the tip the way the
+ * stick points without solving inverse kinematics every loop.
+ *
+ * Near a singularity, i.e. with the arm straight at the edge of its reach,
+ * or folded, the inverse blows up, so it's damped least squares: the damping
+ * rises smoothly from zero as the manipulability falls below a threshold,
+ * trading tracking error for bounded joint speeds, with no jump at the
+ * boundary. Joint speeds are then scaled together to the limit, keeping the
+ * direction.
+ *
+ * Like JointTrajectory, the result goes into fields read with the getters.
+ */
+public class ArmResolvedRate {
+    private static final double kL1 = ArmKinematics.kLowerArmLength;
+    private static final double kL2 = ArmKinematics.kUpperArmLength;
+    /** Damp below this manipulability, |det J|, about 6 degrees from straight. */
+    private static final double kThreshold = 0.1 * kL1 * kL2;
+    /** Damping at the singularity, m^2. */
+    private static final double kMaxDamping = 0.01;
+
+    private final double m_maxVelocity;
+
+    private double m_lowerVelocity;
+    private double m_upperVelocity;
+
+    /** @param maxVelocity joint speed limit, rad/s */
+    public ArmResolvedRate(double maxVelocity) {
+        m_maxVelocity = maxVelocity;
+    }
+
+    /** |det J|, zero with the arm straight or folded, kL1 * kL2 at right angles. */
+    public static double manipulability(double lower, double upper) {
+        return Math.abs(kL1 * kL2 * Math.sin(upper - lower));
+    }
+
+    /**
+     * @param xSpeed tip velocity up, m/s
+     * @param ySpeed tip velocity forward, m/s
+     */
+    public void calculate(double lower, double upper, double xSpeed, double ySpeed) {
+        // tip = L1 (cos lower, sin lower) + L2 (cos upper, sin upper)
+        double j11 = -kL1 * Math.sin(lower);
+        double j12 = -kL2 * Math.sin(upper);
+        double j21 = kL1 * Math.cos(lower);
+        double j22 = kL2 * Math.cos(upper);
+
+        double w = manipulability(lower, upper);
+        double damping = 0;
+        if (w < kThreshold) {
+            double r = w / kThreshold;
+            damping = kMaxDamping * (1 - r * r);
+        }
+
+        // qdot = J^T (J J^T + damping I)^-1 v
+        double a11 = j11 * j11 + j12 * j12 + damping;
+        double a12 = j11 * j21 + j12 * j22;
+        double a22 = j21 * j21 + j22 * j22 + damping;
+        // positive: w^2 away from the singularity, at least damping^2 near it.
+        double det = a11 * a22 - a12 * a12;
+        double z1 = (a22 * xSpeed - a12 * ySpeed) / det;
+        double z2 = (a11 * ySpeed - a12 * xSpeed) / det;
+        double lowerVelocity = j11 * z1 + j21 * z2;
+        double upperVelocity = j12 * z1 + j22 * z2;
+
+        double fastest = Math.max(Math.abs(lowerVelocity), Math.abs(upperVelocity));
+        if (fastest > m_maxVelocity) {
+            lowerVelocity *= m_maxVelocity / fastest;
+            upperVelocity *= m_maxVelocity / fastest;
+        }
+        m_lowerVelocity = lowerVelocity;
+        m_upperVelocity = upperVelocity;
+    }
+
+    public double getLowerVelocity() {
+        return m_lowerVelocity;
+    }
+
+    public double getUpperVelocity() {
+        return m_upperVelocity;
+    }
+}
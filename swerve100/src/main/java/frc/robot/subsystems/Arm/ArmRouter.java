@@ -0,0 +1,230 @@
+package frc.robot.subsystems.Arm;
+
+import java.util.Arrays;
+
+/**
+ * Finds a collision-free path through joint space, as waypoints for
+ * {@link ArmPlanner}.
+ *
+ * If the straight line is clear, that's the path. Otherwise A* over the
+ * {@link ArmOccupancyGrid} cells, eight-connected, finds the shortest path
+ * around the obstacles, and then it's shortened to the few corners that
+ * can't see past each other.
+ *
+ * Blocked cells are expensive rather than forbidden, so that an arm that
+ * starts out inside the clearance, or is pushed there, still gets a way
+ * out, by the shortest route back to free space. Each router reuses its
+ * scratch arrays, so calls are serialized.
+ */
+public class ArmRouter {
+    private static final int kCells = ArmOccupancyGrid.kLowerCells * ArmOccupancyGrid.kUpperCells;
+    private static final float kDiagonal = (float) Math.sqrt(2);
+    /** Extra cost of entering a blocked cell, in cells. */
+    private static final float kBlockedCost = 100;
+    /** Line of sight samples per cell. */
+    private static final int kSightSteps = 2;
+
+    private final ArmOccupancyGrid m_grid;
+
+    // A* scratch, valid where the stamp matches the current search.
+    private final float[] m_cost = new float[kCells];
+    private final int[] m_parent = new int[kCells];
+    private final int[] m_seen = new int[kCells];
+    private final int[] m_done = new int[kCells];
+    private int m_search;
+    // binary heap of cells, by cost plus heuristic; stale entries are skipped.
+    private final int[] m_heap = new int[8 * kCells];
+    private final float[] m_heapKey = new float[8 * kCells];
+    private int m_heapSize;
+    private final int[] m_path = new int[kCells];
+
+    public ArmRouter(ArmOccupancyGrid grid) {
+        m_grid = grid;
+    }
+
+    /**
+     * @return {lower[], upper[]} from start to end, including both, or null
+     *         if either end is outside the grid.
+     */
+    public synchronized double[][] route(double lowerStart, double upperStart, double lowerEnd, double upperEnd) {
+        int iStart = ArmOccupancyGrid.lowerCell(lowerStart);
+        int jStart = ArmOccupancyGrid.upperCell(upperStart);
+        int iEnd = ArmOccupancyGrid.lowerCell(lowerEnd);
+        int jEnd = ArmOccupancyGrid.upperCell(upperEnd);
+        if (iStart < 0 || jStart < 0 || iEnd < 0 || jEnd < 0)
+            return null;
+        if (visible(lowerStart, upperStart, lowerEnd, upperEnd)) {
+            return new double[][] {
+                    { lowerStart, lowerEnd },
+                    { upperStart, upperEnd } };
+        }
+        int n = search(iStart * ArmOccupancyGrid.kUpperCells + jStart, iEnd * ArmOccupancyGrid.kUpperCells + jEnd);
+        return shorten(n, lowerStart, upperStart, lowerEnd, upperEnd);
+    }
+
+    /**
+     * A* from start to end, leaving the path in m_path.
+     *
+     * @return the number of cells in the path
+     */
+    private int search(int start, int end) {
+        int stamp = ++m_search;
+        int iEnd = end / ArmOccupancyGrid.kUpperCells;
+        int jEnd = end % ArmOccupancyGrid.kUpperCells;
+        m_heapSize = 0;
+        m_cost[start] = 0;
+        m_parent[start] = -1;
+        m_seen[start] = stamp;
+        push(start, heuristic(start, iEnd, jEnd));
+        while (m_heapSize > 0) {
+            int cell = pop();
+            if (m_done[cell] == stamp)
+                continue;
+            m_done[cell] = stamp;
+            if (cell == end)
+                break;
+            int i = cell / ArmOccupancyGrid.kUpperCells;
+            int j = cell % ArmOccupancyGrid.kUpperCells;
+            for (int di = -1; di <= 1; ++di) {
+                int ni = i + di;
+                if (ni < 0 || ni >= ArmOccupancyGrid.kLowerCells)
+                    continue;
+                for (int dj = -1; dj <= 1; ++dj) {
+                    int nj = j + dj;
+                    if ((di == 0 && dj == 0) || nj < 0 || nj >= ArmOccupancyGrid.kUpperCells)
+                        continue;
+                    int next = ni * ArmOccupancyGrid.kUpperCells + nj;
+                    if (m_done[next] == stamp)
+                        continue;
+                    float cost = m_cost[cell] + (di != 0 && dj != 0 ? kDiagonal : 1);
+                    if (!m_grid.isFree(next))
+                        cost += kBlockedCost;
+                    if (m_seen[next] != stamp || cost < m_cost[next]) {
+                        m_seen[next] = stamp;
+                        m_cost[next] = cost;
+                        m_parent[next] = cell;
+                        push(next, cost + heuristic(next, iEnd, jEnd));
+                    }
+                }
+            }
+        }
+        int n = 0;
+        for (int cell = end; cell >= 0; cell = m_parent[cell])
+            ++n;
+        int k = n;
+        for (int cell = end; cell >= 0; cell = m_parent[cell])
+            m_path[--k] = cell;
+        return n;
+    }
+
+    /**
+     * Keeps only the corners: from each corner, the farthest path cell it can
+     * see is the next one.
+     */
+    private double[][] shorten(int n, double lowerStart, double upperStart, double lowerEnd, double upperEnd) {
+        double[] lower = new double[n + 1];
+        double[] upper = new double[n + 1];
+        lower[0] = lowerStart;
+        upper[0] = upperStart;
+        int count = 1;
+        int from = 0;
+        while (true) {
+            double l0 = lower[count - 1];
+            double u0 = upper[count - 1];
+            if (visible(l0, u0, lowerEnd, upperEnd))
+                break;
+            int next = from + 1;
+            for (int k = n - 2; k > from + 1; --k) {
+                if (visible(l0, u0, lowerCenter(m_path[k]), upperCenter(m_path[k]))) {
+                    next = k;
+                    break;
+                }
+            }
+            if (next >= n - 1)
+                break;
+            lower[count] = lowerCenter(m_path[next]);
+            upper[count] = upperCenter(m_path[next]);
+            ++count;
+            from = next;
+        }
+        lower[count] = lowerEnd;
+        upper[count] = upperEnd;
+        ++count;
+        return new double[][] {
+                Arrays.copyOf(lower, count),
+                Arrays.copyOf(upper, count) };
+    }
+
+    /**
+     * True if the straight line is clear, except for blocked cells at its
+     * start, so there's a way out of the clearance.
+     */
+    private boolean visible(double l0, double u0, double l1, double u1) {
+        double dl = l1 - l0;
+        double du = u1 - u0;
+        int steps = (int) Math.ceil(Math.max(Math.abs(dl), Math.abs(du)) / ArmOccupancyGrid.kCellRad * kSightSteps);
+        boolean leaving = true;
+        for (int k = 0; k <= steps; ++k) {
+            double s = steps == 0 ? 1 : (double) k / steps;
+            boolean free = m_grid.isFree(l0 + s * dl, u0 + s * du);
+            if (free)
+                leaving = false;
+            else if (!leaving)
+                return false;
+        }
+        return !leaving || steps == 0;
+    }
+
+    /** Octile distance, in cells, a little high to break ties toward the goal. */
+    private static float heuristic(int cell, int iEnd, int jEnd) {
+        int di = Math.abs(cell / ArmOccupancyGrid.kUpperCells - iEnd);
+        int dj = Math.abs(cell % ArmOccupancyGrid.kUpperCells - jEnd);
+        int min = Math.min(di, dj);
+        int max = Math.max(di, dj);
+        return (max - min + kDiagonal * min) * 1.001f;
+    }
+
+    private static double lowerCenter(int cell) {
+        return ArmOccupancyGrid.lowerCenter(cell / ArmOccupancyGrid.kUpperCells);
+    }
+
+    private static double upperCenter(int cell) {
+        return ArmOccupancyGrid.upperCenter(cell % ArmOccupancyGrid.kUpperCells);
+    }
+
+    private void push(int cell, float key) {
+        int k = m_heapSize++;
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (m_heapKey[parent] <= key)
+                break;
+            m_heap[k] = m_heap[parent];
+            m_heapKey[k] = m_heapKey[parent];
+            k = parent;
+        }
+        m_heap[k] = cell;
+        m_heapKey[k] = key;
+    }
+
+    private int pop() {
+        int top = m_heap[0];
+        int cell = m_heap[--m_heapSize];
+        float key = m_heapKey[m_heapSize];
+        int k = 0;
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= m_heapSize)
+                break;
+            if (child + 1 < m_heapSize && m_heapKey[child + 1] < m_heapKey[child])
+                ++child;
+            if (m_heapKey[child] >= key)
+                break;
+            m_heap[k] = m_heap[child];
+            m_heapKey[k] = m_heapKey[child];
+            k = child;
+        }
+        m_heap[k] = cell;
+        m_heapKey[k] = key;
+        return top;
+    }
+}
@@ -0,0 +1,246 @@
+package frc.robot.subsystems.Arm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Arm trajectories between the setpoints, planned at boot.
+ *
+ * The arm almost always starts a move from one of the setpoints, so a plan
+ * is stored from each setpoint to each ArmPosition, in both cube and cone
+ * mode. A lookup finds the stored start nearest the actual arm position in
+ * constant time, via a grid over joint space, and if it's close enough,
+ * returns the stored plan with the small difference blended out (see
+ * {@link JointTrajectory#startingFrom}). Otherwise, or before the library
+ * is built, it plans online, which takes a fraction of a millisecond.
+ *
+ * Each plan goes around the obstacles in the {@link ArmOccupancyGrid}, via
+ * {@link ArmRouter}.
+ *
+ * Call {@link #preload()} in robotInit.
+ */
+public final class ArmTrajectoryLibrary {
+    /** Joint limits for the planner, rad/s and rad/s^2; the motors may allow less. */
+    public static final double kMaxVelocity = 3;
+    public static final double kMaxAccel = 4;
+    /** Use a stored plan if each joint is within this of its start. */
+    static final double kMaxStartErrorRad = 0.15;
+    /** Blend the start error out over this long. */
+    static final double kBlendS = 0.5;
+    private static final double kCellRad = 0.05;
+    private static final int kCells = (int) Math.ceil(2 * Math.PI / kCellRad);
+
+    // Cone
+    private static final InverseKinematicsAngle highGoalCone = new InverseKinematicsAngle(1.05, 0.58); // tuned for our mock up
+    private static final InverseKinematicsAngle midGoalCone = new InverseKinematicsAngle(1.53, 0.18); // not real
+    private static final InverseKinematicsAngle lowGoalCone = new InverseKinematicsAngle(2.21, 0); // not real
+    private static final InverseKinematicsAngle subCone = new InverseKinematicsAngle(1.473078, -0.462283); // tuned for our mock up
+
+    // Cube
+    private static final InverseKinematicsAngle highGoalCube = new InverseKinematicsAngle(1.390242, 0.648938); // not real
+    private static final InverseKinematicsAngle midGoalCube = new InverseKinematicsAngle(1.91, 0.19); // not real
+    private static final InverseKinematicsAngle lowGoalCube = new InverseKinematicsAngle(2.271662, -0.049849); // not real
+    private static final InverseKinematicsAngle subCube = new InverseKinematicsAngle(1.473078, -0.462283); // not real
+    private static final InverseKinematicsAngle subToCube = new InverseKinematicsAngle(1.100452, -0.734924); // not real
+
+    private static final InverseKinematicsAngle safeBack = new InverseKinematicsAngle(1.97, -0.55);
+    private static final InverseKinematicsAngle safeGoal = ik(0.2, 0.125);
+
+    private static final ArmPosition[] kPositions = ArmPosition.values();
+
+    private static ArmTrajectoryLibrary instance;
+
+    private final ArmDynamics m_dynamics;
+    private final ArmOccupancyGrid m_grid;
+    private final ArmRouter m_router;
+    private final ArmPlanner m_planner;
+    private final ArmPlanner m_gentlePlanner;
+    private final Executor m_executor;
+    private final List<InverseKinematicsAngle> m_starts = new ArrayList<>();
+    /** For each grid cell, the index of the nearest start, or -1. */
+    private final int[] m_cells = new int[kCells * kCells];
+    /** Indexed by start, mode (cube is 1) and position ordinal. */
+    private JointTrajectory[][][] m_plans;
+    private volatile boolean m_ready;
+    private int m_hits;
+    private int m_misses;
+
+    public static synchronized ArmTrajectoryLibrary getInstance() {
+        if (instance == null) {
+            instance = new ArmTrajectoryLibrary(ArmDynamics.compBot(), ArmOccupancyGrid.getInstance(), Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ArmTrajectoryLibrary");
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            }));
+        }
+        return instance;
+    }
+
+    public ArmTrajectoryLibrary(ArmDynamics dynamics, ArmOccupancyGrid grid, Executor executor) {
+        m_dynamics = dynamics;
+        m_grid = grid;
+        m_router = new ArmRouter(grid);
+        m_planner = planner(dynamics, ArmPosition.HIGH);
+        m_gentlePlanner = planner(dynamics, ArmPosition.SAFE);
+        m_executor = executor;
+    }
+
+    /** Where each position goes, or null if it isn't a setpoint. */
+    public static InverseKinematicsAngle goal(ArmPosition position, boolean cubeMode) {
+        switch (position) {
+            case SAFE:
+                return safeGoal;
+            case SAFEBACK:
+                return safeBack;
+            case SUBTOCUBE:
+                return subToCube;
+            case HIGH:
+                return cubeMode ? highGoalCube : highGoalCone;
+            case MID:
+                return cubeMode ? midGoalCube : midGoalCone;
+            case LOW:
+                return cubeMode ? lowGoalCube : lowGoalCone;
+            case SUB:
+                return cubeMode ? subCube : subCone;
+            default:
+                return null;
+        }
+    }
+
+    /** Plans for every transition, in the background. */
+    public CompletableFuture<Void> preload() {
+        return CompletableFuture.runAsync(this::build, m_executor);
+    }
+
+    /**
+     * A plan from the current position to the position's setpoint, stored if
+     * possible.
+     *
+     * @return the plan, or null if the position isn't a setpoint or there's
+     *         no feasible plan.
+     */
+    public JointTrajectory get(ArmPosition position, boolean cubeMode, double lower, double upper) {
+        if (goal(position, cubeMode) == null)
+            return null;
+        if (m_ready) {
+            int start = m_cells[cell(lower, upper)];
+            if (start >= 0 && near(m_starts.get(start), lower, upper)) {
+                JointTrajectory stored = m_plans[start][cubeMode ? 1 : 0][position.ordinal()];
+                if (stored != null) {
+                    m_hits++;
+                    return stored.startingFrom(lower, upper, kBlendS);
+                }
+            }
+        }
+        m_misses++;
+        return plan(m_router, m_planner, m_gentlePlanner, position, cubeMode, lower, upper);
+    }
+
+    public int getHits() {
+        return m_hits;
+    }
+
+    public int getMisses() {
+        return m_misses;
+    }
+
+    /** Each start to each setpoint; the planners here are the build thread's own. */
+    private void build() {
+        if (m_ready)
+            return;
+        ArmRouter router = new ArmRouter(m_grid);
+        ArmPlanner planner = planner(m_dynamics, ArmPosition.HIGH);
+        ArmPlanner gentlePlanner = planner(m_dynamics, ArmPosition.SAFE);
+        for (boolean cubeMode : new boolean[] { false, true }) {
+            for (ArmPosition p : kPositions) {
+                InverseKinematicsAngle g = goal(p, cubeMode);
+                if (g != null && !m_starts.stream().anyMatch(s -> same(s, g)))
+                    m_starts.add(g);
+            }
+        }
+        JointTrajectory[][][] plans = new JointTrajectory[m_starts.size()][2][kPositions.length];
+        for (int s = 0; s < m_starts.size(); ++s) {
+            InverseKinematicsAngle start = m_starts.get(s);
+            for (int mode = 0; mode < 2; ++mode) {
+                for (ArmPosition p : kPositions) {
+                    plans[s][mode][p.ordinal()] = plan(
+                            router, planner, gentlePlanner, p, mode == 1, start.lowerTheta, start.upperTheta);
+                }
+            }
+        }
+        // the nearest start to each cell center, if it's within reach.
+        double reach = kMaxStartErrorRad + kCellRad;
+        for (int i = 0; i < kCells; ++i) {
+            for (int j = 0; j < kCells; ++j) {
+                double lower = -Math.PI + (i + 0.5) * kCellRad;
+                double upper = -Math.PI + (j + 0.5) * kCellRad;
+                int best = -1;
+                double bestDistance = reach;
+                for (int s = 0; s < m_starts.size(); ++s) {
+                    InverseKinematicsAngle start = m_starts.get(s);
+                    double d = Math.max(
+                            Math.abs(start.lowerTheta - lower),
+                            Math.abs(start.upperTheta - upper));
+                    if (d <= bestDistance) {
+                        best = s;
+                        bestDistance = d;
+                    }
+                }
+                m_cells[i * kCells + j] = best;
+            }
+        }
+        m_plans = plans;
+        m_ready = true;
+    }
+
+    private static JointTrajectory plan(
+            ArmRouter router,
+            ArmPlanner planner,
+            ArmPlanner gentlePlanner,
+            ArmPosition position,
+            boolean cubeMode,
+            double lower,
+            double upper) {
+        InverseKinematicsAngle goal = goal(position, cubeMode);
+        if (goal == null)
+            return null;
+        double[][] route = router.route(lower, upper, goal.lowerTheta, goal.upperTheta);
+        if (route == null)
+            return null;
+        ArmPlanner p = position == ArmPosition.SAFE ? gentlePlanner : planner;
+        return p.plan(route[0], route[1]);
+    }
+
+    /** Stowing is gentler, to keep hold of the game piece. */
+    private static ArmPlanner planner(ArmDynamics dynamics, ArmPosition position) {
+        double accel = position == ArmPosition.SAFE ? kMaxAccel / 2 : kMaxAccel;
+        return new ArmPlanner(dynamics, kMaxVelocity, kMaxVelocity, accel, accel);
+    }
+
+    private static int cell(double lower, double upper) {
+        int i = (int) Math.floor((lower + Math.PI) / kCellRad);
+        int j = (int) Math.floor((upper + Math.PI) / kCellRad);
+        i = Math.max(0, Math.min(kCells - 1, i));
+        j = Math.max(0, Math.min(kCells - 1, j));
+        return i * kCells + j;
+    }
+
+    private static boolean near(InverseKinematicsAngle start, double lower, double upper) {
+        return Math.abs(start.lowerTheta - lower) <= kMaxStartErrorRad
+                && Math.abs(start.upperTheta - upper) <= kMaxStartErrorRad;
+    }
+
+    private static boolean same(InverseKinematicsAngle a, InverseKinematicsAngle b) {
+        return a.lowerTheta == b.lowerTheta && a.upperTheta == b.upperTheta;
+    }
+
+    /** As ArmController.calculate(). */
+    private static InverseKinematicsAngle ik(double x, double y) {
+        double[] angles = ArmKinematics.algorithm2RIKS(x, y);
+        return new InverseKinematicsAngle(angles[0], angles[1]);
+    }
+}
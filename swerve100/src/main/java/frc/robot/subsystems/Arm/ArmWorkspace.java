@@ -0,0 +1,102 @@
+package frc.robot.subsystems.Arm;
+
+/**
+ * What the arm must not hit: the floor, the robot frame and bumpers, the
+ * shoulder tower, and the scoring grid, as rectangles in the arm plane, plus
+ * the upper segment folding onto the lower.
+ *
+ * Coordinates are as in {@link ArmKinematics}, meters from the shoulder
+ * pivot, X up and Y forward. The grid is assumed to be just beyond the front
+ * bumper all the time, which is conservative anywhere else on the field.
+ * Dimensions are from CAD and the 2023 game manual, not measured.
+ */
+public class ArmWorkspace {
+    private static final double kShoulderHeightM = 0.40;
+    private static final double kFloor = -kShoulderHeightM;
+    private static final double kBumperFrontM = 0.33;
+
+    /** Obstacles, {xMin, xMax, yMin, yMax}. */
+    private static final double[][] kObstacles = {
+            // floor
+            { kFloor - 1, kFloor, -3, 3 },
+            // frame
+            { kFloor, kFloor + 0.20, -0.60, 0.25 },
+            // bumpers
+            { kFloor + 0.02, kFloor + 0.15, -0.68, -0.60 },
+            { kFloor + 0.02, kFloor + 0.15, 0.25, kBumperFrontM },
+            // shoulder tower, stopping short of the pivot
+            { kFloor, -0.12, -0.06, 0.06 },
+            // grid: mid and high cube shelves
+            { kFloor, kFloor + 0.60, kBumperFrontM + 0.36, kBumperFrontM + 0.79 },
+            { kFloor, kFloor + 0.90, kBumperFrontM + 0.79, kBumperFrontM + 1.37 },
+            // grid: mid and high cone poles
+            { kFloor, kFloor + 0.86, kBumperFrontM + 0.56, kBumperFrontM + 0.60 },
+            { kFloor, kFloor + 1.17, kBumperFrontM + 0.99, kBumperFrontM + 1.03 },
+    };
+
+    /** Keep the upper segment at least this far from folding flat onto the lower. */
+    private static final double kMinFoldRad = 0.15;
+
+    private final double m_clearanceM;
+
+    /** @param clearanceM how close the arm may come to an obstacle */
+    public ArmWorkspace(double clearanceM) {
+        m_clearanceM = clearanceM;
+    }
+
+    /** True if neither segment hits anything in this configuration. */
+    public boolean isFree(double lower, double upper) {
+        double fold = Math.abs(Math.IEEEremainder(upper - lower, 2 * Math.PI));
+        if (Math.PI - fold < kMinFoldRad)
+            return false;
+        double elbowX = ArmKinematics.kLowerArmLength * Math.cos(lower);
+        double elbowY = ArmKinematics.kLowerArmLength * Math.sin(lower);
+        double tipX = elbowX + ArmKinematics.kUpperArmLength * Math.cos(upper);
+        double tipY = elbowY + ArmKinematics.kUpperArmLength * Math.sin(upper);
+        for (double[] box : kObstacles) {
+            if (hits(0, 0, elbowX, elbowY, box) || hits(elbowX, elbowY, tipX, tipY, box))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Changes whenever the geometry does, so a stored grid built from other
+     * geometry can be detected.
+     */
+    public long fingerprint() {
+        long h = 17;
+        for (double[] box : kObstacles) {
+            for (double d : box)
+                h = 31 * h + Double.doubleToLongBits(d);
+        }
+        h = 31 * h + Double.doubleToLongBits(kMinFoldRad);
+        h = 31 * h + Double.doubleToLongBits(m_clearanceM);
+        h = 31 * h + Double.doubleToLongBits(ArmKinematics.kLowerArmLength);
+        h = 31 * h + Double.doubleToLongBits(ArmKinematics.kUpperArmLength);
+        return h;
+    }
+
+    /** Segment against the box grown by the clearance, by clipping to each slab. */
+    private boolean hits(double x0, double y0, double x1, double y1, double[] box) {
+        double t0 = 0;
+        double t1 = 1;
+        double[] range = clip(x0, x1 - x0, box[0] - m_clearanceM, box[1] + m_clearanceM, t0, t1);
+        if (range == null)
+            return false;
+        range = clip(y0, y1 - y0, box[2] - m_clearanceM, box[3] + m_clearanceM, range[0], range[1]);
+        return range != null;
+    }
+
+    /** @return the part of [t0, t1] where p + t * d is within [min, max], or null */
+    private static double[] clip(double p, double d, double min, double max, double t0, double t1) {
+        if (d == 0) {
+            return p < min || p > max ? null : new double[] { t0, t1 };
+        }
+        double a = (min - p) / d;
+        double b = (max - p) / d;
+        t0 = Math.max(t0, Math.min(a, b));
+        t1 = Math.min(t1, Math.max(a, b));
+        return t0 > t1 ? null : new double[] { t0, t1 };
+    }
+}
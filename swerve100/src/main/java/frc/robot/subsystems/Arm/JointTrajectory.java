@@ -0,0 +1,225 @@
+package frc.robot.subsystems.Arm;
+
+/**
+ * A timed path for both arm joints, as knots with position and velocity for
+ * each joint, and constant acceleration between knots.
+ *
+ * Sampling is like team100.trajectory.TrajectorySampler: a cursor follows
+ * the time forward, and the sample goes into fields read with the getters,
+ * so execute() doesn't allocate. Between knots the position is the cubic
+ * Hermite through the knot positions and velocities.
+ */
+public class JointTrajectory {
+    private final double[] m_t;
+    private final double[] m_lower;
+    private final double[] m_upper;
+    private final double[] m_lowerVelocity;
+    private final double[] m_upperVelocity;
+    /** acceleration from knot i to i+1 */
+    private final double[] m_lowerAccel;
+    private final double[] m_upperAccel;
+    /** Offset of the actual start from the planned one, blended out. */
+    private final double m_offsetLower;
+    private final double m_offsetUpper;
+    private final double m_blendS;
+    private int m_cursor = 1;
+
+    private double m_sampleLower;
+    private double m_sampleUpper;
+    private double m_sampleLowerVelocity;
+    private double m_sampleUpperVelocity;
+    private double m_sampleLowerAccel;
+    private double m_sampleUpperAccel;
+
+    /** All arrays the same length, at least one. */
+    JointTrajectory(
+            double[] t,
+            double[] lower,
+            double[] upper,
+            double[] lowerVelocity,
+            double[] upperVelocity,
+            double[] lowerAccel,
+            double[] upperAccel) {
+        this(t, lower, upper, lowerVelocity, upperVelocity, lowerAccel, upperAccel, 0, 0, 0);
+    }
+
+    private JointTrajectory(
+            double[] t,
+            double[] lower,
+            double[] upper,
+            double[] lowerVelocity,
+            double[] upperVelocity,
+            double[] lowerAccel,
+            double[] upperAccel,
+            double offsetLower,
+            double offsetUpper,
+            double blendS) {
+        m_t = t;
+        m_lower = lower;
+        m_upper = upper;
+        m_lowerVelocity = lowerVelocity;
+        m_upperVelocity = upperVelocity;
+        m_lowerAccel = lowerAccel;
+        m_upperAccel = upperAccel;
+        m_offsetLower = offsetLower;
+        m_offsetUpper = offsetUpper;
+        m_blendS = blendS;
+    }
+
+    /** Stay where you are. */
+    public static JointTrajectory stationary(double lower, double upper) {
+        return new JointTrajectory(
+                new double[] { 0 },
+                new double[] { lower },
+                new double[] { upper },
+                new double[1],
+                new double[1],
+                new double[1],
+                new double[1]);
+    }
+
+    /**
+     * The same plan, starting from a nearby position instead, for a stored
+     * plan whose start is close to where the arm actually is. The difference
+     * is blended out with a smoothstep over blendS, so the start is still at
+     * rest, and after blendS this is the original plan. The knots are shared,
+     * and the copy gets its own cursor.
+     */
+    public JointTrajectory startingFrom(double lower, double upper, double blendS) {
+        return new JointTrajectory(
+                m_t,
+                m_lower,
+                m_upper,
+                m_lowerVelocity,
+                m_upperVelocity,
+                m_lowerAccel,
+                m_upperAccel,
+                lower - m_lower[0],
+                upper - m_upper[0],
+                Math.max(blendS, 1e-3));
+    }
+
+    public double getStartLower() {
+        return m_lower[0];
+    }
+
+    public double getStartUpper() {
+        return m_upper[0];
+    }
+
+    /** Includes the blend, if it's longer than the plan. */
+    public double getTotalTimeSeconds() {
+        return Math.max(m_t[m_t.length - 1], m_blendS);
+    }
+
+    public double getEndLower() {
+        return m_lower[m_lower.length - 1];
+    }
+
+    public double getEndUpper() {
+        return m_upper[m_upper.length - 1];
+    }
+
+    /**
+     * Sample at time t, measured from the start. Amortized constant time if t
+     * doesn't decrease.
+     */
+    public void sample(double t) {
+        sampleKnots(t);
+        if (m_blendS == 0 || t >= m_blendS)
+            return;
+        double u = Math.max(0, t / m_blendS);
+        // weight of the offset, from one to zero, and its derivatives
+        double w = 1 - u * u * (3 - 2 * u);
+        double dw = -6 * u * (1 - u) / m_blendS;
+        double ddw = -(6 - 12 * u) / (m_blendS * m_blendS);
+        m_sampleLower += m_offsetLower * w;
+        m_sampleUpper += m_offsetUpper * w;
+        m_sampleLowerVelocity += m_offsetLower * dw;
+        m_sampleUpperVelocity += m_offsetUpper * dw;
+        m_sampleLowerAccel += m_offsetLower * ddw;
+        m_sampleUpperAccel += m_offsetUpper * ddw;
+    }
+
+    private void sampleKnots(double t) {
+        int last = m_t.length - 1;
+        if (t <= m_t[0] || last == 0) {
+            copy(0);
+            m_sampleLowerAccel = m_lowerAccel[0];
+            m_sampleUpperAccel = m_upperAccel[0];
+            return;
+        }
+        if (t >= m_t[last]) {
+            copy(last);
+            m_sampleLowerAccel = 0;
+            m_sampleUpperAccel = 0;
+            return;
+        }
+        if (t < m_t[m_cursor - 1])
+            m_cursor = 1;
+        while (m_t[m_cursor] < t)
+            ++m_cursor;
+        int i = m_cursor - 1;
+        int j = m_cursor;
+        double h = m_t[j] - m_t[i];
+        if (h <= 0) {
+            copy(j);
+            return;
+        }
+        double u = (t - m_t[i]) / h;
+        double u2 = u * u;
+        double u3 = u2 * u;
+        // cubic Hermite basis and derivatives
+        double h00 = 2 * u3 - 3 * u2 + 1;
+        double h10 = u3 - 2 * u2 + u;
+        double h01 = -2 * u3 + 3 * u2;
+        double h11 = u3 - u2;
+        double d00 = (6 * u2 - 6 * u) / h;
+        double d10 = 3 * u2 - 4 * u + 1;
+        double d01 = (-6 * u2 + 6 * u) / h;
+        double d11 = 3 * u2 - 2 * u;
+        m_sampleLower = h00 * m_lower[i] + h10 * h * m_lowerVelocity[i]
+                + h01 * m_lower[j] + h11 * h * m_lowerVelocity[j];
+        m_sampleUpper = h00 * m_upper[i] + h10 * h * m_upperVelocity[i]
+                + h01 * m_upper[j] + h11 * h * m_upperVelocity[j];
+        m_sampleLowerVelocity = d00 * m_lower[i] + d10 * m_lowerVelocity[i]
+                + d01 * m_lower[j] + d11 * m_lowerVelocity[j];
+        m_sampleUpperVelocity = d00 * m_upper[i] + d10 * m_upperVelocity[i]
+                + d01 * m_upper[j] + d11 * m_upperVelocity[j];
+        m_sampleLowerAccel = m_lowerAccel[i];
+        m_sampleUpperAccel = m_upperAccel[i];
+    }
+
+    public double getLower() {
+        return m_sampleLower;
+    }
+
+    public double getUpper() {
+        return m_sampleUpper;
+    }
+
+    public double getLowerVelocity() {
+        return m_sampleLowerVelocity;
+    }
+
+    public double getUpperVelocity() {
+        return m_sampleUpperVelocity;
+    }
+
+    public double getLowerAccel() {
+        return m_sampleLowerAccel;
+    }
+
+    public double getUpperAccel() {
+        return m_sampleUpperAccel;
+    }
+
+    private void copy(int i) {
+        m_sampleLower = m_lower[i];
+        m_sampleUpper = m_upper[i];
+        m_sampleLowerVelocity = m_lowerVelocity[i];
+        m_sampleUpperVelocity = m_upperVelocity[i];
+        m_sampleLowerAccel = m_lowerAccel[i];
+        m_sampleUpperAccel = m_upperAccel[i];
+    }
+}
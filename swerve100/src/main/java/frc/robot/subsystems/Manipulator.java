@@ -12,6 +12,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.FRCLib.Motors.FRCTalonSRX;
 import frc.robot.FRCLib.Motors.FRCTalonSRX.FRCTalonSRXBuilder;
+import team100.telemetry.LoopProfiler;
 
 public class Manipulator extends SubsystemBase {
   /** Creates a new Manipulator. */
@@ -19,6 +20,7 @@ public class Manipulator extends SubsystemBase {
   public AnalogEncoder position;
   public PIDController pinchController;
   private double origin;
+  private final LoopProfiler.Section m_profile = LoopProfiler.getInstance().section("Manipulator.periodic()");
 //   private DigitalInput sensor = new DigitalInput(0);
 
   public Manipulator() {
@@ -33,24 +35,13 @@ public class Manipulator extends SubsystemBase {
     .withPeakOutputForward(1)
     .withPeakOutputReverse(-1)
     //.withNeutralMode(Constants.DrivetrainConstants.DrivetrainMotors.LeftMaster.NEUTRAL_MODE)
-    // .withCurrentLimitEnabled(true)
+    .withCurrentLimitEnabled(true)
     //.withCurrentLimit(7)
+    .withPeakCurrentLimit(25)
+    // .withPeakCurrentDuration(1000)
+    .withConfigCache(true)
     .build();
 
-    pinch.motor.configPeakCurrentLimit(25);
-    // pinch.motor.configContinuousCurrentLimit(1);
-
-    // pinch.motor.configPeakCurrentDuration(0)
-    // pinch.motor.configPeakCurrentDuration(1000);
-
-    pinch.motor.enableCurrentLimit(true);
-    // pinch.motor.enableCont
-    // pinch.motor.configCurrent
-
-    
-
-    
-
     position = new AnalogEncoder(6);
 
     position.reset();
@@ -66,7 +57,9 @@ public class Manipulator extends SubsystemBase {
     // System.out.println(pinch.getAppliedOutput());
 
     // System.out.println(pinch.getSelectedSensorPosition());
+    m_profile.begin();
     SmartDashboard.putData("Manipulator", this);
+    m_profile.end();
     //System.out.println("in Manipulator");
   }
   public double getOrigin(){
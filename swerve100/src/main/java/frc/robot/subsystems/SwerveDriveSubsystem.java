@@ -14,69 +14,47 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
-import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.DoubleArrayPublisher;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StringPublisher;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.RobotContainer;
-import team100.config.Identity;
+import team100.config.RobotConfig;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModulePosition;
+import team100.geometry.MutableModuleState;
+import team100.kinematics.ChassisSpeedFactory;
+import team100.kinematics.FourModuleKinematics;
+import team100.kinematics.SwerveSetpointGenerator;
 import team100.localization.VisionDataProvider;
+import team100.telemetry.GainTuner;
+import team100.telemetry.LoopProfiler;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 public class SwerveDriveSubsystem extends SubsystemBase {
     // TODO: make this an instance var
     public static final SwerveDriveKinematics kDriveKinematics;
+    /**
+     * Same geometry, for the trajectory planner thread: kinematics remember the
+     * last module headings, so the loop and the planner can't share one.
+     */
+    public static final SwerveDriveKinematics kPlannerKinematics;
+    /** Same geometry again, for the loop, without allocating. */
+    private static final FourModuleKinematics kKinematics;
     // public ChassisSpeeds robotStates = new ChassisSpeeds();
     // public double observedVelocity;
     public ChassisSpeeds desiredChassisSpeeds = new ChassisSpeeds();
 
     static {
-        final double kTrackWidth;
-        final double kWheelBase;
-        switch (Identity.get()) {
-            case COMP_BOT:
-                kTrackWidth = 0.491;
-                kWheelBase = 0.765;
-                break;
-            case SWERVE_TWO:
-                kTrackWidth = 0.380;
-                kWheelBase = 0.445;
-                break;
-            case SWERVE_ONE:
-                kTrackWidth = 0.449;
-                kWheelBase = 0.464;
-                break;
-            case FROM_8048:
-                kTrackWidth = 0.46;
-                kWheelBase = 0.55; // approximate
-                break;
-            case BLANK: // for simulation
-                kTrackWidth = 0.5;
-                kWheelBase = 0.5;
-                break;
-            case TEST_BOARD_6B: // for testing
-                kTrackWidth = 0.5;
-                kWheelBase = 0.5;
-                break;
-            case CAMERA_DOLLY:
-                kTrackWidth = 1;
-                kWheelBase = 1;
-                break;
-            default:
-                throw new IllegalStateException("Identity is not swerve: " + Identity.get().name());
-        }
-
-        kDriveKinematics = new SwerveDriveKinematics(
-                new Translation2d(kWheelBase / 2, kTrackWidth / 2),
-                new Translation2d(kWheelBase / 2, -kTrackWidth / 2),
-                new Translation2d(-kWheelBase / 2, kTrackWidth / 2),
-                new Translation2d(-kWheelBase / 2, -kTrackWidth / 2));
+        Translation2d[] modules = RobotConfig.get().moduleLocations();
+        kDriveKinematics = new SwerveDriveKinematics(modules);
+        kPlannerKinematics = new SwerveDriveKinematics(modules);
+        kKinematics = new FourModuleKinematics(modules);
     }
 
     public final double kMaxSpeedMetersPerSecond;
@@ -102,6 +80,7 @@ public class SwerveDriveSubsystem extends SubsystemBase {
     public VisionDataProvider visionDataProvider;
 
     private final AHRSClass m_gyro;
+    private final LoopProfiler.Section m_profile = LoopProfiler.getInstance().section("Drive Subsystem.periodic()");
 
     private boolean moving = false;
 
@@ -113,8 +92,48 @@ public class SwerveDriveSubsystem extends SubsystemBase {
     private final DoubleArrayPublisher robotPosePub;
     private final StringPublisher fieldTypePub;
 
+    // Scratch for the drive loop, reused every cycle.
+    private final MutableChassisSpeeds m_speeds = new MutableChassisSpeeds();
+    private final MutableChassisSpeeds m_velocity = new MutableChassisSpeeds();
+    private final MutableModuleState[] m_states = MutableModuleState.array(4);
+    private final MutableModuleState[] m_measured = MutableModuleState.array(4);
+    private final MutableChassisSpeeds m_measuredSpeeds = new MutableChassisSpeeds();
+    private final double[] m_wheelAccel = new double[4];
+
+    /** Robot loop period. */
+    private static final double kDtS = 0.02;
+    private final SwerveSetpointGenerator m_setpoints;
+    private final ChassisSpeedFactory m_chassisSpeeds;
+    /** Counts periodic() calls, to tell if the generator ran last cycle. */
+    private long m_cycle;
+    private long m_generatedCycle = -1;
+    private final MutableModulePosition m_position = new MutableModulePosition();
+    private final SwerveModulePosition[] m_positions = {
+            new SwerveModulePosition(), new SwerveModulePosition(),
+            new SwerveModulePosition(), new SwerveModulePosition() };
+    private final double[] m_robotPose = new double[3];
+
     public SwerveDriveSubsystem(DriverStation.Alliance alliance, double currentLimit, AHRSClass gyro) throws IOException {
+        this(alliance, gyro,
+                SwerveModuleFactory.module(RobotConfig.get(), RobotConfig.get().modules.get(0), currentLimit),
+                SwerveModuleFactory.module(RobotConfig.get(), RobotConfig.get().modules.get(1), currentLimit),
+                SwerveModuleFactory.module(RobotConfig.get(), RobotConfig.get().modules.get(2), currentLimit),
+                SwerveModuleFactory.module(RobotConfig.get(), RobotConfig.get().modules.get(3), currentLimit));
+    }
+
+    /**
+     * With the modules supplied, e.g. simulated ones, see SimSwerveDrive. They
+     * go where the config puts them: front left, front right, rear left, rear
+     * right.
+     */
+    public SwerveDriveSubsystem(DriverStation.Alliance alliance, AHRSClass gyro,
+            SwerveModule frontLeft, SwerveModule frontRight,
+            SwerveModule rearLeft, SwerveModule rearRight) throws IOException {
         m_gyro = gyro;
+        m_frontLeft = frontLeft;
+        m_frontRight = frontRight;
+        m_rearLeft = rearLeft;
+        m_rearRight = rearRight;
         // Sets up Field2d pose tracking for glass.
         NetworkTableInstance inst = NetworkTableInstance.getDefault();
         NetworkTable fieldTable = inst.getTable("field");
@@ -125,396 +144,22 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         // kSlowSpeedMetersPerSecond = 0.5;
         // kSlowAngularSpeedRadiansPerSecond = 0.25;
 
-        switch (Identity.get()) {
-            case COMP_BOT:
-                headingController = new ProfiledPIDController( //
-                        1, // kP
-                        0, // kI
-                        0, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                4 * Math.PI)); // accel rad/s/s
-                headingController.setIntegratorRange(-0.1, 0.1);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-                kMaxSpeedMetersPerSecond = 15;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-                xController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                xController.setTolerance(0.01);
-
-                yController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                yController.setTolerance(0.01);
-
-                thetaController = new ProfiledPIDController(
-                        3.0, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.WCPModule(
-                        "Front Left",
-                        11, // drive CAN
-                        30, // turn CAN
-                        0, // turn encoder
-                        0.267276, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.WCPModule(
-                        "Front Right",
-                        12, // drive CAN
-                        32, // turn CAN
-                        1, // turn encoder
-                        0.872793, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.WCPModule(
-                        "Rear Left",
-                        21, // drive CAN
-                        31, // turn CAN
-                        2, // turn encoder
-                        0.754087, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.WCPModule(
-                        "Rear Right",
-                        22, // drive CAN
-                        33, // turn CAN
-                        3, // turn encoder
-                        0.477936, // turn offset
-                        currentLimit);
-                break;
-            case SWERVE_TWO:
-                headingController = new ProfiledPIDController( //
-                        1, // kP
-                        0, // kI
-                        0.05, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                4 * Math.PI)); // accel rad/s/s
-
-                headingController.setIntegratorRange(-0.5, 0.5);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-                kMaxSpeedMetersPerSecond = 5;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-
-                xController = new PIDController(
-                        2, // kP
-                        0.1, // kI
-                        0.0); // kD
-                xController.setTolerance(0.01);
-                xController.setIntegratorRange(-0.5, 0.5);
-
-                yController = new PIDController(
-                        2, // kP
-                        0.1, // kI
-                        0.0); // kD
-                yController.setTolerance(0.01);
-                yController.setIntegratorRange(-0.5, 0.5);
-
-                thetaController = new ProfiledPIDController(
-                        3, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.AMModule(
-                        "Front Left",
-                        11, // drive CAN
-                        3, // turn PWM
-                        1, // turn encoder
-                        0.035097, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.AMModule(
-                        "Front Right",
-                        12, // drive CAN
-                        1, // turn PWM
-                        3, // turn encoder
-                        0.083566, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.AMModule(
-                        "Rear Left",
-                        21, // drive CAN
-                        2, // turn PWM
-                        0, // turn encoder
-                        0.871471, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.AMModule(
-                        "Rear Right",
-                        22, // drive CAN
-                        0, // turn PWM
-                        2, // turn encoder
-                        0.605593, // turn offset
-                        currentLimit);
-                break;
-            case SWERVE_ONE:
-                headingController = new ProfiledPIDController( //
-                        0.5, // kP
-                        0, // kI
-                        0, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                4 * Math.PI)); // accel rad/s/s
-
-                headingController.setIntegratorRange(-0.1, 0.1);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-                kMaxSpeedMetersPerSecond = 5;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-                xController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                xController.setTolerance(0.2);
-
-                yController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                yController.setTolerance(0.2);
-
-                thetaController = new ProfiledPIDController(
-                        3.0, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.AMModule(
-                        "Front Left",
-                        11, // drive CAN
-                        0, // turn PWM0
-                        3, // turn encoder
-                        0.69, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.AMModule(
-                        "Front Right",
-                        12, // drive CAN
-                        2, // turn PWM
-                        0, // turn encoder
-                        0.72, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.AMModule(
-                        "Rear Left",
-                        21, // drive CAN
-                        1, // turn PWM
-                        2, // turn encoder
-                        0.37, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.AMModule(
-                        "Rear Right",
-                        22, // drive CAN
-                        3, // turn PWM
-                        1, // turn encoder
-                        0.976726, // turn offset
-                        currentLimit);
-                break;
-            case FROM_8048:
-                headingController = new ProfiledPIDController( //
-                        1, // kP
-                        .5, // kI
-                        0.15, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                2 * Math.PI)); // accel rad/s/s
-
-                headingController.setIntegratorRange(-0.1, 0.1);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-                kMaxSpeedMetersPerSecond = 5;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-                xController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                xController.setTolerance(0.2);
-
-                yController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                yController.setTolerance(0.2);
-
-                thetaController = new ProfiledPIDController(
-                        3.0, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.AMCANModule(
-                        "Front Left",
-                        3, // drive CAN
-                        8, // turn CAN
-                        1, // turn encoder (confirmed)
-                        0.355157, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.AMCANModule(
-                        "Front Right",
-                        2, // drive CAN
-                        6, // turn CAN
-                        0, // turn encoder (confirmed)
-                        0.404786, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.AMCANModule(
-                        "Rear Left",
-                        1, // drive CAN
-                        9, // turn CAN
-                        3, // turn encoder (confirmed)
-                        0.238757, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.AMCANModule(
-                        "Rear Right",
-                        4, // drive CAN
-                        7, // turn CAN
-                        2, // turn encoder (confirmed)
-                        0.233683, // turn offset
-                        currentLimit);
-                break;
-            case BLANK: // for simulation; just like squarebot for now
-                headingController = new ProfiledPIDController( //
-                        1, // kP
-                        .5, // kI
-                        0.15, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                2 * Math.PI)); // accel rad/s/s
-
-                headingController.setIntegratorRange(-0.1, 0.1);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-
-                kMaxSpeedMetersPerSecond = 5;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-                xController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                xController.setTolerance(0.2);
-
-                yController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                yController.setTolerance(0.2);
-
-                thetaController = new ProfiledPIDController(
-                        3.0, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.WCPModule(
-                        "Front Left",
-                        11, // drive CAN
-                        30, // turn CAN
-                        2, // turn encoder
-                        0.812, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.WCPModule(
-                        "Front Right",
-                        12, // drive CAN
-                        32, // turn CAN
-                        0, // turn encoder
-                        0.382, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.WCPModule(
-                        "Rear Left",
-                        21, // drive CAN
-                        31, // turn CAN
-                        3, // turn encoder
-                        0.172, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.WCPModule(
-                        "Rear Right",
-                        22, // drive CAN
-                        33, // turn CAN
-                        1, // turn encoder
-                        0.789, // turn offset
-                        currentLimit);
-                break;
-            case CAMERA_DOLLY:
-            headingController = new ProfiledPIDController( //
-                        1, // kP
-                        0, // kI
-                        0, // kD
-                        new TrapezoidProfile.Constraints(
-                                2 * Math.PI, // speed rad/s
-                                4 * Math.PI)); // accel rad/s/s
-                headingController.setIntegratorRange(-0.1, 0.1);
-                // Note very low heading tolerance.
-                headingController.setTolerance(Units.degreesToRadians(0.1));
-                kMaxSpeedMetersPerSecond = 5;
-                kMaxAccelerationMetersPerSecondSquared = 10;
-                kMaxAngularSpeedRadiansPerSecond = 5;
-                kMaxAngularSpeedRadiansPerSecondSquared = 5;
-                xController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                xController.setTolerance(0.01);
-
-                yController = new PIDController(
-                        0.15, // kP
-                        0.0, // kI
-                        0.0); // kD
-                yController.setTolerance(0.01);
-
-                thetaController = new ProfiledPIDController(
-                        3.0, // kP
-                        0.0, // kI
-                        0.0, // kD
-                        new TrapezoidProfile.Constraints(
-                                kMaxAngularSpeedRadiansPerSecond,
-                                kMaxAngularSpeedRadiansPerSecondSquared));
-                m_frontLeft = SwerveModuleFactory.WCPModule(
-                        "Front Left",
-                        11, // drive CAN
-                        30, // turn CAN
-                        0, // turn encoder
-                        0.267276, // turn offset
-                        currentLimit);
-                m_frontRight = SwerveModuleFactory.WCPModule(
-                        "Front Right",
-                        12, // drive CAN
-                        32, // turn CAN
-                        1, // turn encoder
-                        0.872709, // turn offset
-                        currentLimit);
-                m_rearLeft = SwerveModuleFactory.WCPModule(
-                        "Rear Left",
-                        21, // drive CAN
-                        31, // turn CAN
-                        2, // turn encoder
-                        0.754813, // turn offset
-                        currentLimit);
-                m_rearRight = SwerveModuleFactory.WCPModule(
-                        "Rear Right",
-                        22, // drive CAN
-                        33, // turn CAN
-                        3, // turn encoder
-                        0.477917, // turn offset
-                        currentLimit);
-            break;
-            default:
-                throw new IllegalStateException("Identity is not swerve: " + Identity.get().name());
-        }
+        RobotConfig config = RobotConfig.get();
+        headingController = config.heading.profiledController();
+        kMaxSpeedMetersPerSecond = config.maxSpeedMS;
+        kMaxAccelerationMetersPerSecondSquared = config.maxAccelerationMS2;
+        kMaxAngularSpeedRadiansPerSecond = config.maxAngularSpeedRadS;
+        kMaxAngularSpeedRadiansPerSecondSquared = config.maxAngularAccelerationRadS2;
+        xController = config.x.controller();
+        yController = config.y.controller();
+        thetaController = config.theta.profiledController();
+        GainTuner.getInstance().add("Drive Heading", headingController);
+        GainTuner.getInstance().add("Drive X", xController);
+        GainTuner.getInstance().add("Drive Y", yController);
+        GainTuner.getInstance().add("Drive Theta", thetaController);
+        m_setpoints = new SwerveSetpointGenerator(kKinematics, SwerveSetpointGenerator.Limits.of(config));
+        m_chassisSpeeds = new ChassisSpeedFactory(this::getGyroRateRadS, config.actuationLatencyS, kDtS);
+
         m_poseEstimator = new SwerveDrivePoseEstimator(
                 kDriveKinematics,
                 getHeading(),
@@ -531,17 +176,19 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         visionDataProvider = new VisionDataProvider(alliance, m_poseEstimator, () -> getPose());
 
         SmartDashboard.putData("Drive Subsystem", this);
+        registerTelemetry();
     }
 
     public void updateOdometry() {
-        m_poseEstimator.update(
-                getHeading(),
-                new SwerveModulePosition[] {
-                        m_frontLeft.getPosition(),
-                        m_frontRight.getPosition(),
-                        m_rearLeft.getPosition(),
-                        m_rearRight.getPosition()
-                });
+        m_frontLeft.getPosition(m_position);
+        m_position.copyTo(m_positions[0]);
+        m_frontRight.getPosition(m_position);
+        m_position.copyTo(m_positions[1]);
+        m_rearLeft.getPosition(m_position);
+        m_position.copyTo(m_positions[2]);
+        m_rearRight.getPosition(m_position);
+        m_position.copyTo(m_positions[3]);
+        m_poseEstimator.update(getHeading(), m_positions);
         // {
         // if (m_pose.aprilPresent()) {
         // m_poseEstimator.addVisionMeasurement(
@@ -551,18 +198,20 @@ public class SwerveDriveSubsystem extends SubsystemBase {
 
         // Update the Field2d widget
         Pose2d newEstimate = m_poseEstimator.getEstimatedPosition();
-        robotPosePub.set(new double[] {
-                newEstimate.getX(),
-                newEstimate.getY(),
-                newEstimate.getRotation().getDegrees()
-        });
+        m_robotPose[0] = newEstimate.getX();
+        m_robotPose[1] = newEstimate.getY();
+        m_robotPose[2] = newEstimate.getRotation().getDegrees();
+        robotPosePub.set(m_robotPose);
     }
 
     @Override
     public void periodic() {
         // System.out.println("MRRITRURUEUEUIWUIWEUIRHBIUEWFkj");
+        m_profile.begin();
+        m_cycle++;
         updateOdometry();
         RobotContainer.m_field.setRobotPose(m_poseEstimator.getEstimatedPosition());
+        m_profile.end();
     }
 
     /**
@@ -618,26 +267,33 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         driveMetersPerSec(xSpeedMetersPerSec, ySpeedMetersPerSec, rotRadiansPerSec, fieldRelative);
     }
 
+    /**
+     * Runs every cycle in teleop, so it doesn't allocate, through the
+     * modules; SwerveDriveSubsystemTest checks. updateOdometry() still does.
+     *
+     * The setpoint generator keeps the change from one cycle to the next
+     * within what the wheels can do; when it takes over from something else,
+     * or after a gap, it starts from the measured speeds.
+     */
     public void driveMetersPerSec(double xSpeedMetersPerSec, double ySpeedMetersPerSec, double rotRadiansPerSec, boolean fieldRelative) {
-        double gyroRate = m_gyro.getRedundantGyroRate() * 0.25;
-        System.out.println(gyroRate);
-        Rotation2d rotation2 = getPose().getRotation().minus(new Rotation2d(gyroRate));
-        desiredChassisSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(xSpeedMetersPerSec, ySpeedMetersPerSec, rotRadiansPerSec,
-                rotation2);
-        ChassisSpeeds startChassisSpeeds = new ChassisSpeeds(xSpeedMetersPerSec, ySpeedMetersPerSec, rotRadiansPerSec);
-        var swerveModuleStates = kDriveKinematics.toSwerveModuleStates(
-                fieldRelative
-                        ? desiredChassisSpeeds
-                        : startChassisSpeeds);
-        SwerveDriveKinematics.desaturateWheelSpeeds(
-                swerveModuleStates, kMaxSpeedMetersPerSecond);
+        m_chassisSpeeds.fromFieldRelativeSpeeds(xSpeedMetersPerSec, ySpeedMetersPerSec, rotRadiansPerSec,
+                getPose().getRotation().getRadians(), m_speeds);
+        m_speeds.copyTo(desiredChassisSpeeds);
+        if (!fieldRelative) {
+            m_speeds.set(xSpeedMetersPerSec, ySpeedMetersPerSec, rotRadiansPerSec);
+            m_chassisSpeeds.discretize(m_speeds);
+        }
+        if (m_generatedCycle != m_cycle - 1 && m_generatedCycle != m_cycle)
+            m_setpoints.reset(measureSpeeds());
+        m_generatedCycle = m_cycle;
+        m_setpoints.generate(m_speeds, kDtS, m_states, m_wheelAccel);
 
-        getRobotVelocity(swerveModuleStates);
+        getRobotVelocity(m_states);
 
-        m_frontLeft.setDesiredState(swerveModuleStates[0]);
-        m_frontRight.setDesiredState(swerveModuleStates[1]);
-        m_rearLeft.setDesiredState(swerveModuleStates[2]);
-        m_rearRight.setDesiredState(swerveModuleStates[3]);
+        m_frontLeft.setDesiredState(m_states[0], m_wheelAccel[0]);
+        m_frontRight.setDesiredState(m_states[1], m_wheelAccel[1]);
+        m_rearLeft.setDesiredState(m_states[2], m_wheelAccel[2]);
+        m_rearRight.setDesiredState(m_states[3], m_wheelAccel[3]);
     }
 
     public void driveSlow(double xSpeed, double ySpeed, double rot, boolean fieldRelative) {
@@ -651,17 +307,15 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         // ySpeed = 100 * ySpeed * ySpeed * Math.signum(ySpeed);
         if (Math.abs(rot) < .01)
             rot = 0;
-        double gyroRate = m_gyro.getRedundantGyroRate() * 0.25;
-        Rotation2d rotation2 = getPose().getRotation().minus(new Rotation2d(gyroRate));
-        desiredChassisSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(6 * xSpeed,
+        desiredChassisSpeeds = m_chassisSpeeds.fromFieldRelativeSpeeds(6 * xSpeed,
                 6 * ySpeed, 5 * rot,
-                rotation2);
+                getPose().getRotation());
         // TODO fix fieldRelative making this go crazy when it is off
         var swerveModuleStates = kDriveKinematics.toSwerveModuleStates(
                 fieldRelative
                         ? desiredChassisSpeeds
-                        : new ChassisSpeeds(4.5 * xSpeed, 4.5 * ySpeed,
-                                5 * rot));
+                        : m_chassisSpeeds.discretize(new ChassisSpeeds(4.5 * xSpeed, 4.5 * ySpeed,
+                                5 * rot)));
 
         SwerveDriveKinematics.desaturateWheelSpeeds(
                 swerveModuleStates, 4.5);
@@ -669,7 +323,6 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         getRobotVelocity(swerveModuleStates);
 
         m_frontLeft.setDesiredState(swerveModuleStates[0]);
-        System.out.println(desiredChassisSpeeds);
         m_frontRight.setDesiredState(swerveModuleStates[1]);
         m_rearLeft.setDesiredState(swerveModuleStates[2]);
         m_rearRight.setDesiredState(swerveModuleStates[3]);
@@ -699,21 +352,56 @@ public class SwerveDriveSubsystem extends SubsystemBase {
 
     }
 
+    /**
+     * Robot-relative speeds, like setModuleStates(), but doing the kinematics
+     * in place. The speeds should already be discretized, as they are from
+     * HolonomicDriveController2.
+     */
+    public void setChassisSpeeds(ChassisSpeeds speeds) {
+        m_speeds.set(speeds);
+        kKinematics.toModuleStates(m_speeds, m_states);
+        FourModuleKinematics.desaturate(m_states, kMaxSpeedMetersPerSecond);
+        m_frontLeft.setDesiredState(m_states[0]);
+        m_frontRight.setDesiredState(m_states[1]);
+        m_rearLeft.setDesiredState(m_states[2]);
+        m_rearRight.setDesiredState(m_states[3]);
+
+        getRobotVelocity(m_states);
+    }
+
     public ChassisSpeeds getRobotStates() {
-        ChassisSpeeds chassisSpeeds = kDriveKinematics.toChassisSpeeds(
-                m_frontLeft.getState(),
-                m_frontRight.getState(),
-                m_rearLeft.getState(),
-                m_rearRight.getState());
-        return chassisSpeeds;
+        measureSpeeds();
+        return new ChassisSpeeds(m_measuredSpeeds.vxMetersPerSecond, m_measuredSpeeds.vyMetersPerSecond,
+                m_measuredSpeeds.omegaRadiansPerSecond);
+    }
+
+    /** Robot-relative speeds from the module encoders. */
+    private MutableChassisSpeeds measureSpeeds() {
+        m_frontLeft.getState(m_measured[0]);
+        m_frontRight.getState(m_measured[1]);
+        m_rearLeft.getState(m_measured[2]);
+        m_rearRight.getState(m_measured[3]);
+        kKinematics.toChassisSpeeds(m_measured, m_measuredSpeeds);
+        return m_measuredSpeeds;
     }
 
     public void getRobotVelocity(SwerveModuleState[] desiredStates) {
-        ChassisSpeeds chassisSpeeds = kDriveKinematics.toChassisSpeeds(desiredStates[0], desiredStates[1],
-                desiredStates[2], desiredStates[3]);
-        xVelocity = chassisSpeeds.vxMetersPerSecond;
-        yVelocity = chassisSpeeds.vyMetersPerSecond;
-        thetaVelociy = chassisSpeeds.omegaRadiansPerSecond;
+        kKinematics.toChassisSpeeds(desiredStates, m_velocity);
+        setRobotVelocity(m_velocity.vxMetersPerSecond, m_velocity.vyMetersPerSecond,
+                m_velocity.omegaRadiansPerSecond);
+    }
+
+    /** Same as above, before the modules optimize the states. */
+    private void getRobotVelocity(MutableModuleState[] desiredStates) {
+        kKinematics.toChassisSpeeds(desiredStates, m_velocity);
+        setRobotVelocity(m_velocity.vxMetersPerSecond, m_velocity.vyMetersPerSecond,
+                m_velocity.omegaRadiansPerSecond);
+    }
+
+    private void setRobotVelocity(double vx, double vy, double omega) {
+        xVelocity = vx;
+        yVelocity = vy;
+        thetaVelociy = omega;
 
         if (xVelocity >= 0.1 || yVelocity >= 0.1 || thetaVelociy >= 0.1) {
             moving = true;
@@ -754,46 +442,51 @@ public class SwerveDriveSubsystem extends SubsystemBase {
         return Rotation2d.fromDegrees(-m_gyro.getRedundantYaw());
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        super.initSendable(builder);
+    /** Counterclockwise-positive; the gyro is clockwise-positive, in degrees. */
+    private double getGyroRateRadS() {
+        return -Math.toRadians(m_gyro.getRedundantGyroRate());
+    }
 
-        // Pose
-        builder.addDoubleProperty("translationalx", () -> getPose().getX(), null);
-        builder.addDoubleProperty("translationaly", () -> getPose().getY(), null);
-        builder.addDoubleProperty("theta", () -> getPose().getRotation().getRadians(), null);
+    /** Every way of driving converts and discretizes its speeds with this. */
+    public ChassisSpeedFactory getChassisSpeedFactory() {
+        return m_chassisSpeeds;
+    }
 
-        builder.addDoubleProperty("Theta Controller Error", () -> thetaController.getPositionError(), null);
-        builder.addDoubleProperty("Theta Controller Measurment", () -> getPose().getRotation().getRadians(), null);
-        builder.addDoubleProperty("Theta Controller Setpoint", () -> thetaController.getSetpoint().position, null);
+    private void registerTelemetry() {
+        TelemetryScheduler.getInstance().group("Drive Subsystem")
+                // Pose
+                .addDouble("translationalx", Tier.FAST, () -> getPose().getX())
+                .addDouble("translationaly", Tier.FAST, () -> getPose().getY())
+                .addDouble("theta", Tier.FAST, () -> getPose().getRotation().getRadians())
 
-        builder.addDoubleProperty("X controller Error (m)", () -> xController.getPositionError(), null);
-        builder.addDoubleProperty("X controller Setpoint", () -> xController.getSetpoint(), null);
-        builder.addDoubleProperty("X controller Measurment", () -> getPose().getX(), null);
+                .addDouble("Theta Controller Error", Tier.MEDIUM, () -> thetaController.getPositionError())
+                .addDouble("Theta Controller Measurment", Tier.MEDIUM, () -> getPose().getRotation().getRadians())
+                .addDouble("Theta Controller Setpoint", Tier.MEDIUM, () -> thetaController.getSetpoint().position)
 
-        builder.addDoubleProperty("Y controller Error (m)", () -> yController.getPositionError(), null);
-        builder.addDoubleProperty("Y controller Setpoint", () -> yController.getSetpoint(), null);
-        builder.addDoubleProperty("Y controller Measurment", () -> getPose().getY(), null);
+                .addDouble("X controller Error (m)", Tier.MEDIUM, () -> xController.getPositionError())
+                .addDouble("X controller Setpoint", Tier.MEDIUM, () -> xController.getSetpoint())
+                .addDouble("X controller Measurment", Tier.MEDIUM, () -> getPose().getX())
 
-        builder.addBooleanProperty("Moving", () -> getMoving(), null);
+                .addDouble("Y controller Error (m)", Tier.MEDIUM, () -> yController.getPositionError())
+                .addDouble("Y controller Setpoint", Tier.MEDIUM, () -> yController.getSetpoint())
+                .addDouble("Y controller Measurment", Tier.MEDIUM, () -> getPose().getY())
 
-        builder.addDoubleProperty("X controller Velocity (m/s)", () -> xVelocity, null);
-        builder.addDoubleProperty("Y controller Velocity (m/s)", () -> yVelocity, null);
-        builder.addDoubleProperty("Theta controller Velocity (rad/s)", () -> thetaVelociy, null);
+                .addBoolean("Moving", Tier.MEDIUM, () -> getMoving())
 
-        builder.addDoubleProperty("Heading Degrees", () -> getHeading().getDegrees(), null);
-        builder.addDoubleProperty("Heading Radians", () -> getHeading().getRadians(), null);
+                .addDouble("X controller Velocity (m/s)", Tier.MEDIUM, () -> xVelocity)
+                .addDouble("Y controller Velocity (m/s)", Tier.MEDIUM, () -> yVelocity)
+                .addDouble("Theta controller Velocity (rad/s)", Tier.MEDIUM, () -> thetaVelociy)
 
-        builder.addDoubleProperty("ChassisSpeedDesired Odometry X (m/s)", () -> desiredChassisSpeeds.vxMetersPerSecond,
-                null);
-        builder.addDoubleProperty("ChassisSpeedDesired Odometry Y (m/s)", () -> desiredChassisSpeeds.vyMetersPerSecond,
-                null);
+                .addDouble("Heading Degrees", Tier.MEDIUM, () -> getHeading().getDegrees())
+                .addDouble("Heading Radians", Tier.MEDIUM, () -> getHeading().getRadians())
 
-        builder.addDoubleProperty("Heading Controller Setpoint (rad)", () -> headingController.getSetpoint().position,
-                null);
-        builder.addDoubleProperty("Heading Controller Measurment (rad)", () -> getPose().getRotation().getRadians(),
-                null);
-        builder.addDoubleProperty("Heading Controller Goal (rad)", () -> headingController.getGoal().position, null);
+                .addDouble("ChassisSpeedDesired Odometry X (m/s)", Tier.MEDIUM,
+                        () -> desiredChassisSpeeds.vxMetersPerSecond)
+                .addDouble("ChassisSpeedDesired Odometry Y (m/s)", Tier.MEDIUM,
+                        () -> desiredChassisSpeeds.vyMetersPerSecond)
 
+                .addDouble("Heading Controller Setpoint (rad)", Tier.SLOW, () -> headingController.getSetpoint().position)
+                .addDouble("Heading Controller Measurment (rad)", Tier.SLOW, () -> getPose().getRotation().getRadians())
+                .addDouble("Heading Controller Goal (rad)", Tier.SLOW, () -> headingController.getGoal().position);
     }
 }
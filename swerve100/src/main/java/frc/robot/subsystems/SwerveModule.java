@@ -2,28 +2,30 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.util.sendable.Sendable;
-import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.subsystems.drive.DriveEncoder;
 import frc.robot.subsystems.drive.DriveMotor;
 import frc.robot.subsystems.turning.TurningEncoder;
 import frc.robot.subsystems.turning.TurningMotor;
-
-public class SwerveModule implements Sendable {
+import team100.control.ProfiledController;
+import team100.geometry.MutableModulePosition;
+import team100.geometry.MutableModuleState;
+import team100.telemetry.GainTuner;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
+
+public class SwerveModule {
     private final String m_name;
     private final DriveMotor m_driveMotor;
     private final TurningMotor m_turningMotor;
     private final DriveEncoder m_driveEncoder;
     private final TurningEncoder m_turningEncoder;
     private final PIDController m_driveController;
-    private final ProfiledPIDController m_turningController;
+    private final ProfiledController m_turningController;
     private final SimpleMotorFeedforward m_turningFeedforward;
     private final SimpleMotorFeedforward m_driveFeedforward;
 
@@ -34,6 +36,8 @@ public class SwerveModule implements Sendable {
 
     // for calculating acceleration
     private double previousSpeedMetersPerSecond = 0;
+    /** For the wpilib-typed setters, so they don't allocate either. */
+    private final MutableModuleState m_desired = new MutableModuleState();
 
     public SwerveModule(
             String name,
@@ -42,7 +46,7 @@ public class SwerveModule implements Sendable {
             DriveEncoder driveEncoder,
             TurningEncoder turningEncoder,
             PIDController driveController,
-            ProfiledPIDController turningController,
+            ProfiledController turningController,
             SimpleMotorFeedforward driveFeedforward,
             SimpleMotorFeedforward turningFeedforward) {
         m_name = name;
@@ -54,7 +58,10 @@ public class SwerveModule implements Sendable {
         m_turningController = turningController;
         m_driveFeedforward = driveFeedforward;
         m_turningFeedforward = turningFeedforward;
-        SmartDashboard.putData(String.format("Swerve Module %s", m_name), this);
+        registerTelemetry();
+        // all the modules share gains, as in the config.
+        GainTuner.getInstance().add("Module Drive", m_driveController);
+        GainTuner.getInstance().add("Module Turning", m_turningController);
     }
 
     public SwerveModuleState getState() {
@@ -65,13 +72,45 @@ public class SwerveModule implements Sendable {
         return new SwerveModulePosition(m_driveEncoder.getDistance(), getTurningRotation());
     }
 
+    /** Same as getState(), into an existing state. */
+    public void getState(MutableModuleState state) {
+        state.set(getDriveSpeedMS(), getTurningAngleRad());
+    }
+
+    /** Same as getPosition(), into an existing position. */
+    public void getPosition(MutableModulePosition position) {
+        position.set(m_driveEncoder.getDistance(), getTurningAngleRad());
+    }
+
     public void setDesiredState(SwerveModuleState desiredState) {
-        SwerveModuleState state = SwerveModuleState.optimize(desiredState, getTurningRotation());
+        setDesiredState(m_desired.set(desiredState));
+    }
+
+    /** Note this optimizes the state in place. */
+    public void setDesiredState(MutableModuleState state) {
+        state.optimize(getTurningAngleRad());
+        // TODO: smooth out accel
+        drive(state, (state.speedMetersPerSecond - previousSpeedMetersPerSecond) / 0.02);
+    }
+
+    /**
+     * With the acceleration from the setpoint generator, rather than the
+     * difference from the last setpoint. Optimizes the state in place.
+     *
+     * @param accelMetersPerSecondPerSecond along the wheel, before optimizing
+     */
+    public void setDesiredState(MutableModuleState state, double accelMetersPerSecondPerSecond) {
+        if (state.shouldReverse(getTurningAngleRad())) {
+            state.reverse();
+            accelMetersPerSecondPerSecond = -accelMetersPerSecondPerSecond;
+        }
+        drive(state, accelMetersPerSecondPerSecond);
+    }
+
+    private void drive(MutableModuleState state, double accelMetersPerSecondPerSecond) {
         driveMotorControllerOutput = m_driveController.calculate(getDriveSpeedMS(), state.speedMetersPerSecond);
         turningMotorControllerOutput = m_turningController.calculate(getTurningAngleRad(), state.angle.getRadians());
         turningFeedForwardOutput = m_turningFeedforward.calculate(getTurnSetpointVelocityRadS(), 0);
-        // TODO: smooth out accel
-        double accelMetersPerSecondPerSecond = (state.speedMetersPerSecond - previousSpeedMetersPerSecond) / 0.02;
         previousSpeedMetersPerSecond = state.speedMetersPerSecond;
         driveFeedForwardOutput = m_driveFeedforward.calculate(
                 state.speedMetersPerSecond,
@@ -96,7 +135,7 @@ public class SwerveModule implements Sendable {
     }
 
     public void setDesiredStateNoFF(SwerveModuleState desiredState) {
-        SwerveModuleState state = SwerveModuleState.optimize(desiredState, getTurningRotation());
+        MutableModuleState state = m_desired.set(desiredState).optimize(getTurningAngleRad());
         driveMotorControllerOutput = m_driveController.calculate(getDriveSpeedMS(), state.speedMetersPerSecond);
         turningMotorControllerOutput = m_turningController.calculate(getTurningAngleRad(), state.angle.getRadians());
         turningFeedForwardOutput = m_turningFeedforward.calculate(getTurnSetpointVelocityRadS(), 0);
@@ -136,7 +175,7 @@ public class SwerveModule implements Sendable {
     }
 
     private double getTurnSetpointVelocityRadS() {
-        return m_turningController.getSetpoint().velocity;
+        return m_turningController.getSetpointVelocity();
     }
 
     private double getTurningAngleRad() {
@@ -147,32 +186,30 @@ public class SwerveModule implements Sendable {
         return new Rotation2d(getTurningAngleRad());
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        builder.setSmartDashboardType(String.format("SwerveModule %s", m_name));
-        // Measurements
-        builder.addDoubleProperty("Drive position (m)", () -> getPosition().distanceMeters, null);
-        builder.addDoubleProperty("Drive Speed (m/s)", () -> getDriveSpeedMS(), null);
-        builder.addDoubleProperty("Turning Angle (rad)", () -> getTurningAngleRad(), null);
-        builder.addDoubleProperty("Turning Angle (deg)", () -> Units.radiansToDegrees(getTurningAngleRad()), null);
-
-        // Turning
-        builder.addDoubleProperty("Turning Goal (rad)", () -> m_turningController.getGoal().position, null);
-        builder.addDoubleProperty("Turning Setpoint (rad)", () -> m_turningController.getSetpoint().position, null);
-        builder.addDoubleProperty("Turning Setpoint Velocity (rad/s)", this::getTurnSetpointVelocityRadS, null);
-        builder.addDoubleProperty("Turning Position Error (rad)", () -> m_turningController.getPositionError(), null);
-        builder.addDoubleProperty("Turning Velocity Error (rad/s)", () -> m_turningController.getVelocityError(), null);
-        builder.addDoubleProperty("Turning Controller Output", () -> turningMotorControllerOutput, null);
-        builder.addDoubleProperty("Turning Feed Forward Output", () -> turningFeedForwardOutput, null);
-        builder.addDoubleProperty("Turning Motor Output [-1, 1]", () -> m_turningMotor.get(), null);
-
-        // Drive
-        builder.addDoubleProperty("Drive Setpoint (m/s)", () -> m_driveController.getSetpoint(), null);
-        builder.addDoubleProperty("Drive Speed Error (m/s)", () -> m_driveController.getPositionError(), null);
-        builder.addDoubleProperty("Drive Accel Error (m/s/s)", () -> m_driveController.getVelocityError(), null);
-        builder.addDoubleProperty("Drive Controller Output", () -> driveMotorControllerOutput, null);
-        builder.addDoubleProperty("Drive Feed Forward Output", () -> driveFeedForwardOutput, null);
-        builder.addDoubleProperty("Drive Motor Output [-1, 1]", () -> m_driveMotor.get(), null);
-
+    private void registerTelemetry() {
+        TelemetryScheduler.getInstance().group(String.format("Swerve Module %s", m_name))
+                // Measurements
+                .addDouble("Drive position (m)", Tier.MEDIUM, m_driveEncoder::getDistance)
+                .addDouble("Drive Speed (m/s)", Tier.FAST, this::getDriveSpeedMS)
+                .addDouble("Turning Angle (rad)", Tier.FAST, this::getTurningAngleRad)
+                .addDouble("Turning Angle (deg)", Tier.MEDIUM, () -> Units.radiansToDegrees(getTurningAngleRad()))
+
+                // Turning
+                .addDouble("Turning Goal (rad)", Tier.MEDIUM, m_turningController::getGoalPosition)
+                .addDouble("Turning Setpoint (rad)", Tier.MEDIUM, m_turningController::getSetpointPosition)
+                .addDouble("Turning Setpoint Velocity (rad/s)", Tier.MEDIUM, this::getTurnSetpointVelocityRadS)
+                .addDouble("Turning Position Error (rad)", Tier.FAST, m_turningController::getPositionError)
+                .addDouble("Turning Velocity Error (rad/s)", Tier.MEDIUM, m_turningController::getVelocityError)
+                .addDouble("Turning Controller Output", Tier.MEDIUM, () -> turningMotorControllerOutput)
+                .addDouble("Turning Feed Forward Output", Tier.MEDIUM, () -> turningFeedForwardOutput)
+                .addDouble("Turning Motor Output [-1, 1]", Tier.MEDIUM, m_turningMotor::get)
+
+                // Drive
+                .addDouble("Drive Setpoint (m/s)", Tier.MEDIUM, m_driveController::getSetpoint)
+                .addDouble("Drive Speed Error (m/s)", Tier.FAST, m_driveController::getPositionError)
+                .addDouble("Drive Accel Error (m/s/s)", Tier.MEDIUM, m_driveController::getVelocityError)
+                .addDouble("Drive Controller Output", Tier.MEDIUM, () -> driveMotorControllerOutput)
+                .addDouble("Drive Feed Forward Output", Tier.MEDIUM, () -> driveFeedForwardOutput)
+                .addDouble("Drive Motor Output [-1, 1]", Tier.MEDIUM, m_driveMotor::get);
     }
 }
@@ -1,169 +1,113 @@
 package frc.robot.subsystems;
 
 import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.ProfiledPIDController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.robot.subsystems.drive.DriveEncoder;
+import frc.robot.subsystems.drive.DriveMotor;
 import frc.robot.subsystems.drive.FalconDriveEncoder;
 import frc.robot.subsystems.drive.FalconDriveMotor;
 import frc.robot.subsystems.turning.AnalogTurningEncoder;
 import frc.robot.subsystems.turning.CANTurningMotor;
 import frc.robot.subsystems.turning.FalconTurningMotor;
 import frc.robot.subsystems.turning.PWMTurningMotor;
-
+import frc.robot.subsystems.turning.TurningEncoder;
+import frc.robot.subsystems.turning.TurningMotor;
+import team100.config.Identity;
+import team100.config.ModuleConfig;
+import team100.config.RobotConfig;
+import team100.control.ProfiledController;
+import team100.sim.SimSwerveModule;
+
+/**
+ * Builds swerve modules from the wiring and gains in RobotConfig; the
+ * hardware depends on the module type.
+ */
 public class SwerveModuleFactory {
+    public static final double kWCPWheelDiameterMeters = 0.1015; // WCP 4 inch wheel
+    public static final double kWCPDriveReduction = 5.50; // see wcproducts.com, this is the "fast" ratio.
+    private static final double kAMWheelDiameterMeters = 0.1016; // AndyMark Swerve & Steer has 4 inch wheel
+    private static final double kAMDriveReduction = 6.67; // see andymark.com/products/swerve-and-steer
+
+    public static SwerveModule module(RobotConfig config, ModuleConfig module, double currentLimit) {
+        switch (config.moduleType) {
+            case WCP:
+                return WCPModule(config, module, currentLimit);
+            case AM:
+                return AMModule(config, module, currentLimit);
+            case AM_CAN:
+                return AMCANModule(config, module, currentLimit);
+            default:
+                throw new IllegalArgumentException("unknown module type: " + config.moduleType);
+        }
+    }
 
-    public static SwerveModule WCPModule(
-            String name,
-            int driveMotorCanId,
-            int turningMotorCanId,
-            int turningEncoderChannel,
-            double turningOffset,
-            double currentLimit) {
-        final double kWheelDiameterMeters = 0.1015; // WCP 4 inch wheel
-        final double kDriveReduction = 5.50; // see wcproducts.com, this is the "fast" ratio.
-        final double driveEncoderDistancePerTurn = kWheelDiameterMeters * Math.PI / kDriveReduction;
+    /**
+     * A WCP module with simulated hardware, see SimSwerveDrive.wcp(), with the
+     * gains of the simulated robot.
+     */
+    public static SwerveModule simWCPModule(String name, SimSwerveModule sim) {
+        return build(RobotConfig.forIdentity(Identity.BLANK), name,
+                sim.driveMotor(), sim.turningMotor(), sim.driveEncoder(), sim.turningEncoder());
+    }
+
+    private static SwerveModule WCPModule(RobotConfig config, ModuleConfig module, double currentLimit) {
+        final double driveEncoderDistancePerTurn = kWCPWheelDiameterMeters * Math.PI / kWCPDriveReduction;
         final double turningGearRatio = 1.0;
 
-        FalconDriveMotor driveMotor = new FalconDriveMotor(name, driveMotorCanId, currentLimit);
-        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(name, driveMotor, driveEncoderDistancePerTurn);
-        
-        FalconTurningMotor turningMotor = new FalconTurningMotor(name, turningMotorCanId);
+        FalconDriveMotor driveMotor = new FalconDriveMotor(module.name, module.drive, currentLimit);
+        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(module.name, driveMotor,
+                driveEncoderDistancePerTurn);
+
+        FalconTurningMotor turningMotor = new FalconTurningMotor(module.name, module.turn);
 
         // NeoTurningMotor turningMotor = new NeoTurningMotor(name, turningMotorCanId);
-        
-        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(name, turningEncoderChannel, turningOffset,
-                turningGearRatio);
-
-        // DRIVE PID
-        PIDController driveController = new PIDController( //
-                0.1, // kP
-                0.3, // kI: nonzero I eliminates small errors, e.g. to finish rotations.
-                0.0); // kD
-        driveController.setIntegratorRange(-0.01, 0.01); // Note very low windup limit.
-
-        // TURNING PID
-        ProfiledPIDController turningController = new ProfiledPIDController(
-                0.5, // kP: low P because not much reduction gearing.
-                0.0, // kI
-                0.0, // kD
-                new TrapezoidProfile.Constraints( //
-                        20 * Math.PI, // max angular speed radians/sec
-                        20 * Math.PI)); // max accel radians/sec/sec
-        turningController.enableContinuousInput(0, 2 * Math.PI);
-
-        // DRIVE FF
-        SimpleMotorFeedforward driveFeedforward = new SimpleMotorFeedforward( //
-                0.06, // kS: from experiment; overcome friction for low-effort moves
-                .25, // kV
-                0.025);
-
-        // TURNING FF
-        SimpleMotorFeedforward turningFeedforward = new SimpleMotorFeedforward( //
-                0.05, // kS: friction is unimportant
-                0.003,// kV: from experiment; higher than AM modules, less reduction gear
-                0); // kA: I have no idea what this value should be
 
-        return new SwerveModule(name, driveMotor, turningMotor, driveEncoder, turningEncoder,
-                driveController, turningController, driveFeedforward, turningFeedforward);
+        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(module.name, module.turnEncoder,
+                module.turnOffset, turningGearRatio);
+
+        return build(config, module.name, driveMotor, turningMotor, driveEncoder, turningEncoder);
     }
 
     // for 8048's config
-    public static SwerveModule AMCANModule(
-            String name,
-            int driveMotorCanId,
-            int turningMotorCanId,
-            int turningEncoderChannel,
-            double turningOffset,
-            double currentLimit) {
-        final double kWheelDiameterMeters = 0.1016; // AndyMark Swerve & Steer has 4 inch wheel
-        final double kDriveReduction = 6.67; // see andymark.com/products/swerve-and-steer
-        final double driveEncoderDistancePerTurn = kWheelDiameterMeters * Math.PI / kDriveReduction;
+    private static SwerveModule AMCANModule(RobotConfig config, ModuleConfig module, double currentLimit) {
+        final double driveEncoderDistancePerTurn = kAMWheelDiameterMeters * Math.PI / kAMDriveReduction;
         final double turningGearRatio = 1.0; // andymark ma3 encoder is 1:1
 
-        FalconDriveMotor driveMotor = new FalconDriveMotor(name, driveMotorCanId, currentLimit);
-        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(name, driveMotor, driveEncoderDistancePerTurn);
-        CANTurningMotor turningMotor = new CANTurningMotor(name, turningMotorCanId);
-        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(name, turningEncoderChannel, turningOffset,
-                turningGearRatio);
-
-        // DRIVE PID
-        PIDController driveController = new PIDController( //
-                0.1, // kP
-                0, // kI
-                0); // kD
-
-        // TURNING PID
-        ProfiledPIDController turningController = new ProfiledPIDController( //
-                0.5, // kP
-                0, // kI
-                0, // kD
-                new TrapezoidProfile.Constraints(
-                        20 * Math.PI, // speed rad/s
-                        20 * Math.PI)); // accel rad/s/s
-        turningController.enableContinuousInput(0, 2 * Math.PI);
-
-        // DRIVE FF
-        SimpleMotorFeedforward driveFeedforward = new SimpleMotorFeedforward( //
-                0.0, // kS
-                .5); // kV
-
-        // TURNING FF
-        SimpleMotorFeedforward turningFeedforward = new SimpleMotorFeedforward( //
-                0.1, // kS
-                0.005); // kV
-
-        return new SwerveModule(name, driveMotor, turningMotor, driveEncoder, turningEncoder,
-                driveController, turningController, driveFeedforward, turningFeedforward);
+        FalconDriveMotor driveMotor = new FalconDriveMotor(module.name, module.drive, currentLimit);
+        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(module.name, driveMotor,
+                driveEncoderDistancePerTurn);
+        CANTurningMotor turningMotor = new CANTurningMotor(module.name, module.turn);
+        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(module.name, module.turnEncoder,
+                module.turnOffset, turningGearRatio);
 
+        return build(config, module.name, driveMotor, turningMotor, driveEncoder, turningEncoder);
     }
 
-    public static SwerveModule AMModule(
-            String name,
-            int driveMotorCanId,
-            int turningMotorChannel,
-            int turningEncoderChannel,
-            double turningOffset,
-            double currentLimit) {
-        final double kWheelDiameterMeters = 0.1016; // AndyMark Swerve & Steer has 4 inch wheel
-        final double kDriveReduction = 6.67; // see andymark.com/products/swerve-and-steer
-        final double driveEncoderDistancePerTurn = kWheelDiameterMeters * Math.PI / kDriveReduction;
+    private static SwerveModule AMModule(RobotConfig config, ModuleConfig module, double currentLimit) {
+        final double driveEncoderDistancePerTurn = kAMWheelDiameterMeters * Math.PI / kAMDriveReduction;
         final double turningGearRatio = 1.0; // andymark ma3 encoder is 1:1
-        FalconDriveMotor driveMotor = new FalconDriveMotor(name, driveMotorCanId, currentLimit);
-        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(name, driveMotor, driveEncoderDistancePerTurn);
-        PWMTurningMotor turningMotor = new PWMTurningMotor(name, turningMotorChannel);
-        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(name, turningEncoderChannel, turningOffset,
-                turningGearRatio);
-
-        // DRIVE PID
-        PIDController driveController = new PIDController(//
-                0.1, // kP
-                0, // kI
-                0);// kD
-
-        // TURNING PID
-        ProfiledPIDController turningController = new ProfiledPIDController(//
-                0.5, // kP
-                0, // kI
-                0, // kD
-                new TrapezoidProfile.Constraints(
-                        20 * Math.PI, // speed rad/s
-                        20 * Math.PI)); // accel rad/s/s
-        turningController.enableContinuousInput(0, 2 * Math.PI);
-
-        // Drive(IVE FF
-        SimpleMotorFeedforward driveFeedforward = new SimpleMotorFeedforward(//
-                0.04, // kS makes it go further when almost at goal
-                0.23, // kV
-                0.02); // kA
-
-        // TURNING FF
-        SimpleMotorFeedforward turningFeedforward = new SimpleMotorFeedforward(//
-                0.05, // kS
-                0.003, // kV
-                0); // kA
+        FalconDriveMotor driveMotor = new FalconDriveMotor(module.name, module.drive, currentLimit);
+        FalconDriveEncoder driveEncoder = new FalconDriveEncoder(module.name, driveMotor,
+                driveEncoderDistancePerTurn);
+        PWMTurningMotor turningMotor = new PWMTurningMotor(module.name, module.turn);
+        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(module.name, module.turnEncoder,
+                module.turnOffset, turningGearRatio);
+
+        return build(config, module.name, driveMotor, turningMotor, driveEncoder, turningEncoder);
+    }
 
+    /** Controllers from the config, for real or simulated hardware. */
+    private static SwerveModule build(
+            RobotConfig config,
+            String name,
+            DriveMotor driveMotor,
+            TurningMotor turningMotor,
+            DriveEncoder driveEncoder,
+            TurningEncoder turningEncoder) {
+        PIDController driveController = config.drive.controller();
+        ProfiledController turningController = config.turn.continuousController(0, 2 * Math.PI);
         return new SwerveModule(name, driveMotor, turningMotor, driveEncoder, turningEncoder,
-                driveController, turningController, driveFeedforward, turningFeedforward);
+                driveController, turningController,
+                config.driveFeedforward.feedforward(),
+                config.turnFeedforward.feedforward());
     }
 }
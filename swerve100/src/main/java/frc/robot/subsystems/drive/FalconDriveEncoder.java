@@ -1,7 +1,8 @@
 package frc.robot.subsystems.drive;
 
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 public class FalconDriveEncoder implements DriveEncoder {
     private static final int kIntegratedSensorPulsesPerTurn = 2048;
@@ -14,7 +15,8 @@ public class FalconDriveEncoder implements DriveEncoder {
             double distancePerTurn) {
         this.m_motor = motor;
         this.m_distancePerPulse = distancePerTurn / kIntegratedSensorPulsesPerTurn;
-        SmartDashboard.putData(String.format("Falcon Drive Encoder %s", name), this);
+        TelemetryScheduler.getInstance().group(String.format("Falcon Drive Encoder %s", name))
+                .addDouble("Speed Ms", Tier.MEDIUM, this::getRate);
     }
 
     @Override
@@ -35,8 +37,8 @@ public class FalconDriveEncoder implements DriveEncoder {
 
     @Override
     public void initSendable(SendableBuilder builder) {
+        // telemetry is published by the TelemetryScheduler
         builder.setSmartDashboardType("FalconDriveEncoder");
-        builder.addDoubleProperty("Speed Ms", this::getRate, null);
     }
 
 }
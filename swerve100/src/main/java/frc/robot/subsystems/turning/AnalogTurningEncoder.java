@@ -3,7 +3,8 @@ package frc.robot.subsystems.turning;
 import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.AnalogEncoder;
 import edu.wpi.first.wpilibj.AnalogInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 public class AnalogTurningEncoder implements TurningEncoder {
     private final AnalogInput m_input;
@@ -24,7 +25,12 @@ public class AnalogTurningEncoder implements TurningEncoder {
         m_encoder.setPositionOffset(inputOffset);
         m_encoder.setDistancePerRotation(2.0 * Math.PI / gearRatio);
 
-        SmartDashboard.putData(String.format("Analog Turning Encoder %s", name), this);
+        TelemetryScheduler.getInstance().group(String.format("Analog Turning Encoder %s", name))
+                .addDouble("Channel", Tier.SLOW, m_encoder::getChannel)
+                .addDouble("Angle", Tier.MEDIUM, this::getAngle)
+                .addDouble("Turns", Tier.MEDIUM, m_encoder::get)
+                .addDouble("absolute", Tier.MEDIUM, m_encoder::getAbsolutePosition)
+                .addDouble("Volts", Tier.SLOW, m_input::getVoltage);
     }
 
     @Override
@@ -39,11 +45,7 @@ public class AnalogTurningEncoder implements TurningEncoder {
 
     @Override
     public void initSendable(SendableBuilder builder) {
+        // telemetry is published by the TelemetryScheduler
         builder.setSmartDashboardType("AnalogTurningEncoder");
-        builder.addDoubleProperty("Channel", () -> m_encoder.getChannel(), null);
-        builder.addDoubleProperty("Angle", this::getAngle, null);
-        builder.addDoubleProperty("Turns", () -> m_encoder.get(), null);
-        builder.addDoubleProperty("absolute", () -> m_encoder.getAbsolutePosition(), null);
-        builder.addDoubleProperty("Volts", () -> m_input.getVoltage(), null);
     }
 }
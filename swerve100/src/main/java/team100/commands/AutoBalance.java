@@ -0,0 +1,83 @@
+package team100.commands;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.SwerveDriveSubsystem;
+import team100.control.BalanceController;
+import team100.control.BalanceController.State;
+import team100.sensors.TiltEstimator;
+
+/**
+ * Drives straight onto the charge station, and balances it, see
+ * BalanceController, instead of AutoLevel's guess at where the station is,
+ * and proportional pitch.
+ *
+ * It goes straight ahead, or straight back, robot-relative, from wherever it
+ * starts, so start it lined up with the station. Distance traveled comes
+ * from odometry; pitch and pitch rate come from the TiltEstimator, which
+ * samples faster than this runs. If the estimate isn't healthy, it stops
+ * until it is.
+ *
+ * Once balanced, the wheels go into an X, like Defense; it never finishes,
+ * so it holds there until the end of auto.
+ */
+public class AutoBalance extends CommandBase {
+    private final SwerveDriveSubsystem m_swerve;
+    private final TiltEstimator m_tilt;
+    /** 1 forward, -1 backward. */
+    private final double m_direction;
+    private final BalanceController m_controller = new BalanceController();
+    private final SwerveModuleState[] m_lock = {
+            new SwerveModuleState(0, new Rotation2d(Math.PI / 4)),
+            new SwerveModuleState(0, new Rotation2d(7 * Math.PI / 4)),
+            new SwerveModuleState(0, new Rotation2d(3 * Math.PI / 4)),
+            new SwerveModuleState(0, new Rotation2d(5 * Math.PI / 4)) };
+    private double m_startX;
+    private double m_startY;
+    private double m_startHeading;
+
+    /** @param reversed back onto the station */
+    public AutoBalance(boolean reversed, SwerveDriveSubsystem swerve, TiltEstimator tilt) {
+        m_swerve = swerve;
+        m_tilt = tilt;
+        m_direction = reversed ? -1 : 1;
+        addRequirements(swerve);
+    }
+
+    @Override
+    public void initialize() {
+        m_controller.reset();
+        Pose2d pose = m_swerve.getPose();
+        m_startX = pose.getX();
+        m_startY = pose.getY();
+        m_startHeading = pose.getRotation().getRadians();
+    }
+
+    @Override
+    public void execute() {
+        if (!m_tilt.isHealthy()) {
+            m_swerve.driveMetersPerSec(0, 0, 0, false);
+            return;
+        }
+        Pose2d pose = m_swerve.getPose();
+        double ahead = (pose.getX() - m_startX) * Math.cos(m_startHeading)
+                + (pose.getY() - m_startY) * Math.sin(m_startHeading);
+        // backing up, nose-down is uphill.
+        double speed = m_controller.calculate(
+                m_direction * ahead,
+                m_direction * m_tilt.getPitchDeg(),
+                m_direction * m_tilt.getPitchRateDegS());
+        if (m_controller.getState() == State.LOCK) {
+            m_swerve.setModuleStates(m_lock);
+        } else {
+            m_swerve.driveMetersPerSec(m_direction * speed, 0, 0, false);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return false;
+    }
+}
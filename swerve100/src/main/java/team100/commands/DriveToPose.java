@@ -0,0 +1,100 @@
+package team100.commands;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.commands.GoalOffset;
+import frc.robot.subsystems.SwerveDriveSubsystem;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutablePose;
+import team100.trajectory.HolonomicProfile;
+
+/**
+ * Drives to a pose, e.g. a scoring position found from an AprilTag, replanning
+ * every cycle from the pose estimate, see HolonomicProfile.
+ *
+ * Same goal and offsets as DriveToWaypoint2, which plans a spline once and
+ * keeps following it even after vision moves the estimate; this just starts
+ * over from the new estimate. It finishes when the robot is stopped, within
+ * a couple of centimeters.
+ *
+ * Nothing in execute() allocates.
+ */
+public class DriveToPose extends CommandBase {
+    private static final double kDtS = 0.02;
+    // same as DriveToWaypoint2's trajectory config and rotation constraints.
+    private static final double kMaxSpeedMS = 5;
+    private static final double kMaxAccelerationMS2 = 2;
+    private static final double kMaxAngularSpeedRadS = 6;
+    private static final double kMaxAngularAccelerationRadS2 = 12;
+    private static final double kToleranceM = 0.02;
+    private static final double kToleranceRad = 0.02;
+
+    private final SwerveDriveSubsystem m_swerve;
+    private final Supplier<GoalOffset> m_goalOffsetSupplier;
+    /** Indexed by GoalOffset ordinal. */
+    private final MutablePose[] m_goals;
+    private final HolonomicProfile m_profile = new HolonomicProfile(
+            kMaxSpeedMS, kMaxAccelerationMS2, kMaxAngularSpeedRadS, kMaxAngularAccelerationRadS2);
+    private final MutablePose m_pose = new MutablePose();
+    private final MutableChassisSpeeds m_speeds = new MutableChassisSpeeds();
+
+    /**
+     * @param goal               center goal
+     * @param yOffset            sideways distance to the left and right goals,
+     *                           in the goal's frame
+     * @param goalOffsetSupplier which one, read every cycle
+     */
+    public DriveToPose(
+            Pose2d goal,
+            double yOffset,
+            Supplier<GoalOffset> goalOffsetSupplier,
+            SwerveDriveSubsystem swerve) {
+        m_swerve = swerve;
+        m_goalOffsetSupplier = goalOffsetSupplier;
+        m_goals = new MutablePose[GoalOffset.values().length];
+        for (GoalOffset offset : GoalOffset.values()) {
+            // left is -y, like DriveToWaypoint2.
+            double y = offset == GoalOffset.left ? -yOffset : offset == GoalOffset.right ? yOffset : 0;
+            double theta = goal.getRotation().getRadians();
+            m_goals[offset.ordinal()] = new MutablePose().set(
+                    goal.getX() - y * Math.sin(theta),
+                    goal.getY() + y * Math.cos(theta),
+                    theta);
+        }
+        addRequirements(swerve);
+    }
+
+    @Override
+    public void initialize() {
+        // start from the measured speeds; robot-relative to field-relative is
+        // the inverse rotation.
+        ChassisSpeeds speeds = m_swerve.getRobotStates();
+        m_speeds.setFieldRelative(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond,
+                speeds.omegaRadiansPerSecond, -m_swerve.getPose().getRotation().getRadians());
+        m_profile.reset(m_speeds.vxMetersPerSecond, m_speeds.vyMetersPerSecond, m_speeds.omegaRadiansPerSecond);
+    }
+
+    @Override
+    public void execute() {
+        m_pose.set(m_swerve.getPose());
+        m_profile.calculate(kDtS, m_pose, m_goals[m_goalOffsetSupplier.get().ordinal()], m_speeds);
+        m_swerve.driveMetersPerSec(m_speeds.vxMetersPerSecond, m_speeds.vyMetersPerSecond,
+                m_speeds.omegaRadiansPerSecond, true);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_profile.atGoal(kToleranceM, kToleranceRad);
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_swerve.m_frontLeft.setOutput(0, 0);
+        m_swerve.m_frontRight.setOutput(0, 0);
+        m_swerve.m_rearLeft.setOutput(0, 0);
+        m_swerve.m_rearRight.setOutput(0, 0);
+    }
+}
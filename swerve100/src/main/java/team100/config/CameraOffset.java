@@ -0,0 +1,38 @@
+package team100.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/** Camera view relative to the robot center at the floor, meters and radians. */
+public final class CameraOffset {
+    public final double x;
+    public final double y;
+    public final double z;
+    public final double roll;
+    public final double pitch;
+    public final double yaw;
+
+    @JsonCreator
+    public CameraOffset(
+            @JsonProperty(value = "x", required = true) double x,
+            @JsonProperty(value = "y", required = true) double y,
+            @JsonProperty(value = "z", required = true) double z,
+            @JsonProperty(value = "roll", required = true) double roll,
+            @JsonProperty(value = "pitch", required = true) double pitch,
+            @JsonProperty(value = "yaw", required = true) double yaw) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.roll = roll;
+        this.pitch = pitch;
+        this.yaw = yaw;
+    }
+
+    public Transform3d transform() {
+        return new Transform3d(new Translation3d(x, y, z), new Rotation3d(roll, pitch, yaw));
+    }
+}
@@ -0,0 +1,27 @@
+package team100.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+
+/** Gains for SimpleMotorFeedforward. */
+public final class FeedforwardGains {
+    public final double kS;
+    public final double kV;
+    public final double kA;
+
+    @JsonCreator
+    public FeedforwardGains(
+            @JsonProperty(value = "kS", required = true) double kS,
+            @JsonProperty(value = "kV", required = true) double kV,
+            @JsonProperty("kA") Double kA) {
+        this.kS = PidGains.nonNegative("kS", kS);
+        this.kV = PidGains.nonNegative("kV", kV);
+        this.kA = PidGains.nonNegative("kA", kA == null ? 0 : kA);
+    }
+
+    public SimpleMotorFeedforward feedforward() {
+        return new SimpleMotorFeedforward(kS, kV, kA);
+    }
+}
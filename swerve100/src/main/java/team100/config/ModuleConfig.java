@@ -0,0 +1,37 @@
+package team100.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** Wiring of one swerve module. */
+public final class ModuleConfig {
+    public final String name;
+    /** Drive motor CAN ID. */
+    public final int drive;
+    /** Turning motor CAN ID or PWM channel, depending on the module type. */
+    public final int turn;
+    /** Turning encoder analog channel. */
+    public final int turnEncoder;
+    /** Turning encoder reading with the wheel straight ahead, turns, [0, 1). */
+    public final double turnOffset;
+
+    @JsonCreator
+    public ModuleConfig(
+            @JsonProperty(value = "name", required = true) String name,
+            @JsonProperty(value = "drive", required = true) int drive,
+            @JsonProperty(value = "turn", required = true) int turn,
+            @JsonProperty(value = "turnEncoder", required = true) int turnEncoder,
+            @JsonProperty(value = "turnOffset", required = true) double turnOffset) {
+        if (name == null || name.isEmpty())
+            throw new IllegalArgumentException("module name is required");
+        if (drive < 0 || turn < 0 || turnEncoder < 0)
+            throw new IllegalArgumentException(name + ": negative channel");
+        if (!(turnOffset >= 0 && turnOffset < 1))
+            throw new IllegalArgumentException(name + ": turnOffset must be in [0, 1): " + turnOffset);
+        this.name = name;
+        this.drive = drive;
+        this.turn = turn;
+        this.turnEncoder = turnEncoder;
+        this.turnOffset = turnOffset;
+    }
+}
@@ -0,0 +1,11 @@
+package team100.config;
+
+/** Swerve module hardware, see SwerveModuleFactory. */
+public enum ModuleType {
+    /** WCP swerve X, Falcon drive and turn, analog turning encoder. */
+    WCP,
+    /** AndyMark swerve & steer, Falcon drive, PWM turn, MA3 encoder. */
+    AM,
+    /** AndyMark swerve & steer, Falcon drive, CAN turn, MA3 encoder. */
+    AM_CAN
+}
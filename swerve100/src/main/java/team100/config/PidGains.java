@@ -0,0 +1,91 @@
+package team100.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import team100.control.ProfiledController;
+
+/**
+ * PID gains, with the optional settings we use, and the profile constraints
+ * for profiled controllers.
+ */
+public final class PidGains {
+    public final double p;
+    public final double i;
+    public final double d;
+    /** Symmetric integrator limit, WPILib default 1. */
+    public final double integratorRange;
+    /** Position tolerance, WPILib default 0.05. */
+    public final double tolerance;
+    /** Profile speed limit, NaN for unprofiled controllers. */
+    public final double maxVelocity;
+    /** Profile acceleration limit, NaN for unprofiled controllers. */
+    public final double maxAcceleration;
+
+    @JsonCreator
+    public PidGains(
+            @JsonProperty(value = "p", required = true) double p,
+            @JsonProperty(value = "i", required = true) double i,
+            @JsonProperty(value = "d", required = true) double d,
+            @JsonProperty("integratorRange") Double integratorRange,
+            @JsonProperty("tolerance") Double tolerance,
+            @JsonProperty("maxVelocity") Double maxVelocity,
+            @JsonProperty("maxAcceleration") Double maxAcceleration) {
+        this.p = nonNegative("p", p);
+        this.i = nonNegative("i", i);
+        this.d = nonNegative("d", d);
+        this.integratorRange = nonNegative("integratorRange", integratorRange == null ? 1.0 : integratorRange);
+        this.tolerance = nonNegative("tolerance", tolerance == null ? 0.05 : tolerance);
+        if ((maxVelocity == null) != (maxAcceleration == null))
+            throw new IllegalArgumentException("maxVelocity and maxAcceleration go together");
+        this.maxVelocity = maxVelocity == null ? Double.NaN : positive("maxVelocity", maxVelocity);
+        this.maxAcceleration = maxAcceleration == null ? Double.NaN : positive("maxAcceleration", maxAcceleration);
+    }
+
+    public boolean isProfiled() {
+        return !Double.isNaN(maxVelocity);
+    }
+
+    public PIDController controller() {
+        PIDController controller = new PIDController(p, i, d);
+        controller.setIntegratorRange(-integratorRange, integratorRange);
+        controller.setTolerance(tolerance);
+        return controller;
+    }
+
+    public ProfiledPIDController profiledController() {
+        if (!isProfiled())
+            throw new IllegalStateException("no profile constraints");
+        ProfiledPIDController controller = new ProfiledPIDController(p, i, d,
+                new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration));
+        controller.setIntegratorRange(-integratorRange, integratorRange);
+        controller.setTolerance(tolerance);
+        return controller;
+    }
+
+    /** Same settings, allocation-free, with continuous input, e.g. for angles. */
+    public ProfiledController continuousController(double minimumInput, double maximumInput) {
+        if (!isProfiled())
+            throw new IllegalStateException("no profile constraints");
+        ProfiledController controller = new ProfiledController(p, i, d,
+                maxVelocity, maxAcceleration, minimumInput, maximumInput);
+        controller.setIntegratorRange(-integratorRange, integratorRange);
+        controller.setTolerance(tolerance);
+        return controller;
+    }
+
+    static double nonNegative(String name, double value) {
+        if (!Double.isFinite(value) || value < 0)
+            throw new IllegalArgumentException(name + " must be finite and non-negative: " + value);
+        return value;
+    }
+
+    static double positive(String name, double value) {
+        if (!Double.isFinite(value) || value <= 0)
+            throw new IllegalArgumentException(name + " must be finite and positive: " + value);
+        return value;
+    }
+}
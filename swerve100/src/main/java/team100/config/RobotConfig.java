@@ -0,0 +1,196 @@
+package team100.config;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Everything that differs between our swerve robots: geometry, limits,
+ * controller gains, module wiring, and camera mounting.
+ * 
+ * Each robot has a file, deploy/config/[Identity].json, loaded once at boot,
+ * so gains can be changed by editing the file and redeploying, without
+ * recompiling. The file is checked when it's parsed: missing or unknown
+ * properties, nonsense values, and duplicate channels all fail at boot,
+ * rather than as a strange robot on the field.
+ */
+public final class RobotConfig {
+    private static final String kDirectory = "config";
+    /**
+     * About a loop: the gyro is read at the start of the cycle, and the
+     * motors act on the command a CAN frame or two later.
+     */
+    private static final double kDefaultActuationLatencyS = 0.02;
+    private static RobotConfig instance;
+
+    public final double trackWidthM;
+    public final double wheelBaseM;
+    public final double maxSpeedMS;
+    public final double maxAccelerationMS2;
+    public final double maxAngularSpeedRadS;
+    public final double maxAngularAccelerationRadS2;
+    /** What one tire holds, for the setpoint generator; the chassis limit to start. */
+    public final double maxWheelAccelerationMS2;
+    /** Steering rate the drive may ask for, well under the turning motor's free speed. */
+    public final double maxSteerRateRadS;
+    /** From reading the gyro to the wheels moving, for the drive's lag correction. */
+    public final double actuationLatencyS;
+    /** Profiled. */
+    public final PidGains heading;
+    public final PidGains x;
+    public final PidGains y;
+    /** Profiled. */
+    public final PidGains theta;
+    public final ModuleType moduleType;
+    /** Front left, front right, rear left, rear right. */
+    public final List<ModuleConfig> modules;
+    public final PidGains drive;
+    /** Profiled. */
+    public final PidGains turn;
+    public final FeedforwardGains driveFeedforward;
+    public final FeedforwardGains turnFeedforward;
+    private final Map<Camera, Transform3d> cameras = new EnumMap<>(Camera.class);
+
+    @JsonCreator
+    public RobotConfig(
+            @JsonProperty(value = "trackWidthM", required = true) double trackWidthM,
+            @JsonProperty(value = "wheelBaseM", required = true) double wheelBaseM,
+            @JsonProperty(value = "maxSpeedMS", required = true) double maxSpeedMS,
+            @JsonProperty(value = "maxAccelerationMS2", required = true) double maxAccelerationMS2,
+            @JsonProperty(value = "maxAngularSpeedRadS", required = true) double maxAngularSpeedRadS,
+            @JsonProperty(value = "maxAngularAccelerationRadS2", required = true) double maxAngularAccelerationRadS2,
+            @JsonProperty(value = "maxWheelAccelerationMS2", required = true) double maxWheelAccelerationMS2,
+            @JsonProperty(value = "maxSteerRateRadS", required = true) double maxSteerRateRadS,
+            @JsonProperty("actuationLatencyS") Double actuationLatencyS,
+            @JsonProperty(value = "heading", required = true) PidGains heading,
+            @JsonProperty(value = "x", required = true) PidGains x,
+            @JsonProperty(value = "y", required = true) PidGains y,
+            @JsonProperty(value = "theta", required = true) PidGains theta,
+            @JsonProperty(value = "moduleType", required = true) ModuleType moduleType,
+            @JsonProperty(value = "modules", required = true) List<ModuleConfig> modules,
+            @JsonProperty(value = "drive", required = true) PidGains drive,
+            @JsonProperty(value = "turn", required = true) PidGains turn,
+            @JsonProperty(value = "driveFeedforward", required = true) FeedforwardGains driveFeedforward,
+            @JsonProperty(value = "turnFeedforward", required = true) FeedforwardGains turnFeedforward,
+            @JsonProperty("cameras") Map<Camera, CameraOffset> cameras) {
+        this.trackWidthM = PidGains.positive("trackWidthM", trackWidthM);
+        this.wheelBaseM = PidGains.positive("wheelBaseM", wheelBaseM);
+        this.maxSpeedMS = PidGains.positive("maxSpeedMS", maxSpeedMS);
+        this.maxAccelerationMS2 = PidGains.positive("maxAccelerationMS2", maxAccelerationMS2);
+        this.maxAngularSpeedRadS = PidGains.positive("maxAngularSpeedRadS", maxAngularSpeedRadS);
+        this.maxAngularAccelerationRadS2 = PidGains.positive("maxAngularAccelerationRadS2",
+                maxAngularAccelerationRadS2);
+        this.maxWheelAccelerationMS2 = PidGains.positive("maxWheelAccelerationMS2", maxWheelAccelerationMS2);
+        this.maxSteerRateRadS = PidGains.positive("maxSteerRateRadS", maxSteerRateRadS);
+        this.actuationLatencyS = actuationLatencyS == null ? kDefaultActuationLatencyS
+                : nonNegative("actuationLatencyS", actuationLatencyS);
+        this.heading = profiled("heading", heading);
+        this.x = x;
+        this.y = y;
+        this.theta = profiled("theta", theta);
+        this.moduleType = moduleType;
+        this.modules = List.copyOf(checkModules(moduleType, modules));
+        this.drive = drive;
+        this.turn = profiled("turn", turn);
+        this.driveFeedforward = driveFeedforward;
+        this.turnFeedforward = turnFeedforward;
+        if (cameras != null) {
+            for (Map.Entry<Camera, CameraOffset> entry : cameras.entrySet()) {
+                this.cameras.put(entry.getKey(), entry.getValue().transform());
+            }
+        }
+    }
+
+    /** The config for this RoboRIO, loaded the first time. */
+    public static synchronized RobotConfig get() {
+        if (instance == null) {
+            instance = forIdentity(Identity.get());
+        }
+        return instance;
+    }
+
+    /** Loads the file for another robot, e.g. BLANK for simulation. */
+    public static RobotConfig forIdentity(Identity identity) {
+        return load(Filesystem.getDeployDirectory().toPath()
+                .resolve(kDirectory).resolve(identity.name() + ".json"));
+    }
+
+    /** @throws IllegalStateException if the file is missing or invalid */
+    public static RobotConfig load(Path file) {
+        try {
+            return new ObjectMapper().readValue(file.toFile(), RobotConfig.class);
+        } catch (FileNotFoundException e) {
+            // what the mapper's FileInputStream throws, not NoSuchFileException.
+            throw new IllegalStateException("No robot config: " + file);
+        } catch (IOException e) {
+            // includes the constructor checks, wrapped by the mapper.
+            throw new IllegalStateException("Bad robot config " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Module centers relative to the robot center, in module order. */
+    public Translation2d[] moduleLocations() {
+        return new Translation2d[] {
+                new Translation2d(wheelBaseM / 2, trackWidthM / 2),
+                new Translation2d(wheelBaseM / 2, -trackWidthM / 2),
+                new Translation2d(-wheelBaseM / 2, trackWidthM / 2),
+                new Translation2d(-wheelBaseM / 2, -trackWidthM / 2) };
+    }
+
+    /** Camera view relative to the robot center at the floor, zero if not listed. */
+    public Transform3d cameraOffset(Camera camera) {
+        Transform3d offset = cameras.get(camera);
+        if (offset == null)
+            return new Transform3d();
+        return offset;
+    }
+
+    private static double nonNegative(String name, double value) {
+        if (!Double.isFinite(value) || value < 0)
+            throw new IllegalArgumentException(name + " must be finite and not negative: " + value);
+        return value;
+    }
+
+    private static PidGains profiled(String name, PidGains gains) {
+        if (!gains.isProfiled())
+            throw new IllegalArgumentException(name + " needs maxVelocity and maxAcceleration");
+        return gains;
+    }
+
+    private static List<ModuleConfig> checkModules(ModuleType moduleType, List<ModuleConfig> modules) {
+        if (modules.size() != 4)
+            throw new IllegalArgumentException("need 4 modules, got " + modules.size());
+        Set<Integer> drive = new HashSet<>();
+        Set<Integer> turn = new HashSet<>();
+        Set<Integer> encoder = new HashSet<>();
+        for (ModuleConfig m : modules) {
+            if (!drive.add(m.drive))
+                throw new IllegalArgumentException(m.name + ": duplicate drive CAN ID " + m.drive);
+            if (!turn.add(m.turn))
+                throw new IllegalArgumentException(m.name + ": duplicate turn channel " + m.turn);
+            if (!encoder.add(m.turnEncoder))
+                throw new IllegalArgumentException(m.name + ": duplicate turn encoder " + m.turnEncoder);
+        }
+        if (moduleType != ModuleType.AM) {
+            // turning motors are on the CAN bus too.
+            for (Integer id : turn) {
+                if (drive.contains(id))
+                    throw new IllegalArgumentException("CAN ID " + id + " is both drive and turn");
+            }
+        }
+        return modules;
+    }
+}
@@ -0,0 +1,181 @@
+package team100.control;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Drives onto the charge station and balances it, from pitch and pitch rate,
+ * see TiltEstimator, and distance traveled.
+ *
+ * Everything is in the direction of travel: pitch is nose-up positive, as
+ * the robot climbs, and position and speed are forward.
+ *
+ * The station tips when the robot gets far enough past the pivot to
+ * overcome the pivot friction, so there's a band in the middle where it
+ * stays wherever it is. The trick is to get the robot into that band just
+ * as the station gets to level, which means pulling back before it does.
+ *
+ * APPROACH: fast, until the pitch says the robot is on the ramp.
+ *
+ * CLIMB: slower, until the station starts to tip. The rate says so well
+ * before the angle does.
+ *
+ * BALANCE: back to the middle of the band, as best it knows it, leaning
+ * against the rate, to stop the station there. If it stops short of level,
+ * the robot creeps uphill until the pitch, predicted a little way ahead from
+ * the rate, says it'll get to level by itself, and goes back to the middle.
+ * Where the station started to tip, each way, brackets the middle, so each
+ * try lands closer.
+ *
+ * LOCK: level, and staying there, with the robot in the middle; the wheels
+ * go into an X, unless the station tips again.
+ */
+public class BalanceController {
+    public enum State {
+        APPROACH, CLIMB, BALANCE, LOCK
+    }
+
+    private static final double kApproachMS = 1.5;
+    private static final double kClimbMS = 0.75;
+    private static final double kCreepMS = 0.1;
+    private static final double kMaxBalanceMS = 0.5;
+    private static final double kOnRampDeg = 8;
+    /** Falling this fast, and this far from the peak, it's tipping. */
+    private static final double kTippingDegS = 4;
+    private static final double kDropDeg = 0.5;
+    private static final double kLookaheadS = 0.4;
+    /** From where it tipped, climbing, back to the middle. */
+    private static final double kBackoffM = 0.15;
+    /** From where it tipped, creeping, back to the middle. */
+    private static final double kCreepBackoffM = 0.05;
+    /** How far past the middle to lean, to stop the station, m per deg/s. */
+    private static final double kLeanMDegS = 0.003;
+    /** Going to the middle, 1/s. */
+    private static final double kP = 4;
+    private static final double kToleranceM = 0.01;
+    /** Within this, the station counts as level. */
+    private static final double kLevelDeg = 2;
+    private static final double kStillDegS = 2;
+    private static final int kLockCycles = 10;
+    /** Tipped this far, the lock lets go, and it balances again. */
+    private static final double kRelevelDeg = 5;
+
+    private State m_state;
+    /** Where the station started to tip, climbing. */
+    private double m_climbTip;
+    /** Where the station started to tip, creeping forward, and back. */
+    private double m_forwardTip;
+    private double m_backTip;
+    private boolean m_creeping;
+    private boolean m_tipped;
+    /** The most tilt since it started climbing, or creeping. */
+    private double m_peak;
+    private int m_level;
+
+    public BalanceController() {
+        reset();
+    }
+
+    public void reset() {
+        m_state = State.APPROACH;
+        m_climbTip = Double.NaN;
+        m_forwardTip = Double.NaN;
+        m_backTip = Double.NaN;
+        m_creeping = false;
+        m_tipped = false;
+        m_peak = 0;
+        m_level = 0;
+    }
+
+    /**
+     * @param positionM     distance traveled
+     * @param pitchDeg      nose-up positive
+     * @param pitchRateDegS nose-up positive
+     * @return speed in the direction of travel, m/s; zero in LOCK
+     */
+    public double calculate(double positionM, double pitchDeg, double pitchRateDegS) {
+        switch (m_state) {
+            case APPROACH:
+                if (pitchDeg < kOnRampDeg)
+                    return kApproachMS;
+                m_state = State.CLIMB;
+                return kClimbMS;
+            case CLIMB:
+                m_peak = Math.max(m_peak, pitchDeg);
+                if (!tipping(pitchDeg, pitchRateDegS))
+                    return kClimbMS;
+                m_climbTip = positionM;
+                m_state = State.BALANCE;
+                return balance(positionM, pitchDeg, pitchRateDegS);
+            case BALANCE:
+                return balance(positionM, pitchDeg, pitchRateDegS);
+            default:
+                if (Math.abs(pitchDeg) < kRelevelDeg)
+                    return 0;
+                m_state = State.BALANCE;
+                m_level = 0;
+                return balance(positionM, pitchDeg, pitchRateDegS);
+        }
+    }
+
+    public State getState() {
+        return m_state;
+    }
+
+    private double balance(double positionM, double pitchDeg, double pitchRateDegS) {
+        double predicted = pitchDeg + pitchRateDegS * kLookaheadS;
+        if (m_creeping) {
+            m_peak = Math.max(m_peak, Math.abs(pitchDeg));
+            if (!m_tipped && tipping(Math.abs(pitchDeg), pitchRateDegS * Math.signum(pitchDeg))) {
+                // that's the edge of the band.
+                if (pitchDeg > 0) {
+                    m_forwardTip = positionM;
+                } else {
+                    m_backTip = positionM;
+                }
+                m_tipped = true;
+            }
+            // keep pushing until it'll get to level by itself.
+            if (Math.abs(predicted) > kLevelDeg && predicted * pitchDeg > 0)
+                return Math.copySign(kCreepMS, pitchDeg);
+            m_creeping = false;
+        }
+        double error = middle() + kLeanMDegS * pitchRateDegS - positionM;
+        boolean leveling = pitchRateDegS * pitchDeg < 0;
+        if (Math.abs(error) > kToleranceM || leveling && Math.abs(pitchRateDegS) > kStillDegS) {
+            m_level = 0;
+            return MathUtil.clamp(kP * error, -kMaxBalanceMS, kMaxBalanceMS);
+        }
+        if (Math.abs(predicted) < kLevelDeg) {
+            if (++m_level >= kLockCycles)
+                m_state = State.LOCK;
+            return 0;
+        }
+        // stopped short, or going the wrong way; creep uphill.
+        m_level = 0;
+        m_creeping = true;
+        m_tipped = false;
+        m_peak = Math.abs(pitchDeg);
+        return Math.copySign(kCreepMS, pitchDeg);
+    }
+
+    /**
+     * Coming down, from the peak. The rate alone isn't enough, since driving
+     * from the ramp onto the platform, or a bump, makes the estimate ring.
+     *
+     * @param tiltDeg      uphill positive
+     * @param tiltRateDegS uphill positive
+     */
+    private boolean tipping(double tiltDeg, double tiltRateDegS) {
+        return tiltRateDegS < -kTippingDegS && tiltDeg < m_peak - kDropDeg;
+    }
+
+    private double middle() {
+        if (Double.isNaN(m_forwardTip) && Double.isNaN(m_backTip))
+            return m_climbTip - kBackoffM;
+        if (Double.isNaN(m_backTip))
+            return m_forwardTip - kCreepBackoffM;
+        if (Double.isNaN(m_forwardTip))
+            return m_backTip + kCreepBackoffM;
+        return (m_forwardTip + m_backTip) / 2;
+    }
+}
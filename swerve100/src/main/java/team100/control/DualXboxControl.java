@@ -8,7 +8,6 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import frc.robot.autonomous.DriveToWaypoint2;
-import frc.robot.commands.AutoLevel;
 import frc.robot.commands.DriveSlow;
 import frc.robot.commands.GoalOffset;
 import frc.robot.commands.ResetPose;
@@ -19,6 +18,7 @@ import frc.robot.commands.Arm.SetCubeMode;
 import frc.robot.commands.Manipulator.Close;
 import frc.robot.commands.Manipulator.Home;
 import frc.robot.commands.Manipulator.Open;
+import team100.commands.AutoBalance;
 import team100.commands.Defense;
 
 /**
@@ -50,7 +50,7 @@ public class DualXboxControl implements Sendable {
         controller0.x().whileTrue(command);
     };
 
-    public void autoLevel(AutoLevel command){
+    public void autoBalance(AutoBalance command){
         // controller0.x().whileTrue(command);
     }
 
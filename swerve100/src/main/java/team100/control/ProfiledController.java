@@ -0,0 +1,107 @@
+package team100.control;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import team100.trajectory.Trapezoid;
+
+/**
+ * Like ProfiledPIDController with continuous input, e.g. for a wheel angle,
+ * but it doesn't allocate: WPILib's makes a TrapezoidProfile and two States
+ * every call, four times a cycle in the modules.
+ *
+ * Same steps as WPILib's: the goal and the last setpoint move to within half
+ * a turn of the measurement, the setpoint advances one period along the
+ * profile toward the goal, at rest, and the PID tracks the setpoint
+ * position. The profile is a Trapezoid, which also handles a setpoint moving
+ * away from the goal.
+ */
+public class ProfiledController {
+    private static final double kPeriodS = 0.02;
+
+    private final PIDController m_controller;
+    private final Trapezoid m_profile;
+    private final double m_errorBound;
+
+    private double m_goal;
+    private double m_setpoint;
+    private double m_setpointVelocity;
+
+    /**
+     * @param minimumInput e.g. 0
+     * @param maximumInput e.g. 2 pi, the same angle as the minimum
+     */
+    public ProfiledController(
+            double p,
+            double i,
+            double d,
+            double maxVelocity,
+            double maxAcceleration,
+            double minimumInput,
+            double maximumInput) {
+        m_controller = new PIDController(p, i, d);
+        m_controller.enableContinuousInput(minimumInput, maximumInput);
+        m_profile = new Trapezoid(maxVelocity, maxAcceleration);
+        m_errorBound = (maximumInput - minimumInput) / 2;
+    }
+
+    public double calculate(double measurement, double goal) {
+        m_goal = measurement + MathUtil.inputModulus(goal - measurement, -m_errorBound, m_errorBound);
+        m_setpoint = measurement + MathUtil.inputModulus(m_setpoint - measurement, -m_errorBound, m_errorBound);
+        m_profile.calculate(kPeriodS, m_setpoint, m_setpointVelocity, m_goal);
+        m_setpoint = m_profile.getPosition();
+        m_setpointVelocity = m_profile.getVelocity();
+        return m_controller.calculate(measurement, m_setpoint);
+    }
+
+    /** Start the profile at the measurement, at rest. */
+    public void reset(double measurement) {
+        m_controller.reset();
+        m_setpoint = measurement;
+        m_setpointVelocity = 0;
+    }
+
+    public void setPID(double p, double i, double d) {
+        m_controller.setPID(p, i, d);
+    }
+
+    public void setIntegratorRange(double minimumIntegral, double maximumIntegral) {
+        m_controller.setIntegratorRange(minimumIntegral, maximumIntegral);
+    }
+
+    public void setTolerance(double positionTolerance) {
+        m_controller.setTolerance(positionTolerance);
+    }
+
+    public double getP() {
+        return m_controller.getP();
+    }
+
+    public double getI() {
+        return m_controller.getI();
+    }
+
+    public double getD() {
+        return m_controller.getD();
+    }
+
+    /** Within half a turn of the last measurement. */
+    public double getGoalPosition() {
+        return m_goal;
+    }
+
+    public double getSetpointPosition() {
+        return m_setpoint;
+    }
+
+    public double getSetpointVelocity() {
+        return m_setpointVelocity;
+    }
+
+    public double getPositionError() {
+        return m_controller.getPositionError();
+    }
+
+    public double getVelocityError() {
+        return m_controller.getVelocityError();
+    }
+}
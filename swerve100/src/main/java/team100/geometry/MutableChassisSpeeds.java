@@ -0,0 +1,45 @@
+package team100.geometry;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/** Like ChassisSpeeds, but reusable, with the conversions done in place. */
+public final class MutableChassisSpeeds {
+    public double vxMetersPerSecond;
+    public double vyMetersPerSecond;
+    public double omegaRadiansPerSecond;
+
+    public MutableChassisSpeeds set(double vx, double vy, double omega) {
+        vxMetersPerSecond = vx;
+        vyMetersPerSecond = vy;
+        omegaRadiansPerSecond = omega;
+        return this;
+    }
+
+    public MutableChassisSpeeds set(ChassisSpeeds speeds) {
+        return set(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+    }
+
+    /**
+     * Same as ChassisSpeeds.fromFieldRelativeSpeeds(), into this.
+     * 
+     * @param robotAngleRad counterclockwise-positive
+     */
+    public MutableChassisSpeeds setFieldRelative(double vx, double vy, double omega, double robotAngleRad) {
+        double cos = Math.cos(robotAngleRad);
+        double sin = Math.sin(robotAngleRad);
+        return set(vx * cos + vy * sin, -vx * sin + vy * cos, omega);
+    }
+
+    /** Copies into an existing ChassisSpeeds, for the wpilib side. */
+    public void copyTo(ChassisSpeeds speeds) {
+        speeds.vxMetersPerSecond = vxMetersPerSecond;
+        speeds.vyMetersPerSecond = vyMetersPerSecond;
+        speeds.omegaRadiansPerSecond = omegaRadiansPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutableChassisSpeeds(%.3f m/s, %.3f m/s, %.3f rad/s)",
+                vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond);
+    }
+}
@@ -0,0 +1,32 @@
+package team100.geometry;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/** Like SwerveModulePosition, but reusable. */
+public final class MutableModulePosition {
+    public double distanceMeters;
+    public final MutableRotation angle = new MutableRotation();
+
+    public MutableModulePosition set(double distance, double angleRad) {
+        distanceMeters = distance;
+        angle.set(angleRad);
+        return this;
+    }
+
+    /**
+     * Copies into an existing SwerveModulePosition, for the pose estimator.
+     * Rotation2d is immutable, so this allocates one, but only if the angle
+     * moved.
+     */
+    public void copyTo(SwerveModulePosition position) {
+        position.distanceMeters = distanceMeters;
+        if (position.angle.getRadians() != angle.getRadians())
+            position.angle = new Rotation2d(angle.getRadians());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutableModulePosition(%.3f m, %.3f rad)", distanceMeters, angle.getRadians());
+    }
+}
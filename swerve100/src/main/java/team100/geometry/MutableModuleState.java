@@ -0,0 +1,65 @@
+package team100.geometry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/** Like SwerveModuleState, but reusable. */
+public final class MutableModuleState {
+    public double speedMetersPerSecond;
+    public final MutableRotation angle = new MutableRotation();
+
+    /** Scratch for n modules, e.g. four for the drive. */
+    public static MutableModuleState[] array(int n) {
+        MutableModuleState[] states = new MutableModuleState[n];
+        for (int i = 0; i < n; ++i) {
+            states[i] = new MutableModuleState();
+        }
+        return states;
+    }
+
+    public MutableModuleState set(double speed, double angleRad) {
+        speedMetersPerSecond = speed;
+        angle.set(angleRad);
+        return this;
+    }
+
+    public MutableModuleState set(SwerveModuleState state) {
+        speedMetersPerSecond = state.speedMetersPerSecond;
+        angle.set(state.angle);
+        return this;
+    }
+
+    /**
+     * Same as SwerveModuleState.optimize(), in place: if the wheel would turn
+     * more than 90 degrees, turn the other way and reverse instead.
+     * 
+     * @param currentAngleRad the measured wheel angle
+     */
+    public MutableModuleState optimize(double currentAngleRad) {
+        if (shouldReverse(currentAngleRad))
+            reverse();
+        return this;
+    }
+
+    /** True if optimize() would reverse the wheel. */
+    public boolean shouldReverse(double currentAngleRad) {
+        return Math.abs(MathUtil.angleModulus(angle.getRadians() - currentAngleRad)) > Math.PI / 2;
+    }
+
+    /** Same motion, with the wheel turned around. */
+    public MutableModuleState reverse() {
+        speedMetersPerSecond = -speedMetersPerSecond;
+        angle.flip();
+        return this;
+    }
+
+    /** Allocates, so not in the loop. */
+    public SwerveModuleState toSwerveModuleState() {
+        return new SwerveModuleState(speedMetersPerSecond, angle.toRotation2d());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutableModuleState(%.3f m/s, %.3f rad)", speedMetersPerSecond, angle.getRadians());
+    }
+}
@@ -0,0 +1,46 @@
+package team100.geometry;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/** Like Pose2d, but reusable. */
+public final class MutablePose {
+    private double m_x;
+    private double m_y;
+    private final MutableRotation m_rotation = new MutableRotation();
+
+    public MutablePose set(double x, double y, double thetaRad) {
+        m_x = x;
+        m_y = y;
+        m_rotation.set(thetaRad);
+        return this;
+    }
+
+    public MutablePose set(Pose2d pose) {
+        m_x = pose.getX();
+        m_y = pose.getY();
+        m_rotation.set(pose.getRotation());
+        return this;
+    }
+
+    public double getX() {
+        return m_x;
+    }
+
+    public double getY() {
+        return m_y;
+    }
+
+    public MutableRotation getRotation() {
+        return m_rotation;
+    }
+
+    /** Allocates, so not in the loop. */
+    public Pose2d toPose2d() {
+        return new Pose2d(m_x, m_y, m_rotation.toRotation2d());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutablePose(%.3f, %.3f, %.3f rad)", m_x, m_y, m_rotation.getRadians());
+    }
+}
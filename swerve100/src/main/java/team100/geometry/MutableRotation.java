@@ -0,0 +1,82 @@
+package team100.geometry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Like Rotation2d, but reusable, for the control loop, where allocating a new
+ * one every cycle adds up. Keeps the cosine and sine, like Rotation2d does.
+ */
+public final class MutableRotation {
+    private double m_radians;
+    private double m_cos = 1;
+    private double m_sin;
+
+    public MutableRotation set(double radians) {
+        m_radians = radians;
+        m_cos = Math.cos(radians);
+        m_sin = Math.sin(radians);
+        return this;
+    }
+
+    public MutableRotation set(MutableRotation other) {
+        m_radians = other.m_radians;
+        m_cos = other.m_cos;
+        m_sin = other.m_sin;
+        return this;
+    }
+
+    public MutableRotation set(Rotation2d other) {
+        m_radians = other.getRadians();
+        m_cos = other.getCos();
+        m_sin = other.getSin();
+        return this;
+    }
+
+    /**
+     * Points along (x, y), like new Rotation2d(x, y), including pointing at
+     * zero if the vector is too short to have a direction.
+     */
+    public MutableRotation setDirection(double x, double y) {
+        double magnitude = Math.hypot(x, y);
+        if (magnitude > 1e-6) {
+            m_cos = x / magnitude;
+            m_sin = y / magnitude;
+        } else {
+            m_cos = 1;
+            m_sin = 0;
+        }
+        m_radians = Math.atan2(m_sin, m_cos);
+        return this;
+    }
+
+    /** Turns half way around, which is exact, so skips the trig. */
+    public MutableRotation flip() {
+        m_radians = MathUtil.angleModulus(m_radians + Math.PI);
+        m_cos = -m_cos;
+        m_sin = -m_sin;
+        return this;
+    }
+
+    public double getRadians() {
+        return m_radians;
+    }
+
+    public double getCos() {
+        return m_cos;
+    }
+
+    public double getSin() {
+        return m_sin;
+    }
+
+    /** Allocates, so not in the loop. */
+    public Rotation2d toRotation2d() {
+        return new Rotation2d(m_radians);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MutableRotation(%.3f rad)", m_radians);
+    }
+}
@@ -0,0 +1,96 @@
+package team100.indicator;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.AddressableLED;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
+
+/**
+ * Renders the LED signals from the robot state, in periodic(), so there's no
+ * Notifier thread and the flashing runs off the loop count.
+ * 
+ * Every frame is precomputed by LedCompositor from the frame plan, so each
+ * render is a table lookup, with no allocation, and the buffer goes to the
+ * HAL only when the frame changes. Rendering every loop is wasted effort, so
+ * it's decimated: the flash is a few Hz, and the heading changes slowly.
+ * 
+ * The RoboRIO has only one addressable LED output, so all the strips are
+ * chained on one port, and each appears as a zone in the plan.
+ * 
+ * I'm using adafruit.com/products/3811, which are 60 LEDs in 0.5m. The current
+ * draw is about 400mA per color for the full strip. The RoboRIO can produce
+ * 2.2A on the 6V bus, so that's a budget for about five strips showing one
+ * color each. For more, use the servo power module (revrobotics/rev-11/1144),
+ * which can drive up to 15A at 6V (the absolute max for these strips).
+ */
+public class IndicatorSubsystem extends SubsystemBase {
+    /** Loops per flash phase, 0.25 sec at 50 Hz. */
+    private static final int kFlashLoops = 12;
+
+    private final LedCompositor m_frames;
+    private final AddressableLED m_led;
+    private final int m_decimation;
+    private final DoubleSupplier m_heading;
+    private final BooleanSupplier m_goodFix;
+    private final BooleanSupplier m_cone;
+    private int m_loops;
+    /** Index of the frame on the strip, -1 before the first push. */
+    private int m_pushed;
+    /** Buffers sent to the HAL so far. */
+    private int m_pushes;
+
+    /**
+     * @param port       PWM port
+     * @param length     total LEDs on the port
+     * @param decimation render every this many loops
+     * @param heading    robot heading, radians, [-Math.PI, Math.PI]
+     * @param goodFix    true for a recent vision fix
+     * @param cone       true for cone mode, false for cube
+     * @param zones      the frame plan
+     */
+    public IndicatorSubsystem(
+            int port,
+            int length,
+            int decimation,
+            DoubleSupplier heading,
+            BooleanSupplier goodFix,
+            BooleanSupplier cone,
+            LedCompositor.Zone... zones) {
+        m_frames = new LedCompositor(length, zones);
+        m_decimation = decimation;
+        m_heading = heading;
+        m_goodFix = goodFix;
+        m_cone = cone;
+        m_pushed = -1;
+        m_led = new AddressableLED(port);
+        m_led.setLength(length);
+        m_led.start();
+        TelemetryScheduler.getInstance().group("Indicator")
+                .addDouble("LED Pushes", Tier.SLOW, () -> m_pushes);
+    }
+
+    @Override
+    public void periodic() {
+        if (m_loops++ % m_decimation != 0)
+            return;
+        // disabled, the robot isn't going anywhere, so just show it's alive.
+        LedCompositor.View view = DriverStation.isDisabled()
+                ? LedCompositor.View.SIDEWAYS
+                : LedCompositor.View.of(m_heading.getAsDouble());
+        boolean flashOn = (m_loops / kFlashLoops) % 2 == 1;
+        int index = m_frames.index(view, m_goodFix.getAsBoolean(), flashOn, m_cone.getAsBoolean());
+        if (index == m_pushed)
+            return;
+        m_led.setData(m_frames.frame(index));
+        m_pushed = index;
+        m_pushes++;
+    }
+
+    public void close() {
+        m_led.close();
+    }
+}
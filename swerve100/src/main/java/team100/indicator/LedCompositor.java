@@ -0,0 +1,186 @@
+package team100.indicator;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.MyAddressableLEDBuffer;
+import edu.wpi.first.wpilibj.util.Color;
+
+/**
+ * Every frame the LEDs can show, composed once at boot, so the renderer just
+ * picks one and pushes it.
+ *
+ * The frame plan divides the buffer into zones, each mounted facing the front
+ * or the back of the robot; several strips chained on one output are just
+ * more zones. The zones facing the driver show the vision fix, steady green
+ * for a good fix, flashing red for none; the others show the game piece mode
+ * to the loader, steady yellow for cone, blue for cube. Sideways, the robot
+ * can't see the tags and the loader can't see the signal, so every zone is
+ * steady orange.
+ *
+ * That's 3 views, 2 fix states, 2 flash phases and 2 pieces, 24 states. With
+ * one zone each way, there are only 13 distinct frames, since a good fix
+ * doesn't flash and sideways ignores everything:
+ *
+ * front green, back blue
+ * front red, back blue
+ * front black, back blue
+ * front green, back yellow
+ * front red, back yellow
+ * front black, back yellow
+ * front orange, back orange
+ * front blue, back green
+ * front blue, back red
+ * front blue, back black
+ * front yellow, back green
+ * front yellow, back red
+ * front yellow, back black
+ *
+ * States that look the same share an index, so comparing indices is enough to
+ * know whether the strip needs a push.
+ */
+public final class LedCompositor {
+    /** Which way a zone faces, relative to the robot. */
+    public enum Face {
+        FRONT, BACK;
+    }
+
+    /** A run of LEDs, [start, end), facing one way. */
+    public static final class Zone {
+        private final int m_start;
+        private final int m_end;
+        private final Face m_face;
+
+        public Zone(int start, int end, Face face) {
+            m_start = start;
+            m_end = end;
+            m_face = face;
+        }
+    }
+
+    /** Which face of the robot faces the driver. */
+    public enum View {
+        FRONT, SIDEWAYS, BACK;
+
+        /**
+         * The field origin is on our own alliance wall, either alliance, see
+         * AprilTagFieldLayoutWithCorrectOrientation, so the driver is toward
+         * -x: heading pi, e.g. at a grid goal, is front toward the driver.
+         *
+         * @param headingRad [-Math.PI, Math.PI]
+         */
+        public static View of(double headingRad) {
+            double abs = Math.abs(headingRad);
+            if (abs > 3 * Math.PI / 4)
+                return FRONT;
+            if (abs > Math.PI / 4)
+                return SIDEWAYS;
+            return BACK;
+        }
+    }
+
+    private static final Color kOff = Color.kBlack;
+    private static final Color kSideways = Color.kOrange;
+    private static final Color kNoFix = Color.kRed;
+    private static final Color kGoodFix = Color.kGreen;
+    private static final Color kCone = Color.kYellow;
+    private static final Color kCube = Color.kBlue;
+
+    private final MyAddressableLEDBuffer[] m_frames;
+    /** Frame index for each state, see key(). */
+    private final int[] m_index = new int[24];
+
+    /**
+     * One strip, split into two zones.
+     * 
+     * @param length LEDs in the strip
+     * @param split  the front zone is [0, split), the back is [split, length)
+     */
+    public LedCompositor(int length, int split) {
+        this(length, new Zone(0, split, Face.FRONT), new Zone(split, length, Face.BACK));
+    }
+
+    /**
+     * @param length LEDs in the buffer, covering all the zones
+     * @param zones  the frame plan; LEDs outside every zone stay dark
+     */
+    public LedCompositor(int length, Zone... zones) {
+        MyAddressableLEDBuffer[] distinct = new MyAddressableLEDBuffer[m_index.length];
+        int count = 0;
+        for (View view : View.values()) {
+            for (int fix = 0; fix < 2; ++fix) {
+                for (int flash = 0; flash < 2; ++flash) {
+                    for (int cone = 0; cone < 2; ++cone) {
+                        MyAddressableLEDBuffer frame = compose(length, zones, view, fix == 1, flash == 1, cone == 1);
+                        int index = find(distinct, count, frame);
+                        if (index < 0) {
+                            index = count;
+                            distinct[count++] = frame;
+                        }
+                        m_index[key(view, fix == 1, flash == 1, cone == 1)] = index;
+                    }
+                }
+            }
+        }
+        m_frames = new MyAddressableLEDBuffer[count];
+        System.arraycopy(distinct, 0, m_frames, 0, count);
+    }
+
+    /**
+     * @param goodFix true for a recent vision fix
+     * @param flashOn true in the dark half of the flash cycle
+     * @param cone    true for cone mode, false for cube
+     * @return index of the frame to show, equal for identical frames
+     */
+    public int index(View view, boolean goodFix, boolean flashOn, boolean cone) {
+        return m_index[key(view, goodFix, flashOn, cone)];
+    }
+
+    public MyAddressableLEDBuffer frame(int index) {
+        return m_frames[index];
+    }
+
+    /** Number of distinct frames. */
+    public int size() {
+        return m_frames.length;
+    }
+
+    private static int key(View view, boolean goodFix, boolean flashOn, boolean cone) {
+        return ((view.ordinal() * 2 + (goodFix ? 1 : 0)) * 2 + (flashOn ? 1 : 0)) * 2 + (cone ? 1 : 0);
+    }
+
+    private static MyAddressableLEDBuffer compose(
+            int length, Zone[] zones, View view, boolean goodFix, boolean flashOn, boolean cone) {
+        MyAddressableLEDBuffer frame = new MyAddressableLEDBuffer(length);
+        fill(frame, 0, length, kOff);
+        Color driver = goodFix ? kGoodFix : flashOn ? kOff : kNoFix;
+        Color loader = cone ? kCone : kCube;
+        for (Zone zone : zones) {
+            if (view == View.SIDEWAYS) {
+                fill(frame, zone.m_start, zone.m_end, kSideways);
+            } else if (facesDriver(zone.m_face, view)) {
+                fill(frame, zone.m_start, zone.m_end, driver);
+            } else {
+                fill(frame, zone.m_start, zone.m_end, loader);
+            }
+        }
+        return frame;
+    }
+
+    private static boolean facesDriver(Face face, View view) {
+        return (face == Face.FRONT && view == View.FRONT) || (face == Face.BACK && view == View.BACK);
+    }
+
+    private static void fill(MyAddressableLEDBuffer frame, int from, int to, Color color) {
+        for (int i = from; i < to; ++i) {
+            frame.setLED(i, color);
+        }
+    }
+
+    private static int find(MyAddressableLEDBuffer[] frames, int count, MyAddressableLEDBuffer frame) {
+        for (int i = 0; i < count; ++i) {
+            if (Arrays.equals(frames[i].getBuffer(), frame.getBuffer()))
+                return i;
+        }
+        return -1;
+    }
+}
@@ -4,14 +4,29 @@ import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import team100.geometry.MutableChassisSpeeds;
 
 /**
  * Replacement for the static methods in wpilib ChassisSpeeds. Supports
- * lag correction.
+ * lag correction and discretization.
+ *
+ * Lag: the speeds are computed from the heading at the start of the cycle,
+ * but the wheels don't see them until later, by which time a spinning robot
+ * has turned, so the field-relative conversion uses the heading the robot
+ * will have then.
+ *
+ * Discretization: the wheels hold the robot-relative speeds for a whole
+ * cycle while the robot turns, so the path curves, and a robot spinning
+ * while it translates drifts sideways. The speeds are replaced with the
+ * twist that ends the cycle where the commanded speeds would have, if they
+ * had been field-relative.
+ *
+ * The drive owns one of these, and every way of driving goes through it.
  */
 public class ChassisSpeedFactory {
     private final DoubleSupplier gyroRateRadS;
     private final double delaySec;
+    private final double dtSec;
 
     /**
      * @param gyroRateRadS supplies gyro rate, NWU, counterclockwise-positive
@@ -19,10 +34,17 @@ public class ChassisSpeedFactory {
      *                     *setpoint*.
      * @param delayS       total delay to correct for in rotational sensing and
      *                     actuation (s)
+     * @param dtS          loop period to discretize over (s), zero for none
      */
-    public ChassisSpeedFactory(DoubleSupplier gyroRateRadS, double delayS) {
+    public ChassisSpeedFactory(DoubleSupplier gyroRateRadS, double delayS, double dtS) {
         this.gyroRateRadS = gyroRateRadS;
         this.delaySec = delayS;
+        this.dtSec = dtS;
+    }
+
+    /** Lag correction only, no discretization. */
+    public ChassisSpeedFactory(DoubleSupplier gyroRateRadS, double delayS) {
+        this(gyroRateRadS, delayS, 0.0);
     }
 
     /**
@@ -62,12 +84,60 @@ public class ChassisSpeedFactory {
             double vyMetersPerSecond,
             double omegaRadiansPerSecond,
             Rotation2d robotAngle) {
-        double gyroRate = gyroRateRadS.getAsDouble() * delaySec;
-        robotAngle = robotAngle.plus(new Rotation2d(gyroRate));
-        return new ChassisSpeeds(
-                vxMetersPerSecond * robotAngle.getCos() + vyMetersPerSecond * robotAngle.getSin(),
-                -vxMetersPerSecond * robotAngle.getSin() + vyMetersPerSecond * robotAngle.getCos(),
-                omegaRadiansPerSecond);
+        MutableChassisSpeeds output = new MutableChassisSpeeds();
+        fromFieldRelativeSpeeds(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond,
+                robotAngle.getRadians(), output);
+        return new ChassisSpeeds(output.vxMetersPerSecond, output.vyMetersPerSecond,
+                output.omegaRadiansPerSecond);
+    }
+
+    /**
+     * Same as above, into an existing output, for the control loop.
+     *
+     * @param robotAngleRad counterclockwise-positive
+     * @param output        receives the robot-relative speeds
+     */
+    public void fromFieldRelativeSpeeds(
+            double vxMetersPerSecond,
+            double vyMetersPerSecond,
+            double omegaRadiansPerSecond,
+            double robotAngleRad,
+            MutableChassisSpeeds output) {
+        output.setFieldRelative(vxMetersPerSecond, vyMetersPerSecond, omegaRadiansPerSecond,
+                robotAngleRad + gyroRateRadS.getAsDouble() * delaySec);
+        discretize(output);
+    }
+
+    /**
+     * Discretizes robot-relative speeds in place, for callers that don't
+     * start from field-relative ones. No lag correction is needed, the
+     * speeds don't depend on the heading.
+     */
+    public void discretize(MutableChassisSpeeds speeds) {
+        if (dtSec == 0)
+            return;
+        double dtheta = speeds.omegaRadiansPerSecond * dtSec;
+        double halfDtheta = dtheta / 2;
+        double cosMinusOne = Math.cos(dtheta) - 1;
+        // same as Pose2d.log() of the straight-line motion over dt.
+        double halfThetaByTanOfHalfDtheta;
+        if (Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - dtheta * dtheta / 12.0;
+        } else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        speeds.vxMetersPerSecond = vx * halfThetaByTanOfHalfDtheta + vy * halfDtheta;
+        speeds.vyMetersPerSecond = -vx * halfDtheta + vy * halfThetaByTanOfHalfDtheta;
+    }
+
+    /** Same as above, into a new object. */
+    public ChassisSpeeds discretize(ChassisSpeeds speeds) {
+        MutableChassisSpeeds output = new MutableChassisSpeeds().set(speeds);
+        discretize(output);
+        return new ChassisSpeeds(output.vxMetersPerSecond, output.vyMetersPerSecond,
+                output.omegaRadiansPerSecond);
     }
 
     /**
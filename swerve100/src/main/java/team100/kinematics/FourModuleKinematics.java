@@ -0,0 +1,231 @@
+package team100.kinematics;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModuleState;
+
+/**
+ * Same math as SwerveDriveKinematics, in place, on the mutable types in
+ * team100.geometry, so the drive loop doesn't allocate; WPILib goes through
+ * EJML matrices, which allocate on every call.
+ *
+ * It's specialized for the four modules the drive has: the loops are unrolled,
+ * and the forward kinematics uses the pseudo-inverse, worked out once here, so
+ * the results match SwerveDriveKinematics to rounding.
+ *
+ * Like WPILib, it remembers the module angles: stopping leaves the wheels
+ * where they were, rather than snapping them to zero.
+ *
+ * Also does the second-order kinematics: how fast each wheel speeds up, and
+ * how fast it steers, for a given chassis acceleration, which is what the
+ * feedforward needs.
+ *
+ * Module order is the constructor order, FL, FR, RL, RR in the drive.
+ */
+public final class FourModuleKinematics {
+    private final double m_x0, m_x1, m_x2, m_x3;
+    private final double m_y0, m_y1, m_y2, m_y3;
+    /**
+     * Pseudo-inverse of the inverse kinematics matrix, 3x8, row-major; the
+     * columns are vx0, vy0, vx1, vy1, ...
+     */
+    private final double[] m_forward;
+
+    public FourModuleKinematics(Translation2d m0, Translation2d m1, Translation2d m2, Translation2d m3) {
+        m_x0 = m0.getX();
+        m_y0 = m0.getY();
+        m_x1 = m1.getX();
+        m_y1 = m1.getY();
+        m_x2 = m2.getX();
+        m_y2 = m2.getY();
+        m_x3 = m3.getX();
+        m_y3 = m3.getY();
+        m_forward = pseudoInverse(new double[] { m_x0, m_x1, m_x2, m_x3 }, new double[] { m_y0, m_y1, m_y2, m_y3 });
+    }
+
+    /** @param modules exactly four, e.g. RobotConfig.moduleLocations() */
+    public FourModuleKinematics(Translation2d... modules) {
+        this(check(modules)[0], modules[1], modules[2], modules[3]);
+    }
+
+    /**
+     * Inverse kinematics, same as toSwerveModuleStates(). A stopped chassis
+     * leaves the wheels pointing where they were.
+     */
+    public void toModuleStates(MutableChassisSpeeds speeds, MutableModuleState[] states) {
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        double omega = speeds.omegaRadiansPerSecond;
+        if (vx == 0 && vy == 0 && omega == 0) {
+            states[0].speedMetersPerSecond = 0;
+            states[1].speedMetersPerSecond = 0;
+            states[2].speedMetersPerSecond = 0;
+            states[3].speedMetersPerSecond = 0;
+            return;
+        }
+        module(vx - omega * m_y0, vy + omega * m_x0, states[0]);
+        module(vx - omega * m_y1, vy + omega * m_x1, states[1]);
+        module(vx - omega * m_y2, vy + omega * m_x2, states[2]);
+        module(vx - omega * m_y3, vy + omega * m_x3, states[3]);
+    }
+
+    /** Forward kinematics, same as toChassisSpeeds(). */
+    public void toChassisSpeeds(MutableModuleState[] states, MutableChassisSpeeds speeds) {
+        forward(
+                states[0].speedMetersPerSecond * states[0].angle.getCos(),
+                states[0].speedMetersPerSecond * states[0].angle.getSin(),
+                states[1].speedMetersPerSecond * states[1].angle.getCos(),
+                states[1].speedMetersPerSecond * states[1].angle.getSin(),
+                states[2].speedMetersPerSecond * states[2].angle.getCos(),
+                states[2].speedMetersPerSecond * states[2].angle.getSin(),
+                states[3].speedMetersPerSecond * states[3].angle.getCos(),
+                states[3].speedMetersPerSecond * states[3].angle.getSin(),
+                speeds);
+    }
+
+    /** Forward kinematics from wpilib states, without copying them. */
+    public void toChassisSpeeds(SwerveModuleState[] states, MutableChassisSpeeds speeds) {
+        forward(
+                states[0].speedMetersPerSecond * states[0].angle.getCos(),
+                states[0].speedMetersPerSecond * states[0].angle.getSin(),
+                states[1].speedMetersPerSecond * states[1].angle.getCos(),
+                states[1].speedMetersPerSecond * states[1].angle.getSin(),
+                states[2].speedMetersPerSecond * states[2].angle.getCos(),
+                states[2].speedMetersPerSecond * states[2].angle.getSin(),
+                states[3].speedMetersPerSecond * states[3].angle.getCos(),
+                states[3].speedMetersPerSecond * states[3].angle.getSin(),
+                speeds);
+    }
+
+    /**
+     * Second-order inverse kinematics: for the given chassis velocity and
+     * acceleration, how fast each wheel speeds up along its own direction,
+     * and how fast it steers. A wheel that isn't moving has no direction, so
+     * gets zero for both.
+     *
+     * The acceleration is the rate of change of the robot-relative speeds,
+     * i.e. the difference between successive setpoints, which isn't quite
+     * the inertial acceleration while the robot is spinning.
+     *
+     * @param speeds        robot-relative velocity
+     * @param accelerations rate of change of speeds, m/s^2 and rad/s^2
+     * @param wheelAccel    receives wheel acceleration, m/s^2, four of them
+     * @param steerRate     receives steering rate, rad/s, four of them
+     */
+    public void toModuleAccelerations(
+            MutableChassisSpeeds speeds,
+            MutableChassisSpeeds accelerations,
+            double[] wheelAccel,
+            double[] steerRate) {
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        double omega = speeds.omegaRadiansPerSecond;
+        double ax = accelerations.vxMetersPerSecond;
+        double ay = accelerations.vyMetersPerSecond;
+        double alpha = accelerations.omegaRadiansPerSecond;
+        moduleAccel(vx - omega * m_y0, vy + omega * m_x0, ax - alpha * m_y0, ay + alpha * m_x0,
+                0, wheelAccel, steerRate);
+        moduleAccel(vx - omega * m_y1, vy + omega * m_x1, ax - alpha * m_y1, ay + alpha * m_x1,
+                1, wheelAccel, steerRate);
+        moduleAccel(vx - omega * m_y2, vy + omega * m_x2, ax - alpha * m_y2, ay + alpha * m_x2,
+                2, wheelAccel, steerRate);
+        moduleAccel(vx - omega * m_y3, vy + omega * m_x3, ax - alpha * m_y3, ay + alpha * m_x3,
+                3, wheelAccel, steerRate);
+    }
+
+    /**
+     * Same as desaturateWheelSpeeds(), including the order of operations, so
+     * the result is identical.
+     */
+    public static void desaturate(MutableModuleState[] states, double maxSpeedMetersPerSecond) {
+        double fastest = Math.max(
+                Math.max(Math.abs(states[0].speedMetersPerSecond), Math.abs(states[1].speedMetersPerSecond)),
+                Math.max(Math.abs(states[2].speedMetersPerSecond), Math.abs(states[3].speedMetersPerSecond)));
+        if (fastest <= maxSpeedMetersPerSecond)
+            return;
+        states[0].speedMetersPerSecond = states[0].speedMetersPerSecond / fastest * maxSpeedMetersPerSecond;
+        states[1].speedMetersPerSecond = states[1].speedMetersPerSecond / fastest * maxSpeedMetersPerSecond;
+        states[2].speedMetersPerSecond = states[2].speedMetersPerSecond / fastest * maxSpeedMetersPerSecond;
+        states[3].speedMetersPerSecond = states[3].speedMetersPerSecond / fastest * maxSpeedMetersPerSecond;
+    }
+
+    private void forward(
+            double vx0, double vy0,
+            double vx1, double vy1,
+            double vx2, double vy2,
+            double vx3, double vy3,
+            MutableChassisSpeeds speeds) {
+        double[] f = m_forward;
+        speeds.set(
+                f[0] * vx0 + f[1] * vy0 + f[2] * vx1 + f[3] * vy1
+                        + f[4] * vx2 + f[5] * vy2 + f[6] * vx3 + f[7] * vy3,
+                f[8] * vx0 + f[9] * vy0 + f[10] * vx1 + f[11] * vy1
+                        + f[12] * vx2 + f[13] * vy2 + f[14] * vx3 + f[15] * vy3,
+                f[16] * vx0 + f[17] * vy0 + f[18] * vx1 + f[19] * vy1
+                        + f[20] * vx2 + f[21] * vy2 + f[22] * vx3 + f[23] * vy3);
+    }
+
+    private static void module(double x, double y, MutableModuleState state) {
+        state.speedMetersPerSecond = Math.hypot(x, y);
+        state.angle.setDirection(x, y);
+    }
+
+    private static void moduleAccel(
+            double vx, double vy, double ax, double ay, int i, double[] wheelAccel, double[] steerRate) {
+        double speed2 = vx * vx + vy * vy;
+        if (speed2 < 1e-12) {
+            wheelAccel[i] = 0;
+            steerRate[i] = 0;
+            return;
+        }
+        wheelAccel[i] = (vx * ax + vy * ay) / Math.sqrt(speed2);
+        steerRate[i] = (vx * ay - vy * ax) / speed2;
+    }
+
+    /**
+     * (A^T A)^-1 A^T, where module i contributes the rows [1 0 -y] and
+     * [0 1 x] to A. It's full rank unless the modules are all in one place.
+     */
+    private static double[] pseudoInverse(double[] x, double[] y) {
+        double n = x.length;
+        double sumX = 0;
+        double sumY = 0;
+        double sumR2 = 0;
+        for (int i = 0; i < x.length; ++i) {
+            sumX += x[i];
+            sumY += y[i];
+            sumR2 += x[i] * x[i] + y[i] * y[i];
+        }
+        // A^T A = [n 0 c; 0 n f; c f r2], symmetric
+        double c = -sumY;
+        double f = sumX;
+        double det = n * (n * sumR2 - f * f) - c * c * n;
+        if (Math.abs(det) < 1e-9)
+            throw new IllegalArgumentException("module geometry is degenerate");
+        double i00 = (n * sumR2 - f * f) / det;
+        double i01 = c * f / det;
+        double i02 = -c * n / det;
+        double i11 = (n * sumR2 - c * c) / det;
+        double i12 = -n * f / det;
+        double i22 = n * n / det;
+        double[] result = new double[3 * 2 * x.length];
+        int cols = 2 * x.length;
+        for (int i = 0; i < x.length; ++i) {
+            // column for vx_i is [1, 0, -y]^T, for vy_i is [0, 1, x]^T
+            result[2 * i] = i00 - i02 * y[i];
+            result[cols + 2 * i] = i01 - i12 * y[i];
+            result[2 * cols + 2 * i] = i02 - i22 * y[i];
+            result[2 * i + 1] = i01 + i02 * x[i];
+            result[cols + 2 * i + 1] = i11 + i12 * x[i];
+            result[2 * cols + 2 * i + 1] = i12 + i22 * x[i];
+        }
+        return result;
+    }
+
+    private static Translation2d[] check(Translation2d[] modules) {
+        if (modules.length != 4)
+            throw new IllegalArgumentException("expected four modules, got " + modules.length);
+        return modules;
+    }
+}
@@ -0,0 +1,180 @@
+package team100.kinematics;
+
+import edu.wpi.first.math.MathUtil;
+import team100.config.RobotConfig;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModuleState;
+
+/**
+ * Turns the desired chassis speeds into something the modules can actually
+ * do in one cycle, instead of asking for an instant change and letting the
+ * wheels fight it out.
+ *
+ * Each cycle moves the setpoint toward the desired speeds, along a straight
+ * line in chassis-speed space, as far as these allow:
+ *
+ * chassis acceleration, linear and angular;
+ *
+ * wheel acceleration, i.e. the change in each module's velocity vector,
+ * which includes turning, and is what the tire has to hold;
+ *
+ * steering rate, counting a wheel that reverses as not steering at all. A
+ * stopped wheel can point anywhere, so doesn't count.
+ *
+ * The module velocities are linear in the chassis speeds, so the first two
+ * are closed-form; the steering limit takes a short bisection. Nothing is
+ * allocated.
+ *
+ * Along with the states, it produces each wheel's acceleration, for the drive
+ * feedforward, instead of differencing setpoints in the module.
+ */
+public final class SwerveSetpointGenerator {
+    public static final class Limits {
+        public final double maxSpeedMS;
+        public final double maxAccelerationMS2;
+        public final double maxAngularAccelerationRadS2;
+        public final double maxSteerRateRadS;
+        public final double maxWheelAccelerationMS2;
+
+        public Limits(
+                double maxSpeedMS,
+                double maxAccelerationMS2,
+                double maxAngularAccelerationRadS2,
+                double maxSteerRateRadS,
+                double maxWheelAccelerationMS2) {
+            this.maxSpeedMS = maxSpeedMS;
+            this.maxAccelerationMS2 = maxAccelerationMS2;
+            this.maxAngularAccelerationRadS2 = maxAngularAccelerationRadS2;
+            this.maxSteerRateRadS = maxSteerRateRadS;
+            this.maxWheelAccelerationMS2 = maxWheelAccelerationMS2;
+        }
+
+        /** The robot's own limits. */
+        public static Limits of(RobotConfig config) {
+            return new Limits(
+                    config.maxSpeedMS,
+                    config.maxAccelerationMS2,
+                    config.maxAngularAccelerationRadS2,
+                    config.maxSteerRateRadS,
+                    config.maxWheelAccelerationMS2);
+        }
+    }
+
+    /** Slower than this, a wheel has no direction to keep. */
+    private static final double kStoppedMS = 0.05;
+    private static final int kBisections = 8;
+
+    private final FourModuleKinematics m_kinematics;
+    private final Limits m_limits;
+    /** The last output. */
+    private final MutableChassisSpeeds m_setpoint = new MutableChassisSpeeds();
+    // scratch
+    private final MutableChassisSpeeds m_delta = new MutableChassisSpeeds();
+    private final MutableChassisSpeeds m_accel = new MutableChassisSpeeds();
+    private final MutableModuleState[] m_desired = MutableModuleState.array(4);
+    private final MutableModuleState[] m_previous = MutableModuleState.array(4);
+    private final MutableModuleState[] m_change = MutableModuleState.array(4);
+    private final double[] m_steerRate = new double[4];
+
+    public SwerveSetpointGenerator(FourModuleKinematics kinematics, Limits limits) {
+        m_kinematics = kinematics;
+        m_limits = limits;
+    }
+
+    /** Start from here, e.g. the measured speeds, when taking over the drive. */
+    public void reset(MutableChassisSpeeds speeds) {
+        m_setpoint.set(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond);
+    }
+
+    /** The last output, robot-relative. */
+    public MutableChassisSpeeds getSetpoint() {
+        return m_setpoint;
+    }
+
+    /**
+     * @param desired    robot-relative, not modified; if it's too fast for the
+     *                   wheels, it's scaled down, keeping its shape
+     * @param dtS        loop period
+     * @param states     receives the next module states
+     * @param wheelAccel receives each wheel's acceleration along its direction
+     */
+    public void generate(MutableChassisSpeeds desired, double dtS, MutableModuleState[] states, double[] wheelAccel) {
+        // the achievable version of desired, same as desaturating.
+        m_kinematics.toModuleStates(desired, m_desired);
+        double fastest = Math.max(
+                Math.max(m_desired[0].speedMetersPerSecond, m_desired[1].speedMetersPerSecond),
+                Math.max(m_desired[2].speedMetersPerSecond, m_desired[3].speedMetersPerSecond));
+        double scale = fastest > m_limits.maxSpeedMS ? m_limits.maxSpeedMS / fastest : 1;
+        m_delta.set(
+                desired.vxMetersPerSecond * scale - m_setpoint.vxMetersPerSecond,
+                desired.vyMetersPerSecond * scale - m_setpoint.vyMetersPerSecond,
+                desired.omegaRadiansPerSecond * scale - m_setpoint.omegaRadiansPerSecond);
+
+        double s = 1;
+        s = limit(s, Math.hypot(m_delta.vxMetersPerSecond, m_delta.vyMetersPerSecond),
+                m_limits.maxAccelerationMS2 * dtS);
+        s = limit(s, Math.abs(m_delta.omegaRadiansPerSecond), m_limits.maxAngularAccelerationRadS2 * dtS);
+
+        // module velocity change is linear in the chassis change.
+        m_kinematics.toModuleStates(m_delta, m_change);
+        m_kinematics.toModuleStates(m_setpoint, m_previous);
+        double maxSteer = m_limits.maxSteerRateRadS * dtS;
+        for (int i = 0; i < 4; ++i) {
+            s = limit(s, m_change[i].speedMetersPerSecond, m_limits.maxWheelAccelerationMS2 * dtS);
+            s = limitSteer(s, m_previous[i], m_change[i], maxSteer);
+        }
+
+        m_setpoint.set(
+                m_setpoint.vxMetersPerSecond + s * m_delta.vxMetersPerSecond,
+                m_setpoint.vyMetersPerSecond + s * m_delta.vyMetersPerSecond,
+                m_setpoint.omegaRadiansPerSecond + s * m_delta.omegaRadiansPerSecond);
+        m_accel.set(
+                s * m_delta.vxMetersPerSecond / dtS,
+                s * m_delta.vyMetersPerSecond / dtS,
+                s * m_delta.omegaRadiansPerSecond / dtS);
+        m_kinematics.toModuleStates(m_setpoint, states);
+        m_kinematics.toModuleAccelerations(m_setpoint, m_accel, wheelAccel, m_steerRate);
+    }
+
+    /** The fraction of a change of this size that fits within the max. */
+    private static double limit(double s, double change, double max) {
+        if (change * s <= max)
+            return s;
+        return max / change;
+    }
+
+    /**
+     * The largest fraction, up to s, of the module velocity change that
+     * steers no more than the max, either way round.
+     */
+    private static double limitSteer(double s, MutableModuleState previous, MutableModuleState change, double max) {
+        if (previous.speedMetersPerSecond < kStoppedMS)
+            return s;
+        double x0 = previous.speedMetersPerSecond * previous.angle.getCos();
+        double y0 = previous.speedMetersPerSecond * previous.angle.getSin();
+        double dx = change.speedMetersPerSecond * change.angle.getCos();
+        double dy = change.speedMetersPerSecond * change.angle.getSin();
+        if (steer(x0, y0, dx, dy, s, previous.angle.getRadians()) <= max)
+            return s;
+        double lo = 0;
+        double hi = s;
+        for (int i = 0; i < kBisections; ++i) {
+            double mid = (lo + hi) / 2;
+            if (steer(x0, y0, dx, dy, mid, previous.angle.getRadians()) <= max)
+                lo = mid;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /** Steering needed to get to v0 + s * dv, reversing if that's shorter. */
+    private static double steer(double x0, double y0, double dx, double dy, double s, double angle0) {
+        double x = x0 + s * dx;
+        double y = y0 + s * dy;
+        if (Math.hypot(x, y) < kStoppedMS)
+            return 0;
+        double turn = Math.abs(MathUtil.angleModulus(Math.atan2(y, x) - angle0));
+        return Math.min(turn, Math.PI - turn);
+    }
+}
@@ -20,20 +20,20 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.networktables.DoublePublisher;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTable.TableEventListener;
 import edu.wpi.first.networktables.NetworkTableEvent;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.subsystems.SwerveDriveSubsystem;
 import team100.config.Camera;
-import team100.indicator.GoNoGoIndicator;
+import team100.config.RobotConfig;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 
 /**
  * Extracts robot pose estimates from camera input.
@@ -52,6 +52,8 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
      * always use the camera.
      */
     private static final double kTagRotationBeliefThresholdMeters = 2.0;
+    /** A fix older than this is stale. */
+    private static final double kFixTimeoutS = 0.75;
 
     private final Supplier<Pose2d> getPose;
     private final DoublePublisher timestamp_publisher;
@@ -66,8 +68,8 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
 
     Pose2d currentRobotinFieldCoords;
 
-    public final GoNoGoIndicator indicator;
     private Pose2d lastRobotInFieldCoords;
+    private volatile double lastFixS = Double.NEGATIVE_INFINITY;
 
     public VisionDataProvider(
             DriverStation.Alliance alliance,
@@ -80,9 +82,6 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
 
         this.getPose = getPose;
         this.poseEstimator = poseEstimator;
-        // indicator = new GoNoGoIndicator(1); // 8 hz = flash fast
-        indicator = new GoNoGoIndicator(1);
-
         currentRobotinFieldCoords = new Pose2d();
 
         if (alliance == DriverStation.Alliance.Blue) {
@@ -101,10 +100,15 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
         // Listen to ALL the updates in the vision table. :-)
         vision_table.addListener(EnumSet.of(NetworkTableEvent.Kind.kValueAll), this);
         SmartDashboard.putData("Vision Data Provider", this);
+        TelemetryScheduler.getInstance().group("Vision Data Provider")
+                .addDouble("Vision X", Tier.MEDIUM, () -> currentRobotinFieldCoords.getX())
+                .addDouble("Vision Y", Tier.MEDIUM, () -> currentRobotinFieldCoords.getY())
+                .addDouble("Vision Rotation", Tier.MEDIUM, () -> currentRobotinFieldCoords.getRotation().getRadians());
     }
 
-    public void close() {
-        indicator.close();
+    /** True if a consistent pair of pose estimates arrived recently. */
+    public boolean hasFix() {
+        return Timer.getFPGATimestamp() - lastFixS < kFixTimeoutS;
     }
 
     /***
@@ -137,22 +141,7 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
      * Camera views relative to the robot center at the floor.
      */
     private Transform3d cameraOffset(String serialNumber) {
-
-        Camera cam = Camera.get(serialNumber);
-        switch (cam) {
-            // case REAR:
-            //     return new Transform3d(new Translation3d(-0.326, 0.003, 0.332), new Rotation3d(0, -0.419, 3.142));
-            case FRONT:
-                return new Transform3d(new Translation3d(0.398, 0.075, 0.201), new Rotation3d(0, -0.35, 0));
-            case RIGHT:
-                return new Transform3d(new Translation3d(0.012, -0.264, 0.229), new Rotation3d(0, -0.38, -0.350));
-            case LEFT:
-                return new Transform3d(new Translation3d(0.012, 0.159, 0.240), new Rotation3d(0, -0.35, 0.35));
-            case UNKNOWN:
-                return new Transform3d(new Translation3d(0.254, 0.127, 0.3), new Rotation3d(0, 0, 0));
-            default:
-                return new Transform3d();
-        }
+        return RobotConfig.get().cameraOffset(Camera.get(serialNumber));
     }
 
     /**
@@ -198,7 +187,7 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
                         yComponent * yComponent <= kVisionChangeToleranceMeters
                                 * kVisionChangeToleranceMeters) {
                     // tell the vision indicator we have a fix.
-                    indicator.go();
+                    lastFixS = Timer.getFPGATimestamp();
                     estimateConsumer.accept(currentRobotinFieldCoords, Timer.getFPGATimestamp() - .075);
                 }
             }
@@ -207,12 +196,5 @@ public class VisionDataProvider extends SubsystemBase implements TableEventListe
         }
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        super.initSendable(builder);
-        builder.addDoubleProperty("Vision X", () -> currentRobotinFieldCoords.getX(), null);
-        builder.addDoubleProperty("Vision Y", () -> currentRobotinFieldCoords.getY(), null);
-        builder.addDoubleProperty("Vision Rotation", () -> currentRobotinFieldCoords.getRotation().getRadians(), null);
-    }
 
 }
@@ -12,9 +12,8 @@ import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N2;
 import edu.wpi.first.math.system.Discretization;
 import edu.wpi.first.math.system.LinearSystem;
-import edu.wpi.first.util.sendable.Sendable;
-import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import team100.telemetry.TelemetryScheduler;
+import team100.telemetry.TelemetryScheduler.Tier;
 import team100.util.Unroller;
 
 /**
@@ -25,7 +24,7 @@ import team100.util.Unroller;
  * Measurements are *unrolled* because I couldn't find a way to make the KF
  * understand wrapping.
  */
-public class FusedHeading implements Supplier<Rotation2d>, Sendable {
+public class FusedHeading implements Supplier<Rotation2d> {
     private static final double kDtSec = 0.02;
     // State is [position, velocity]
     private static final Matrix<N2, N2> kA = Matrix.mat(Nat.N2(), Nat.N2()).fill(0, 1, 0, 0);
@@ -71,7 +70,7 @@ public class FusedHeading implements Supplier<Rotation2d>, Sendable {
                 kDiscA.get(0, 1),
                 kDiscA.get(1, 0),
                 kDiscA.get(1, 1)));
-        SmartDashboard.putData("heading", this);
+        registerTelemetry();
     }
 
     private double getNEDMagRadians() {
@@ -172,24 +171,19 @@ public class FusedHeading implements Supplier<Rotation2d>, Sendable {
         return new Rotation2d(MathUtil.angleModulus(m_posCorr));
     }
 
-    @Override
-    public void initSendable(SendableBuilder builder) {
-        builder.addDoubleProperty("position observed", () -> m_posObs, null);
-        builder.addDoubleProperty("velocity observed", () -> m_velObs, null);
-        builder.addDoubleProperty("position predicted", () -> m_posPred, null);
-        builder.addDoubleProperty("velocity predicted", () -> m_velPred, null);
-        builder.addDoubleProperty("position corrected", () -> m_posCorr, null);
-        builder.addDoubleProperty("velocity corrected", () -> m_velCorr, null);
-        builder.addDoubleProperty("position predicted diff", () -> m_posPredDiff, null);
-        builder.addDoubleProperty("velocity predicted diff", () -> m_velPredDiff, null);
-        builder.addDoubleProperty("position correction diff", () -> m_posCorrDiff, null);
-        builder.addDoubleProperty("velocity correction diff", () -> m_velCorrDiff, null);
-        builder.addDoubleProperty("position diff", () -> m_posDiff, null);
-        builder.addDoubleProperty("velocity diff", () -> m_velDiff, null);
-
-        // builder.addDoubleProperty("unrolled mag nwu radians", () -> m_nwuMagRadians,
-        // null);
-        // builder.addDoubleProperty("gyro rate nwu radians per sec", () ->
-        // m_nwuGyroRadiansPerSec, null);
+    private void registerTelemetry() {
+        TelemetryScheduler.getInstance().group("heading")
+                .addDouble("position observed", Tier.MEDIUM, () -> m_posObs)
+                .addDouble("velocity observed", Tier.MEDIUM, () -> m_velObs)
+                .addDouble("position predicted", Tier.MEDIUM, () -> m_posPred)
+                .addDouble("velocity predicted", Tier.MEDIUM, () -> m_velPred)
+                .addDouble("position corrected", Tier.MEDIUM, () -> m_posCorr)
+                .addDouble("velocity corrected", Tier.MEDIUM, () -> m_velCorr)
+                .addDouble("position predicted diff", Tier.SLOW, () -> m_posPredDiff)
+                .addDouble("velocity predicted diff", Tier.SLOW, () -> m_velPredDiff)
+                .addDouble("position correction diff", Tier.SLOW, () -> m_posCorrDiff)
+                .addDouble("velocity correction diff", Tier.SLOW, () -> m_velCorrDiff)
+                .addDouble("position diff", Tier.SLOW, () -> m_posDiff)
+                .addDouble("velocity diff", Tier.SLOW, () -> m_velDiff);
     }
 }
@@ -0,0 +1,81 @@
+package team100.sensors;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Pitch and pitch rate from pitch samples, with an alpha-beta filter, so the
+ * rate comes from the same fused angle the navX reports, rather than from a
+ * raw gyro axis whose sign depends on how the board is mounted.
+ *
+ * Sample it faster than the main loop, e.g. with TimedRobot.addPeriodic(),
+ * so the rate is fresh, and smooth, when the balance controller reads it.
+ *
+ * Non-finite samples, e.g. from a disconnected navX, are skipped; the next
+ * good one covers the gap. After a few in a row, or before the first good
+ * one, the estimate isn't healthy, and shouldn't be used.
+ */
+public class TiltEstimator {
+    /** The navX updates at 200 Hz, see AHRSClass. */
+    public static final double kPeriodS = 0.005;
+    private static final double kAlpha = 0.2;
+    private static final double kBeta = 0.02;
+    /** 50 ms of bad samples. */
+    private static final int kMaxBadSamples = 10;
+
+    private final DoubleSupplier m_pitchDeg;
+    private boolean m_started;
+    private double m_pitch;
+    private double m_rate;
+    private int m_badSamples;
+    private double m_gapS;
+
+    /** @param pitchDeg nose-up positive, degrees */
+    public TiltEstimator(DoubleSupplier pitchDeg) {
+        m_pitchDeg = pitchDeg;
+    }
+
+    /** Read the supplier, one period after the last sample. */
+    public void sample() {
+        update(m_pitchDeg.getAsDouble(), kPeriodS);
+    }
+
+    public void update(double pitchDeg, double dtS) {
+        if (!Double.isFinite(pitchDeg)) {
+            m_badSamples++;
+            m_gapS += dtS;
+            return;
+        }
+        m_badSamples = 0;
+        dtS += m_gapS;
+        m_gapS = 0;
+        if (!m_started) {
+            m_started = true;
+            m_pitch = pitchDeg;
+            return;
+        }
+        double predicted = m_pitch + m_rate * dtS;
+        double residual = pitchDeg - predicted;
+        m_pitch = predicted + kAlpha * residual;
+        m_rate += kBeta * residual / dtS;
+    }
+
+    /** True once there's a good sample, and until a run of bad ones. */
+    public boolean isHealthy() {
+        return m_started && m_badSamples < kMaxBadSamples;
+    }
+
+    /** Degrees, nose-up positive. */
+    public double getPitchDeg() {
+        return m_pitch;
+    }
+
+    /** Degrees per second. */
+    public double getPitchRateDegS() {
+        return m_rate;
+    }
+
+    /** Where the pitch will be, this far ahead, at the current rate. */
+    public double predict(double horizonS) {
+        return m_pitch + m_rate * horizonS;
+    }
+}
@@ -0,0 +1,77 @@
+package team100.sim;
+
+import frc.robot.subsystems.Arm.ArmDynamics;
+
+/**
+ * Physics for the two-joint arm: motor outputs in, joint angles out.
+ *
+ * Each step applies the motor model, with its back-EMF and current limit,
+ * and integrates the rigid-body dynamics forward, in substeps, since the
+ * arm is stiffer than the 20 ms loop. Outputs are clamped to the peak output,
+ * as the motor controllers do.
+ */
+public class SimArm {
+    private static final double kVolts = 12;
+    private static final double kSubstepS = 0.001;
+
+    private final ArmDynamics m_dynamics;
+
+    private double m_lowerOutput;
+    private double m_upperOutput;
+    private double m_lower;
+    private double m_upper;
+    private double m_lowerVelocity;
+    private double m_upperVelocity;
+
+    /** @param dynamics the plant, which may differ from the controller's model. */
+    public SimArm(ArmDynamics dynamics, double lower, double upper) {
+        m_dynamics = dynamics;
+        m_lower = lower;
+        m_upper = upper;
+    }
+
+    /** As ArmController.setLowerArm(), duty cycle. */
+    public void setLowerOutput(double output) {
+        m_lowerOutput = output;
+    }
+
+    /** As ArmController.setUpperArm(), duty cycle. */
+    public void setUpperOutput(double output) {
+        m_upperOutput = output;
+    }
+
+    public void step(double dtS) {
+        double maxVolts = m_dynamics.getMaxVolts();
+        double lowerVolts = Math.max(-maxVolts, Math.min(maxVolts, m_lowerOutput * kVolts));
+        double upperVolts = Math.max(-maxVolts, Math.min(maxVolts, m_upperOutput * kVolts));
+        for (double t = 0; t < dtS - 1e-9; t += kSubstepS) {
+            double h = Math.min(kSubstepS, dtS - t);
+            double[] accel = m_dynamics.accelerations(
+                    m_lower, m_upper,
+                    m_lowerVelocity, m_upperVelocity,
+                    m_dynamics.lowerMotorTorque(lowerVolts, m_lowerVelocity),
+                    m_dynamics.upperMotorTorque(upperVolts, m_upperVelocity));
+            // semi-implicit Euler
+            m_lowerVelocity += accel[0] * h;
+            m_upperVelocity += accel[1] * h;
+            m_lower += m_lowerVelocity * h;
+            m_upper += m_upperVelocity * h;
+        }
+    }
+
+    public double getLower() {
+        return m_lower;
+    }
+
+    public double getUpper() {
+        return m_upper;
+    }
+
+    public double getLowerVelocity() {
+        return m_lowerVelocity;
+    }
+
+    public double getUpperVelocity() {
+        return m_upperVelocity;
+    }
+}
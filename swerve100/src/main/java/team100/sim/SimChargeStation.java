@@ -0,0 +1,154 @@
+package team100.sim;
+
+/**
+ * A robot driving straight across the charge station, in one dimension:
+ * speed commands in, IMU pitch out.
+ *
+ * The station is a platform on a pivot, with a ramp hinged to each edge;
+ * the robot's weight tips it, the pivot damps it, and it stops at the
+ * hard stops. The pivot has friction, too, so the station stays put with the
+ * robot a little off center, as the real one does.
+ *
+ * The robot rests on two axles, half its weight on each; an axle on a ramp
+ * puts part of its load on the platform edge. The IMU reads the slope from
+ * the rear axle to the front one, so it changes smoothly from the floor to
+ * the ramp to the platform.
+ *
+ * Position is along the direction of travel, from the pivot. Positive
+ * tilt is the far edge up, which is nose-up for the robot climbing on from
+ * the near side, the way it starts, tipped toward the robot.
+ *
+ * The drive follows the command with a lag and an acceleration limit.
+ */
+public class SimChargeStation {
+    private static final double kG = 9.81;
+    private static final double kSubstepS = 0.001;
+    /** Platform half-length, m. */
+    private static final double kPlatformM = 0.61;
+    /** Pivot to the ground end of a ramp, m. */
+    private static final double kRampEndM = 0.965;
+    /** Pivot height, m. */
+    private static final double kPivotM = 0.23;
+    private static final double kStopRad = Math.toRadians(15);
+    private static final double kWheelbaseM = 0.55;
+
+    private final double m_robotKg;
+    private final double m_inertiaKgM2;
+    private final double m_dampingNmS;
+    private final double m_frictionNm;
+    private final double m_lagS;
+    private final double m_maxAccelMS2;
+
+    private double m_command;
+    private double m_position;
+    private double m_velocity;
+    private double m_tilt = kStopRad;
+    private double m_tiltRate;
+
+    /**
+     * @param robotKg      robot with battery and bumpers
+     * @param inertiaKgM2  station, about the pivot
+     * @param dampingNmS   pivot, per rad/s
+     * @param frictionNm   pivot
+     * @param lagS         drive velocity time constant
+     * @param maxAccelMS2  drive acceleration limit, on the ramp
+     * @param positionM    center, to start, e.g. on the floor in front of the
+     *                     near ramp
+     */
+    public SimChargeStation(
+            double robotKg,
+            double inertiaKgM2,
+            double dampingNmS,
+            double frictionNm,
+            double lagS,
+            double maxAccelMS2,
+            double positionM) {
+        m_robotKg = robotKg;
+        m_inertiaKgM2 = inertiaKgM2;
+        m_dampingNmS = dampingNmS;
+        m_frictionNm = frictionNm;
+        m_lagS = lagS;
+        m_maxAccelMS2 = maxAccelMS2;
+        m_position = positionM;
+    }
+
+    /** Speed in the direction of travel, m/s. */
+    public void setSpeed(double speedMS) {
+        m_command = speedMS;
+    }
+
+    public void step(double dtS) {
+        for (double t = 0; t < dtS - 1e-9; t += kSubstepS) {
+            double h = Math.min(kSubstepS, dtS - t);
+            double accel = (m_command - m_velocity) / m_lagS;
+            accel = Math.max(-m_maxAccelMS2, Math.min(m_maxAccelMS2, accel));
+            m_velocity += accel * h;
+            m_position += m_velocity * h;
+
+            // half the robot's weight on each axle.
+            double torque = -m_dampingNmS * m_tiltRate;
+            double inertia = m_inertiaKgM2;
+            for (int i = -1; i <= 1; i += 2) {
+                double x = m_position + i * kWheelbaseM / 2;
+                // the share of the axle's load on the platform, and where.
+                double share;
+                double lever;
+                if (Math.abs(x) <= kPlatformM) {
+                    share = 1;
+                    lever = x;
+                } else if (Math.abs(x) < kRampEndM) {
+                    share = (kRampEndM - Math.abs(x)) / (kRampEndM - kPlatformM);
+                    lever = Math.copySign(kPlatformM, x);
+                } else {
+                    share = 0;
+                    lever = 0;
+                }
+                torque -= m_robotKg / 2 * kG * share * lever * Math.cos(m_tilt);
+                inertia += m_robotKg / 2 * share * lever * lever;
+            }
+            if (m_tiltRate == 0 && Math.abs(torque) <= m_frictionNm)
+                continue;
+            double friction = Math.copySign(m_frictionNm, m_tiltRate != 0 ? m_tiltRate : torque);
+            double rate = m_tiltRate + (torque - friction) / inertia * h;
+            // friction stops it, it doesn't turn it around.
+            m_tiltRate = rate * m_tiltRate < 0 ? 0 : rate;
+            m_tilt += m_tiltRate * h;
+            if (m_tilt > kStopRad) {
+                m_tilt = kStopRad;
+                m_tiltRate = Math.min(0, m_tiltRate);
+            } else if (m_tilt < -kStopRad) {
+                m_tilt = -kStopRad;
+                m_tiltRate = Math.max(0, m_tiltRate);
+            }
+        }
+    }
+
+    /** What the IMU reads, nose-up positive, degrees. */
+    public double getPitchDeg() {
+        double rise = height(m_position + kWheelbaseM / 2) - height(m_position - kWheelbaseM / 2);
+        return Math.toDegrees(Math.atan2(rise, kWheelbaseM));
+    }
+
+    /** Platform angle, degrees; level is what counts. */
+    public double getTiltDeg() {
+        return Math.toDegrees(m_tilt);
+    }
+
+    public double getPosition() {
+        return m_position;
+    }
+
+    public double getVelocity() {
+        return m_velocity;
+    }
+
+    /** Of the surface, here. */
+    private double height(double x) {
+        double edge = kPivotM + Math.copySign(kPlatformM, x) * Math.sin(m_tilt);
+        if (Math.abs(x) <= kPlatformM)
+            return kPivotM + x * Math.sin(m_tilt);
+        if (Math.abs(x) < kRampEndM)
+            return edge * (kRampEndM - Math.abs(x)) / (kRampEndM - kPlatformM);
+        return 0;
+    }
+}
@@ -0,0 +1,71 @@
+package team100.sim;
+
+import edu.wpi.first.math.MathUtil;
+import frc.robot.subsystems.AHRSClass;
+
+/**
+ * Stands in for the NavX pair, driven by {@link SimSwerveDrive}.
+ *
+ * Like the NavX, yaw is in degrees, clockwise-positive, in [-180, 180]. Pitch
+ * and roll are whatever the test sets, e.g. to simulate the charge station.
+ */
+public class SimGyro extends AHRSClass {
+    private double m_yawDeg;
+    private double m_rateDegS;
+    private double m_pitchDeg;
+    private double m_rollDeg;
+    private boolean m_working = true;
+
+    public SimGyro() {
+        super(null, null);
+    }
+
+    /** @param omegaRadS counterclockwise-positive chassis rate */
+    void step(double omegaRadS, double dtS) {
+        m_rateDegS = -Math.toDegrees(omegaRadS);
+        m_yawDeg = MathUtil.inputModulus(m_yawDeg + m_rateDegS * dtS, -180, 180);
+    }
+
+    public void setPitch(double pitchDeg) {
+        m_pitchDeg = pitchDeg;
+    }
+
+    public void setRoll(double rollDeg) {
+        m_rollDeg = rollDeg;
+    }
+
+    /** Simulates losing both gyros. */
+    public void setWorking(boolean working) {
+        m_working = working;
+    }
+
+    @Override
+    public float getRedundantYaw() {
+        return (float) m_yawDeg;
+    }
+
+    @Override
+    public float getRedundantPitch() {
+        return (float) m_pitchDeg;
+    }
+
+    @Override
+    public float getRedundantRoll() {
+        return (float) m_rollDeg;
+    }
+
+    @Override
+    public float getRedundantGyroRate() {
+        return (float) m_rateDegS;
+    }
+
+    @Override
+    public float getRedundantGyroZ() {
+        return (float) m_rateDegS;
+    }
+
+    @Override
+    public boolean getGyroWorking() {
+        return m_working;
+    }
+}
@@ -0,0 +1,109 @@
+package team100.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.robot.subsystems.SwerveModuleFactory;
+
+/**
+ * Rigid-body chassis for four {@link SimSwerveModule}s, with a
+ * {@link SimGyro}.
+ *
+ * Each step, the modules push independently, the chassis takes the
+ * least-squares fit of their ground velocities (modules that fight each other
+ * cancel out), and each module's ground speed is set to what the chassis
+ * motion allows. The tires never slide sideways.
+ *
+ * Nothing here waits on the clock, so a test can run a match in a second:
+ * call {@link #step(double)} once per robot loop, after the modules are set.
+ */
+public class SimSwerveDrive {
+    /** Physics runs at 1 kHz, 20 substeps per robot loop. */
+    private static final double kMaxSubstepS = 0.001;
+
+    // WCP modules on the comp bot
+    private static final double kMu = 1.0; // carpet
+    private static final double kRotorInertiaKgM2 = 0.0001;
+    private static final double kSteerFreeSpeedRadS = 50;
+    private static final double kSteerTimeConstantS = 0.02;
+
+    private final SwerveDriveKinematics m_kinematics;
+    private final SimSwerveModule[] m_modules;
+    private final SimGyro m_gyro = new SimGyro();
+    private Pose2d m_pose = new Pose2d();
+    private ChassisSpeeds m_speeds = new ChassisSpeeds();
+
+    /** @param modules in the same order as the kinematics */
+    public SimSwerveDrive(SwerveDriveKinematics kinematics, SimSwerveModule... modules) {
+        m_kinematics = kinematics;
+        m_modules = modules;
+    }
+
+    /** WCP modules with Falcons, as on the comp bot. */
+    public static SimSwerveDrive wcp(SwerveDriveKinematics kinematics, int modules, double robotMassKg) {
+        SimSwerveModule[] m = new SimSwerveModule[modules];
+        for (int i = 0; i < modules; ++i) {
+            m[i] = new SimSwerveModule(
+                    DCMotor.getFalcon500(1),
+                    SwerveModuleFactory.kWCPDriveReduction,
+                    SwerveModuleFactory.kWCPWheelDiameterMeters,
+                    robotMassKg / modules,
+                    kMu,
+                    kRotorInertiaKgM2,
+                    kSteerFreeSpeedRadS,
+                    kSteerTimeConstantS);
+        }
+        return new SimSwerveDrive(kinematics, m);
+    }
+
+    public SimSwerveModule getModule(int i) {
+        return m_modules[i];
+    }
+
+    public SimGyro getGyro() {
+        return m_gyro;
+    }
+
+    /** True pose, for comparing with the estimate. */
+    public Pose2d getPose() {
+        return m_pose;
+    }
+
+    /** True robot-relative velocity. */
+    public ChassisSpeeds getSpeeds() {
+        return m_speeds;
+    }
+
+    public void resetPose(Pose2d pose) {
+        m_pose = pose;
+    }
+
+    /** Advance by dt, typically one robot loop. */
+    public void step(double dtS) {
+        int n = (int) Math.ceil(dtS / kMaxSubstepS);
+        double h = dtS / n;
+        SwerveModuleState[] states = new SwerveModuleState[m_modules.length];
+        for (int s = 0; s < n; ++s) {
+            for (int i = 0; i < m_modules.length; ++i) {
+                m_modules[i].step(h);
+                states[i] = m_modules[i].getGroundState();
+            }
+            m_speeds = m_kinematics.toChassisSpeeds(states);
+            SwerveModuleState[] allowed = m_kinematics.toSwerveModuleStates(m_speeds);
+            for (int i = 0; i < m_modules.length; ++i) {
+                // component of the allowed module velocity along the wheel
+                double along = allowed[i].speedMetersPerSecond
+                        * allowed[i].angle.minus(states[i].angle).getCos();
+                m_modules[i].setGroundSpeed(along);
+            }
+            m_pose = m_pose.exp(new Twist2d(
+                    m_speeds.vxMetersPerSecond * h,
+                    m_speeds.vyMetersPerSecond * h,
+                    m_speeds.omegaRadiansPerSecond * h));
+            m_gyro.step(m_speeds.omegaRadiansPerSecond, h);
+        }
+    }
+}
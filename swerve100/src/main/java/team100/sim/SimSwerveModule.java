@@ -0,0 +1,219 @@
+package team100.sim;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.util.sendable.SendableBuilder;
+import frc.robot.subsystems.drive.DriveEncoder;
+import frc.robot.subsystems.drive.DriveMotor;
+import frc.robot.subsystems.turning.TurningEncoder;
+import frc.robot.subsystems.turning.TurningMotor;
+
+/**
+ * Physics for one swerve module, with simulated motors and encoders to plug
+ * into a SwerveModule in place of the hardware.
+ *
+ * The drive motor is a DC motor model, through the gear reduction, pushing a
+ * quarter of the robot mass. The tire holds up to mu * normal force; beyond
+ * that it slips, so the wheel (and the drive encoder) spins faster than the
+ * module moves over the ground, as on a real robot that launches too hard.
+ *
+ * Steering is first order: the azimuth rate approaches output * free speed
+ * with a time constant.
+ *
+ * The chassis is integrated by {@link SimSwerveDrive}, which calls
+ * {@link #step(double)} and then {@link #setGroundSpeed(double)} with the
+ * speed the chassis actually allows.
+ */
+public class SimSwerveModule {
+    private static final double kG = 9.81;
+    private static final double kVolts = 12;
+
+    private final DCMotor m_driveMotor;
+    private final double m_reduction;
+    private final double m_wheelRadiusM;
+    private final double m_massKg;
+    private final double m_wheelMassKg;
+    private final double m_tractionN;
+    private final double m_steerFreeSpeedRadS;
+    private final double m_steerTimeConstantS;
+
+    private double m_driveOutput;
+    private double m_turnOutput;
+    /** tread surface speed, what the drive encoder sees */
+    private double m_wheelSpeedMS;
+    /** speed over the ground, along the wheel */
+    private double m_groundSpeedMS;
+    private double m_distanceM;
+    private double m_distanceOffsetM;
+    private double m_angleRad;
+    private double m_angleOffsetRad;
+    private double m_steerRateRadS;
+    private boolean m_slipping;
+
+    /**
+     * @param driveMotor         e.g. DCMotor.getFalcon500(1)
+     * @param reduction          drive gear reduction, motor turns per wheel turn
+     * @param wheelDiameterM     wheel diameter
+     * @param massKg             share of robot mass on this module
+     * @param mu                 tire friction coefficient, about 1 for carpet
+     * @param rotorInertiaKgM2   rotor plus wheel inertia, seen at the motor
+     * @param steerFreeSpeedRadS azimuth rate at full output
+     * @param steerTimeConstantS azimuth rate time constant
+     */
+    public SimSwerveModule(
+            DCMotor driveMotor,
+            double reduction,
+            double wheelDiameterM,
+            double massKg,
+            double mu,
+            double rotorInertiaKgM2,
+            double steerFreeSpeedRadS,
+            double steerTimeConstantS) {
+        m_driveMotor = driveMotor;
+        m_reduction = reduction;
+        m_wheelRadiusM = wheelDiameterM / 2;
+        m_massKg = massKg;
+        // inertia at the tread: J * G^2 / r^2
+        m_wheelMassKg = rotorInertiaKgM2 * reduction * reduction / (m_wheelRadiusM * m_wheelRadiusM);
+        m_tractionN = mu * massKg * kG;
+        m_steerFreeSpeedRadS = steerFreeSpeedRadS;
+        m_steerTimeConstantS = steerTimeConstantS;
+    }
+
+    public DriveMotor driveMotor() {
+        return new DriveMotor() {
+            @Override
+            public double get() {
+                return m_driveOutput;
+            }
+
+            @Override
+            public void set(double output) {
+                m_driveOutput = MathUtil.clamp(output, -1, 1);
+            }
+
+            @Override
+            public void initSendable(SendableBuilder builder) {
+                builder.setSmartDashboardType("SimDriveMotor");
+            }
+        };
+    }
+
+    public DriveEncoder driveEncoder() {
+        return new DriveEncoder() {
+            @Override
+            public double getRate() {
+                return m_wheelSpeedMS;
+            }
+
+            @Override
+            public double getDistance() {
+                return m_distanceM - m_distanceOffsetM;
+            }
+
+            @Override
+            public void reset() {
+                m_distanceOffsetM = m_distanceM;
+            }
+
+            @Override
+            public void initSendable(SendableBuilder builder) {
+                builder.setSmartDashboardType("SimDriveEncoder");
+            }
+        };
+    }
+
+    public TurningMotor turningMotor() {
+        return new TurningMotor() {
+            @Override
+            public double get() {
+                return m_turnOutput;
+            }
+
+            @Override
+            public void set(double output) {
+                m_turnOutput = MathUtil.clamp(output, -1, 1);
+            }
+
+            @Override
+            public void initSendable(SendableBuilder builder) {
+                builder.setSmartDashboardType("SimTurningMotor");
+            }
+        };
+    }
+
+    public TurningEncoder turningEncoder() {
+        return new TurningEncoder() {
+            @Override
+            public double getAngle() {
+                return m_angleRad - m_angleOffsetRad;
+            }
+
+            @Override
+            public void reset() {
+                m_angleOffsetRad = m_angleRad;
+            }
+
+            @Override
+            public void initSendable(SendableBuilder builder) {
+                builder.setSmartDashboardType("SimTurningEncoder");
+            }
+        };
+    }
+
+    /** Advance the motors by dt, assuming the chassis lets this module move freely. */
+    public void step(double dtS) {
+        // steering
+        double steerTarget = m_turnOutput * m_steerFreeSpeedRadS;
+        m_steerRateRadS += (steerTarget - m_steerRateRadS) * Math.min(1, dtS / m_steerTimeConstantS);
+        m_angleRad += m_steerRateRadS * dtS;
+
+        // drive
+        double motorSpeedRadS = m_wheelSpeedMS / m_wheelRadiusM * m_reduction;
+        double currentA = m_driveMotor.getCurrent(motorSpeedRadS, m_driveOutput * kVolts);
+        double forceN = m_driveMotor.getTorque(currentA) * m_reduction / m_wheelRadiusM;
+
+        if (!m_slipping && Math.abs(forceN) <= m_tractionN) {
+            // rolling: wheel and ground move together
+            m_groundSpeedMS += forceN / (m_massKg + m_wheelMassKg) * dtS;
+            m_wheelSpeedMS = m_groundSpeedMS;
+        } else {
+            // sliding: the ground sees kinetic friction, the rest spins the wheel.
+            double slip = m_slipping ? m_wheelSpeedMS - m_groundSpeedMS : forceN;
+            double frictionN = Math.copySign(m_tractionN, slip);
+            m_groundSpeedMS += frictionN / m_massKg * dtS;
+            m_wheelSpeedMS += (forceN - frictionN) / m_wheelMassKg * dtS;
+            double newSlip = m_wheelSpeedMS - m_groundSpeedMS;
+            if (Math.signum(newSlip) != Math.signum(slip)) {
+                // tread and ground speeds crossed, the tire grips again.
+                m_wheelSpeedMS = m_groundSpeedMS;
+                m_slipping = false;
+            } else {
+                m_slipping = true;
+            }
+        }
+        m_distanceM += m_wheelSpeedMS * dtS;
+    }
+
+    /** Module velocity over the ground. */
+    public SwerveModuleState getGroundState() {
+        return new SwerveModuleState(m_groundSpeedMS, new Rotation2d(m_angleRad));
+    }
+
+    /**
+     * The chassis constrains each module to agree with the others; this sets
+     * the ground speed along the wheel to the constrained value. A gripping
+     * wheel is dragged along with it.
+     */
+    public void setGroundSpeed(double speedMS) {
+        m_groundSpeedMS = speedMS;
+        if (!m_slipping)
+            m_wheelSpeedMS = speedMS;
+    }
+
+    public boolean isSlipping() {
+        return m_slipping;
+    }
+}
@@ -0,0 +1,308 @@
+package team100.telemetry;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.networktables.DoubleEntry;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import team100.control.ProfiledController;
+
+/**
+ * Live PID tuning over NetworkTables, so a gain change doesn't need a
+ * redeploy.
+ *
+ * Each controller's gains are published to the "Tuning" table. Edits from
+ * the dashboard arrive on the NetworkTables thread, and are staged in a back
+ * buffer. {@link #apply()}, called at the start of each cycle, swaps the
+ * staged gains in all at once, so a controller never runs with half an edit,
+ * and touches only the controllers that changed. Nothing is allocated there.
+ *
+ * Controllers registered under the same name share gains, e.g. all four
+ * swerve modules. Registrations are never removed, so register at boot, or
+ * once per class, not per command instance.
+ *
+ * The slots and gains are guarded by one lock, taken by registration on the
+ * robot thread and by edits on the NetworkTables thread.
+ *
+ * Every applied change goes to the data log, as "tuning/[name]/[gain]", along
+ * with the starting values, so {@link #read(DataLogReader)} can reconstruct a
+ * session, e.g. to replay it in simulation.
+ */
+public final class GainTuner {
+    public enum Gain {
+        P, I, D;
+    }
+
+    /** A way to set the gains, e.g. PIDController::setPID. */
+    @FunctionalInterface
+    public interface Target {
+        void setPID(double p, double i, double d);
+    }
+
+    /** A change read back from the log. */
+    public static final class Edit {
+        public final long timestampUs;
+        public final String name;
+        public final Gain gain;
+        public final double value;
+
+        Edit(long timestampUs, String name, Gain gain, double value) {
+            this.timestampUs = timestampUs;
+            this.name = name;
+            this.gain = gain;
+            this.value = value;
+        }
+    }
+
+    private static final String kLogPrefix = "tuning/";
+    private static final int kGains = Gain.values().length;
+
+    private static GainTuner instance;
+
+    private final NetworkTableInstance m_inst;
+    private final NetworkTable m_table;
+    private final LogSource m_logSource;
+    private final List<Slot> m_slots = new ArrayList<>();
+    private final Map<String, Slot> m_byName = new HashMap<>();
+    private final Object m_lock = new Object();
+    /** Written by the NT thread, under the lock. */
+    private double[] m_staged = new double[0];
+    /** Read by the loop. */
+    private double[] m_live = new double[0];
+    private boolean[] m_changed = new boolean[0];
+    private volatile boolean m_pending;
+    private DataLog m_log;
+    private int m_applied;
+
+    /** Opens the log on first use, so tests don't need one. */
+    @FunctionalInterface
+    public interface LogSource {
+        DataLog get();
+    }
+
+    /**
+     * Logs to the DataLogManager log, which Robot.robotInit() starts, without
+     * NetworkTables traffic. DataLogManager.getLog() would start it with
+     * defaults, i.e. logging all of NetworkTables, if it weren't started
+     * already; apply(), which first asks for it, runs after robotInit().
+     */
+    public static synchronized GainTuner getInstance() {
+        if (instance == null) {
+            instance = new GainTuner(NetworkTableInstance.getDefault(), DataLogManager::getLog);
+        }
+        return instance;
+    }
+
+    public GainTuner(NetworkTableInstance inst, LogSource log) {
+        m_inst = inst;
+        m_table = inst.getTable("Tuning");
+        m_logSource = log;
+    }
+
+    public void add(String name, PIDController controller) {
+        add(name, controller.getP(), controller.getI(), controller.getD(), controller::setPID);
+    }
+
+    public void add(String name, ProfiledPIDController controller) {
+        add(name, controller.getP(), controller.getI(), controller.getD(), controller::setPID);
+    }
+
+    public void add(String name, ProfiledController controller) {
+        add(name, controller.getP(), controller.getI(), controller.getD(), controller::setPID);
+    }
+
+    /**
+     * Registers a controller, at boot. If the name is already registered, the
+     * controller joins the others, and gets their gains.
+     */
+    public void add(String name, double p, double i, double d, Target target) {
+        if (name.contains("/"))
+            throw new IllegalArgumentException("no slashes in controller names: " + name);
+        Slot slot;
+        synchronized (m_lock) {
+            slot = m_byName.get(name);
+            if (slot != null) {
+                slot.add(target);
+                int base = slot.m_index * kGains;
+                target.setPID(m_live[base], m_live[base + 1], m_live[base + 2]);
+                return;
+            }
+            slot = new Slot(name, m_slots.size(), target);
+            m_slots.add(slot);
+            m_byName.put(name, slot);
+            m_staged = grow(m_staged, p, i, d);
+            m_live = grow(m_live, p, i, d);
+            m_changed = new boolean[m_slots.size()];
+            NetworkTable table = m_table.getSubTable(name);
+            for (Gain gain : Gain.values()) {
+                int index = slot.m_index * kGains + gain.ordinal();
+                DoubleEntry entry = table.getDoubleTopic(gain.name()).getEntry(m_live[index]);
+                entry.set(m_live[index]);
+                slot.m_entries[gain.ordinal()] = entry;
+            }
+            if (m_log != null)
+                slot.open(m_log, m_live);
+        }
+        // listen last, so an edit always finds the slot complete.
+        for (Gain gain : Gain.values()) {
+            int index = slot.m_index * kGains + gain.ordinal();
+            m_inst.addListener(slot.m_entries[gain.ordinal()], EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+                    event -> stage(index, event.valueData.value.getDouble()));
+        }
+    }
+
+    /** Stages a change, e.g. from a log, as if it came from the dashboard. */
+    public void stage(String name, Gain gain, double value) {
+        Slot slot;
+        synchronized (m_lock) {
+            slot = m_byName.get(name);
+        }
+        if (slot == null)
+            throw new IllegalArgumentException("unknown controller: " + name);
+        stage(slot.m_index * kGains + gain.ordinal(), value);
+    }
+
+    /**
+     * Call at the start of each cycle, before the controllers run. The first
+     * call opens the log.
+     */
+    public void apply() {
+        if (m_log == null)
+            openLog();
+        if (!m_pending)
+            return;
+        synchronized (m_lock) {
+            m_pending = false;
+            for (int s = 0; s < m_changed.length; ++s) {
+                int base = s * kGains;
+                boolean changed = false;
+                for (int g = base; g < base + kGains; ++g) {
+                    if (Double.compare(m_staged[g], m_live[g]) != 0) {
+                        m_live[g] = m_staged[g];
+                        changed = true;
+                    }
+                }
+                m_changed[s] = changed;
+            }
+        }
+        for (int s = 0; s < m_changed.length; ++s) {
+            if (!m_changed[s])
+                continue;
+            m_slots.get(s).apply(m_live);
+            m_applied++;
+        }
+    }
+
+    /** Controller changes applied so far, counting shared names once. */
+    public int getApplied() {
+        return m_applied;
+    }
+
+    /** Applied changes in the log, in order, starting with the boot values. */
+    public static List<Edit> read(DataLogReader reader) {
+        Map<Integer, String> entries = new HashMap<>();
+        List<Edit> edits = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                if (start.name.startsWith(kLogPrefix) && start.type.equals("double"))
+                    entries.put(start.entry, start.name.substring(kLogPrefix.length()));
+                continue;
+            }
+            if (record.isControl())
+                continue;
+            String path = entries.get(record.getEntry());
+            if (path == null)
+                continue;
+            int slash = path.lastIndexOf('/');
+            edits.add(new Edit(record.getTimestamp(), path.substring(0, slash),
+                    Gain.valueOf(path.substring(slash + 1)), record.getDouble()));
+        }
+        return edits;
+    }
+
+    private void stage(int index, double value) {
+        synchronized (m_lock) {
+            if (!Double.isFinite(value) || value < 0) {
+                // nonsense, put the live value back.
+                m_slots.get(index / kGains).m_entries[index % kGains].set(m_live[index]);
+                return;
+            }
+            m_staged[index] = value;
+            m_pending = true;
+        }
+    }
+
+    private void openLog() {
+        synchronized (m_lock) {
+            if (m_log != null)
+                return;
+            DataLog log = m_logSource.get();
+            for (Slot slot : m_slots) {
+                slot.open(log, m_live);
+            }
+            m_log = log;
+        }
+    }
+
+    private static double[] grow(double[] values, double p, double i, double d) {
+        double[] result = new double[values.length + kGains];
+        System.arraycopy(values, 0, result, 0, values.length);
+        result[values.length] = p;
+        result[values.length + 1] = i;
+        result[values.length + 2] = d;
+        return result;
+    }
+
+    private static final class Slot {
+        private final String m_name;
+        private final int m_index;
+        private final DoubleEntry[] m_entries = new DoubleEntry[kGains];
+        private final DoubleLogEntry[] m_logEntries = new DoubleLogEntry[kGains];
+        private Target[] m_targets;
+
+        Slot(String name, int index, Target target) {
+            m_name = name;
+            m_index = index;
+            m_targets = new Target[] { target };
+        }
+
+        void add(Target target) {
+            Target[] targets = new Target[m_targets.length + 1];
+            System.arraycopy(m_targets, 0, targets, 0, m_targets.length);
+            targets[m_targets.length] = target;
+            m_targets = targets;
+        }
+
+        /** Creates the log entries, and records the current gains. */
+        void open(DataLog log, double[] live) {
+            for (Gain gain : Gain.values()) {
+                m_logEntries[gain.ordinal()] = new DoubleLogEntry(log, kLogPrefix + m_name + "/" + gain.name());
+                m_logEntries[gain.ordinal()].append(live[m_index * kGains + gain.ordinal()]);
+            }
+        }
+
+        void apply(double[] live) {
+            int base = m_index * kGains;
+            for (Target target : m_targets) {
+                target.setPID(live[base], live[base + 1], live[base + 2]);
+            }
+            for (int g = 0; g < kGains; ++g) {
+                if (m_logEntries[g] != null)
+                    m_logEntries[g].append(live[base + g]);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package team100.telemetry;
+
+/**
+ * Fixed-size histogram of durations, allocated up front so that recording
+ * never allocates.
+ *
+ * Buckets are {@link #kBucketNs} wide, up to {@link #kBuckets} of them; longer
+ * durations go in the last bucket but still count toward the max.
+ */
+public final class Histogram {
+    /** 0.1 ms buckets */
+    static final long kBucketNs = 100000;
+    /** up to 50 ms, i.e. 2.5 loop periods */
+    static final int kBuckets = 500;
+
+    private final int[] m_counts = new int[kBuckets];
+    private int m_total;
+    private long m_maxNs;
+
+    public void record(long ns) {
+        int bucket = (int) Math.min(Math.max(ns, 0) / kBucketNs, kBuckets - 1);
+        m_counts[bucket]++;
+        m_total++;
+        m_maxNs = Math.max(m_maxNs, ns);
+    }
+
+    public int count() {
+        return m_total;
+    }
+
+    /** @return upper edge of the bucket containing the quantile, in ms. */
+    public double percentileMs(double q) {
+        if (m_total == 0)
+            return 0;
+        int rank = (int) Math.ceil(q * m_total);
+        int seen = 0;
+        for (int i = 0; i < kBuckets; ++i) {
+            seen += m_counts[i];
+            if (seen >= Math.max(rank, 1))
+                return (i + 1) * kBucketNs / 1e6;
+        }
+        return maxMs();
+    }
+
+    public double maxMs() {
+        return m_maxNs / 1e6;
+    }
+
+    public void reset() {
+        for (int i = 0; i < kBuckets; ++i) {
+            m_counts[i] = 0;
+        }
+        m_total = 0;
+        m_maxNs = 0;
+    }
+
+    /** Nonempty buckets, one per line, for the log. */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < kBuckets; ++i) {
+            if (m_counts[i] == 0)
+                continue;
+            sb.append(String.format("  %5.1f ms %d\n", (i + 1) * kBucketNs / 1e6, m_counts[i]));
+        }
+        return sb.toString();
+    }
+}
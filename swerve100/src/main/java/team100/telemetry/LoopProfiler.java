@@ -0,0 +1,258 @@
+package team100.telemetry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Times the command scheduler, to find out what causes loop overruns.
+ *
+ * Subsystems mark their periodic() with a {@link Section}. Commands are timed
+ * from the scheduler's execute callback: each command is charged the time
+ * since the previous mark, so the first command also pays for anything
+ * unmarked that ran before it, like button polling. Commands are grouped by
+ * name, so a command made per button press doesn't add an entry each time.
+ *
+ * Each cycle's times go in preallocated histograms. When a cycle overruns the
+ * loop period, the entry that took the longest in that cycle is blamed. A
+ * summary goes to the "Profiler" table once a second, and {@link #dump()}
+ * prints the full histograms to the log.
+ *
+ * Everything is a no-op until {@link #enable()} is called, and nothing is
+ * published until then either.
+ */
+public final class LoopProfiler {
+    private static final long kLoopPeriodNs = (long) (TimedRobot.kDefaultPeriod * 1e9);
+    /** Report once per second. */
+    private static final int kReportPeriod = 50;
+    /** How many offenders to name in the summary. */
+    private static final int kTopOffenders = 3;
+
+    private static LoopProfiler instance;
+
+    private final NetworkTable m_table;
+    private final Entry m_scheduler;
+    private final List<Entry> m_entries = new ArrayList<>();
+    private final Map<String, Entry> m_commands = new HashMap<>();
+    private DoublePublisher m_overrunPublisher;
+    private StringPublisher m_offenderPublisher;
+    private boolean m_enabled;
+    private long m_cycleStart;
+    private long m_mark;
+    private int m_cycles;
+    private int m_overruns;
+
+    public static synchronized LoopProfiler getInstance() {
+        if (instance == null) {
+            instance = new LoopProfiler(NetworkTableInstance.getDefault());
+        }
+        return instance;
+    }
+
+    LoopProfiler(NetworkTableInstance inst) {
+        m_table = inst.getTable("Profiler");
+        m_scheduler = new Entry("CommandScheduler.run()");
+    }
+
+    /** Starts profiling, and attaches to the command scheduler. */
+    public void enable() {
+        if (m_enabled)
+            return;
+        m_enabled = true;
+        m_overrunPublisher = m_table.getDoubleTopic("overruns").publish();
+        m_offenderPublisher = m_table.getStringTopic("top offenders").publish();
+        m_scheduler.open();
+        for (Entry e : m_entries) {
+            e.open();
+        }
+        CommandScheduler.getInstance().onCommandExecute(this::commandExecuted);
+    }
+
+    /** Create once, e.g. in the subsystem constructor. */
+    public Section section(String name) {
+        return new Section(newEntry(name));
+    }
+
+    /** Call just before the command scheduler runs. */
+    public void beginCycle() {
+        if (!m_enabled)
+            return;
+        m_cycleStart = System.nanoTime();
+        m_mark = m_cycleStart;
+    }
+
+    /** Call just after the command scheduler runs. */
+    public void endCycle() {
+        if (!m_enabled)
+            return;
+        long total = System.nanoTime() - m_cycleStart;
+        m_scheduler.m_histogram.record(total);
+        Entry worst = null;
+        for (Entry e : m_entries) {
+            if (!e.m_ran)
+                continue;
+            e.m_histogram.record(e.m_cycleNs);
+            if (worst == null || e.m_cycleNs > worst.m_cycleNs)
+                worst = e;
+        }
+        if (total > kLoopPeriodNs) {
+            m_overruns++;
+            if (worst != null)
+                worst.m_blame++;
+        }
+        for (Entry e : m_entries) {
+            e.m_ran = false;
+            e.m_cycleNs = 0;
+        }
+        if (++m_cycles >= kReportPeriod) {
+            report();
+            m_cycles = 0;
+        }
+    }
+
+    /** Prints every histogram to the log and starts over, e.g. at disable. */
+    public void dump() {
+        if (!m_enabled || m_scheduler.m_histogram.count() == 0)
+            return;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Loop profile: %d overruns\n", m_overruns));
+        m_scheduler.appendTo(sb);
+        for (Entry e : m_entries) {
+            e.appendTo(sb);
+        }
+        System.out.print(sb);
+        m_scheduler.reset();
+        for (Entry e : m_entries) {
+            e.reset();
+        }
+        m_overruns = 0;
+    }
+
+    /** The time spent in one subsystem's periodic(). */
+    public final class Section {
+        private final Entry m_entry;
+        private long m_start;
+
+        private Section(Entry entry) {
+            m_entry = entry;
+        }
+
+        public void begin() {
+            if (!m_enabled)
+                return;
+            m_start = System.nanoTime();
+        }
+
+        public void end() {
+            if (!m_enabled)
+                return;
+            long now = System.nanoTime();
+            m_entry.add(now - m_start);
+            m_mark = now;
+        }
+    }
+
+    private void commandExecuted(Command command) {
+        long now = System.nanoTime();
+        String name = command.getName();
+        Entry e = m_commands.get(name);
+        if (e == null) {
+            e = newEntry(name);
+            m_commands.put(name, e);
+        }
+        e.add(now - m_mark);
+        m_mark = now;
+    }
+
+    private Entry newEntry(String name) {
+        Entry e = new Entry(name);
+        if (m_enabled)
+            e.open();
+        m_entries.add(e);
+        return e;
+    }
+
+    private void report() {
+        m_scheduler.publish();
+        for (Entry e : m_entries) {
+            e.publish();
+        }
+        m_overrunPublisher.set(m_overruns);
+        m_offenderPublisher.set(topOffenders());
+    }
+
+    private String topOffenders() {
+        List<Entry> sorted = new ArrayList<>(m_entries);
+        sorted.sort((a, b) -> Integer.compare(b.m_blame, a.m_blame));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(kTopOffenders, sorted.size()); ++i) {
+            Entry e = sorted.get(i);
+            if (e.m_blame == 0)
+                break;
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append(e.m_name).append(" (").append(e.m_blame).append(")");
+        }
+        return sb.toString();
+    }
+
+    private final class Entry {
+        private final String m_name;
+        private final Histogram m_histogram = new Histogram();
+        private DoublePublisher m_p50;
+        private DoublePublisher m_p99;
+        private DoublePublisher m_max;
+        private long m_cycleNs;
+        private boolean m_ran;
+        private int m_blame;
+
+        Entry(String name) {
+            m_name = name;
+        }
+
+        /** Publishers, once profiling is enabled. */
+        void open() {
+            NetworkTable t = m_table.getSubTable(m_name);
+            m_p50 = t.getDoubleTopic("p50 (ms)").publish();
+            m_p99 = t.getDoubleTopic("p99 (ms)").publish();
+            m_max = t.getDoubleTopic("max (ms)").publish();
+        }
+
+        /** A section may run more than once per cycle. */
+        void add(long ns) {
+            m_cycleNs += ns;
+            m_ran = true;
+        }
+
+        void publish() {
+            m_p50.set(m_histogram.percentileMs(0.5));
+            m_p99.set(m_histogram.percentileMs(0.99));
+            m_max.set(m_histogram.maxMs());
+        }
+
+        void appendTo(StringBuilder sb) {
+            sb.append(String.format("%s: n %d p50 %.1f p99 %.1f max %.1f ms, blamed for %d overruns\n",
+                    m_name,
+                    m_histogram.count(),
+                    m_histogram.percentileMs(0.5),
+                    m_histogram.percentileMs(0.99),
+                    m_histogram.maxMs(),
+                    m_blame));
+            sb.append(m_histogram.dump());
+        }
+
+        void reset() {
+            m_histogram.reset();
+            m_blame = 0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package team100.telemetry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.StringPublisher;
+
+/**
+ * A fixed set of values published to one network table, with the publishers
+ * created once, up front, instead of looked up by name on every put.
+ *
+ * Static values, like configuration, are published by {@link #publishStatic()}
+ * and never touched by {@link #update()}. Dynamic values are sampled every
+ * {@code decimation} updates and published only when they change.
+ */
+public class TelemetryBinding {
+    private final NetworkTable m_table;
+    private final int m_decimation;
+    private final List<Runnable> m_static = new ArrayList<>();
+
+    private DoublePublisher[] m_doublePublishers = new DoublePublisher[0];
+    private DoubleSupplier[] m_doubleSources = new DoubleSupplier[0];
+    private double[] m_doubleValues = new double[0];
+
+    private BooleanPublisher[] m_booleanPublishers = new BooleanPublisher[0];
+    private BooleanSupplier[] m_booleanSources = new BooleanSupplier[0];
+    private boolean[] m_booleanValues = new boolean[0];
+
+    private int m_count;
+    private boolean m_published;
+
+    /**
+     * @param table      all values go in this table
+     * @param decimation sample the dynamic values every this many updates
+     */
+    public TelemetryBinding(NetworkTable table, int decimation) {
+        if (decimation < 1)
+            throw new IllegalArgumentException("decimation must be at least 1: " + decimation);
+        m_table = table;
+        m_decimation = decimation;
+    }
+
+    public TelemetryBinding addStaticDouble(String name, DoubleSupplier value) {
+        DoublePublisher p = m_table.getDoubleTopic(name).publish();
+        m_static.add(() -> p.set(value.getAsDouble()));
+        return this;
+    }
+
+    public TelemetryBinding addStaticBoolean(String name, BooleanSupplier value) {
+        BooleanPublisher p = m_table.getBooleanTopic(name).publish();
+        m_static.add(() -> p.set(value.getAsBoolean()));
+        return this;
+    }
+
+    public TelemetryBinding addStaticString(String name, Supplier<String> value) {
+        StringPublisher p = m_table.getStringTopic(name).publish();
+        m_static.add(() -> p.set(String.valueOf(value.get())));
+        return this;
+    }
+
+    public TelemetryBinding addDouble(String name, DoubleSupplier value) {
+        int n = m_doubleSources.length;
+        m_doublePublishers = Arrays.copyOf(m_doublePublishers, n + 1);
+        m_doubleSources = Arrays.copyOf(m_doubleSources, n + 1);
+        m_doubleValues = Arrays.copyOf(m_doubleValues, n + 1);
+        m_doublePublishers[n] = m_table.getDoubleTopic(name).publish();
+        m_doubleSources[n] = value;
+        return this;
+    }
+
+    public TelemetryBinding addBoolean(String name, BooleanSupplier value) {
+        int n = m_booleanSources.length;
+        m_booleanPublishers = Arrays.copyOf(m_booleanPublishers, n + 1);
+        m_booleanSources = Arrays.copyOf(m_booleanSources, n + 1);
+        m_booleanValues = Arrays.copyOf(m_booleanValues, n + 1);
+        m_booleanPublishers[n] = m_table.getBooleanTopic(name).publish();
+        m_booleanSources[n] = value;
+        return this;
+    }
+
+    /** Publish the static values; call again if they change. */
+    public void publishStatic() {
+        for (Runnable r : m_static) {
+            r.run();
+        }
+    }
+
+    /** Call every cycle; samples the dynamic values at the decimated rate. */
+    public void update() {
+        if (++m_count < m_decimation)
+            return;
+        m_count = 0;
+        for (int i = 0; i < m_doubleSources.length; ++i) {
+            double v = m_doubleSources[i].getAsDouble();
+            if (!m_published || Double.compare(v, m_doubleValues[i]) != 0) {
+                m_doublePublishers[i].set(v);
+                m_doubleValues[i] = v;
+            }
+        }
+        for (int i = 0; i < m_booleanSources.length; ++i) {
+            boolean v = m_booleanSources[i].getAsBoolean();
+            if (!m_published || v != m_booleanValues[i]) {
+                m_booleanPublishers[i].set(v);
+                m_booleanValues[i] = v;
+            }
+        }
+        m_published = true;
+    }
+}
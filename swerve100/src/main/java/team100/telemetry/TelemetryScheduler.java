@@ -0,0 +1,250 @@
+package team100.telemetry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Samples dashboard values at a rate that depends on their priority, within a
+ * fixed CPU budget per cycle.
+ *
+ * Values are registered once, in groups that map to SmartDashboard tables, so
+ * the paths are the same as with SmartDashboard.putData. Each cycle,
+ * {@link #run()} samples the FAST tier, then as much of the MEDIUM and SLOW
+ * tiers as their rates call for, stopping when the budget is spent. Work
+ * that doesn't fit is carried over to the next cycle, so under load the slower
+ * tiers lag instead of the control loop. Values are published only when they
+ * change.
+ *
+ * The time spent per group is published to the "Telemetry" table once a
+ * second.
+ */
+public final class TelemetryScheduler {
+    public enum Tier {
+        /** 50 Hz */
+        FAST(1),
+        /** 10 Hz */
+        MEDIUM(5),
+        /** 1 Hz */
+        SLOW(50);
+
+        /** Sample each value once per this many cycles. */
+        final int period;
+
+        private Tier(int period) {
+            this.period = period;
+        }
+    }
+
+    /** Default budget is 10% of the 20 ms loop. */
+    public static final double kDefaultBudgetS = 0.002;
+    /** Report timing once per second. */
+    private static final int kReportPeriod = 50;
+
+    private static TelemetryScheduler instance;
+
+    private final NetworkTableInstance m_inst;
+    private final NetworkTable m_reportTable;
+    private final long m_budgetNs;
+    private final List<Group> m_groups = new ArrayList<>();
+    private final Queue[] m_queues;
+
+    private final DoublePublisher m_meanPublisher;
+    private final DoublePublisher m_maxPublisher;
+    private final DoublePublisher m_overBudgetPublisher;
+    private int m_reportCount;
+    private long m_totalNs;
+    private long m_maxNs;
+    private int m_overBudgetCount;
+
+    public static synchronized TelemetryScheduler getInstance() {
+        if (instance == null) {
+            instance = new TelemetryScheduler(NetworkTableInstance.getDefault(), kDefaultBudgetS);
+        }
+        return instance;
+    }
+
+    public TelemetryScheduler(NetworkTableInstance inst, double budgetS) {
+        m_inst = inst;
+        m_budgetNs = (long) (budgetS * 1e9);
+        m_reportTable = inst.getTable("Telemetry");
+        m_meanPublisher = m_reportTable.getDoubleTopic("mean (ms)").publish();
+        m_maxPublisher = m_reportTable.getDoubleTopic("max (ms)").publish();
+        m_overBudgetPublisher = m_reportTable.getDoubleTopic("over budget (cycles)").publish();
+        Tier[] tiers = Tier.values();
+        m_queues = new Queue[tiers.length];
+        for (int i = 0; i < tiers.length; ++i) {
+            m_queues[i] = new Queue(tiers[i].period);
+        }
+    }
+
+    /** Values in this group go in the SmartDashboard table with this name. */
+    public Group group(String name) {
+        Group g = new Group(name);
+        m_groups.add(g);
+        return g;
+    }
+
+    /** Call once per cycle, after the command scheduler. */
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + m_budgetNs;
+        long t = start;
+        boolean overBudget = false;
+        for (Queue q : m_queues) {
+            t = q.run(t, deadline);
+            if (t > deadline) {
+                overBudget = true;
+                break;
+            }
+        }
+        long elapsed = t - start;
+        m_totalNs += elapsed;
+        m_maxNs = Math.max(m_maxNs, elapsed);
+        if (overBudget)
+            m_overBudgetCount++;
+        if (++m_reportCount >= kReportPeriod) {
+            report();
+        }
+    }
+
+    private void report() {
+        m_meanPublisher.set(m_totalNs / 1e6 / m_reportCount);
+        m_maxPublisher.set(m_maxNs / 1e6);
+        m_overBudgetPublisher.set(m_overBudgetCount);
+        for (Group g : m_groups) {
+            g.m_timePublisher.set(g.m_ns / 1e6 / m_reportCount);
+            g.m_ns = 0;
+        }
+        m_reportCount = 0;
+        m_totalNs = 0;
+        m_maxNs = 0;
+        m_overBudgetCount = 0;
+    }
+
+    /** A set of values published to one table. */
+    public final class Group {
+        private final NetworkTable m_table;
+        private final DoublePublisher m_timePublisher;
+        private long m_ns;
+
+        private Group(String name) {
+            m_table = m_inst.getTable("SmartDashboard").getSubTable(name);
+            m_timePublisher = m_reportTable.getDoubleTopic(name + " (ms)").publish();
+        }
+
+        public Group addDouble(String name, Tier tier, DoubleSupplier value) {
+            m_queues[tier.ordinal()].add(new DoubleEntry(this, m_table.getDoubleTopic(name).publish(), value));
+            return this;
+        }
+
+        public Group addBoolean(String name, Tier tier, BooleanSupplier value) {
+            m_queues[tier.ordinal()].add(new BooleanEntry(this, m_table.getBooleanTopic(name).publish(), value));
+            return this;
+        }
+    }
+
+    private abstract static class Entry {
+        final Group m_group;
+        boolean m_published;
+
+        Entry(Group group) {
+            m_group = group;
+        }
+
+        abstract void sample();
+    }
+
+    private static final class DoubleEntry extends Entry {
+        private final DoublePublisher m_publisher;
+        private final DoubleSupplier m_value;
+        private double m_last;
+
+        DoubleEntry(Group group, DoublePublisher publisher, DoubleSupplier value) {
+            super(group);
+            m_publisher = publisher;
+            m_value = value;
+        }
+
+        @Override
+        void sample() {
+            double v = m_value.getAsDouble();
+            if (!m_published || Double.compare(v, m_last) != 0) {
+                m_publisher.set(v);
+                m_last = v;
+                m_published = true;
+            }
+        }
+    }
+
+    private static final class BooleanEntry extends Entry {
+        private final BooleanPublisher m_publisher;
+        private final BooleanSupplier m_value;
+        private boolean m_last;
+
+        BooleanEntry(Group group, BooleanPublisher publisher, BooleanSupplier value) {
+            super(group);
+            m_publisher = publisher;
+            m_value = value;
+        }
+
+        @Override
+        void sample() {
+            boolean v = m_value.getAsBoolean();
+            if (!m_published || v != m_last) {
+                m_publisher.set(v);
+                m_last = v;
+                m_published = true;
+            }
+        }
+    }
+
+    /**
+     * Round-robin over the entries of one tier. Each cycle earns credit for
+     * entries/period samples; credit not spent because of the budget carries
+     * over, up to one full round.
+     */
+    private static final class Queue {
+        private final int m_period;
+        private Entry[] m_entries = new Entry[0];
+        private int m_cursor;
+        private int m_credit;
+
+        Queue(int period) {
+            m_period = period;
+        }
+
+        void add(Entry e) {
+            m_entries = Arrays.copyOf(m_entries, m_entries.length + 1);
+            m_entries[m_entries.length - 1] = e;
+        }
+
+        /** @return the time after the last sample */
+        long run(long t, long deadline) {
+            int n = m_entries.length;
+            if (n == 0)
+                return t;
+            m_credit = Math.min(m_credit + n, n * m_period);
+            while (m_credit >= m_period) {
+                if (t > deadline)
+                    return t;
+                Entry e = m_entries[m_cursor];
+                e.sample();
+                long now = System.nanoTime();
+                e.m_group.m_ns += now - t;
+                t = now;
+                m_credit -= m_period;
+                if (++m_cursor >= n)
+                    m_cursor = 0;
+            }
+            return t;
+        }
+    }
+}
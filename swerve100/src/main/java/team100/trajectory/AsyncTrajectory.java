@@ -0,0 +1,125 @@
+package team100.trajectory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+
+/**
+ * The trajectory a command is following, replanned in the background.
+ *
+ * A plan starts from where the robot was when it was requested, so when it
+ * arrives it's swapped in with its start time set to the request time, i.e.
+ * sampled as if it had been ready immediately. Until then, {@link #sample}
+ * returns the previous trajectory, or, if there isn't one, a state that
+ * holds the pose where the first plan was requested.
+ *
+ * Use it from the robot loop only; the swap happens in {@link #sample}, so
+ * the command never sees a half-updated plan.
+ */
+public class AsyncTrajectory {
+    private final TrajectoryPlanner m_planner;
+
+    private Trajectory m_trajectory;
+    private double m_startS;
+    private Trajectory.State m_hold;
+
+    private CompletableFuture<Trajectory> m_pending;
+    private double m_pendingStartS;
+    private boolean m_failed;
+
+    public AsyncTrajectory() {
+        this(TrajectoryPlanner.getInstance());
+    }
+
+    public AsyncTrajectory(TrajectoryPlanner planner) {
+        m_planner = planner;
+    }
+
+    /**
+     * Requests a new plan, replacing any pending one.
+     * 
+     * @param nowS the time the start pose was measured, in the same timebase
+     *             as {@link #sample}.
+     */
+    public void request(
+            Pose2d start,
+            List<Translation2d> interiorWaypoints,
+            Pose2d end,
+            TrajectoryConfig config,
+            double nowS) {
+        request(start, m_planner.submit(start, interiorWaypoints, end, config), nowS);
+    }
+
+    /**
+     * Follows a plan from elsewhere, e.g. the TrajectoryCache, replacing any
+     * pending one.
+     * 
+     * @param start where the plan starts, to hold until it's ready
+     */
+    public void request(Pose2d start, CompletableFuture<Trajectory> plan, double nowS) {
+        if (m_pending != null)
+            m_pending.cancel(false);
+        if (m_trajectory == null)
+            m_hold = new Trajectory.State(0, 0, 0, start, 0);
+        m_pending = plan;
+        m_pendingStartS = nowS;
+        m_failed = false;
+    }
+
+    /** Forget everything, e.g. when the command ends. */
+    public void clear() {
+        if (m_pending != null)
+            m_pending.cancel(false);
+        m_pending = null;
+        m_trajectory = null;
+        m_hold = null;
+        m_failed = false;
+    }
+
+    /**
+     * Swaps in the pending plan if it's ready, then samples.
+     * 
+     * @return the desired state, or null if nothing has been requested.
+     */
+    public Trajectory.State sample(double nowS) {
+        poll();
+        if (m_trajectory == null)
+            return m_hold;
+        return m_trajectory.sample(nowS - m_startS);
+    }
+
+    /** True if the last requested plan could not be generated. */
+    public boolean isFailed() {
+        poll();
+        return m_failed;
+    }
+
+    /** True if a plan is being computed. */
+    public boolean isPending() {
+        poll();
+        return m_pending != null;
+    }
+
+    /** The trajectory being followed, null if the first plan isn't ready. */
+    public Trajectory getTrajectory() {
+        poll();
+        return m_trajectory;
+    }
+
+    private void poll() {
+        if (m_pending == null || !m_pending.isDone())
+            return;
+        try {
+            Trajectory t = m_pending.join();
+            m_trajectory = t;
+            m_startS = m_pendingStartS;
+        } catch (RuntimeException e) {
+            m_failed = true;
+        }
+        m_pending = null;
+    }
+}
@@ -0,0 +1,123 @@
+package team100.trajectory;
+
+import edu.wpi.first.math.MathUtil;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutablePose;
+
+/**
+ * Drives to a pose by replanning, every cycle, from wherever the estimate
+ * says the robot is, instead of planning a spline once and tracking it.
+ *
+ * Translation uses two trapezoids: one along the line to the goal, and one
+ * across it, which only takes out any sideways velocity left over from
+ * before, e.g. after the estimate jumps, or the goal moves. Starting on the
+ * line, the path is straight. Rotation is a third trapezoid, the short way
+ * round to begin with.
+ *
+ * Each profile starts at the estimate, with the velocity of the previous
+ * setpoint; so an estimate jump moves the plan without a lurch, and there's
+ * no feedback to tune, or to wind up. Starting from the measured velocity
+ * instead is unstable: any overshoot in the modules' response compounds,
+ * cycle after cycle.
+ * The output is the average speed over the next cycle, so the robot gets to
+ * the end of the profile, rather than stopping just short of it.
+ *
+ * If the robot gets ahead of the plan anyway, the profiles may brake up to
+ * four times harder than they accelerate, to stop at the goal rather than
+ * overshoot and come back; the setpoint generator still keeps the wheels
+ * within what they can do.
+ *
+ * Nothing here allocates.
+ */
+public final class HolonomicProfile {
+    /** Slower than this, the setpoint counts as stopped. */
+    private static final double kStopped = 0.01;
+    /** Braking, relative to acceleration, when the robot's ahead of the plan. */
+    private static final double kBraking = 4;
+
+    private final Trapezoid m_along;
+    private final Trapezoid m_across;
+    private final Trapezoid m_rotation;
+
+    /** Setpoint velocity, field-relative. */
+    private double m_vx;
+    private double m_vy;
+    private double m_omega;
+    /** From the last estimate to the goal. */
+    private double m_distance;
+    private double m_angle = Double.NaN;
+
+    /**
+     * @param maxSpeedMS                  translation
+     * @param maxAccelerationMS2          translation
+     * @param maxAngularSpeedRadS         rotation
+     * @param maxAngularAccelerationRadS2 rotation
+     */
+    public HolonomicProfile(
+            double maxSpeedMS,
+            double maxAccelerationMS2,
+            double maxAngularSpeedRadS,
+            double maxAngularAccelerationRadS2) {
+        m_along = new Trapezoid(maxSpeedMS, maxAccelerationMS2, kBraking * maxAccelerationMS2);
+        m_across = new Trapezoid(maxSpeedMS, maxAccelerationMS2, kBraking * maxAccelerationMS2);
+        m_rotation = new Trapezoid(maxAngularSpeedRadS, maxAngularAccelerationRadS2,
+                kBraking * maxAngularAccelerationRadS2);
+    }
+
+    /** Start from these field-relative speeds, e.g. the measured ones. */
+    public void reset(double vx, double vy, double omega) {
+        m_vx = vx;
+        m_vy = vy;
+        m_omega = omega;
+        m_distance = Double.POSITIVE_INFINITY;
+        m_angle = Double.NaN;
+    }
+
+    /**
+     * @param dt     loop period
+     * @param pose   the estimate, now
+     * @param goal   where to stop
+     * @param output receives field-relative speeds for the next cycle
+     */
+    public void calculate(double dt, MutablePose pose, MutablePose goal, MutableChassisSpeeds output) {
+        double dx = goal.getX() - pose.getX();
+        double dy = goal.getY() - pose.getY();
+        m_distance = Math.hypot(dx, dy);
+        // unit vectors along and across; at the goal, any direction will do.
+        double ux = 1;
+        double uy = 0;
+        if (m_distance > 1e-9) {
+            ux = dx / m_distance;
+            uy = dy / m_distance;
+        }
+        m_along.calculate(dt, 0, m_vx * ux + m_vy * uy, m_distance);
+        m_across.calculate(dt, 0, -m_vx * uy + m_vy * ux, 0);
+        // the short way round to start with, and after that, continuous, so
+        // that overshooting by more than half a turn doesn't keep it going.
+        double angle = MathUtil.angleModulus(goal.getRotation().getRadians() - pose.getRotation().getRadians());
+        m_angle = Double.isNaN(m_angle) ? angle : m_angle + MathUtil.angleModulus(angle - m_angle);
+        m_rotation.calculate(dt, 0, m_omega, m_angle);
+
+        double along = m_along.getPosition();
+        double across = m_across.getPosition();
+        output.set(
+                (along * ux - across * uy) / dt,
+                (along * uy + across * ux) / dt,
+                m_rotation.getPosition() / dt);
+
+        m_vx = m_along.getVelocity() * ux - m_across.getVelocity() * uy;
+        m_vy = m_along.getVelocity() * uy + m_across.getVelocity() * ux;
+        m_omega = m_rotation.getVelocity();
+    }
+
+    /**
+     * True if the last estimate was within the tolerances, and the profile
+     * has stopped there.
+     */
+    public boolean atGoal(double toleranceM, double toleranceRad) {
+        return m_distance < toleranceM
+                && Math.abs(m_angle) < toleranceRad
+                && Math.hypot(m_vx, m_vy) < kStopped
+                && Math.abs(m_omega) < kStopped;
+    }
+}
@@ -0,0 +1,321 @@
+package team100.trajectory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGenerationException;
+import edu.wpi.first.math.trajectory.constraint.TrajectoryConstraint;
+
+/**
+ * Caches approach trajectories, i.e. from a start point straight to a fixed
+ * goal point, as DriveToWaypoint2 plans them, with both headings along the
+ * line from start to goal, unless the robot is already moving, in which case
+ * the start heading is its course.
+ *
+ * Plans are keyed by goal, config, and the start quantized to a grid cell,
+ * a velocity step, and, if moving, a course step. A request from anywhere in a cached cell gets the
+ * cached plan with a short correction segment in front, from the actual
+ * start to a point on the cached plan; generating that is much cheaper than
+ * the whole plan. A miss is planned in full and cached.
+ *
+ * Plans can also be computed ahead of time, see {@link #precompute}. The
+ * cache holds at most {@code capacity} plans, evicting the least recently
+ * used. A straight approach of a few meters is a few dozen states of about
+ * 80 bytes, so the default of 2000 plans is a few MB.
+ *
+ * All the work runs on the TrajectoryPlanner thread.
+ */
+public final class TrajectoryCache {
+    public static final double kDefaultGridM = 0.25;
+    public static final double kDefaultVelocityStepMS = 0.5;
+    public static final int kDefaultCapacity = 2000;
+    /** Course quantization, for plans with a start velocity. */
+    private static final double kCourseStepRad = Math.PI / 12;
+    /** Use the cached plan as-is if the start is this close. */
+    private static final double kSameStartM = 0.01;
+
+    private static TrajectoryCache instance;
+
+    private final TrajectoryPlanner m_planner;
+    private final double m_gridM;
+    private final double m_velocityStepMS;
+    /** Join the cached plan this far from the start, well outside the cell. */
+    private final double m_joinDistanceM;
+    private final Map<Key, Trajectory> m_plans;
+    private int m_hits;
+    private int m_misses;
+
+    public static synchronized TrajectoryCache getInstance() {
+        if (instance == null) {
+            instance = new TrajectoryCache(
+                    TrajectoryPlanner.getInstance(), kDefaultCapacity, kDefaultGridM, kDefaultVelocityStepMS);
+        }
+        return instance;
+    }
+
+    public TrajectoryCache(TrajectoryPlanner planner, int capacity, double gridM, double velocityStepMS) {
+        m_planner = planner;
+        m_gridM = gridM;
+        m_velocityStepMS = velocityStepMS;
+        m_joinDistanceM = 2 * gridM;
+        m_plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Trajectory> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** An approach from a standing start, see below. */
+    public CompletableFuture<Trajectory> plan(Translation2d start, Translation2d goal, TrajectoryConfig config) {
+        return plan(start, null, goal, config);
+    }
+
+    /**
+     * An approach from start to goal, from the cache if possible, starting at
+     * the config's start velocity.
+     *
+     * @param course the direction of travel at the start, or null to head
+     *               straight for the goal.
+     * @return completes with the trajectory, or exceptionally if generation
+     *         fails.
+     */
+    public CompletableFuture<Trajectory> plan(
+            Translation2d start,
+            Rotation2d course,
+            Translation2d goal,
+            TrajectoryConfig config) {
+        Rotation2d heading = course == null ? goal.minus(start).getAngle() : course;
+        Key key = key(start, heading, goal, config);
+        Trajectory cached = get(key);
+        if (cached != null) {
+            return m_planner.submit(() -> {
+                try {
+                    Trajectory t = stitch(start, course, cached, config, m_joinDistanceM);
+                    if (t != null)
+                        return t;
+                } catch (TrajectoryGenerationException e) {
+                    // the correction can't meet the constraints, plan it all.
+                }
+                return generate(start, heading, goal, config);
+            });
+        }
+        return m_planner.submit(() -> {
+            Trajectory t = generate(start, heading, goal, config);
+            put(key, t);
+            return t;
+        });
+    }
+
+    /**
+     * Queues plans from the center of each grid cell within range of the goal,
+     * e.g. at boot for the scoring positions. Cells already cached are
+     * skipped.
+     */
+    public void precompute(Translation2d goal, TrajectoryConfig config, double rangeM) {
+        int n = (int) Math.ceil(rangeM / m_gridM);
+        long gx = Math.round(goal.getX() / m_gridM);
+        long gy = Math.round(goal.getY() / m_gridM);
+        for (long ix = gx - n; ix <= gx + n; ++ix) {
+            for (long iy = gy - n; iy <= gy + n; ++iy) {
+                Translation2d center = new Translation2d(ix * m_gridM, iy * m_gridM);
+                double d = center.getDistance(goal);
+                if (d > rangeM || d < m_joinDistanceM)
+                    continue;
+                Rotation2d heading = goal.minus(center).getAngle();
+                Key key = key(center, heading, goal, config);
+                if (contains(key))
+                    continue;
+                m_planner.submit(() -> {
+                    if (contains(key))
+                        return null;
+                    Trajectory t = generate(center, heading, goal, config);
+                    put(key, t);
+                    return t;
+                });
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return m_plans.size();
+    }
+
+    public synchronized int getHits() {
+        return m_hits;
+    }
+
+    public synchronized int getMisses() {
+        return m_misses;
+    }
+
+    /**
+     * Prefix the cached plan with a correction segment from the actual start,
+     * joining the cached plan at the first state at least joinDistance away.
+     * The correction is planned to go from the config's start velocity to the
+     * cached plan's velocity there.
+     *
+     * The correction is at least as long as the straight line to the join, so
+     * that's the distance used to check the change in velocity against the
+     * config's max acceleration; the parameterizer wouldn't check, it would
+     * just miss the velocity at the join. If the join is too fast to reach,
+     * e.g. starting from rest a little ahead of the cached start, the
+     * correction arrives as fast as it can, and the rest of the cached plan is
+     * re-timed to catch up at that acceleration. If it's too slow to slow down
+     * to, the plan is rejected.
+     *
+     * @param course the direction of travel at the start, or null to head
+     *               straight for the join.
+     * @return the stitched plan, or null if the cached plan is too short to
+     *         join, or the join velocity is too slow to slow down to.
+     */
+    static Trajectory stitch(
+            Translation2d start,
+            Rotation2d course,
+            Trajectory cached,
+            TrajectoryConfig config,
+            double joinDistanceM) {
+        if (cached.getInitialPose().getTranslation().getDistance(start) < kSameStartM)
+            return cached;
+        List<Trajectory.State> states = cached.getStates();
+        int j = 0;
+        while (j < states.size() && states.get(j).poseMeters.getTranslation().getDistance(start) < joinDistanceM)
+            ++j;
+        if (j >= states.size() - 1)
+            return null;
+        Trajectory.State join = states.get(j);
+        double a = config.getMaxAcceleration();
+        double v0 = config.getStartVelocity();
+        double d = join.poseMeters.getTranslation().getDistance(start);
+        double v1 = join.velocityMetersPerSecond;
+        if (v1 * v1 < v0 * v0 - 2 * a * d)
+            return null;
+        v1 = Math.min(v1, Math.sqrt(v0 * v0 + 2 * a * d));
+
+        TrajectoryConfig c = new TrajectoryConfig(config.getMaxVelocity(), a)
+                .setStartVelocity(v0)
+                .setEndVelocity(v1)
+                .setReversed(config.isReversed());
+        for (TrajectoryConstraint constraint : config.getConstraints()) {
+            c.addConstraint(constraint);
+        }
+        Rotation2d heading = course == null ? join.poseMeters.getTranslation().minus(start).getAngle() : course;
+        Trajectory correction = TrajectoryGenerator.generateTrajectory(
+                new Pose2d(start, heading), List.of(), join.poseMeters, c);
+
+        List<Trajectory.State> stitched = new ArrayList<>(correction.getStates());
+        double t = correction.getTotalTimeSeconds();
+        double v = v1;
+        Trajectory.State prev = join;
+        for (int i = j + 1; i < states.size(); ++i) {
+            Trajectory.State s = states.get(i);
+            // no faster than the cached plan, or than accelerating gets to.
+            double ds = s.poseMeters.getTranslation().getDistance(prev.poseMeters.getTranslation());
+            double vi = Math.min(s.velocityMetersPerSecond, Math.sqrt(v * v + 2 * a * ds));
+            double dt = v + vi > 0 ? 2 * ds / (v + vi) : s.timeSeconds - prev.timeSeconds;
+            t += dt;
+            stitched.add(new Trajectory.State(
+                    t,
+                    vi,
+                    dt > 0 ? (vi - v) / dt : 0,
+                    s.poseMeters,
+                    s.curvatureRadPerMeter));
+            v = vi;
+            prev = s;
+        }
+        return new Trajectory(stitched);
+    }
+
+    private static Trajectory generate(
+            Translation2d start,
+            Rotation2d heading,
+            Translation2d goal,
+            TrajectoryConfig config) {
+        Rotation2d angleToGoal = goal.minus(start).getAngle();
+        return TrajectoryGenerator.generateTrajectory(
+                new Pose2d(start, heading),
+                List.of(),
+                new Pose2d(goal, angleToGoal),
+                config);
+    }
+
+    private synchronized Trajectory get(Key key) {
+        Trajectory t = m_plans.get(key);
+        if (t == null)
+            m_misses++;
+        else
+            m_hits++;
+        return t;
+    }
+
+    private synchronized boolean contains(Key key) {
+        return m_plans.containsKey(key);
+    }
+
+    private synchronized void put(Key key, Trajectory t) {
+        if (!m_plans.containsKey(key))
+            m_plans.put(key, t);
+    }
+
+    /** Standing starts all head for the goal, so the course isn't in the key. */
+    private Key key(Translation2d start, Rotation2d heading, Translation2d goal, TrajectoryConfig config) {
+        long v = Math.round(config.getStartVelocity() / m_velocityStepMS);
+        return new Key(
+                goal,
+                Math.round(start.getX() / m_gridM),
+                Math.round(start.getY() / m_gridM),
+                v,
+                v == 0 ? 0 : Math.round(heading.getRadians() / kCourseStepRad),
+                config.getMaxVelocity(),
+                config.getMaxAcceleration());
+    }
+
+    private static final class Key {
+        private final Translation2d m_goal;
+        private final long m_x;
+        private final long m_y;
+        private final long m_v;
+        private final long m_course;
+        private final double m_maxVelocity;
+        private final double m_maxAcceleration;
+
+        Key(Translation2d goal, long x, long y, long v, long course, double maxVelocity, double maxAcceleration) {
+            m_goal = goal;
+            m_x = x;
+            m_y = y;
+            m_v = v;
+            m_course = course;
+            m_maxVelocity = maxVelocity;
+            m_maxAcceleration = maxAcceleration;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return m_goal.equals(other.m_goal)
+                    && m_x == other.m_x
+                    && m_y == other.m_y
+                    && m_v == other.m_v
+                    && m_course == other.m_course
+                    && m_maxVelocity == other.m_maxVelocity
+                    && m_maxAcceleration == other.m_maxAcceleration;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(m_goal, m_x, m_y, m_v, m_course, m_maxVelocity, m_maxAcceleration);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package team100.trajectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Compact binary trajectory file, read by memory-mapping.
+ *
+ * The header records the size and modification time of the source file it
+ * was converted from, so a stale conversion can be detected without parsing
+ * the source. Then each state is seven doubles: time, velocity, acceleration,
+ * x, y, heading (radians) and curvature.
+ */
+public final class TrajectoryFile {
+    private static final int kMagic = 0x54313030; // "T100"
+    private static final int kVersion = 1;
+    private static final int kHeaderBytes = 4 + 4 + 8 + 8 + 4;
+    private static final int kStateBytes = 7 * 8;
+
+    private TrajectoryFile() {
+    }
+
+    /**
+     * Writes atomically, via a temporary file, so a reader never sees a partial
+     * file.
+     */
+    public static void write(Trajectory trajectory, long sourceModified, long sourceSize, Path path)
+            throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        ByteBuffer buf = ByteBuffer.allocate(kHeaderBytes + states.size() * kStateBytes);
+        buf.putInt(kMagic);
+        buf.putInt(kVersion);
+        buf.putLong(sourceModified);
+        buf.putLong(sourceSize);
+        buf.putInt(states.size());
+        for (Trajectory.State s : states) {
+            buf.putDouble(s.timeSeconds);
+            buf.putDouble(s.velocityMetersPerSecond);
+            buf.putDouble(s.accelerationMetersPerSecondSq);
+            buf.putDouble(s.poseMeters.getX());
+            buf.putDouble(s.poseMeters.getY());
+            buf.putDouble(s.poseMeters.getRotation().getRadians());
+            buf.putDouble(s.curvatureRadPerMeter);
+        }
+        buf.flip();
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining())
+                ch.write(buf);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return true if the file exists, is readable, and was converted from a
+     *         source with this size and modification time.
+     */
+    public static boolean isCurrent(Path path, long sourceModified, long sourceSize) {
+        if (!Files.isRegularFile(path))
+            return false;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < kHeaderBytes)
+                return false;
+            ByteBuffer header = ByteBuffer.allocate(kHeaderBytes);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+            }
+            header.flip();
+            return header.getInt() == kMagic
+                    && header.getInt() == kVersion
+                    && header.getLong() == sourceModified
+                    && header.getLong() == sourceSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static Trajectory read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < kHeaderBytes || buf.getInt() != kMagic || buf.getInt() != kVersion)
+                throw new IOException("not a trajectory file: " + path);
+            buf.getLong(); // source modified
+            buf.getLong(); // source size
+            int n = buf.getInt();
+            if (n <= 0 || buf.remaining() < (long) n * kStateBytes)
+                throw new IOException("truncated trajectory file: " + path);
+            List<Trajectory.State> states = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                double t = buf.getDouble();
+                double v = buf.getDouble();
+                double a = buf.getDouble();
+                double x = buf.getDouble();
+                double y = buf.getDouble();
+                double theta = buf.getDouble();
+                double k = buf.getDouble();
+                states.add(new Trajectory.State(t, v, a, new Pose2d(x, y, new Rotation2d(theta)), k));
+            }
+            return new Trajectory(states);
+        }
+    }
+}
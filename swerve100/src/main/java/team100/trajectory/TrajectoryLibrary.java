@@ -0,0 +1,115 @@
+package team100.trajectory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Pathweaver trajectories, loaded in the background at boot so that building
+ * an auto does no I/O.
+ *
+ * The first boot after a deploy converts each JSON file to a
+ * {@link TrajectoryFile} in the operating directory; later boots just map
+ * those. A conversion is redone whenever the JSON's size or modification
+ * time changes.
+ *
+ * Call {@link #preloadAll()} in robotInit, then {@link #get(String)} with the
+ * same deploy-relative path you would give TrajectoryUtil.
+ */
+public final class TrajectoryLibrary {
+    private static final String kSuffix = ".wpilib.json";
+    private static final String kCacheDir = "trajectory-cache";
+
+    private static TrajectoryLibrary instance;
+
+    private final Path m_deployDir;
+    private final Path m_cacheDir;
+    private final ExecutorService m_executor;
+    private final Map<String, CompletableFuture<Trajectory>> m_trajectories = new ConcurrentHashMap<>();
+
+    public static synchronized TrajectoryLibrary getInstance() {
+        if (instance == null) {
+            instance = new TrajectoryLibrary(
+                    Filesystem.getDeployDirectory().toPath(),
+                    Filesystem.getOperatingDirectory().toPath().resolve(kCacheDir));
+        }
+        return instance;
+    }
+
+    public TrajectoryLibrary(Path deployDir, Path cacheDir) {
+        m_deployDir = deployDir;
+        m_cacheDir = cacheDir;
+        m_executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "TrajectoryLibrary");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /** Queues every Pathweaver file in the deploy directory. */
+    public void preloadAll() {
+        List<Path> paths;
+        try (Stream<Path> s = Files.walk(m_deployDir)) {
+            paths = s.filter(p -> p.getFileName().toString().endsWith(kSuffix)).collect(Collectors.toList());
+        } catch (IOException e) {
+            DriverStation.reportError("Unable to list trajectories: " + e.getMessage(), false);
+            return;
+        }
+        for (Path p : paths) {
+            preload(m_deployDir.relativize(p).toString());
+        }
+    }
+
+    /** Queues one file, a path relative to the deploy directory. */
+    public CompletableFuture<Trajectory> preload(String path) {
+        return m_trajectories.computeIfAbsent(path,
+                k -> CompletableFuture.supplyAsync(() -> load(k), m_executor));
+    }
+
+    /**
+     * The trajectory, waiting for it if it's still loading. An unreadable file
+     * is reported and yields an empty trajectory, as TrajectoryUtil users
+     * expect.
+     */
+    public Trajectory get(String path) {
+        Trajectory t = preload(path).join();
+        return t != null ? t : new Trajectory();
+    }
+
+    /** @return null if the file can't be read */
+    private Trajectory load(String path) {
+        Path json = m_deployDir.resolve(path);
+        Path binary = m_cacheDir.resolve(path.replace(kSuffix, ".traj"));
+        try {
+            long modified = Files.getLastModifiedTime(json).toMillis();
+            long size = Files.size(json);
+            if (TrajectoryFile.isCurrent(binary, modified, size))
+                return TrajectoryFile.read(binary);
+            Trajectory t = TrajectoryUtil.fromPathweaverJson(json);
+            try {
+                TrajectoryFile.write(t, modified, size, binary);
+            } catch (IOException e) {
+                // still usable, just converted again next boot.
+                DriverStation.reportWarning("Unable to cache trajectory: " + path, false);
+            }
+            return t;
+        } catch (IOException | RuntimeException e) {
+            DriverStation.reportError("Unable to open trajectory: " + path, e.getStackTrace());
+            return null;
+        }
+    }
+}
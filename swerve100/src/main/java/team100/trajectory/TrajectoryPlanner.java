@@ -0,0 +1,65 @@
+package team100.trajectory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+/**
+ * Generates trajectories on a worker thread, so that spline parameterization,
+ * which can take several milliseconds, never runs in the robot loop.
+ *
+ * The config is read on the worker, so don't change it after submitting, and
+ * don't give it kinematics that the loop also uses: SwerveDriveKinematics
+ * remembers module headings between calls. Use
+ * SwerveDriveSubsystem.kPlannerKinematics.
+ */
+public final class TrajectoryPlanner {
+    private static TrajectoryPlanner instance;
+
+    private final ExecutorService m_executor;
+
+    public static synchronized TrajectoryPlanner getInstance() {
+        if (instance == null) {
+            instance = new TrajectoryPlanner();
+        }
+        return instance;
+    }
+
+    private TrajectoryPlanner() {
+        m_executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "TrajectoryPlanner");
+            t.setDaemon(true);
+            // below the robot loop
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /**
+     * Queues a trajectory. Requests run one at a time, in order; a request
+     * cancelled before it starts is skipped.
+     * 
+     * @return completes with the trajectory, or exceptionally if generation
+     *         fails.
+     */
+    public CompletableFuture<Trajectory> submit(
+            Pose2d start,
+            List<Translation2d> interiorWaypoints,
+            Pose2d end,
+            TrajectoryConfig config) {
+        return submit(() -> TrajectoryGenerator.generateTrajectory(start, interiorWaypoints, end, config));
+    }
+
+    /** Queues any trajectory work, e.g. stitching cached plans. */
+    public CompletableFuture<Trajectory> submit(Supplier<Trajectory> work) {
+        return CompletableFuture.supplyAsync(work, m_executor);
+    }
+}
@@ -0,0 +1,215 @@
+package team100.trajectory;
+
+import java.util.List;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Samples a trajectory without allocating, for use in execute().
+ *
+ * Trajectory.sample() binary-searches the states and returns a new State with
+ * a new Pose2d every call. Here the states are copied once into arrays, and
+ * since the sample time almost always moves forward, a cursor just steps to
+ * the next segment when needed. The sample is written into fields, read with
+ * the getters until the next call.
+ *
+ * The interpolation is the same as Trajectory.State.interpolate(): constant
+ * acceleration along the segment, and the pose follows the twist from one
+ * state to the next.
+ */
+public final class TrajectorySampler {
+    private double[] m_t = new double[0];
+    private double[] m_v = new double[0];
+    private double[] m_a = new double[0];
+    private double[] m_x = new double[0];
+    private double[] m_y = new double[0];
+    private double[] m_heading = new double[0];
+    private double[] m_curvature = new double[0];
+    private int m_size;
+    /** Index of the end of the current segment, always at least 1. */
+    private int m_cursor;
+
+    private double m_sampleT;
+    private double m_sampleV;
+    private double m_sampleA;
+    private double m_sampleX;
+    private double m_sampleY;
+    private double m_sampleHeading;
+    private double m_sampleCurvature;
+
+    public TrajectorySampler() {
+    }
+
+    public TrajectorySampler(Trajectory trajectory) {
+        reset(trajectory);
+    }
+
+    /**
+     * Follow a new trajectory. The arrays are reused if they're big enough, so
+     * this allocates only when the trajectory is the longest one so far.
+     */
+    public void reset(Trajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        m_size = states.size();
+        if (m_t.length < m_size) {
+            m_t = new double[m_size];
+            m_v = new double[m_size];
+            m_a = new double[m_size];
+            m_x = new double[m_size];
+            m_y = new double[m_size];
+            m_heading = new double[m_size];
+            m_curvature = new double[m_size];
+        }
+        for (int i = 0; i < m_size; ++i) {
+            Trajectory.State s = states.get(i);
+            m_t[i] = s.timeSeconds;
+            m_v[i] = s.velocityMetersPerSecond;
+            m_a[i] = s.accelerationMetersPerSecondSq;
+            m_x[i] = s.poseMeters.getX();
+            m_y[i] = s.poseMeters.getY();
+            m_heading[i] = s.poseMeters.getRotation().getRadians();
+            m_curvature[i] = s.curvatureRadPerMeter;
+        }
+        m_cursor = 1;
+    }
+
+    public double getTotalTimeSeconds() {
+        return m_size == 0 ? 0 : m_t[m_size - 1];
+    }
+
+    /**
+     * Sample at time t. Amortized constant time if t doesn't decrease; if it
+     * does, the cursor starts over from the beginning.
+     */
+    public void sample(double t) {
+        if (m_size == 0)
+            throw new IllegalStateException("no trajectory");
+        if (t <= m_t[0]) {
+            copy(0);
+            return;
+        }
+        if (t >= m_t[m_size - 1]) {
+            copy(m_size - 1);
+            return;
+        }
+        if (t < m_t[m_cursor - 1])
+            m_cursor = 1;
+        while (m_t[m_cursor] < t)
+            ++m_cursor;
+        int i = m_cursor - 1;
+        int j = m_cursor;
+        double span = m_t[j] - m_t[i];
+        if (span == 0) {
+            copy(j);
+            return;
+        }
+        interpolate(i, j, (t - m_t[i]) / span);
+    }
+
+    public double getTimeSeconds() {
+        return m_sampleT;
+    }
+
+    public double getVelocity() {
+        return m_sampleV;
+    }
+
+    public double getAcceleration() {
+        return m_sampleA;
+    }
+
+    public double getX() {
+        return m_sampleX;
+    }
+
+    public double getY() {
+        return m_sampleY;
+    }
+
+    /** Radians, unwrapped, so maybe outside [-pi, pi]. */
+    public double getHeading() {
+        return m_sampleHeading;
+    }
+
+    public double getCurvature() {
+        return m_sampleCurvature;
+    }
+
+    private void copy(int i) {
+        m_sampleT = m_t[i];
+        m_sampleV = m_v[i];
+        m_sampleA = m_a[i];
+        m_sampleX = m_x[i];
+        m_sampleY = m_y[i];
+        m_sampleHeading = m_heading[i];
+        m_sampleCurvature = m_curvature[i];
+    }
+
+    /** Same as Trajectory.State.interpolate(), without the objects. */
+    private void interpolate(int i, int j, double fraction) {
+        double t = m_t[i] + (m_t[j] - m_t[i]) * fraction;
+        double dt = t - m_t[i];
+        double v = m_v[i];
+        double a = m_a[i];
+        boolean reversing = v < 0 || (Math.abs(v) < 1e-9 && a < 0);
+        double s = (v * dt + 0.5 * a * dt * dt) * (reversing ? -1.0 : 1.0);
+        double distance = Math.hypot(m_x[j] - m_x[i], m_y[j] - m_y[i]);
+        // a segment that turns in place has no length; WPILib gives NaN here.
+        double f = distance == 0 ? fraction : s / distance;
+
+        m_sampleT = t;
+        m_sampleV = v + a * dt;
+        m_sampleA = a;
+        m_sampleCurvature = m_curvature[i] + (m_curvature[j] - m_curvature[i]) * Math.max(0, Math.min(1, f));
+        if (f < 0) {
+            m_sampleX = m_x[i];
+            m_sampleY = m_y[i];
+            m_sampleHeading = m_heading[i];
+            return;
+        }
+        if (f >= 1) {
+            m_sampleX = m_x[j];
+            m_sampleY = m_y[j];
+            m_sampleHeading = m_heading[j];
+            return;
+        }
+
+        // Pose2d.log(): the twist from i to j, in the frame of i.
+        double cos0 = Math.cos(m_heading[i]);
+        double sin0 = Math.sin(m_heading[i]);
+        double ex = m_x[j] - m_x[i];
+        double ey = m_y[j] - m_y[i];
+        double dx = ex * cos0 + ey * sin0;
+        double dy = -ex * sin0 + ey * cos0;
+        double dtheta = Math.atan2(Math.sin(m_heading[j] - m_heading[i]), Math.cos(m_heading[j] - m_heading[i]));
+        double halfDtheta = dtheta / 2;
+        double cosMinusOne = Math.cos(dtheta) - 1;
+        double halfThetaByTanOfHalfDtheta;
+        if (Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - dtheta * dtheta / 12.0;
+        } else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+        double twistX = (dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta) * f;
+        double twistY = (-dx * halfDtheta + dy * halfThetaByTanOfHalfDtheta) * f;
+        double twistTheta = dtheta * f;
+
+        // Pose2d.exp() of the scaled twist.
+        double sinTheta = Math.sin(twistTheta);
+        double cosTheta = Math.cos(twistTheta);
+        double sc;
+        double cc;
+        if (Math.abs(twistTheta) < 1e-9) {
+            sc = 1.0 - twistTheta * twistTheta / 6.0;
+            cc = 0.5 * twistTheta;
+        } else {
+            sc = sinTheta / twistTheta;
+            cc = (1 - cosTheta) / twistTheta;
+        }
+        double tx = twistX * sc - twistY * cc;
+        double ty = twistX * cc + twistY * sc;
+        m_sampleX = m_x[i] + tx * cos0 - ty * sin0;
+        m_sampleY = m_y[i] + tx * sin0 + ty * cos0;
+        m_sampleHeading = m_heading[i] + twistTheta;
+    }
+}
@@ -0,0 +1,126 @@
+package team100.trajectory;
+
+/**
+ * The time-optimal trapezoidal profile from any state to rest at a goal, in
+ * closed form, sampled a short time ahead.
+ *
+ * Unlike WPILib's TrapezoidProfile, the start can be anything: moving away
+ * from the goal, faster than the max, or too fast to stop in time, in which
+ * case it overshoots, stops, and comes back. That's what replanning from a
+ * live estimate needs, since the estimate can jump.
+ *
+ * It plans to brake at the max acceleration, but if it's past that point,
+ * e.g. because the robot got ahead of the plan, it can brake harder, up to
+ * the max braking, to stop at the goal instead of overshooting.
+ *
+ * The profile is a handful of constant-acceleration segments, each with a
+ * closed-form duration, so sampling walks through them without iterating
+ * toward anything. Nothing is allocated; the sample is written into fields,
+ * read with the getters until the next call.
+ */
+public final class Trapezoid {
+    private static final double kEpsilon = 1e-9;
+    /** More segments than this means something's wrong with the inputs. */
+    private static final int kMaxSegments = 8;
+
+    private final double m_maxVelocity;
+    private final double m_maxAcceleration;
+    private final double m_maxBraking;
+
+    private double m_position;
+    private double m_velocity;
+
+    public Trapezoid(double maxVelocity, double maxAcceleration) {
+        this(maxVelocity, maxAcceleration, maxAcceleration);
+    }
+
+    /** @param maxBraking at least the max acceleration */
+    public Trapezoid(double maxVelocity, double maxAcceleration, double maxBraking) {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0))
+            throw new IllegalArgumentException("constraints must be positive");
+        if (!(maxBraking >= maxAcceleration))
+            throw new IllegalArgumentException("braking must be at least the acceleration");
+        m_maxVelocity = maxVelocity;
+        m_maxAcceleration = maxAcceleration;
+        m_maxBraking = maxBraking;
+    }
+
+    /**
+     * Sample the profile dt after the given state.
+     *
+     * @param dt       how far ahead, seconds
+     * @param position where it is now
+     * @param velocity how fast it's going now
+     * @param goal     where it should stop
+     */
+    public void calculate(double dt, double position, double velocity, double goal) {
+        double a = m_maxAcceleration;
+        double v = m_maxVelocity;
+        // everything below is in the direction of the goal: x is the distance
+        // remaining, w is the speed toward the goal.
+        double s = goal > position ? 1 : goal < position ? -1 : velocity > 0 ? -1 : 1;
+        double x = (goal - position) * s;
+        double w = velocity * s;
+        double remaining = dt;
+        for (int i = 0; i < kMaxSegments && remaining > 0; ++i) {
+            if (Math.abs(x) < kEpsilon && Math.abs(w) < kEpsilon) {
+                x = 0;
+                w = 0;
+                break;
+            }
+            double accel;
+            double duration;
+            if (w < 0) {
+                // moving away, turn around.
+                accel = a;
+                duration = -w / a;
+            } else if (w * w >= 2 * a * x - kEpsilon) {
+                // braking; exactly enough to stop at the goal, if possible.
+                double needed = x > kEpsilon ? w * w / (2 * x) : Double.POSITIVE_INFINITY;
+                if (needed <= m_maxBraking * (1 + 1e-6)) {
+                    accel = -needed;
+                    duration = 2 * x / w;
+                } else {
+                    accel = -m_maxBraking;
+                    duration = w / m_maxBraking;
+                }
+            } else if (w > v + kEpsilon) {
+                // too fast, slow to the max; this doesn't change the
+                // distance left after braking.
+                accel = -a;
+                duration = (w - v) / a;
+            } else if (w < v - kEpsilon) {
+                // speed up, to the max or until it's time to brake.
+                double peak = Math.sqrt(a * x + w * w / 2);
+                accel = a;
+                duration = (Math.min(peak, v) - w) / a;
+            } else {
+                // cruise until it's time to brake.
+                accel = 0;
+                duration = (x - v * v / (2 * a)) / v;
+            }
+            double t = Math.min(Math.max(duration, 0), remaining);
+            x -= w * t + accel * t * t / 2;
+            w += accel * t;
+            remaining -= t;
+            if (x < 0 && Math.abs(w) < kEpsilon) {
+                // overshot and stopped; the goal is behind now.
+                x = -x;
+                w = 0;
+                s = -s;
+            }
+        }
+        m_position = goal - x * s;
+        m_velocity = w * s;
+    }
+
+    /** Position of the last sample. */
+    public double getPosition() {
+        return m_position;
+    }
+
+    /** Velocity of the last sample. */
+    public double getVelocity() {
+        return m_velocity;
+    }
+}
@@ -0,0 +1,172 @@
+package frc.robot.FRCLib.Motors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+public class MotorConfiguratorTest {
+    /** A fake device parameter that counts writes. */
+    private static class Param {
+        double value;
+        int writes;
+
+        ConfigStep step(String name, double desired) {
+            return new ConfigStep(name, desired, () -> value, () -> {
+                value = desired;
+                writes++;
+                return true;
+            });
+        }
+    }
+
+    /** Factory reset for some fake parameters, counting resets. */
+    private static class Reset implements ConfigStep.Writer {
+        final Param[] params;
+        int resets;
+
+        Reset(Param... params) {
+            this.params = params;
+        }
+
+        @Override
+        public boolean write() {
+            for (Param p : params) {
+                p.value = 0;
+            }
+            resets++;
+            return true;
+        }
+    }
+
+    /** A hash store in memory. */
+    private static class Store implements MotorConfigurator.HashStore {
+        int hash;
+
+        @Override
+        public int read() {
+            return hash;
+        }
+
+        @Override
+        public void write(int hash) {
+            this.hash = hash;
+        }
+    }
+
+    @Test
+    public void testDiff() throws InterruptedException, ExecutionException {
+        Param a = new Param();
+        Param b = new Param();
+        b.value = 2;
+        // b isn't reset, e.g. a value the reset doesn't touch.
+        MotorConfigurator.getInstance().submit("test_diff", new Reset(a),
+                List.of(a.step("a", 1), b.step("b", 2)), null, null).get();
+        assertEquals(1, a.value, 0.001);
+        assertEquals(1, a.writes);
+        // already matched, so not written
+        assertEquals(0, b.writes);
+    }
+
+    @Test
+    public void testHashSkip() throws InterruptedException, ExecutionException {
+        Param a = new Param();
+        Reset reset = new Reset(a);
+        Store store = new Store();
+        MotorConfigurator c = MotorConfigurator.getInstance();
+        c.submit("test_hash", reset, List.of(a.step("a", 1)), store, null).get();
+        assertEquals(1, a.writes);
+        assertEquals(1, reset.resets);
+        assertNotEquals(0, store.hash);
+        // someone else changes the device, but the hash matches, so it's skipped, reset too.
+        a.value = 5;
+        c.submit("test_hash", reset, List.of(a.step("a", 1)), store, null).get();
+        assertEquals(1, a.writes);
+        assertEquals(1, reset.resets);
+        assertEquals(5, a.value, 0.001);
+        // a different desired value is a different hash.
+        c.submit("test_hash", reset, List.of(a.step("a", 3)), store, null).get();
+        assertEquals(2, a.writes);
+        assertEquals(2, reset.resets);
+        assertEquals(3, a.value, 0.001);
+    }
+
+    /** Like fileStore(), the hash belongs to the CAN ID, not the device. */
+    private static class FileStore extends Store {
+        @Override
+        public boolean isOnDevice() {
+            return false;
+        }
+    }
+
+    @Test
+    public void testFileHashVerified() throws InterruptedException, ExecutionException {
+        Param a = new Param();
+        // like the spark's current limit, it can't be read back.
+        int[] limitWrites = new int[1];
+        ConfigStep limit = new ConfigStep("limit", 40, null, () -> {
+            limitWrites[0]++;
+            return true;
+        });
+        Reset reset = new Reset(a);
+        FileStore store = new FileStore();
+        MotorConfigurator c = MotorConfigurator.getInstance();
+        c.submit("test_file", reset, List.of(a.step("a", 1), limit), store, null).get();
+        assertEquals(1, reset.resets);
+        assertEquals(1, limitWrites[0]);
+        // same device: no reset, but the unreadable step is written again.
+        c.submit("test_file", reset, List.of(a.step("a", 1), limit), store, null).get();
+        assertEquals(1, reset.resets);
+        assertEquals(1, a.writes);
+        assertEquals(2, limitWrites[0]);
+        // replaced, at factory settings: the hash matches, the device doesn't.
+        a.value = 0;
+        c.submit("test_file", reset, List.of(a.step("a", 1), limit), store, null).get();
+        assertEquals(2, reset.resets);
+        assertEquals(1, a.value, 0.001);
+        assertEquals(3, limitWrites[0]);
+    }
+
+    @Test
+    public void testResetClearsUnmanaged() throws InterruptedException, ExecutionException {
+        Param managed = new Param();
+        Param unmanaged = new Param();
+        // left over from some other program.
+        unmanaged.value = 7;
+        Store store = new Store();
+        MotorConfigurator.getInstance().submit("test_reset", new Reset(managed, unmanaged),
+                List.of(managed.step("managed", 1)), store, null).get();
+        assertEquals(1, managed.value, 0.001);
+        assertEquals(0, unmanaged.value, 0.001);
+    }
+
+    @Test
+    public void testPersistOnlyAfterReset() throws InterruptedException, ExecutionException {
+        Param a = new Param();
+        Reset reset = new Reset(a);
+        Store store = new Store();
+        int[] persisted = new int[1];
+        MotorConfigurator c = MotorConfigurator.getInstance();
+        c.submit("test_persist", reset, List.of(a.step("a", 1)), store, () -> persisted[0]++).get();
+        assertEquals(1, persisted[0]);
+        // skipped, nothing to persist.
+        c.submit("test_persist", reset, List.of(a.step("a", 1)), store, () -> persisted[0]++).get();
+        assertEquals(1, persisted[0]);
+        c.submit("test_persist", reset, List.of(a.step("a", 2)), store, () -> persisted[0]++).get();
+        assertEquals(2, persisted[0]);
+    }
+
+    @Test
+    public void testHashDependsOnName() {
+        Param a = new Param();
+        assertNotEquals(
+                MotorConfigurator.hash("x", List.of(a.step("a", 1))),
+                MotorConfigurator.hash("x", List.of(a.step("b", 1))));
+        assertNotEquals(
+                MotorConfigurator.hash("x", List.of(a.step("a", 1))),
+                MotorConfigurator.hash("y", List.of(a.step("a", 1))));
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.autonomous;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import team100.sim.SimDriveFixture;
+
+public class DriveToWaypoint3Test {
+    /** Plans, follows the plan, and finishes within its 15 cm box. */
+    @Test
+    public void testDrive() throws IOException, InterruptedException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        Pose2d goal = new Pose2d(2, 1, new Rotation2d());
+        DriveToWaypoint3 command = new DriveToWaypoint3(goal, 0, fixture.drive, fixture.getGyro());
+        command.initialize();
+        // time for the planner thread; the plan is timed from the request
+        // either way, this just keeps the start from jumping.
+        Thread.sleep(200);
+        int loops = 0;
+        while (!command.isFinished()) {
+            fixture.step(command::execute);
+            assertTrue(++loops < 500);
+        }
+        command.end(false);
+        // 2.2 m at 1.25 m/s^2 is a triangle, 2.7 s, then 20 loops in the box.
+        assertTrue(loops * SimDriveFixture.kDtS > 2.5, "loops " + loops);
+        Pose2d pose = fixture.sim.getPose();
+        assertEquals(2, pose.getX(), 0.15);
+        assertEquals(1, pose.getY(), 0.15);
+        assertEquals(0, pose.getRotation().getRadians(), 0.05);
+    }
+}
@@ -0,0 +1,56 @@
+package frc.robot.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import team100.sim.SimDriveFixture;
+
+public class AutoLevelTest {
+    /** Drives up to where the station should be; level there, it's done. */
+    @Test
+    public void testDriveOn() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        AutoLevel command = new AutoLevel(false, fixture.drive, fixture.getGyro());
+        assertTrue(fixture.run(command, 500) > 0);
+        assertTrue(fixture.drive.getPose().getX() >= 3.277);
+    }
+
+    @Test
+    public void testReversed() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        fixture.resetPose(new Pose2d(6, 0, new Rotation2d()));
+        AutoLevel command = new AutoLevel(true, fixture.drive, fixture.getGyro());
+        assertTrue(fixture.run(command, 500) > 0);
+        assertTrue(fixture.drive.getPose().getX() <= 4.255);
+    }
+
+    /** On the station, nose up, it creeps forward until it's level. */
+    @Test
+    public void testBalance() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        fixture.resetPose(new Pose2d(3.5, 0, new Rotation2d()));
+        fixture.getGyro().setPitch(10);
+        AutoLevel command = new AutoLevel(false, fixture.drive, fixture.getGyro());
+        command.initialize();
+        for (int i = 0; i < 50; ++i) {
+            fixture.step(command::execute);
+            assertFalse(command.isFinished());
+        }
+        // 0.04 of slow speed, 4.5 m/s, is 0.18 m/s.
+        assertEquals(0.18, fixture.sim.getSpeeds().vxMetersPerSecond, 0.05);
+        assertTrue(fixture.sim.getPose().getX() > 3.5);
+        fixture.getGyro().setPitch(0);
+        int loops = 0;
+        while (!command.isFinished()) {
+            fixture.step(command::execute);
+            assertTrue(++loops <= 20);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package frc.robot.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import team100.sim.SimDriveFixture;
+
+public class DriveWithHeadingTest {
+    private static final double kDelta = 0.05;
+
+    private static DriveWithHeading command(SimDriveFixture fixture, double x, Rotation2d pov) {
+        return new DriveWithHeading(fixture.drive, () -> x, () -> 0, () -> pov, () -> 0, "test",
+                fixture.getGyro());
+    }
+
+    /** The POV snaps to a heading, and holds it. */
+    @Test
+    public void testSnap() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        DriveWithHeading command = command(fixture, 0, Rotation2d.fromDegrees(90));
+        command.initialize();
+        for (int i = 0; i < 150; ++i) {
+            fixture.step(command::execute);
+        }
+        assertEquals(Math.PI / 2, fixture.sim.getPose().getRotation().getRadians(), kDelta);
+        assertEquals(0, fixture.sim.getPose().getTranslation().getNorm(), kDelta);
+    }
+
+    /** Without a gyro there's no heading to snap to. */
+    @Test
+    public void testNoGyro() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        fixture.getGyro().setWorking(false);
+        DriveWithHeading command = command(fixture, 0, Rotation2d.fromDegrees(90));
+        command.initialize();
+        for (int i = 0; i < 150; ++i) {
+            fixture.step(command::execute);
+        }
+        assertEquals(0, fixture.sim.getPose().getRotation().getRadians(), kDelta);
+    }
+
+    /** Driving ahead while snapping ends up both turned and moved. */
+    @Test
+    public void testDriveWhileSnapping() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        DriveWithHeading command = command(fixture, 0.2, Rotation2d.fromDegrees(-90));
+        command.initialize();
+        for (int i = 0; i < 150; ++i) {
+            fixture.step(command::execute);
+        }
+        // 0.2 of the stick is 1 m/s, field-relative.
+        assertTrue(fixture.sim.getPose().getX() > 2);
+        assertEquals(0, fixture.sim.getPose().getY(), 0.2);
+        assertEquals(-Math.PI / 2, fixture.sim.getPose().getRotation().getRadians(), kDelta);
+    }
+}
@@ -0,0 +1,111 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+public class ArmKinematicsTableTest {
+    private static final double kDelta = 0.001;
+    /** The bounds in the ArmKinematicsTable doc. */
+    private static final double kInverseBoundRad = 0.002;
+    private static final double kForwardBoundM = 0.00001;
+
+    @Test
+    public void testAllQuadrants() {
+        // straight up, forward, back, and below the shoulder, where the old
+        // atan(y/x) went wrong: the solution reaches the point.
+        double[][] points = { { 1, 0 }, { 0, 1 }, { 0, -1 }, { -0.5, 0.5 }, { -0.5, -0.5 }, { 0.5, -0.5 } };
+        for (double[] p : points) {
+            double[] analytic = ArmKinematics.algorithm2RIKS(p[0], p[1]);
+            assertNotNull(analytic);
+            Translation2d reached = ArmKinematics.getArmPosition(analytic[1], analytic[0]);
+            assertEquals(p[0], reached.getX(), kDelta);
+            assertEquals(p[1], reached.getY(), kDelta);
+            double[] table = ArmKinematicsTable.inverse(p[0], p[1]);
+            assertEquals(analytic[0], table[0], kInverseBoundRad);
+            assertEquals(analytic[1], table[1], kInverseBoundRad);
+        }
+    }
+
+    @Test
+    public void testOutOfReach() {
+        assertNull(ArmKinematics.algorithm2RIKS(1.8, 0));
+        assertNull(ArmKinematicsTable.inverse(1.8, 0));
+        assertNull(ArmKinematicsTable.inverse(0, -1.8));
+        assertNull(ArmKinematicsTable.inverse(5, 5));
+    }
+
+    @Test
+    public void testInverseAccuracy() {
+        // a fine grid over the whole reach, off the table nodes.
+        double worst = 0;
+        for (double x = -1.8; x <= 1.8; x += 0.0071) {
+            for (double y = -1.8; y <= 1.8; y += 0.0071) {
+                double[] analytic = ArmKinematics.algorithm2RIKS(x, y);
+                double[] table = ArmKinematicsTable.inverse(x, y);
+                if (analytic == null) {
+                    assertNull(table);
+                    continue;
+                }
+                worst = Math.max(worst, Math.abs(analytic[0] - table[0]));
+                worst = Math.max(worst, Math.abs(analytic[1] - table[1]));
+            }
+        }
+        assertTrue(worst < kInverseBoundRad, "worst " + worst);
+    }
+
+    @Test
+    public void testForwardAccuracy() {
+        double worst = 0;
+        for (double lower = -7; lower < 7; lower += 0.0071) {
+            double upper = 1.3 * lower + 0.2;
+            Translation2d analytic = ArmKinematics.getArmPosition(lower, upper);
+            Translation2d table = ArmKinematicsTable.forward(lower, upper);
+            worst = Math.max(worst, Math.hypot(analytic.getX() - table.getX(), analytic.getY() - table.getY()));
+        }
+        assertTrue(worst < kForwardBoundM, "worst " + worst);
+    }
+
+    @Test
+    public void testFast() {
+        Random random = new Random(1);
+        int n = 1 << 14;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double r = 1.7 * Math.sqrt(random.nextDouble());
+            double theta = 2 * Math.PI * random.nextDouble();
+            x[i] = r * Math.cos(theta);
+            y[i] = r * Math.sin(theta);
+        }
+        double sum = 0;
+        // warm up
+        for (int rep = 0; rep < 20; ++rep) {
+            for (int i = 0; i < n; ++i) {
+                sum += ArmKinematics.algorithm2RIKS(x[i], y[i])[0];
+                sum += ArmKinematicsTable.inverse(x[i], y[i])[0];
+            }
+        }
+        long start = System.nanoTime();
+        for (int rep = 0; rep < 20; ++rep) {
+            for (int i = 0; i < n; ++i)
+                sum += ArmKinematics.algorithm2RIKS(x[i], y[i])[0];
+        }
+        long analyticNs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int rep = 0; rep < 20; ++rep) {
+            for (int i = 0; i < n; ++i)
+                sum += ArmKinematicsTable.inverse(x[i], y[i])[0];
+        }
+        long tableNs = System.nanoTime() - start;
+        assertTrue(sum != 0);
+        assertTrue(tableNs < analyticNs, "table " + tableNs + " ns, analytic " + analyticNs + " ns");
+    }
+}
@@ -0,0 +1,71 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArmOccupancyGridTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSetpointsFree() {
+        ArmOccupancyGrid grid = ArmOccupancyGrid.build(new ArmWorkspace(ArmOccupancyGrid.kClearanceM));
+        for (boolean cubeMode : new boolean[] { false, true }) {
+            for (ArmPosition p : ArmPosition.values()) {
+                InverseKinematicsAngle goal = ArmTrajectoryLibrary.goal(p, cubeMode);
+                if (goal != null)
+                    assertTrue(grid.isFree(goal.lowerTheta, goal.upperTheta), p + " " + cubeMode);
+            }
+        }
+    }
+
+    @Test
+    public void testBlocked() {
+        ArmOccupancyGrid grid = ArmOccupancyGrid.build(new ArmWorkspace(ArmOccupancyGrid.kClearanceM));
+        // lower segment straight down, into the tower
+        assertFalse(grid.isFree(Math.PI - 0.1, 1));
+        // folded flat
+        assertFalse(grid.isFree(0.5, 0.5 + Math.PI));
+        // outside the grid
+        assertFalse(grid.isFree(0, 5));
+        // straight up
+        assertTrue(grid.isFree(0, 0));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ArmWorkspace workspace = new ArmWorkspace(ArmOccupancyGrid.kClearanceM);
+        ArmOccupancyGrid built = ArmOccupancyGrid.build(workspace);
+        Path path = dir.resolve("grid.bin");
+        built.write(path, workspace);
+        ArmOccupancyGrid loaded = ArmOccupancyGrid.load(path, workspace);
+        for (int i = 0; i < ArmOccupancyGrid.kLowerCells * ArmOccupancyGrid.kUpperCells; ++i) {
+            assertEquals(built.isFree(i), loaded.isFree(i));
+        }
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        ArmWorkspace workspace = new ArmWorkspace(ArmOccupancyGrid.kClearanceM);
+        Path path = dir.resolve("grid.bin");
+        ArmOccupancyGrid.build(new ArmWorkspace(0)).write(path, new ArmWorkspace(0));
+        assertFalse(ArmOccupancyGrid.isCurrent(path, workspace));
+        // rebuilt from this workspace, not the stored one
+        assertFalse(ArmOccupancyGrid.load(path, workspace).isFree(0.5, 0.5 + Math.PI - 0.1));
+    }
+
+    @Test
+    public void testDeployedIsCurrent() throws IOException {
+        // if this fails, run ArmOccupancyGrid.main from the project directory.
+        Path deployed = Paths.get("src", "main", "deploy", "arm-occupancy.bin");
+        assertTrue(ArmOccupancyGrid.isCurrent(deployed, new ArmWorkspace(ArmOccupancyGrid.kClearanceM)));
+    }
+}
@@ -0,0 +1,128 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ArmPlannerTest {
+    private static final double kDelta = 0.01;
+    private static final double kMaxVelocity = 3;
+    private static final double kMaxAccel = 4;
+
+    private static ArmPlanner planner(ArmDynamics dynamics) {
+        return new ArmPlanner(dynamics, kMaxVelocity, kMaxVelocity, kMaxAccel, kMaxAccel);
+    }
+
+    /** Checks the joint limits and the motor limits at every knot. */
+    private static void assertFeasible(ArmDynamics dynamics, JointTrajectory t) {
+        double v = dynamics.getMaxVolts();
+        for (double time = 0; time < t.getTotalTimeSeconds(); time += 0.005) {
+            t.sample(time);
+            assertTrue(Math.abs(t.getLowerVelocity()) <= kMaxVelocity + kDelta);
+            assertTrue(Math.abs(t.getUpperVelocity()) <= kMaxVelocity + kDelta);
+            assertTrue(Math.abs(t.getLowerAccel()) <= kMaxAccel + kDelta);
+            assertTrue(Math.abs(t.getUpperAccel()) <= kMaxAccel + kDelta);
+            double lowerTorque = dynamics.lowerTorque(
+                    t.getLower(), t.getUpper(),
+                    t.getLowerVelocity(), t.getUpperVelocity(),
+                    t.getLowerAccel(), t.getUpperAccel());
+            double upperTorque = dynamics.upperTorque(
+                    t.getLower(), t.getUpper(),
+                    t.getLowerVelocity(), t.getUpperVelocity(),
+                    t.getLowerAccel(), t.getUpperAccel());
+            // a little slack for the discretization
+            assertTrue(lowerTorque <= dynamics.lowerMotorTorque(v, t.getLowerVelocity()) * 1.05 + 0.5);
+            assertTrue(lowerTorque >= dynamics.lowerMotorTorque(-v, t.getLowerVelocity()) * 1.05 - 0.5);
+            assertTrue(upperTorque <= dynamics.upperMotorTorque(v, t.getUpperVelocity()) * 1.05 + 0.5);
+            assertTrue(upperTorque >= dynamics.upperMotorTorque(-v, t.getUpperVelocity()) * 1.05 - 0.5);
+        }
+    }
+
+    @Test
+    public void testStraight() {
+        ArmDynamics dynamics = ArmDynamics.compBot();
+        JointTrajectory t = planner(dynamics).plan(0, 0, 0.58, 1.05);
+        assertNotNull(t);
+        t.sample(0);
+        assertEquals(0, t.getLower(), kDelta);
+        assertEquals(0, t.getUpper(), kDelta);
+        assertEquals(0, t.getLowerVelocity(), kDelta);
+        t.sample(t.getTotalTimeSeconds());
+        assertEquals(0.58, t.getLower(), kDelta);
+        assertEquals(1.05, t.getUpper(), kDelta);
+        assertEquals(0, t.getUpperVelocity(), kDelta);
+        // halfway in time is about halfway in space, since it's symmetric-ish.
+        t.sample(t.getTotalTimeSeconds() / 2);
+        assertEquals(0.525, t.getUpper(), 0.1);
+        // the upper joint goes farther, so it's the one at the limit.
+        assertTrue(t.getTotalTimeSeconds() > 2 * Math.sqrt(1.05 / kMaxAccel) - kDelta);
+        assertTrue(t.getTotalTimeSeconds() < 2);
+        assertFeasible(dynamics, t);
+    }
+
+    @Test
+    public void testWaypoint() {
+        ArmDynamics dynamics = ArmDynamics.compBot();
+        JointTrajectory t = planner(dynamics).plan(
+                new double[] { 0.58, 0.2, -0.5 },
+                new double[] { 1.05, 1.6, 2.0 });
+        assertNotNull(t);
+        t.sample(t.getTotalTimeSeconds());
+        assertEquals(-0.5, t.getLower(), kDelta);
+        assertEquals(2.0, t.getUpper(), kDelta);
+        // passes the waypoint
+        double closest = Double.MAX_VALUE;
+        for (double time = 0; time < t.getTotalTimeSeconds(); time += 0.005) {
+            t.sample(time);
+            closest = Math.min(closest, Math.hypot(t.getLower() - 0.2, t.getUpper() - 1.6));
+        }
+        assertEquals(0, closest, 0.02);
+        assertFeasible(dynamics, t);
+    }
+
+    @Test
+    public void testHeavy() {
+        // three times the mass: the motors, not the joint limits, set the pace.
+        ArmDynamics heavy = new ArmDynamics(9.0, 0.45, 7.5, 0.55, 150, 150, 0.5, 40);
+        JointTrajectory fast = planner(ArmDynamics.compBot()).plan(1.5, 1.5, -1.5, -1.5);
+        JointTrajectory slow = planner(heavy).plan(1.5, 1.5, -1.5, -1.5);
+        assertNotNull(fast);
+        assertNotNull(slow);
+        assertTrue(slow.getTotalTimeSeconds() > fast.getTotalTimeSeconds());
+        assertFeasible(heavy, slow);
+    }
+
+    @Test
+    public void testTooHeavy() {
+        // can't even hold it out horizontally.
+        ArmDynamics tooWeak = new ArmDynamics(3.0, 0.45, 2.5, 0.55, 5, 5, 0.5, 40);
+        assertNull(planner(tooWeak).plan(0, 0, Math.PI / 2, Math.PI / 2));
+    }
+
+    @Test
+    public void testStationary() {
+        JointTrajectory t = planner(ArmDynamics.compBot()).plan(0.5, 1, 0.5, 1);
+        assertEquals(0, t.getTotalTimeSeconds(), kDelta);
+        t.sample(1);
+        assertEquals(0.5, t.getLower(), kDelta);
+        assertEquals(1, t.getUpper(), kDelta);
+    }
+
+    @Test
+    public void testFast() {
+        ArmPlanner planner = planner(ArmDynamics.compBot());
+        for (int i = 0; i < 1000; ++i) {
+            planner.plan(0, 0, 0.58, 1.05);
+        }
+        long start = System.nanoTime();
+        int n = 1000;
+        for (int i = 0; i < n; ++i) {
+            planner.plan(0, 0, 0.58 + i * 1e-4, 1.05);
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / n;
+        assertTrue(ms < 1, "plan took " + ms + " ms");
+    }
+}
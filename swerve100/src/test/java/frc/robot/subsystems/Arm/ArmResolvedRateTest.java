@@ -0,0 +1,99 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+public class ArmResolvedRateTest {
+    private static final double kDelta = 0.01;
+    private static final double kMaxVelocity = 3;
+
+    @Test
+    public void testTracking() {
+        // well away from the singularities, it's the exact inverse.
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        double lower = 0.58;
+        double upper = 1.05;
+        r.calculate(lower, upper, 0.3, -0.2);
+        double h = 1e-6;
+        Translation2d p0 = ArmKinematics.getArmPosition(lower, upper);
+        Translation2d p1 = ArmKinematics.getArmPosition(
+                lower + r.getLowerVelocity() * h, upper + r.getUpperVelocity() * h);
+        assertEquals(0.3, (p1.getX() - p0.getX()) / h, 1e-3);
+        assertEquals(-0.2, (p1.getY() - p0.getY()) / h, 1e-3);
+    }
+
+    @Test
+    public void testZero() {
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        r.calculate(0, 0, 0, 0);
+        assertEquals(0, r.getLowerVelocity(), kDelta);
+        assertEquals(0, r.getUpperVelocity(), kDelta);
+    }
+
+    @Test
+    public void testStraight() {
+        // straight up, at the edge of the reach: it can't go further up, but
+        // it can still go sideways.
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        r.calculate(0, 0, 0.5, 0);
+        assertTrue(Math.abs(r.getLowerVelocity()) < kDelta);
+        assertTrue(Math.abs(r.getUpperVelocity()) < kDelta);
+        r.calculate(0, 0, 0, 0.5);
+        assertEquals(0.5 / (ArmKinematics.kLowerArmLength + ArmKinematics.kUpperArmLength),
+                r.getLowerVelocity(), kDelta);
+        assertEquals(r.getLowerVelocity(), r.getUpperVelocity(), kDelta);
+    }
+
+    @Test
+    public void testContinuous() {
+        // straightening the elbow while pushing outward: joint speeds stay
+        // bounded and change smoothly, with no jump at the damping threshold.
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        double previousLower = Double.NaN;
+        double previousUpper = Double.NaN;
+        for (double bend = 0.5; bend >= 0; bend -= 0.001) {
+            r.calculate(0.3, 0.3 + bend, 0.3, 0.1);
+            assertTrue(Math.abs(r.getLowerVelocity()) <= kMaxVelocity + 1e-9);
+            assertTrue(Math.abs(r.getUpperVelocity()) <= kMaxVelocity + 1e-9);
+            if (!Double.isNaN(previousLower)) {
+                assertEquals(previousLower, r.getLowerVelocity(), 0.1, "bend " + bend);
+                assertEquals(previousUpper, r.getUpperVelocity(), 0.1, "bend " + bend);
+            }
+            previousLower = r.getLowerVelocity();
+            previousUpper = r.getUpperVelocity();
+        }
+    }
+
+    @Test
+    public void testLimit() {
+        // too fast: both joints slow down together, keeping the direction.
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        r.calculate(0.58, 1.05, 0.1, 0.05);
+        double ratio = r.getLowerVelocity() / r.getUpperVelocity();
+        r.calculate(0.58, 1.05, 10, 5);
+        double fastest = Math.max(Math.abs(r.getLowerVelocity()), Math.abs(r.getUpperVelocity()));
+        assertEquals(kMaxVelocity, fastest, kDelta);
+        assertEquals(ratio, r.getLowerVelocity() / r.getUpperVelocity(), kDelta);
+    }
+
+    @Test
+    public void testIntegrate() {
+        // a second of stick forward moves the tip straight forward.
+        ArmResolvedRate r = new ArmResolvedRate(kMaxVelocity);
+        double lower = 0.2;
+        double upper = 1.5;
+        Translation2d start = ArmKinematics.getArmPosition(lower, upper);
+        for (int i = 0; i < 50; ++i) {
+            r.calculate(lower, upper, 0, 0.3);
+            lower += r.getLowerVelocity() * 0.02;
+            upper += r.getUpperVelocity() * 0.02;
+        }
+        Translation2d end = ArmKinematics.getArmPosition(lower, upper);
+        assertEquals(start.getX(), end.getX(), kDelta);
+        assertEquals(start.getY() + 0.3, end.getY(), kDelta);
+    }
+}
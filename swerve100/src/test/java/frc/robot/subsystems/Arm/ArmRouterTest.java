@@ -0,0 +1,96 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ArmRouterTest {
+    private static final double kDelta = 0.01;
+    private static final ArmWorkspace kWorkspace = new ArmWorkspace(ArmOccupancyGrid.kClearanceM);
+    private static final ArmOccupancyGrid kGrid = ArmOccupancyGrid.build(kWorkspace);
+
+    /** Every segment of the route is clear, checking finely. */
+    private static void assertClear(double[][] route) {
+        ArmWorkspace exact = new ArmWorkspace(0);
+        for (int k = 1; k < route[0].length; ++k) {
+            for (double s = 0; s <= 1; s += 0.01) {
+                double lower = route[0][k - 1] + s * (route[0][k] - route[0][k - 1]);
+                double upper = route[1][k - 1] + s * (route[1][k] - route[1][k - 1]);
+                assertTrue(exact.isFree(lower, upper), "blocked at " + lower + ", " + upper);
+            }
+        }
+    }
+
+    @Test
+    public void testStraight() {
+        ArmRouter router = new ArmRouter(kGrid);
+        InverseKinematicsAngle safe = ArmTrajectoryLibrary.goal(ArmPosition.SAFE, false);
+        InverseKinematicsAngle high = ArmTrajectoryLibrary.goal(ArmPosition.HIGH, false);
+        double[][] route = router.route(safe.lowerTheta, safe.upperTheta, high.lowerTheta, high.upperTheta);
+        assertNotNull(route);
+        assertEquals(2, route[0].length);
+        assertClear(route);
+    }
+
+    @Test
+    public void testAround() {
+        // from reaching low in front to reaching high: straight through joint
+        // space would drag the upper segment through the mid shelf.
+        ArmRouter router = new ArmRouter(kGrid);
+        InverseKinematicsAngle low = ArmTrajectoryLibrary.goal(ArmPosition.LOW, true);
+        InverseKinematicsAngle high = ArmTrajectoryLibrary.goal(ArmPosition.HIGH, false);
+        double[][] route = router.route(low.lowerTheta, low.upperTheta, high.lowerTheta, high.upperTheta);
+        assertNotNull(route);
+        assertTrue(route[0].length > 2);
+        assertTrue(route[0].length < 6);
+        assertEquals(low.lowerTheta, route[0][0], kDelta);
+        assertEquals(high.upperTheta, route[1][route[1].length - 1], kDelta);
+        assertClear(route);
+    }
+
+    @Test
+    public void testOverTheTop() {
+        // reaching back over the bumper to reaching forward over the grid:
+        // the upper segment has to swing up and over.
+        ArmRouter router = new ArmRouter(kGrid);
+        double[][] route = router.route(-0.6, -1.2, 0.6, 1.0);
+        assertNotNull(route);
+        assertClear(route);
+    }
+
+    @Test
+    public void testEscape() {
+        // starting inside the clearance, just above the mid shelf, it still
+        // finds a way out.
+        ArmRouter router = new ArmRouter(kGrid);
+        assertFalse(kGrid.isFree(0.3, 2.1));
+        double[][] route = router.route(0.3, 2.1, 0.58, 1.05);
+        assertNotNull(route);
+        assertEquals(0.58, route[0][route[0].length - 1], kDelta);
+    }
+
+    @Test
+    public void testOutside() {
+        ArmRouter router = new ArmRouter(kGrid);
+        assertNull(router.route(0, 5, 0.58, 1.05));
+    }
+
+    @Test
+    public void testFast() {
+        ArmRouter router = new ArmRouter(kGrid);
+        for (int i = 0; i < 1000; ++i) {
+            router.route(-0.6, -1.2, 0.6, 1.0);
+        }
+        long start = System.nanoTime();
+        int n = 1000;
+        for (int i = 0; i < n; ++i) {
+            router.route(-0.6, -1.2 + i * 1e-4, 0.6, 1.0);
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / n;
+        assertTrue(ms < 1, "route took " + ms + " ms");
+    }
+}
@@ -0,0 +1,99 @@
+package frc.robot.subsystems.Arm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ArmTrajectoryLibraryTest {
+    private static final double kDelta = 0.01;
+    private static final ArmOccupancyGrid kGrid = ArmOccupancyGrid.build(
+            new ArmWorkspace(ArmOccupancyGrid.kClearanceM));
+
+    private static ArmTrajectoryLibrary library() {
+        ArmTrajectoryLibrary library = new ArmTrajectoryLibrary(ArmDynamics.compBot(), kGrid, Runnable::run);
+        library.preload().join();
+        return library;
+    }
+
+    @Test
+    public void testNearSetpoint() {
+        ArmTrajectoryLibrary library = library();
+        InverseKinematicsAngle high = ArmTrajectoryLibrary.goal(ArmPosition.HIGH, false);
+        double lower = high.lowerTheta + 0.05;
+        double upper = high.upperTheta - 0.05;
+        JointTrajectory t = library.get(ArmPosition.SAFEBACK, false, lower, upper);
+        assertNotNull(t);
+        assertEquals(1, library.getHits());
+        assertEquals(0, library.getMisses());
+        // starts where the arm actually is, at rest
+        t.sample(0);
+        assertEquals(lower, t.getLower(), kDelta);
+        assertEquals(upper, t.getUpper(), kDelta);
+        assertEquals(0, t.getLowerVelocity(), kDelta);
+        assertEquals(0, t.getUpperVelocity(), kDelta);
+        // ends at the goal
+        InverseKinematicsAngle safeBack = ArmTrajectoryLibrary.goal(ArmPosition.SAFEBACK, false);
+        t.sample(t.getTotalTimeSeconds());
+        assertEquals(safeBack.lowerTheta, t.getLower(), kDelta);
+        assertEquals(safeBack.upperTheta, t.getUpper(), kDelta);
+    }
+
+    @Test
+    public void testFarFromSetpoint() {
+        ArmTrajectoryLibrary library = library();
+        JointTrajectory t = library.get(ArmPosition.MID, true, 0.8, 0.8);
+        assertNotNull(t);
+        assertEquals(0, library.getHits());
+        assertEquals(1, library.getMisses());
+        t.sample(0);
+        assertEquals(0.8, t.getLower(), kDelta);
+        assertEquals(0.8, t.getUpper(), kDelta);
+        InverseKinematicsAngle mid = ArmTrajectoryLibrary.goal(ArmPosition.MID, true);
+        t.sample(t.getTotalTimeSeconds());
+        assertEquals(mid.lowerTheta, t.getLower(), kDelta);
+        assertEquals(mid.upperTheta, t.getUpper(), kDelta);
+    }
+
+    @Test
+    public void testNotBuilt() {
+        // before preload, it still works, just online.
+        ArmTrajectoryLibrary library = new ArmTrajectoryLibrary(ArmDynamics.compBot(), kGrid, Runnable::run);
+        InverseKinematicsAngle high = ArmTrajectoryLibrary.goal(ArmPosition.HIGH, false);
+        assertNotNull(library.get(ArmPosition.SAFE, false, high.lowerTheta, high.upperTheta));
+        assertEquals(1, library.getMisses());
+    }
+
+    @Test
+    public void testCollisionFree() {
+        // every stored plan stays clear of the real obstacles.
+        ArmTrajectoryLibrary library = library();
+        ArmWorkspace workspace = new ArmWorkspace(0);
+        for (boolean cubeMode : new boolean[] { false, true }) {
+            for (ArmPosition from : ArmPosition.values()) {
+                InverseKinematicsAngle start = ArmTrajectoryLibrary.goal(from, cubeMode);
+                if (start == null)
+                    continue;
+                for (ArmPosition to : ArmPosition.values()) {
+                    JointTrajectory t = library.get(to, cubeMode, start.lowerTheta, start.upperTheta);
+                    if (t == null)
+                        continue;
+                    for (double time = 0; time < t.getTotalTimeSeconds(); time += 0.02) {
+                        t.sample(time);
+                        assertTrue(workspace.isFree(t.getLower(), t.getUpper()),
+                                from + " to " + to + " at " + time);
+                    }
+                }
+            }
+        }
+        assertEquals(0, library.getMisses());
+    }
+
+    @Test
+    public void testNotSetpoint() {
+        ArmTrajectoryLibrary library = library();
+        assertNull(library.get(ArmPosition.CONELOW, false, 0, 0));
+    }
+}
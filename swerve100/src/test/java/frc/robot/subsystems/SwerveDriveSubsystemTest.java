@@ -0,0 +1,112 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import team100.sim.SimDriveFixture;
+import team100.telemetry.AllocationMeter;
+
+/** The real subsystem, driving the sim. */
+public class SwerveDriveSubsystemTest {
+    private static final double kDelta = 0.05;
+
+    @Test
+    public void testStraight() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        SwerveDriveSubsystem drive = fixture.drive;
+        for (int i = 0; i < 100; ++i) {
+            fixture.step(() -> drive.driveMetersPerSec(1, 0, 0, true));
+        }
+        assertEquals(1, fixture.sim.getSpeeds().vxMetersPerSecond, kDelta);
+        assertEquals(0, fixture.sim.getSpeeds().vyMetersPerSecond, kDelta);
+        // the estimate follows the sim.
+        Pose2d pose = fixture.sim.getPose();
+        assertTrue(pose.getX() > 1.5);
+        assertEquals(pose.getX(), drive.getPose().getX(), kDelta);
+        assertEquals(pose.getY(), drive.getPose().getY(), kDelta);
+    }
+
+    @Test
+    public void testSpin() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        SwerveDriveSubsystem drive = fixture.drive;
+        for (int i = 0; i < 50; ++i) {
+            fixture.step(() -> drive.driveMetersPerSec(0, 0, 1, false));
+        }
+        double theta = fixture.sim.getPose().getRotation().getRadians();
+        assertTrue(theta > 0.5);
+        assertEquals(theta, drive.getPose().getRotation().getRadians(), kDelta);
+        assertEquals(theta, drive.getHeading().getRadians(), kDelta);
+        assertEquals(0, fixture.sim.getPose().getTranslation().getNorm(), kDelta);
+    }
+
+    /** Facing left, field-relative ahead is robot-relative right. */
+    @Test
+    public void testFieldRelative() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        SwerveDriveSubsystem drive = fixture.drive;
+        fixture.resetPose(new Pose2d(0, 0, new Rotation2d(Math.PI / 2)));
+        for (int i = 0; i < 100; ++i) {
+            fixture.step(() -> drive.driveMetersPerSec(1, 0, 0, true));
+        }
+        assertEquals(-1, fixture.sim.getSpeeds().vyMetersPerSecond, kDelta);
+        Pose2d pose = fixture.sim.getPose();
+        assertTrue(pose.getX() > 1.5);
+        assertEquals(0, pose.getY(), kDelta);
+        assertEquals(Math.PI / 2, pose.getRotation().getRadians(), kDelta);
+    }
+
+    /**
+     * The drive loop, driveMetersPerSec() and updateOdometry(), on the sim,
+     * not counting the sim itself, each measured on its own.
+     *
+     * driveMetersPerSec(), through the modules, allocates nothing.
+     *
+     * updateOdometry() is out of scope for now: it makes a Rotation2d for the
+     * heading, one per module whose angle moved, in copyTo(), and WPILib's
+     * pose estimator allocates inside update(). Its bound only catches it
+     * getting worse.
+     */
+    @Test
+    public void testAllocation() throws IOException {
+        AllocationMeter meter = new AllocationMeter();
+        SimDriveFixture fixture = new SimDriveFixture();
+        SwerveDriveSubsystem drive = fixture.drive;
+        long[] driveBytes = new long[1];
+        long[] odometryBytes = new long[1];
+        int[] cycles = new int[1];
+        Runnable cycle = () -> {
+            for (int i = 0; i < 50; ++i) {
+                double t = cycles[0] * SimDriveFixture.kDtS;
+                long start = meter.bytes();
+                drive.driveMetersPerSec(Math.sin(t), Math.cos(t), 1, true);
+                long driven = meter.bytes();
+                drive.updateOdometry();
+                long end = meter.bytes();
+                driveBytes[0] += driven - start;
+                odometryBytes[0] += end - driven;
+                cycles[0]++;
+                fixture.sim.step(SimDriveFixture.kDtS);
+            }
+        };
+        // warm up, then count from zero.
+        meter.allocated(cycle, 20, 0);
+        driveBytes[0] = 0;
+        odometryBytes[0] = 0;
+        cycles[0] = 0;
+        meter.allocated(cycle, 0, 10);
+        long drivePerCycle = driveBytes[0] / cycles[0];
+        long odometryPerCycle = odometryBytes[0] / cycles[0];
+        String report = String.format("per cycle: driveMetersPerSec %d bytes, updateOdometry %d bytes",
+                drivePerCycle, odometryPerCycle);
+        System.out.println(report);
+        assertEquals(0, drivePerCycle, report);
+        assertTrue(odometryPerCycle < 4000, report);
+    }
+}
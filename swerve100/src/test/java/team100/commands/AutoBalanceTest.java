@@ -0,0 +1,38 @@
+package team100.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import team100.sensors.TiltEstimator;
+import team100.sim.SimDriveFixture;
+
+public class AutoBalanceTest {
+    /** Drives toward the station while the tilt is good, stops when it isn't. */
+    @Test
+    public void testUnhealthy() throws IOException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        double[] pitch = { 0 };
+        TiltEstimator tilt = new TiltEstimator(() -> pitch[0]);
+        AutoBalance command = new AutoBalance(false, fixture.drive, tilt);
+        command.initialize();
+        for (int i = 0; i < 50; ++i) {
+            fixture.step(() -> {
+                tilt.sample();
+                command.execute();
+            });
+        }
+        assertTrue(fixture.sim.getSpeeds().vxMetersPerSecond > 0.1);
+        pitch[0] = Double.NaN;
+        for (int i = 0; i < 50; ++i) {
+            fixture.step(() -> {
+                tilt.sample();
+                command.execute();
+            });
+        }
+        assertEquals(0, fixture.sim.getSpeeds().vxMetersPerSecond, 0.05);
+    }
+}
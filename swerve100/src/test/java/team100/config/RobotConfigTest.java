@@ -0,0 +1,128 @@
+package team100.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RobotConfigTest {
+    private static final double kDelta = 0.01;
+    private static final Path kDeployed = Path.of("src/main/deploy/config");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testDeployedFilesAreValid() throws IOException {
+        int count = 0;
+        for (Identity identity : Identity.values()) {
+            Path file = kDeployed.resolve(identity.name() + ".json");
+            if (!Files.exists(file))
+                continue;
+            RobotConfig config = RobotConfig.load(file);
+            assertEquals(4, config.modules.size(), identity.name());
+            ++count;
+        }
+        // every swerve robot.
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void testCompBot() {
+        RobotConfig config = RobotConfig.load(kDeployed.resolve("COMP_BOT.json"));
+        assertEquals(ModuleType.WCP, config.moduleType);
+        assertEquals(0.491, config.trackWidthM, kDelta);
+        assertEquals(15, config.maxSpeedMS, kDelta);
+        assertEquals("Front Left", config.modules.get(0).name);
+        assertEquals(11, config.modules.get(0).drive);
+        assertEquals(30, config.modules.get(0).turn);
+        assertEquals(0.267276, config.modules.get(0).turnOffset, 1e-6);
+        assertEquals(0.3, config.drive.i, kDelta);
+        assertEquals(0.01, config.drive.integratorRange, 1e-6);
+        assertTrue(config.heading.isProfiled());
+        assertEquals(0.025, config.driveFeedforward.kA, 1e-6);
+    }
+
+    @Test
+    public void testDefaults() {
+        RobotConfig config = RobotConfig.load(kDeployed.resolve("FROM_8048.json"));
+        // not in the file
+        assertEquals(1, config.x.integratorRange, kDelta);
+        assertEquals(0, config.driveFeedforward.kA, kDelta);
+        assertEquals(0.02, config.actuationLatencyS, 1e-6);
+    }
+
+    @Test
+    public void testMissingFile() {
+        Path file = dir.resolve("nope.json");
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> RobotConfig.load(file));
+        assertEquals("No robot config: " + file, e.getMessage());
+    }
+
+    @Test
+    public void testDuplicateCanId() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("\"drive\": 12,", "\"drive\": 11,");
+        assertBad(json, "duplicate drive CAN ID 11");
+    }
+
+    @Test
+    public void testDriveAndTurnShareCanId() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("\"turn\": 30,", "\"turn\": 12,");
+        assertBad(json, "CAN ID 12 is both drive and turn");
+    }
+
+    @Test
+    public void testBadOffset() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("0.267276", "1.267276");
+        assertBad(json, "turnOffset");
+    }
+
+    @Test
+    public void testMissingProperty() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("\"trackWidthM\": 0.491,", "");
+        assertBad(json, "trackWidthM");
+    }
+
+    @Test
+    public void testUnknownProperty() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("\"trackWidthM\"", "\"trackWidth\"");
+        assertBad(json, "trackWidth");
+    }
+
+    @Test
+    public void testNegativeLatency() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace("\"trackWidthM\": 0.491,", "\"trackWidthM\": 0.491,\n    \"actuationLatencyS\": -0.01,");
+        assertBad(json, "actuationLatencyS");
+    }
+
+    @Test
+    public void testUnprofiledHeading() throws IOException {
+        String json = Files.readString(kDeployed.resolve("COMP_BOT.json"))
+                .replace(",\n        \"maxVelocity\": 6.283185307179586,\n        \"maxAcceleration\": 12.566370614359172", "");
+        assertBad(json, "heading needs maxVelocity");
+    }
+
+    private void assertBad(String json, String message) throws IOException {
+        Path file = write(json);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> RobotConfig.load(file));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private Path write(String json) throws IOException {
+        Path file = dir.resolve("robot.json");
+        Files.writeString(file, json);
+        return file;
+    }
+}
@@ -0,0 +1,147 @@
+package team100.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import team100.control.BalanceController.State;
+import team100.sensors.TiltEstimator;
+import team100.sim.SimChargeStation;
+
+public class BalanceControllerTest {
+    private static final double kDt = 0.02;
+    private static final int kSamples = (int) Math.round(kDt / TiltEstimator.kPeriodS);
+    private static final double kNoiseDeg = 0.1;
+    private static final double kStartM = -1.5;
+    /** As the rules: level, with the robot on it, at the end of auto. */
+    private static final double kLevelDeg = 2.5;
+    private static final double kPlatformM = 0.61;
+    private static final double kAutoS = 15;
+
+    /** What happened, each cycle. */
+    private static class Run {
+        final List<State> states = new ArrayList<>();
+        /** When it got level, for good; -1 if it didn't. */
+        double balancedS = -1;
+    }
+
+    /**
+     * Runs the station for all of auto, sampling pitch at the estimator rate
+     * and controlling at the main loop rate.
+     *
+     * @param baseline as AutoLevel, instead
+     */
+    private static Run run(SimChargeStation sim, boolean baseline) {
+        Random random = new Random(1);
+        TiltEstimator tilt = new TiltEstimator(() -> sim.getPitchDeg() + kNoiseDeg * random.nextGaussian());
+        BalanceController controller = new BalanceController();
+        Run run = new Run();
+        int levelCount = 0;
+        double speed = 0;
+        for (int i = 0; i * kDt < kAutoS; ++i) {
+            if (baseline) {
+                // drive up to it, then proportional pitch, and done after
+                // 20 level cycles.
+                double pitch = sim.getPitchDeg();
+                if (levelCount >= 20) {
+                    speed = 0;
+                } else if (sim.getPosition() < -0.8) {
+                    speed = 1.5;
+                } else if (Math.abs(pitch) > kLevelDeg) {
+                    levelCount = 0;
+                    speed = 6 * MathUtil.clamp(0.004 * pitch, -0.08, 0.08);
+                } else {
+                    ++levelCount;
+                }
+            } else {
+                speed = controller.calculate(sim.getPosition(), tilt.getPitchDeg(), tilt.getPitchRateDegS());
+                run.states.add(controller.getState());
+            }
+            sim.setSpeed(speed);
+            for (int j = 0; j < kSamples; ++j) {
+                tilt.sample();
+                sim.step(TiltEstimator.kPeriodS);
+            }
+            if (Math.abs(sim.getTiltDeg()) < kLevelDeg && Math.abs(sim.getPosition()) < kPlatformM) {
+                if (run.balancedS < 0)
+                    run.balancedS = (i + 1) * kDt;
+            } else {
+                run.balancedS = -1;
+            }
+        }
+        return run;
+    }
+
+    /** A spread of robots and stations; returns how many balanced. */
+    private static int grid(boolean baseline) {
+        int balanced = 0;
+        for (double robotKg : new double[] { 45, 55, 65 }) {
+            for (double inertia : new double[] { 5, 10, 20 }) {
+                for (double damping : new double[] { 20, 60, 150 }) {
+                    for (double friction : new double[] { 20, 50 }) {
+                        for (double lag : new double[] { 0.05, 0.15 }) {
+                            SimChargeStation sim = new SimChargeStation(
+                                    robotKg, inertia, damping, friction, lag, 3, kStartM);
+                            if (run(sim, baseline).balancedS >= 0)
+                                ++balanced;
+                        }
+                    }
+                }
+            }
+        }
+        return balanced;
+    }
+
+    @Test
+    public void testNominal() {
+        SimChargeStation sim = new SimChargeStation(55, 10, 60, 20, 0.1, 3, kStartM);
+        Run run = run(sim, false);
+        assertTrue(run.balancedS >= 0);
+        assertTrue(run.balancedS < 10, "balanced at " + run.balancedS);
+        // through each state, in order.
+        List<State> order = new ArrayList<>();
+        for (State state : run.states) {
+            if (order.isEmpty() || order.get(order.size() - 1) != state)
+                order.add(state);
+        }
+        assertEquals(State.APPROACH, order.get(0));
+        assertEquals(State.CLIMB, order.get(1));
+        assertEquals(State.BALANCE, order.get(2));
+        assertEquals(State.LOCK, order.get(order.size() - 1));
+    }
+
+    @Test
+    public void testGrid() {
+        // almost all of them, and far more than AutoLevel.
+        int balanced = grid(false);
+        assertTrue(balanced >= 100, "balanced " + balanced);
+        assertTrue(balanced > grid(true) + 50);
+    }
+
+    @Test
+    public void testRelease() {
+        BalanceController controller = new BalanceController();
+        controller.calculate(-1, 10, 0);
+        assertEquals(State.CLIMB, controller.getState());
+        // tipping, from the peak.
+        controller.calculate(-0.3, 12, 0);
+        controller.calculate(-0.25, 11, -10);
+        assertEquals(State.BALANCE, controller.getState());
+        // back to the middle, and level.
+        for (int i = 0; i < 10; ++i) {
+            controller.calculate(-0.4, 0, 0);
+        }
+        assertEquals(State.LOCK, controller.getState());
+        assertEquals(0, controller.calculate(-0.4, 3, 0), 1e-9);
+        assertEquals(State.LOCK, controller.getState());
+        // tipped too far, it lets go.
+        controller.calculate(-0.4, 6, 0);
+        assertEquals(State.BALANCE, controller.getState());
+    }
+}
@@ -0,0 +1,45 @@
+package team100.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import team100.telemetry.AllocationMeter;
+
+public class ProfiledControllerTest {
+    private static final double kDelta = 1e-4;
+
+    /** Same as WPILib's, including the short way round. */
+    @Test
+    public void testSameAsWPILib() {
+        ProfiledPIDController wpi = new ProfiledPIDController(2, 0, 0.1,
+                new TrapezoidProfile.Constraints(20, 40));
+        wpi.enableContinuousInput(0, 2 * Math.PI);
+        ProfiledController ours = new ProfiledController(2, 0, 0.1, 20, 40, 0, 2 * Math.PI);
+        for (int t = 0; t < 100; ++t) {
+            double measurement = 0.1 * Math.sin(t * 0.1);
+            // just short of a turn: a little way back, across zero.
+            double goal = t < 50 ? 6 : 1;
+            assertEquals(wpi.calculate(measurement, goal), ours.calculate(measurement, goal), kDelta);
+            assertEquals(wpi.getSetpoint().position, ours.getSetpointPosition(), kDelta);
+            assertEquals(wpi.getSetpoint().velocity, ours.getSetpointVelocity(), kDelta);
+            assertEquals(wpi.getGoal().position, ours.getGoalPosition(), kDelta);
+        }
+    }
+
+    @Test
+    public void testAllocation() {
+        AllocationMeter meter = new AllocationMeter();
+        ProfiledController controller = new ProfiledController(2, 0, 0.1, 20, 40, 0, 2 * Math.PI);
+        Runnable cycle = () -> {
+            for (int i = 0; i < 1000; ++i) {
+                controller.calculate(Math.sin(i), i % 7);
+            }
+        };
+        long bytes = meter.allocated(cycle);
+        assertTrue(bytes < 1000, "allocated " + bytes + " bytes");
+    }
+}
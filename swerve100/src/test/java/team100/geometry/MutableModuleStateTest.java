@@ -0,0 +1,51 @@
+package team100.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+public class MutableModuleStateTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    public void testOptimize() {
+        // same as wpilib, all the way around.
+        MutableModuleState state = new MutableModuleState();
+        for (double desired = -Math.PI; desired < Math.PI; desired += 0.1) {
+            for (double current = -Math.PI; current < Math.PI; current += 0.1) {
+                SwerveModuleState expected = SwerveModuleState.optimize(
+                        new SwerveModuleState(2, new Rotation2d(desired)), new Rotation2d(current));
+                state.set(2, desired).optimize(current);
+                assertEquals(expected.speedMetersPerSecond, state.speedMetersPerSecond, kDelta);
+                assertEquals(expected.angle.getCos(), state.angle.getCos(), kDelta);
+                assertEquals(expected.angle.getSin(), state.angle.getSin(), kDelta);
+                assertEquals(Math.cos(state.angle.getRadians()), state.angle.getCos(), kDelta);
+            }
+        }
+    }
+
+    @Test
+    public void testDirection() {
+        MutableRotation rotation = new MutableRotation();
+        rotation.setDirection(0, 2);
+        assertEquals(Math.PI / 2, rotation.getRadians(), kDelta);
+        assertEquals(0, rotation.getCos(), kDelta);
+        assertEquals(1, rotation.getSin(), kDelta);
+        // too short to point anywhere
+        rotation.setDirection(0, 1e-9);
+        assertEquals(0, rotation.getRadians(), kDelta);
+    }
+
+    @Test
+    public void testFieldRelative() {
+        // same as wpilib's ChassisSpeedsTest
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        speeds.setFieldRelative(1, 0, 0.5, -Math.PI / 2);
+        assertEquals(0, speeds.vxMetersPerSecond, kDelta);
+        assertEquals(1, speeds.vyMetersPerSecond, kDelta);
+        assertEquals(0.5, speeds.omegaRadiansPerSecond, kDelta);
+    }
+}
@@ -0,0 +1,109 @@
+package team100.indicator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.MyAddressableLEDBuffer;
+import edu.wpi.first.wpilibj.util.Color;
+import frc.robot.autonomous.DriveToAprilTag;
+import team100.indicator.LedCompositor.Face;
+import team100.indicator.LedCompositor.View;
+import team100.indicator.LedCompositor.Zone;
+import team100.localization.AprilTagFieldLayoutWithCorrectOrientation;
+
+public class LedCompositorTest {
+    private static final double kDelta = 0.01;
+
+    @Test
+    public void testDistinct() {
+        // the 13 combinations in the LedCompositor doc.
+        LedCompositor c = new LedCompositor(60, 30);
+        assertEquals(13, c.size());
+    }
+
+    @Test
+    public void testView() {
+        assertEquals(View.BACK, View.of(0));
+        assertEquals(View.BACK, View.of(-0.5));
+        assertEquals(View.SIDEWAYS, View.of(Math.PI / 2));
+        assertEquals(View.SIDEWAYS, View.of(-Math.PI / 2));
+        assertEquals(View.FRONT, View.of(Math.PI));
+        assertEquals(View.FRONT, View.of(-3));
+    }
+
+    /** At a grid goal, either alliance, the front faces the driver. */
+    @Test
+    public void testViewAtGrid() throws IOException {
+        Pose2d blue = DriveToAprilTag.goal(7, 0.95, AprilTagFieldLayoutWithCorrectOrientation.blueLayout());
+        assertEquals(View.FRONT, View.of(blue.getRotation().getRadians()));
+        Pose2d red = DriveToAprilTag.goal(2, 0.95, AprilTagFieldLayoutWithCorrectOrientation.redLayout());
+        assertEquals(View.FRONT, View.of(red.getRotation().getRadians()));
+    }
+
+    @Test
+    public void testSameFrameSameIndex() {
+        LedCompositor c = new LedCompositor(60, 30);
+        // a good fix doesn't flash, so the phase doesn't matter.
+        assertEquals(c.index(View.FRONT, true, false, true), c.index(View.FRONT, true, true, true));
+        // no fix does flash.
+        assertNotEquals(c.index(View.FRONT, false, false, true), c.index(View.FRONT, false, true, true));
+        // sideways is always the same.
+        int sideways = c.index(View.SIDEWAYS, false, false, false);
+        assertEquals(sideways, c.index(View.SIDEWAYS, true, true, true));
+        assertEquals(sideways, c.index(View.SIDEWAYS, false, true, true));
+    }
+
+    @Test
+    public void testHalves() {
+        LedCompositor c = new LedCompositor(60, 30);
+        // driver signal faces the driver, piece faces the loader.
+        MyAddressableLEDBuffer front = c.frame(c.index(View.FRONT, true, false, true));
+        assertColor(Color.kGreen, front.getLED(0));
+        assertColor(Color.kGreen, front.getLED(29));
+        assertColor(Color.kYellow, front.getLED(30));
+        assertColor(Color.kYellow, front.getLED(59));
+        MyAddressableLEDBuffer back = c.frame(c.index(View.BACK, false, false, false));
+        assertColor(Color.kBlue, back.getLED(0));
+        assertColor(Color.kRed, back.getLED(59));
+        MyAddressableLEDBuffer dark = c.frame(c.index(View.BACK, false, true, false));
+        assertColor(Color.kBlue, dark.getLED(0));
+        assertColor(Color.kBlack, dark.getLED(59));
+        MyAddressableLEDBuffer sideways = c.frame(c.index(View.SIDEWAYS, true, false, true));
+        assertColor(Color.kOrange, sideways.getLED(0));
+        assertColor(Color.kOrange, sideways.getLED(59));
+    }
+
+    @Test
+    public void testPlan() {
+        // two strips chained, each split, with a dark gap between.
+        LedCompositor c = new LedCompositor(70,
+                new Zone(0, 10, Face.FRONT),
+                new Zone(10, 20, Face.BACK),
+                new Zone(30, 50, Face.BACK),
+                new Zone(50, 70, Face.FRONT));
+        assertEquals(13, c.size());
+        MyAddressableLEDBuffer frame = c.frame(c.index(View.BACK, true, false, false));
+        assertColor(Color.kBlue, frame.getLED(5));
+        assertColor(Color.kGreen, frame.getLED(15));
+        assertColor(Color.kBlack, frame.getLED(25));
+        assertColor(Color.kGreen, frame.getLED(40));
+        assertColor(Color.kBlue, frame.getLED(60));
+        // a single zone shows one signal or the other.
+        LedCompositor single = new LedCompositor(60, new Zone(0, 60, Face.FRONT));
+        MyAddressableLEDBuffer front = single.frame(single.index(View.FRONT, true, false, true));
+        assertColor(Color.kGreen, front.getLED(59));
+        MyAddressableLEDBuffer back = single.frame(single.index(View.BACK, true, false, true));
+        assertColor(Color.kYellow, back.getLED(59));
+    }
+
+    private static void assertColor(Color expected, Color actual) {
+        assertEquals(expected.red, actual.red, kDelta);
+        assertEquals(expected.green, actual.green, kDelta);
+        assertEquals(expected.blue, actual.blue, kDelta);
+    }
+}
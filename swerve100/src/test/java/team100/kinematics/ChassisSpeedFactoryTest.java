@@ -2,10 +2,18 @@ package team100.kinematics;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import frc.robot.subsystems.SwerveModule;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModuleState;
+import team100.sim.SimDriveFixture;
+import team100.sim.SimSwerveDrive;
 
 public class ChassisSpeedFactoryTest {
     private static final double kDelta = 0.01;
@@ -27,6 +35,18 @@ public class ChassisSpeedFactoryTest {
                 () -> assertEquals(0.5, chassisSpeeds.omegaRadiansPerSecond, kDelta));
     }
 
+    @Test
+    void testInPlace() {
+        ChassisSpeedFactory factory = new ChassisSpeedFactory(() -> 1.0, 0.2);
+        MutableChassisSpeeds chassisSpeeds = new MutableChassisSpeeds();
+        factory.fromFieldRelativeSpeeds(1.0, 0.0, 0.5, -Math.PI / 2, chassisSpeeds);
+        // same as testRotationCorrection
+        assertAll(
+                () -> assertEquals(0.20, chassisSpeeds.vxMetersPerSecond, kDelta),
+                () -> assertEquals(0.98, chassisSpeeds.vyMetersPerSecond, kDelta),
+                () -> assertEquals(0.5, chassisSpeeds.omegaRadiansPerSecond, kDelta));
+    }
+
     @Test
     void testRotationCorrection() {
         ChassisSpeedFactory factory = new ChassisSpeedFactory(
@@ -78,4 +98,86 @@ public class ChassisSpeedFactoryTest {
         assertEquals(-78.54, angle.getDegrees(), kDelta);
     }
 
+    @Test
+    void testDiscretizeStraight() {
+        ChassisSpeedFactory factory = new ChassisSpeedFactory(() -> 0.0, 0.0, 0.02);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds().set(1, 2, 0);
+        factory.discretize(speeds);
+        // not turning, nothing to do.
+        assertEquals(1, speeds.vxMetersPerSecond, 1e-9);
+        assertEquals(2, speeds.vyMetersPerSecond, 1e-9);
+        assertEquals(0, speeds.omegaRadiansPerSecond, 1e-9);
+    }
+
+    @Test
+    void testDiscretize() {
+        double dt = 0.1;
+        ChassisSpeedFactory factory = new ChassisSpeedFactory(() -> 0.0, 0.0, dt);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds().set(1, 0.5, 3);
+        factory.discretize(speeds);
+        // holding the discretized speeds for dt ends up where the commanded
+        // speeds would, field-relative.
+        Pose2d end = new Pose2d().exp(new Twist2d(
+                speeds.vxMetersPerSecond * dt,
+                speeds.vyMetersPerSecond * dt,
+                speeds.omegaRadiansPerSecond * dt));
+        assertEquals(0.1, end.getX(), 1e-9);
+        assertEquals(0.05, end.getY(), 1e-9);
+        assertEquals(0.3, end.getRotation().getRadians(), 1e-9);
+        // the translation leads the turn
+        assertTrue(speeds.vyMetersPerSecond < 0.5);
+    }
+
+    @Test
+    void testFieldRelativeIsDiscretized() {
+        ChassisSpeedFactory factory = new ChassisSpeedFactory(() -> 1.0, 0.2, 0.02);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        factory.fromFieldRelativeSpeeds(1.0, 0.0, 0.5, -Math.PI / 2, speeds);
+        MutableChassisSpeeds expected = new MutableChassisSpeeds();
+        // lag correction first, then discretization.
+        new ChassisSpeedFactory(() -> 1.0, 0.2).fromFieldRelativeSpeeds(1.0, 0.0, 0.5, -Math.PI / 2, expected);
+        factory.discretize(expected);
+        assertEquals(expected.vxMetersPerSecond, speeds.vxMetersPerSecond, 1e-9);
+        assertEquals(expected.vyMetersPerSecond, speeds.vyMetersPerSecond, 1e-9);
+        assertEquals(0.5, speeds.omegaRadiansPerSecond, 1e-9);
+    }
+
+    /**
+     * Translate along x while spinning, in the sim: without discretization the
+     * path bows sideways. The rest of the drift is the modules' response time,
+     * about 15 ms in the sim, which the lag correction takes out.
+     */
+    @Test
+    void testDriftWhileSpinning() {
+        double raw = drift(0, 0);
+        double discretized = drift(0.02, 0);
+        double corrected = drift(0.02, 0.015);
+        assertTrue(discretized < raw * 0.7, String.format("raw %.3f discretized %.3f", raw, discretized));
+        assertTrue(corrected < raw / 10, String.format("raw %.3f corrected %.3f", raw, corrected));
+    }
+
+    /** @return the farthest the robot got from the x axis */
+    private static double drift(double dtS, double latencyS) {
+        FourModuleKinematics kinematics = new FourModuleKinematics(SimDriveFixture.kSquare);
+        SimSwerveDrive drive = SimDriveFixture.sim(SimDriveFixture.kSquare);
+        SwerveModule[] modules = SimDriveFixture.modules(drive, 4);
+        // the gyro is clockwise-positive.
+        ChassisSpeedFactory factory = new ChassisSpeedFactory(
+                () -> -Math.toRadians(drive.getGyro().getRedundantGyroRate()), latencyS, dtS);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double drift = 0;
+        for (int t = 0; t < 100; ++t) {
+            factory.fromFieldRelativeSpeeds(1, 0, 3, drive.getPose().getRotation().getRadians(), speeds);
+            kinematics.toModuleStates(speeds, states);
+            for (int i = 0; i < 4; ++i) {
+                modules[i].setDesiredState(states[i]);
+            }
+            drive.step(0.02);
+            drift = Math.max(drift, Math.abs(drive.getPose().getY()));
+        }
+        // it did go somewhere
+        assertTrue(drive.getPose().getX() > 1.5);
+        return drift;
+    }
 }
@@ -0,0 +1,158 @@
+package team100.kinematics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModuleState;
+import team100.telemetry.AllocationMeter;
+
+public class FourModuleKinematicsTest {
+    /** Rounding only. */
+    private static final double kDelta = 1e-9;
+    private static final Translation2d[] kModules = {
+            new Translation2d(0.31, 0.27),
+            new Translation2d(0.31, -0.27),
+            new Translation2d(-0.25, 0.27),
+            new Translation2d(-0.25, -0.27) };
+
+    @Test
+    public void testMatchesWPILib() {
+        // off-center on purpose, so the pseudo-inverse matters.
+        SwerveDriveKinematics wpi = new SwerveDriveKinematics(kModules);
+        FourModuleKinematics k = new FourModuleKinematics(kModules);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        Random random = new Random(100);
+        for (int t = 0; t < 1000; ++t) {
+            double vx = random.nextGaussian() * 3;
+            double vy = random.nextGaussian() * 3;
+            double omega = random.nextGaussian() * 5;
+            SwerveModuleState[] expected = wpi.toSwerveModuleStates(new ChassisSpeeds(vx, vy, omega));
+            k.toModuleStates(speeds.set(vx, vy, omega), states);
+            for (int i = 0; i < 4; ++i) {
+                assertEquals(expected[i].speedMetersPerSecond, states[i].speedMetersPerSecond, kDelta);
+                assertEquals(expected[i].angle.getRadians(), states[i].angle.getRadians(), kDelta);
+            }
+
+            SwerveDriveKinematics.desaturateWheelSpeeds(expected, 2.5);
+            FourModuleKinematics.desaturate(states, 2.5);
+            for (int i = 0; i < 4; ++i) {
+                assertEquals(expected[i].speedMetersPerSecond, states[i].speedMetersPerSecond, kDelta);
+            }
+
+            ChassisSpeeds expectedSpeeds = wpi.toChassisSpeeds(expected);
+            k.toChassisSpeeds(states, speeds);
+            assertEquals(expectedSpeeds.vxMetersPerSecond, speeds.vxMetersPerSecond, kDelta);
+            assertEquals(expectedSpeeds.vyMetersPerSecond, speeds.vyMetersPerSecond, kDelta);
+            assertEquals(expectedSpeeds.omegaRadiansPerSecond, speeds.omegaRadiansPerSecond, kDelta);
+
+            k.toChassisSpeeds(expected, speeds);
+            assertEquals(expectedSpeeds.vxMetersPerSecond, speeds.vxMetersPerSecond, kDelta);
+        }
+    }
+
+    @Test
+    public void testStopKeepsAngles() {
+        SwerveDriveKinematics wpi = new SwerveDriveKinematics(kModules);
+        FourModuleKinematics k = new FourModuleKinematics(kModules);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        wpi.toSwerveModuleStates(new ChassisSpeeds(0, 0, 1));
+        k.toModuleStates(new MutableChassisSpeeds().set(0, 0, 1), states);
+        SwerveModuleState[] expected = wpi.toSwerveModuleStates(new ChassisSpeeds());
+        k.toModuleStates(new MutableChassisSpeeds(), states);
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(0, states[i].speedMetersPerSecond, kDelta);
+            assertEquals(expected[i].angle.getRadians(), states[i].angle.getRadians(), kDelta);
+        }
+    }
+
+    @Test
+    public void testSecondOrder() {
+        // same as the difference of two first-order solutions.
+        FourModuleKinematics k = new FourModuleKinematics(kModules);
+        MutableChassisSpeeds v = new MutableChassisSpeeds().set(1.5, -0.7, 2);
+        MutableChassisSpeeds a = new MutableChassisSpeeds().set(-3, 4, 6);
+        double[] wheelAccel = new double[4];
+        double[] steerRate = new double[4];
+        k.toModuleAccelerations(v, a, wheelAccel, steerRate);
+
+        double h = 1e-6;
+        MutableModuleState[] before = MutableModuleState.array(4);
+        MutableModuleState[] after = MutableModuleState.array(4);
+        k.toModuleStates(v, before);
+        k.toModuleStates(new MutableChassisSpeeds().set(
+                v.vxMetersPerSecond + a.vxMetersPerSecond * h,
+                v.vyMetersPerSecond + a.vyMetersPerSecond * h,
+                v.omegaRadiansPerSecond + a.omegaRadiansPerSecond * h), after);
+        for (int i = 0; i < 4; ++i) {
+            double dSpeed = (after[i].speedMetersPerSecond - before[i].speedMetersPerSecond) / h;
+            double dAngle = MathUtil.angleModulus(after[i].angle.getRadians() - before[i].angle.getRadians()) / h;
+            assertEquals(dSpeed, wheelAccel[i], 1e-4);
+            assertEquals(dAngle, steerRate[i], 1e-4);
+        }
+    }
+
+    @Test
+    public void testStoppedWheel() {
+        // spinning about the front left module: it has no direction.
+        FourModuleKinematics k = new FourModuleKinematics(
+                new Translation2d(0, 0),
+                new Translation2d(0, -0.5),
+                new Translation2d(-0.5, 0),
+                new Translation2d(-0.5, -0.5));
+        double[] wheelAccel = new double[4];
+        double[] steerRate = new double[4];
+        k.toModuleAccelerations(new MutableChassisSpeeds().set(0, 0, 1),
+                new MutableChassisSpeeds().set(1, 0, 0), wheelAccel, steerRate);
+        assertEquals(0, wheelAccel[0], kDelta);
+        assertEquals(0, steerRate[0], kDelta);
+    }
+
+    @Test
+    public void testFourOnly() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FourModuleKinematics(kModules[0], kModules[1], kModules[2]));
+    }
+
+    /**
+     * The chassis-to-module kinematics in driveMetersPerSec() don't allocate
+     * at all. For the whole drive loop, see SwerveDriveSubsystemTest.
+     */
+    @Test
+    public void testAllocation() {
+        AllocationMeter meter = new AllocationMeter();
+
+        FourModuleKinematics k = new FourModuleKinematics(kModules);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        MutableChassisSpeeds velocity = new MutableChassisSpeeds();
+        double[] sink = new double[1];
+        Runnable cycle = () -> {
+            for (int i = 0; i < 1000; ++i) {
+                speeds.setFieldRelative(2, 1, 3, i * 0.01);
+                k.toModuleStates(speeds, states);
+                FourModuleKinematics.desaturate(states, 3);
+                for (MutableModuleState state : states) {
+                    state.optimize(i * 0.02);
+                }
+                k.toChassisSpeeds(states, velocity);
+                sink[0] += velocity.vxMetersPerSecond;
+            }
+        };
+        long bytes = meter.allocated(cycle);
+        // 10000 cycles; a single allocation per cycle would be >100 KB.
+        assertTrue(bytes < 1000, "allocated " + bytes + " bytes");
+        assertTrue(Double.isFinite(sink[0]));
+    }
+}
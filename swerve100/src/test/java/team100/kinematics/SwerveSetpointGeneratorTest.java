@@ -0,0 +1,198 @@
+package team100.kinematics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.subsystems.SwerveModule;
+import team100.config.Identity;
+import team100.config.RobotConfig;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutableModuleState;
+import team100.kinematics.SwerveSetpointGenerator.Limits;
+import team100.sim.SimDriveFixture;
+import team100.sim.SimSwerveDrive;
+import team100.telemetry.AllocationMeter;
+
+public class SwerveSetpointGeneratorTest {
+    private static final double kDelta = 0.001;
+    private static final double kDt = 0.02;
+    private static final Translation2d[] kModules = SimDriveFixture.kSquare;
+    private static final Limits kLimits = new Limits(4, 5, 10, 20, 5);
+
+    @Test
+    public void testAcceleration() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(new FourModuleKinematics(kModules), kLimits);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        MutableChassisSpeeds desired = new MutableChassisSpeeds().set(3, 0, 0);
+        generator.generate(desired, kDt, states, accel);
+        // 5 m/s^2 for one cycle
+        assertEquals(0.1, generator.getSetpoint().vxMetersPerSecond, kDelta);
+        assertEquals(0.1, states[0].speedMetersPerSecond, kDelta);
+        assertEquals(5, accel[0], kDelta);
+        for (int t = 0; t < 100; ++t) {
+            generator.generate(desired, kDt, states, accel);
+        }
+        // gets there, and stops accelerating.
+        assertEquals(3, generator.getSetpoint().vxMetersPerSecond, kDelta);
+        assertEquals(0, accel[0], kDelta);
+    }
+
+    @Test
+    public void testSaturated() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(new FourModuleKinematics(kModules), kLimits);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        // faster than the wheels can go, in both translation and rotation.
+        MutableChassisSpeeds desired = new MutableChassisSpeeds().set(4, 0, 4);
+        for (int t = 0; t < 200; ++t) {
+            generator.generate(desired, kDt, states, accel);
+        }
+        double fastest = 0;
+        for (MutableModuleState state : states) {
+            fastest = Math.max(fastest, state.speedMetersPerSecond);
+        }
+        assertEquals(4, fastest, kDelta);
+        // same shape as desired
+        MutableChassisSpeeds setpoint = generator.getSetpoint();
+        assertEquals(1, setpoint.omegaRadiansPerSecond / setpoint.vxMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void testWheelAcceleration() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(new FourModuleKinematics(kModules), kLimits);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        MutableModuleState[] previous = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        generator.reset(new MutableChassisSpeeds().set(2, 0, 0));
+        generator.generate(new MutableChassisSpeeds().set(2, 0, 0), kDt, previous, accel);
+        // reverse: the chassis limit alone would allow more than 5 m/s^2 at the outer wheels.
+        MutableChassisSpeeds desired = new MutableChassisSpeeds().set(-2, 0, 3);
+        for (int t = 0; t < 100; ++t) {
+            generator.generate(desired, kDt, states, accel);
+            for (int i = 0; i < 4; ++i) {
+                double dx = states[i].speedMetersPerSecond * states[i].angle.getCos()
+                        - previous[i].speedMetersPerSecond * previous[i].angle.getCos();
+                double dy = states[i].speedMetersPerSecond * states[i].angle.getSin()
+                        - previous[i].speedMetersPerSecond * previous[i].angle.getSin();
+                assertTrue(Math.hypot(dx, dy) <= 5 * kDt + 1e-9);
+                previous[i].speedMetersPerSecond = states[i].speedMetersPerSecond;
+                previous[i].angle.set(states[i].angle);
+            }
+        }
+        assertEquals(-2, generator.getSetpoint().vxMetersPerSecond, kDelta);
+        assertEquals(3, generator.getSetpoint().omegaRadiansPerSecond, kDelta);
+    }
+
+    /** Every robot's own limits, as the drive builds them. */
+    @Test
+    public void testLimitsOfConfig() {
+        int count = 0;
+        for (Identity identity : Identity.values()) {
+            if (!Files.exists(Path.of("src/main/deploy/config", identity.name() + ".json")))
+                continue;
+            RobotConfig config = RobotConfig.forIdentity(identity);
+            Limits limits = Limits.of(config);
+            assertEquals(config.maxSteerRateRadS, limits.maxSteerRateRadS, kDelta);
+            assertEquals(config.maxWheelAccelerationMS2, limits.maxWheelAccelerationMS2, kDelta);
+            // a steering limit the modules can follow, not the profile's.
+            assertTrue(limits.maxSteerRateRadS < config.turn.maxVelocity, identity.name());
+            assertTrue(limits.maxSteerRateRadS <= 4 * Math.PI, identity.name());
+            assertTrue(limits.maxWheelAccelerationMS2 > 0, identity.name());
+            ++count;
+        }
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void testSteering() {
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(
+                new FourModuleKinematics(kModules), new Limits(4, 100, 100, 5, 100));
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        generator.reset(new MutableChassisSpeeds().set(2, 0, 0));
+        MutableChassisSpeeds desired = new MutableChassisSpeeds().set(0, 2, 0);
+        double angle = 0;
+        for (int t = 0; t < 100; ++t) {
+            generator.generate(desired, kDt, states, accel);
+            if (states[0].speedMetersPerSecond > 0.1) {
+                double next = states[0].angle.getRadians();
+                // 5 rad/s, with a little slack for the bisection.
+                assertTrue(Math.abs(MathUtil.angleModulus(next - angle)) <= 5 * kDt * 1.01);
+                angle = next;
+            }
+        }
+        assertEquals(2, generator.getSetpoint().vyMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void testAllocation() {
+        AllocationMeter meter = new AllocationMeter();
+
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(new FourModuleKinematics(kModules), kLimits);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        MutableChassisSpeeds desired = new MutableChassisSpeeds();
+        Runnable cycle = () -> {
+            for (int i = 0; i < 1000; ++i) {
+                desired.set(3 * Math.sin(i), 3 * Math.cos(i), 1);
+                generator.generate(desired, kDt, states, accel);
+            }
+        };
+        long bytes = meter.allocated(cycle);
+        assertTrue(bytes < 1000, "allocated " + bytes + " bytes");
+    }
+
+    /**
+     * Drive forward, then abruptly sideways, in the sim: the generator keeps
+     * the wheels from slipping much more than commanding the change outright.
+     */
+    @Test
+    public void testSlip() {
+        int raw = slippingSteps(false);
+        int generated = slippingSteps(true);
+        assertTrue(generated < raw / 2, String.format("raw %d generated %d", raw, generated));
+    }
+
+    private static int slippingSteps(boolean generate) {
+        FourModuleKinematics kinematics = new FourModuleKinematics(kModules);
+        SimSwerveDrive drive = SimDriveFixture.sim(kModules);
+        SwerveModule[] modules = SimDriveFixture.modules(drive, 4);
+        SwerveSetpointGenerator generator = new SwerveSetpointGenerator(kinematics, kLimits);
+        MutableModuleState[] states = MutableModuleState.array(4);
+        double[] accel = new double[4];
+        MutableChassisSpeeds desired = new MutableChassisSpeeds();
+        int slipping = 0;
+        for (int t = 0; t < 150; ++t) {
+            if (t < 75)
+                desired.set(3, 0, 0);
+            else
+                desired.set(0, 3, 0);
+            if (generate) {
+                generator.generate(desired, kDt, states, accel);
+            } else {
+                kinematics.toModuleStates(desired, states);
+                FourModuleKinematics.desaturate(states, kLimits.maxSpeedMS);
+            }
+            for (int i = 0; i < 4; ++i) {
+                if (generate)
+                    modules[i].setDesiredState(states[i], accel[i]);
+                else
+                    modules[i].setDesiredState(states[i]);
+            }
+            drive.step(kDt);
+            for (int i = 0; i < 4; ++i) {
+                if (drive.getModule(i).isSlipping())
+                    ++slipping;
+            }
+        }
+        return slipping;
+    }
+}
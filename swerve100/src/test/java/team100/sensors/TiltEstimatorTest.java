@@ -0,0 +1,65 @@
+package team100.sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TiltEstimatorTest {
+    private static final double kDelta = 0.01;
+
+    @Test
+    public void testStill() {
+        TiltEstimator tilt = new TiltEstimator(() -> 12);
+        for (int i = 0; i < 100; ++i) {
+            tilt.sample();
+        }
+        assertEquals(12, tilt.getPitchDeg(), kDelta);
+        assertEquals(0, tilt.getPitchRateDegS(), kDelta);
+    }
+
+    @Test
+    public void testRamp() {
+        // tipping at 10 deg/s; the rate converges, and the pitch catches up.
+        double[] pitch = { 15 };
+        TiltEstimator tilt = new TiltEstimator(() -> pitch[0]);
+        for (int i = 0; i < 400; ++i) {
+            tilt.sample();
+            pitch[0] -= 10 * TiltEstimator.kPeriodS;
+        }
+        pitch[0] += 10 * TiltEstimator.kPeriodS;
+        assertEquals(-10, tilt.getPitchRateDegS(), kDelta);
+        assertEquals(pitch[0], tilt.getPitchDeg(), kDelta);
+        assertEquals(pitch[0] - 4, tilt.predict(0.4), kDelta);
+    }
+
+    /** A dropout is skipped, briefly; a long one makes it unhealthy. */
+    @Test
+    public void testNonFinite() {
+        double[] pitch = { Double.NaN };
+        TiltEstimator tilt = new TiltEstimator(() -> pitch[0]);
+        tilt.sample();
+        assertFalse(tilt.isHealthy());
+        pitch[0] = 12;
+        for (int i = 0; i < 100; ++i) {
+            tilt.sample();
+        }
+        assertTrue(tilt.isHealthy());
+        pitch[0] = Double.NaN;
+        for (int i = 0; i < 5; ++i) {
+            tilt.sample();
+        }
+        assertTrue(tilt.isHealthy());
+        assertEquals(12, tilt.getPitchDeg(), kDelta);
+        assertEquals(0, tilt.getPitchRateDegS(), kDelta);
+        for (int i = 0; i < 5; ++i) {
+            tilt.sample();
+        }
+        assertFalse(tilt.isHealthy());
+        pitch[0] = 12;
+        tilt.sample();
+        assertTrue(tilt.isHealthy());
+        assertEquals(12, tilt.getPitchDeg(), kDelta);
+    }
+}
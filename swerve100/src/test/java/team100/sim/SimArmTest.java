@@ -0,0 +1,117 @@
+package team100.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import frc.robot.subsystems.Arm.ArmDynamics;
+import frc.robot.subsystems.Arm.ArmPlanner;
+import frc.robot.subsystems.Arm.ArmTrajectoryLibrary;
+import frc.robot.subsystems.Arm.JointTrajectory;
+
+public class SimArmTest {
+    private static final double kDelta = 0.01;
+    private static final double kDt = 0.02;
+    /** As ArmTrajectory. */
+    private static final double kP = 3;
+    private static final double kVolts = 12;
+
+    @Test
+    public void testHold() {
+        // upright and unpowered, it stays put.
+        SimArm arm = new SimArm(ArmDynamics.compBot(), 0, 0);
+        for (int i = 0; i < 50; ++i) {
+            arm.step(kDt);
+        }
+        assertEquals(0, arm.getLower(), kDelta);
+        assertEquals(0, arm.getUpper(), kDelta);
+    }
+
+    @Test
+    public void testFall() {
+        // tipped forward and unpowered, gravity pulls it further forward,
+        // slowly, against the back-EMF of the motors.
+        SimArm arm = new SimArm(ArmDynamics.compBot(), 0.5, 0.5);
+        for (int i = 0; i < 10; ++i) {
+            arm.step(kDt);
+        }
+        assertTrue(arm.getLower() > 0.5);
+        assertTrue(arm.getUpper() > 0.5);
+        assertTrue(arm.getLowerVelocity() > 0);
+    }
+
+    @Test
+    public void testFeedforward() {
+        // exactly the torques the model asks for produce the planned motion.
+        ArmDynamics dynamics = ArmDynamics.compBot();
+        double lowerTorque = dynamics.lowerTorque(0.3, 1.2, 0.5, -0.4, 1.0, 2.0);
+        double upperTorque = dynamics.upperTorque(0.3, 1.2, 0.5, -0.4, 1.0, 2.0);
+        double[] accel = dynamics.accelerations(0.3, 1.2, 0.5, -0.4, lowerTorque, upperTorque);
+        assertEquals(1.0, accel[0], 1e-9);
+        assertEquals(2.0, accel[1], 1e-9);
+        // and the feedforward volts produce that torque.
+        double volts = dynamics.lowerFeedforward(0.3, 1.2, 0.5, -0.4, 1.0, 2.0);
+        assertEquals(lowerTorque, dynamics.lowerMotorTorque(volts, 0.5), 1e-9);
+    }
+
+    /**
+     * Follows the trajectory as ArmTrajectory does, with a plant 20% heavier
+     * than the model.
+     *
+     * @return worst tracking error on either joint, radians
+     */
+    private static double track(JointTrajectory t, boolean feedforward) {
+        ArmDynamics model = ArmDynamics.compBot();
+        ArmDynamics plant = new ArmDynamics(3.6, 0.45, 3.0, 0.55, 150, 150, 0.5, 40);
+        t.sample(0);
+        SimArm arm = new SimArm(plant, t.getLower(), t.getUpper());
+        double worst = 0;
+        for (double time = 0; time < t.getTotalTimeSeconds() + 0.5; time += kDt) {
+            t.sample(time);
+            worst = Math.max(worst, Math.abs(t.getLower() - arm.getLower()));
+            worst = Math.max(worst, Math.abs(t.getUpper() - arm.getUpper()));
+            double lower = kP * (t.getLower() - arm.getLower());
+            double upper = kP * (t.getUpper() - arm.getUpper());
+            if (feedforward) {
+                lower += model.lowerFeedforward(
+                        t.getLower(), t.getUpper(),
+                        t.getLowerVelocity(), t.getUpperVelocity(),
+                        t.getLowerAccel(), t.getUpperAccel()) / kVolts;
+                upper += model.upperFeedforward(
+                        t.getLower(), t.getUpper(),
+                        t.getLowerVelocity(), t.getUpperVelocity(),
+                        t.getLowerAccel(), t.getUpperAccel()) / kVolts;
+            }
+            arm.setLowerOutput(lower);
+            arm.setUpperOutput(upper);
+            arm.step(kDt);
+        }
+        return worst;
+    }
+
+    @Test
+    public void testTracking() {
+        ArmPlanner planner = new ArmPlanner(
+                ArmDynamics.compBot(),
+                ArmTrajectoryLibrary.kMaxVelocity,
+                ArmTrajectoryLibrary.kMaxVelocity,
+                ArmTrajectoryLibrary.kMaxAccel,
+                ArmTrajectoryLibrary.kMaxAccel);
+        // from stowed out to the high cone goal, and back again, stopping
+        // where gravity pulls hardest.
+        JointTrajectory out = planner.plan(0, 0, 0.58, 1.05);
+        JointTrajectory back = planner.plan(0.58, 1.05, 0, 0);
+        double pidOnlyOut = track(out, false);
+        double withFFOut = track(out, true);
+        double pidOnlyBack = track(back, false);
+        double withFFBack = track(back, true);
+        // P alone sags and lags by a lot.
+        assertTrue(pidOnlyOut > 0.1, "P only out " + pidOnlyOut);
+        // the feedforward leaves only the model error for P.
+        assertTrue(withFFOut < 0.05, "with FF out " + withFFOut);
+        assertTrue(withFFBack < 0.05, "with FF back " + withFFBack);
+        assertTrue(withFFOut < pidOnlyOut / 2);
+        assertTrue(withFFBack < pidOnlyBack / 2);
+    }
+}
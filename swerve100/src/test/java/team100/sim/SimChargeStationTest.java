@@ -0,0 +1,75 @@
+package team100.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SimChargeStationTest {
+    private static final double kDelta = 0.01;
+    private static final double kDt = 0.02;
+
+    /** Nominal robot and station. */
+    private static SimChargeStation station(double positionM) {
+        return new SimChargeStation(55, 10, 60, 20, 0.1, 3, positionM);
+    }
+
+    @Test
+    public void testHold() {
+        // with the robot on the floor, the station stays on its stop.
+        SimChargeStation sim = station(-2);
+        for (int i = 0; i < 50; ++i) {
+            sim.step(kDt);
+        }
+        assertEquals(15, sim.getTiltDeg(), kDelta);
+        assertEquals(0, sim.getPitchDeg(), kDelta);
+    }
+
+    @Test
+    public void testTip() {
+        // parked past the pivot, the robot tips it all the way over.
+        SimChargeStation sim = station(0.3);
+        for (int i = 0; i < 100; ++i) {
+            sim.step(kDt);
+        }
+        assertEquals(-15, sim.getTiltDeg(), kDelta);
+        assertTrue(sim.getPitchDeg() < -10);
+    }
+
+    @Test
+    public void testFriction() {
+        // just off center, the pivot friction holds it.
+        SimChargeStation sim = station(-0.02);
+        for (int i = 0; i < 50; ++i) {
+            sim.step(kDt);
+        }
+        assertEquals(15, sim.getTiltDeg(), kDelta);
+    }
+
+    @Test
+    public void testPitch() {
+        // on the floor, level; straddling the ramp, from the floor to the
+        // platform, part way; on the platform, its tilt, as rise over
+        // wheelbase.
+        assertEquals(0, station(-2).getPitchDeg(), kDelta);
+        double straddle = station(-0.8).getPitchDeg();
+        assertTrue(straddle > 5);
+        assertTrue(straddle < 15);
+        double tilt = Math.toRadians(15);
+        assertEquals(Math.toDegrees(Math.atan(Math.sin(tilt))), station(0).getPitchDeg(), kDelta);
+    }
+
+    @Test
+    public void testDrive() {
+        // the drive lags the command.
+        SimChargeStation sim = station(-3);
+        sim.setSpeed(1);
+        sim.step(kDt);
+        assertTrue(sim.getVelocity() > 0);
+        assertTrue(sim.getVelocity() < 1);
+        for (int i = 0; i < 50; ++i) {
+            sim.step(kDt);
+        }
+        assertEquals(1, sim.getVelocity(), kDelta);
+    }
+}
@@ -0,0 +1,103 @@
+package team100.sim;
+
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.SwerveDriveSubsystem;
+import frc.robot.subsystems.SwerveModule;
+import frc.robot.subsystems.SwerveModuleFactory;
+import team100.config.RobotConfig;
+
+/**
+ * The real SwerveDriveSubsystem, on simulated modules and gyro, in simulated
+ * time, for tests of it and of the commands that use it.
+ *
+ * The sim has the config's module locations, since the subsystem's kinematics
+ * come from the config. The FPGA clock is paused, and advances one loop per
+ * step, so Timer.getFPGATimestamp() agrees with the sim.
+ *
+ * For tests of the parts, without the subsystem, there's just the sim, and a
+ * SwerveModule on each of its modules.
+ */
+public class SimDriveFixture {
+    public static final double kDtS = 0.02;
+    /** A 0.6 m square, for tests of the parts. */
+    public static final Translation2d[] kSquare = {
+            new Translation2d(0.3, 0.3),
+            new Translation2d(0.3, -0.3),
+            new Translation2d(-0.3, 0.3),
+            new Translation2d(-0.3, -0.3) };
+
+    public final SimSwerveDrive sim;
+    public final SwerveDriveSubsystem drive;
+
+    public SimDriveFixture() throws IOException {
+        HAL.initialize(500, 0);
+        SimHooks.pauseTiming();
+        sim = sim(RobotConfig.get().moduleLocations());
+        drive = new SwerveDriveSubsystem(DriverStation.Alliance.Blue, sim.getGyro(),
+                SwerveModuleFactory.simWCPModule("Sim Front Left", sim.getModule(0)),
+                SwerveModuleFactory.simWCPModule("Sim Front Right", sim.getModule(1)),
+                SwerveModuleFactory.simWCPModule("Sim Rear Left", sim.getModule(2)),
+                SwerveModuleFactory.simWCPModule("Sim Rear Right", sim.getModule(3)));
+    }
+
+    /** A 50 kg robot on WCP modules. */
+    public static SimSwerveDrive sim(Translation2d[] locations) {
+        return SimSwerveDrive.wcp(new SwerveDriveKinematics(locations), locations.length, 50);
+    }
+
+    /** A SwerveModule on each of the sim's, without the subsystem. */
+    public static SwerveModule[] modules(SimSwerveDrive sim, int n) {
+        SwerveModule[] modules = new SwerveModule[n];
+        for (int i = 0; i < n; ++i) {
+            modules[i] = SwerveModuleFactory.simWCPModule("sim", sim.getModule(i));
+        }
+        return modules;
+    }
+
+    public SimGyro getGyro() {
+        return sim.getGyro();
+    }
+
+    /**
+     * Puts both the sim and the estimate at the pose; the gyro keeps its yaw,
+     * the estimate takes it as the offset.
+     */
+    public void resetPose(Pose2d pose) {
+        sim.resetPose(pose);
+        drive.resetPose(pose);
+    }
+
+    /** One loop, the way the scheduler does it: subsystem, then command. */
+    public void step(Runnable command) {
+        drive.periodic();
+        command.run();
+        sim.step(kDtS);
+        SimHooks.stepTiming(kDtS);
+    }
+
+    /**
+     * Runs the command until it finishes, at most the given number of loops.
+     *
+     * @return loops it took, or -1 if it didn't finish.
+     */
+    public int run(Command command, int loops) {
+        command.initialize();
+        for (int i = 0; i < loops; ++i) {
+            step(command::execute);
+            if (command.isFinished()) {
+                command.end(false);
+                return i + 1;
+            }
+        }
+        command.end(true);
+        return -1;
+    }
+}
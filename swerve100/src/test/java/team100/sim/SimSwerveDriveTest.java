@@ -0,0 +1,77 @@
+package team100.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.SwerveModule;
+import frc.robot.subsystems.SwerveModuleFactory;
+
+public class SimSwerveDriveTest {
+    private static final double kDelta = 0.01;
+    private static final double kDt = 0.02;
+
+    private static SwerveDriveKinematics kinematics() {
+        return new SwerveDriveKinematics(
+                new Translation2d(0.3, 0.3),
+                new Translation2d(0.3, -0.3),
+                new Translation2d(-0.3, 0.3),
+                new Translation2d(-0.3, -0.3));
+    }
+
+    @Test
+    public void testStraight() {
+        SimSwerveDrive drive = SimSwerveDrive.wcp(kinematics(), 4, 50);
+        for (int i = 0; i < 4; ++i) {
+            drive.getModule(i).driveMotor().set(0.5);
+        }
+        drive.step(kDt);
+        // half output at stall is more than the tires can hold.
+        assertTrue(drive.getModule(0).isSlipping());
+        for (int t = 0; t < 100; ++t) {
+            drive.step(kDt);
+        }
+        assertFalse(drive.getModule(0).isSlipping());
+        // half of free speed: 6380 rpm / 5.5 * 0.1015 m * pi / 2
+        assertEquals(3.1, drive.getSpeeds().vxMetersPerSecond, 0.05);
+        assertEquals(0, drive.getSpeeds().vyMetersPerSecond, kDelta);
+        assertEquals(0, drive.getGyro().getRedundantYaw(), kDelta);
+        assertTrue(drive.getPose().getX() > 4);
+    }
+
+    @Test
+    public void testSpin() {
+        SimSwerveDrive drive = SimSwerveDrive.wcp(kinematics(), 4, 50);
+        // left side back, right side forward, so counterclockwise.
+        drive.getModule(0).driveMotor().set(-0.2);
+        drive.getModule(1).driveMotor().set(0.2);
+        drive.getModule(2).driveMotor().set(-0.2);
+        drive.getModule(3).driveMotor().set(0.2);
+        for (int t = 0; t < 10; ++t) {
+            drive.step(kDt);
+        }
+        double thetaDeg = drive.getPose().getRotation().getDegrees();
+        assertTrue(thetaDeg > 0);
+        // gyro is clockwise-positive
+        assertEquals(-thetaDeg, drive.getGyro().getRedundantYaw(), kDelta);
+        assertTrue(drive.getGyro().getRedundantGyroRate() < 0);
+    }
+
+    @Test
+    public void testClosedLoopSteering() {
+        SimSwerveDrive drive = SimSwerveDrive.wcp(kinematics(), 4, 50);
+        SwerveModule module = SwerveModuleFactory.simWCPModule("sim", drive.getModule(0));
+        SwerveModuleState desired = new SwerveModuleState(0, Rotation2d.fromDegrees(90));
+        for (int t = 0; t < 50; ++t) {
+            module.setDesiredState(desired);
+            drive.step(kDt);
+        }
+        assertEquals(Math.PI / 2, drive.getModule(0).turningEncoder().getAngle(), 0.1);
+    }
+}
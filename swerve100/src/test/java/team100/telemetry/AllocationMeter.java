@@ -0,0 +1,50 @@
+package team100.telemetry;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts what the current thread allocates, for tests of loop code that
+ * shouldn't. Tests are skipped on JVMs that can't count.
+ */
+public final class AllocationMeter {
+    private final com.sun.management.ThreadMXBean m_threads;
+    private final long m_id;
+
+    public AllocationMeter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        m_threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(m_threads.isThreadAllocatedMemorySupported());
+        m_threads.setThreadAllocatedMemoryEnabled(true);
+        m_id = Thread.currentThread().getId();
+    }
+
+    /** Allocated so far by this thread, to difference around part of a loop. */
+    public long bytes() {
+        return m_threads.getThreadAllocatedBytes(m_id);
+    }
+
+    /**
+     * Warms up, so we measure the compiled code, not the interpreter, then
+     * runs again, counting.
+     *
+     * @return bytes allocated over the counted runs
+     */
+    public long allocated(Runnable cycle, int warmups, int runs) {
+        for (int i = 0; i < warmups; ++i) {
+            cycle.run();
+        }
+        long before = bytes();
+        for (int i = 0; i < runs; ++i) {
+            cycle.run();
+        }
+        return bytes() - before;
+    }
+
+    /** 20 runs to warm up, 10 counted. */
+    public long allocated(Runnable cycle) {
+        return allocated(cycle, 20, 10);
+    }
+}
@@ -0,0 +1,126 @@
+package team100.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogReader;
+import team100.telemetry.GainTuner.Edit;
+import team100.telemetry.GainTuner.Gain;
+
+public class GainTunerTest {
+    private static final double kDelta = 0.001;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testStaged() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        DataLog log = new DataLog(dir.toString(), "tuning.wpilog");
+        GainTuner tuner = new GainTuner(inst, () -> log);
+        PIDController controller = new PIDController(1, 0, 0);
+        tuner.add("test", controller);
+        tuner.apply();
+        tuner.stage("test", Gain.P, 2);
+        tuner.stage("test", Gain.D, 0.1);
+        // nothing changes until the next cycle ...
+        assertEquals(1, controller.getP(), kDelta);
+        assertEquals(0, controller.getD(), kDelta);
+        tuner.apply();
+        // ... and then everything does.
+        assertEquals(2, controller.getP(), kDelta);
+        assertEquals(0.1, controller.getD(), kDelta);
+        assertEquals(1, tuner.getApplied());
+        // nothing new, nothing applied.
+        tuner.apply();
+        assertEquals(1, tuner.getApplied());
+        log.close();
+        inst.close();
+    }
+
+    @Test
+    public void testShared() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        DataLog log = new DataLog(dir.toString(), "tuning.wpilog");
+        GainTuner tuner = new GainTuner(inst, () -> log);
+        PIDController a = new PIDController(1, 0, 0);
+        PIDController b = new PIDController(5, 0, 0);
+        tuner.add("test", a);
+        tuner.add("test", b);
+        // the second one takes the gains of the first.
+        assertEquals(1, b.getP(), kDelta);
+        tuner.stage("test", Gain.I, 0.5);
+        tuner.apply();
+        assertEquals(0.5, a.getI(), kDelta);
+        assertEquals(0.5, b.getI(), kDelta);
+        log.close();
+        inst.close();
+    }
+
+    @Test
+    public void testRejected() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        DataLog log = new DataLog(dir.toString(), "tuning.wpilog");
+        GainTuner tuner = new GainTuner(inst, () -> log);
+        PIDController controller = new PIDController(1, 0, 0);
+        tuner.add("test", controller);
+        tuner.stage("test", Gain.P, -1);
+        tuner.stage("test", Gain.P, Double.NaN);
+        tuner.apply();
+        assertEquals(1, controller.getP(), kDelta);
+        assertEquals(0, tuner.getApplied());
+        assertThrows(IllegalArgumentException.class, () -> tuner.stage("other", Gain.P, 1));
+        assertThrows(IllegalArgumentException.class, () -> tuner.add("a/b", controller));
+        log.close();
+        inst.close();
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        DataLog log = new DataLog(dir.toString(), "tuning.wpilog");
+        GainTuner tuner = new GainTuner(inst, () -> log);
+        tuner.add("test", new PIDController(1, 0, 0));
+        tuner.apply();
+        tuner.stage("test", Gain.P, 2);
+        tuner.apply();
+        tuner.stage("test", Gain.P, 3);
+        tuner.apply();
+        log.close();
+        inst.close();
+
+        List<Edit> edits = GainTuner.read(new DataLogReader(dir.resolve("tuning.wpilog").toString()));
+        // the boot values, then each cycle with a change.
+        assertEquals(9, edits.size());
+        assertEquals("test", edits.get(0).name);
+        assertEquals(Gain.P, edits.get(0).gain);
+        assertEquals(1, edits.get(0).value, kDelta);
+        assertEquals(Gain.P, edits.get(3).gain);
+        assertEquals(2, edits.get(3).value, kDelta);
+        assertEquals(3, edits.get(6).value, kDelta);
+
+        // replaying the log into another controller ends up in the same place.
+        NetworkTableInstance inst2 = NetworkTableInstance.create();
+        DataLog log2 = new DataLog(dir.toString(), "replay.wpilog");
+        GainTuner replay = new GainTuner(inst2, () -> log2);
+        PIDController controller = new PIDController(0, 0, 0);
+        replay.add("test", controller);
+        for (Edit edit : edits) {
+            replay.stage(edit.name, edit.gain, edit.value);
+        }
+        replay.apply();
+        assertEquals(3, controller.getP(), kDelta);
+        log2.close();
+        inst2.close();
+    }
+}
@@ -0,0 +1,49 @@
+package team100.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+    private static final double kDelta = 0.01;
+
+    @Test
+    public void testEmpty() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentileMs(0.5), kDelta);
+        assertEquals(0, h.maxMs(), kDelta);
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram h = new Histogram();
+        // 1 ms to 40 ms
+        for (int i = 1; i <= 40; ++i) {
+            h.record(i * 1000000L);
+        }
+        assertEquals(40, h.count());
+        // 20 ms is in the bucket ending at 20.1 ms
+        assertEquals(20.1, h.percentileMs(0.5), kDelta);
+        assertEquals(40.1, h.percentileMs(0.99), kDelta);
+        assertEquals(40, h.maxMs(), kDelta);
+    }
+
+    @Test
+    public void testOverflow() {
+        Histogram h = new Histogram();
+        h.record(100000000L);
+        // the last bucket holds everything past 50 ms, the max is exact.
+        assertEquals(50, h.percentileMs(0.5), kDelta);
+        assertEquals(100, h.maxMs(), kDelta);
+    }
+
+    @Test
+    public void testReset() {
+        Histogram h = new Histogram();
+        h.record(5000000);
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.maxMs(), kDelta);
+    }
+}
@@ -0,0 +1,72 @@
+package team100.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+public class TelemetryBindingTest {
+    private static final double kDelta = 0.01;
+
+    @Test
+    public void testChangedOnly() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        NetworkTable table = inst.getTable("test");
+        double[] value = { 1 };
+        TelemetryBinding binding = new TelemetryBinding(table, 1);
+        binding.addDouble("x", () -> value[0]);
+        DoubleSubscriber sub = table.getDoubleTopic("x").subscribe(-1);
+        binding.update();
+        assertEquals(1, sub.readQueue().length);
+        binding.update();
+        assertEquals(0, sub.readQueue().length);
+        value[0] = 2;
+        binding.update();
+        assertEquals(2, sub.get(), kDelta);
+        inst.close();
+    }
+
+    @Test
+    public void testDecimation() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        NetworkTable table = inst.getTable("test");
+        double[] value = { 1 };
+        TelemetryBinding binding = new TelemetryBinding(table, 3);
+        binding.addDouble("x", () -> value[0]);
+        DoubleSubscriber sub = table.getDoubleTopic("x").subscribe(-1);
+        binding.update();
+        binding.update();
+        assertEquals(-1, sub.get(), kDelta);
+        binding.update();
+        assertEquals(1, sub.get(), kDelta);
+        value[0] = 2;
+        binding.update();
+        binding.update();
+        assertEquals(1, sub.get(), kDelta);
+        binding.update();
+        assertEquals(2, sub.get(), kDelta);
+        inst.close();
+    }
+
+    @Test
+    public void testStatic() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        NetworkTable table = inst.getTable("test");
+        double[] value = { 1 };
+        TelemetryBinding binding = new TelemetryBinding(table, 1);
+        binding.addStaticDouble("x", () -> value[0]);
+        DoubleSubscriber sub = table.getDoubleTopic("x").subscribe(-1);
+        binding.publishStatic();
+        assertEquals(1, sub.get(), kDelta);
+        // update() never touches static values
+        value[0] = 2;
+        binding.update();
+        assertEquals(1, sub.get(), kDelta);
+        binding.publishStatic();
+        assertEquals(2, sub.get(), kDelta);
+        inst.close();
+    }
+}
@@ -0,0 +1,46 @@
+package team100.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import team100.telemetry.TelemetryScheduler.Tier;
+
+public class TelemetrySchedulerTest {
+    @Test
+    public void testRates() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        TelemetryScheduler scheduler = new TelemetryScheduler(inst, 1);
+        int[] counts = new int[3];
+        scheduler.group("test")
+                .addDouble("fast", Tier.FAST, () -> counts[0]++)
+                .addDouble("medium", Tier.MEDIUM, () -> counts[1]++)
+                .addDouble("slow", Tier.SLOW, () -> counts[2]++);
+        for (int i = 0; i < 100; ++i) {
+            scheduler.run();
+        }
+        assertEquals(100, counts[0]);
+        assertEquals(20, counts[1]);
+        assertEquals(2, counts[2]);
+        inst.close();
+    }
+
+    @Test
+    public void testBudget() {
+        NetworkTableInstance inst = NetworkTableInstance.create();
+        // no budget: one sample per cycle, the rest waits.
+        TelemetryScheduler scheduler = new TelemetryScheduler(inst, 0);
+        int[] counts = new int[2];
+        scheduler.group("test")
+                .addDouble("a", Tier.FAST, () -> counts[0]++)
+                .addDouble("b", Tier.FAST, () -> counts[1]++);
+        scheduler.run();
+        assertEquals(1, counts[0]);
+        assertEquals(0, counts[1]);
+        scheduler.run();
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+        inst.close();
+    }
+}
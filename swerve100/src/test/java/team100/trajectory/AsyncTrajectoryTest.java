@@ -0,0 +1,64 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+
+public class AsyncTrajectoryTest {
+    private static final double kDelta = 0.01;
+
+    private static void await(AsyncTrajectory t) throws InterruptedException {
+        for (int i = 0; i < 100 && t.isPending(); ++i) {
+            Thread.sleep(10);
+        }
+        assertFalse(t.isPending());
+    }
+
+    @Test
+    public void testNothingRequested() {
+        AsyncTrajectory t = new AsyncTrajectory();
+        assertNull(t.sample(0));
+    }
+
+    @Test
+    public void testTimeShift() throws InterruptedException {
+        AsyncTrajectory t = new AsyncTrajectory();
+        Pose2d start = new Pose2d(1, 0, new Rotation2d());
+        Pose2d end = new Pose2d(5, 0, new Rotation2d());
+        t.request(start, List.of(), end, new TrajectoryConfig(1, 1), 100);
+        // either holding or just starting: at the start pose either way.
+        assertEquals(1, t.sample(100).poseMeters.getX(), kDelta);
+        await(t);
+        assertNotNull(t.getTrajectory());
+        // sampled relative to the request time, not the arrival time.
+        Trajectory.State s = t.sample(101);
+        assertEquals(1.5, s.poseMeters.getX(), 0.05);
+        assertEquals(1, s.velocityMetersPerSecond, 0.05);
+    }
+
+    @Test
+    public void testReplan() throws InterruptedException {
+        AsyncTrajectory t = new AsyncTrajectory();
+        TrajectoryConfig config = new TrajectoryConfig(1, 1);
+        t.request(new Pose2d(), List.of(), new Pose2d(4, 0, new Rotation2d()), config, 0);
+        await(t);
+        Trajectory first = t.getTrajectory();
+        t.request(new Pose2d(), List.of(), new Pose2d(0, 4, new Rotation2d()), config, 1);
+        await(t);
+        // the new plan starts at its own request time
+        assertEquals(0, t.sample(1).poseMeters.getX(), kDelta);
+        assertFalse(first == t.getTrajectory());
+        t.clear();
+        assertNull(t.sample(2));
+    }
+}
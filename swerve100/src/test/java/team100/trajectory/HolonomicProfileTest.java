@@ -0,0 +1,196 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.autonomous.DriveToWaypoint3;
+import frc.robot.commands.GoalOffset;
+import team100.commands.DriveToPose;
+import team100.geometry.MutableChassisSpeeds;
+import team100.geometry.MutablePose;
+import team100.sim.SimDriveFixture;
+import team100.telemetry.AllocationMeter;
+
+public class HolonomicProfileTest {
+    private static final double kDelta = 0.001;
+    private static final double kDt = 0.02;
+
+    private static HolonomicProfile profile() {
+        return new HolonomicProfile(5, 2, 6, 12);
+    }
+
+    /** With a perfect robot, the path is straight, and gets there on time. */
+    @Test
+    public void testStraight() {
+        HolonomicProfile profile = profile();
+        profile.reset(0, 0, 0);
+        MutablePose pose = new MutablePose().set(0, 0, 0);
+        MutablePose goal = new MutablePose().set(3, 4, 1);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        int cycles = 0;
+        while (!profile.atGoal(0.001, 0.001)) {
+            profile.calculate(kDt, pose, goal, speeds);
+            pose.set(pose.getX() + speeds.vxMetersPerSecond * kDt,
+                    pose.getY() + speeds.vyMetersPerSecond * kDt,
+                    pose.getRotation().getRadians() + speeds.omegaRadiansPerSecond * kDt);
+            // on the line
+            assertEquals(0, pose.getX() * 4 - pose.getY() * 3, kDelta);
+            assertTrue(Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond) <= 5 + kDelta);
+            assertTrue(++cycles < 1000);
+        }
+        // 5 m at 2 m/s^2, a triangle: sqrt(4 * 5 / 2) s.
+        assertEquals(Math.sqrt(10), cycles * kDt, 0.05);
+        assertEquals(3, pose.getX(), kDelta);
+        assertEquals(4, pose.getY(), kDelta);
+        assertEquals(1, pose.getRotation().getRadians(), kDelta);
+    }
+
+    /** Moving sideways to begin with, it stops that, and still gets there. */
+    @Test
+    public void testSideways() {
+        HolonomicProfile profile = profile();
+        profile.reset(0, 2, 0);
+        MutablePose pose = new MutablePose().set(0, 0, 0);
+        MutablePose goal = new MutablePose().set(2, 0, 0);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        double farthest = 0;
+        for (int t = 0; t < 250; ++t) {
+            profile.calculate(kDt, pose, goal, speeds);
+            pose.set(pose.getX() + speeds.vxMetersPerSecond * kDt,
+                    pose.getY() + speeds.vyMetersPerSecond * kDt,
+                    pose.getRotation().getRadians() + speeds.omegaRadiansPerSecond * kDt);
+            farthest = Math.max(farthest, pose.getY());
+        }
+        // 2 m/s stops in 1 m at 2 m/s^2; a little sooner, since the line to
+        // the goal turns as it goes, and the along-track profile helps.
+        assertTrue(farthest > 0.5 && farthest <= 1, "farthest " + farthest);
+        assertTrue(profile.atGoal(0.001, 0.001));
+        assertEquals(2, pose.getX(), kDelta);
+        assertEquals(0, pose.getY(), kDelta);
+    }
+
+    /** The short way round. */
+    @Test
+    public void testRotation() {
+        HolonomicProfile profile = profile();
+        profile.reset(0, 0, 0);
+        MutablePose pose = new MutablePose().set(0, 0, 3);
+        MutablePose goal = new MutablePose().set(0, 0, -3);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        profile.calculate(kDt, pose, goal, speeds);
+        assertTrue(speeds.omegaRadiansPerSecond > 0);
+        assertEquals(0, speeds.vxMetersPerSecond, kDelta);
+        assertEquals(0, speeds.vyMetersPerSecond, kDelta);
+    }
+
+    @Test
+    public void testAllocation() {
+        AllocationMeter meter = new AllocationMeter();
+
+        HolonomicProfile profile = profile();
+        MutablePose pose = new MutablePose();
+        MutablePose goal = new MutablePose().set(1, 2, 3);
+        MutableChassisSpeeds speeds = new MutableChassisSpeeds();
+        Runnable cycle = () -> {
+            for (int i = 0; i < 1000; ++i) {
+                pose.set(Math.sin(i), Math.cos(i), i);
+                profile.calculate(kDt, pose, goal, speeds);
+            }
+        };
+        long bytes = meter.allocated(cycle);
+        assertTrue(bytes < 1000, "allocated " + bytes + " bytes");
+    }
+
+    /**
+     * In the sim, the real commands: DriveToWaypoint3, which plans a
+     * trajectory once and tracks it, against DriveToPose, which replans with
+     * this profile every cycle. A second in, vision moves the estimate 20 cm.
+     *
+     * Replanning gets there sooner, overshoots less, and stops within 2 cm;
+     * the 15 cm box DriveToWaypoint3 uses to finish is satisfied well before
+     * the robot is actually there.
+     */
+    @Test
+    public void testCompareToTrajectory() throws IOException, InterruptedException {
+        Result replanned = run(false);
+        Result tracked = run(true);
+        String message = String.format("replanned %s tracked %s", replanned, tracked);
+        assertTrue(replanned.settledS < tracked.settledS, message);
+        assertTrue(replanned.overshootM < tracked.overshootM, message);
+        assertTrue(replanned.finishedS > 0, message);
+        assertTrue(replanned.errorAtFinishM < 0.02, message);
+        assertTrue(tracked.errorAtFinishM > 0.02, message);
+    }
+
+    private static final class Result {
+        /** When the robot got within 2 cm and 0.02 rad of the goal, and stayed there. */
+        double settledS = Double.POSITIVE_INFINITY;
+        /** Farthest past the goal, along the way there. */
+        double overshootM;
+        /** When the command finished. */
+        double finishedS = -1;
+        /** How far the robot actually was from the goal then. */
+        double errorAtFinishM = Double.NaN;
+
+        @Override
+        public String toString() {
+            return String.format("(settled %.2f s, overshoot %.3f m, finished %.2f s, %.3f m off)",
+                    settledS, overshootM, finishedS, errorAtFinishM);
+        }
+    }
+
+    private static Result run(boolean trajectory) throws IOException, InterruptedException {
+        SimDriveFixture fixture = new SimDriveFixture();
+        Pose2d goal = new Pose2d(3, 1, new Rotation2d(Math.PI / 2));
+        double ux = 3 / Math.hypot(3, 1);
+        double uy = 1 / Math.hypot(3, 1);
+        // the estimate starts 20 cm off, until vision sees a tag.
+        fixture.drive.resetPose(new Pose2d(0, -0.2, new Rotation2d()));
+
+        Command command = trajectory
+                ? new DriveToWaypoint3(goal, 0, fixture.drive, fixture.getGyro())
+                : new DriveToPose(goal, 0, () -> GoalOffset.center, fixture.drive);
+        command.initialize();
+        // time for DriveToWaypoint3's planner thread, see DriveToWaypoint3Test.
+        Thread.sleep(200);
+        boolean running = true;
+
+        Result result = new Result();
+        for (int t = 0; t < 400; ++t) {
+            if (t == 50)
+                fixture.drive.resetPose(fixture.sim.getPose());
+            if (running) {
+                fixture.step(command::execute);
+                if (command.isFinished()) {
+                    command.end(false);
+                    running = false;
+                    result.finishedS = (t + 1) * kDt;
+                    result.errorAtFinishM = fixture.sim.getPose().getTranslation()
+                            .getDistance(goal.getTranslation());
+                }
+            } else {
+                fixture.step(() -> {
+                });
+            }
+
+            Pose2d after = fixture.sim.getPose();
+            double dx = after.getX() - goal.getX();
+            double dy = after.getY() - goal.getY();
+            result.overshootM = Math.max(result.overshootM, dx * ux + dy * uy);
+            boolean there = Math.hypot(dx, dy) < 0.02
+                    && Math.abs(after.getRotation().minus(goal.getRotation()).getRadians()) < 0.02;
+            if (!there)
+                result.settledS = Double.POSITIVE_INFINITY;
+            else if (result.settledS == Double.POSITIVE_INFINITY)
+                result.settledS = (t + 1) * kDt;
+        }
+        return result;
+    }
+}
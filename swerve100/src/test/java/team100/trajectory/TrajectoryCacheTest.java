@@ -0,0 +1,119 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+
+public class TrajectoryCacheTest {
+    private static final double kDelta = 0.01;
+    private static final Translation2d kGoal = new Translation2d(4, 0);
+
+    @Test
+    public void testHit() {
+        TrajectoryCache cache = new TrajectoryCache(TrajectoryPlanner.getInstance(), 10, 0.25, 0.5);
+        TrajectoryConfig config = new TrajectoryConfig(2, 1);
+        cache.plan(new Translation2d(0, 0), kGoal, config).join();
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        // same cell
+        Translation2d start = new Translation2d(0.05, 0.05);
+        Trajectory t = cache.plan(start, kGoal, config).join();
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+        assertEquals(0.05, t.getInitialPose().getX(), kDelta);
+        assertEquals(0.05, t.getInitialPose().getY(), kDelta);
+        List<Trajectory.State> states = t.getStates();
+        Trajectory.State end = states.get(states.size() - 1);
+        assertEquals(4, end.poseMeters.getX(), kDelta);
+        assertEquals(0, end.poseMeters.getY(), kDelta);
+        for (int i = 1; i < states.size(); ++i) {
+            assertTrue(states.get(i).timeSeconds > states.get(i - 1).timeSeconds);
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        TrajectoryCache cache = new TrajectoryCache(TrajectoryPlanner.getInstance(), 2, 0.25, 0.5);
+        TrajectoryConfig config = new TrajectoryConfig(2, 1);
+        cache.plan(new Translation2d(0, 0), kGoal, config).join();
+        cache.plan(new Translation2d(0, 1), kGoal, config).join();
+        cache.plan(new Translation2d(0, 2), kGoal, config).join();
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMisses());
+        // the first one was evicted
+        cache.plan(new Translation2d(0, 0), kGoal, config).join();
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testPrecompute() {
+        TrajectoryCache cache = new TrajectoryCache(TrajectoryPlanner.getInstance(), 100, 0.5, 0.5);
+        TrajectoryConfig config = new TrajectoryConfig(2, 1);
+        cache.precompute(kGoal, config, 1.5);
+        // one worker thread, so once this is done, so is the precompute.
+        cache.plan(new Translation2d(3, 1), kGoal, config).join();
+        assertTrue(cache.size() > 10);
+    }
+
+    /** Moving, the plan starts at the robot's speed, along its course. */
+    @Test
+    public void testStartVelocity() {
+        TrajectoryCache cache = new TrajectoryCache(TrajectoryPlanner.getInstance(), 10, 0.25, 0.5);
+        cache.plan(new Translation2d(0, 0), kGoal, new TrajectoryConfig(2, 1)).join();
+        TrajectoryConfig moving = new TrajectoryConfig(2, 1).setStartVelocity(1);
+        Trajectory t = cache.plan(new Translation2d(0, 0), Rotation2d.fromDegrees(90), kGoal, moving).join();
+        // not the standing plan
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        Trajectory.State start = t.sample(0);
+        assertEquals(1, start.velocityMetersPerSecond, kDelta);
+        assertEquals(90, start.poseMeters.getRotation().getDegrees(), kDelta);
+        Trajectory.State end = t.getStates().get(t.getStates().size() - 1);
+        assertEquals(4, end.poseMeters.getX(), kDelta);
+    }
+
+    /** Too fast to slow down to the cached plan's speed by the join. */
+    @Test
+    public void testStitchTooFast() {
+        TrajectoryConfig config = new TrajectoryConfig(2, 1);
+        Trajectory cached = TrajectoryCache.getInstance().plan(new Translation2d(0, 0), kGoal, config).join();
+        // about 1 m/s at the join, 2 m/s to 1 m/s needs 1.5 m at 1 m/s^2.
+        TrajectoryConfig fast = new TrajectoryConfig(2, 1).setStartVelocity(2);
+        assertNull(TrajectoryCache.stitch(new Translation2d(0.05, 0), new Rotation2d(), cached, fast, 0.5));
+    }
+
+    /**
+     * Standing, ahead of the cached start, the join is a little too fast to
+     * reach, so the rest of the plan is re-timed to catch up.
+     */
+    @Test
+    public void testStitchRetimed() {
+        TrajectoryConfig config = new TrajectoryConfig(2, 1);
+        Trajectory cached = TrajectoryCache.getInstance().plan(new Translation2d(0, 0), kGoal, config).join();
+        Trajectory t = TrajectoryCache.stitch(new Translation2d(0.1, 0), null, cached, config, 0.5);
+        assertNotNull(t);
+        List<Trajectory.State> states = t.getStates();
+        for (int i = 1; i < states.size(); ++i) {
+            Trajectory.State a = states.get(i - 1);
+            Trajectory.State b = states.get(i);
+            assertTrue(b.timeSeconds > a.timeSeconds);
+            double ds = b.poseMeters.getTranslation().getDistance(a.poseMeters.getTranslation());
+            double dv2 = b.velocityMetersPerSecond * b.velocityMetersPerSecond
+                    - a.velocityMetersPerSecond * a.velocityMetersPerSecond;
+            assertTrue(dv2 <= 2 * ds + kDelta, "state " + i);
+        }
+        assertEquals(4, states.get(states.size() - 1).poseMeters.getX(), kDelta);
+        assertEquals(0, states.get(states.size() - 1).velocityMetersPerSecond, kDelta);
+    }
+}
@@ -0,0 +1,55 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+public class TrajectoryFileTest {
+    private static final double kDelta = 0.001;
+
+    @TempDir
+    Path dir;
+
+    private static Trajectory trajectory() {
+        return new Trajectory(List.of(
+                new Trajectory.State(0, 0, 1, new Pose2d(1, 2, new Rotation2d(0.5)), 0),
+                new Trajectory.State(1, 1, 0, new Pose2d(1.5, 2.2, new Rotation2d(0.6)), 0.1)));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = dir.resolve("sub/a.traj");
+        TrajectoryFile.write(trajectory(), 1234, 56, path);
+        Trajectory t = TrajectoryFile.read(path);
+        assertEquals(2, t.getStates().size());
+        assertEquals(1, t.getTotalTimeSeconds(), kDelta);
+        Trajectory.State s = t.getStates().get(1);
+        assertEquals(1, s.velocityMetersPerSecond, kDelta);
+        assertEquals(1.5, s.poseMeters.getX(), kDelta);
+        assertEquals(2.2, s.poseMeters.getY(), kDelta);
+        assertEquals(0.6, s.poseMeters.getRotation().getRadians(), kDelta);
+        assertEquals(0.1, s.curvatureRadPerMeter, kDelta);
+    }
+
+    @Test
+    public void testIsCurrent() throws IOException {
+        Path path = dir.resolve("a.traj");
+        assertFalse(TrajectoryFile.isCurrent(path, 1234, 56));
+        TrajectoryFile.write(trajectory(), 1234, 56, path);
+        assertTrue(TrajectoryFile.isCurrent(path, 1234, 56));
+        // the source changed
+        assertFalse(TrajectoryFile.isCurrent(path, 1235, 56));
+        assertFalse(TrajectoryFile.isCurrent(path, 1234, 57));
+    }
+}
@@ -0,0 +1,79 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+public class TrajectorySamplerTest {
+    private static final double kDelta = 0.01;
+
+    private static Trajectory curve() {
+        return TrajectoryGenerator.generateTrajectory(
+                new Pose2d(0, 0, new Rotation2d()),
+                List.of(new Translation2d(1, 1), new Translation2d(2, -1)),
+                new Pose2d(3, 0, new Rotation2d()),
+                new TrajectoryConfig(2, 1));
+    }
+
+    private static void assertSame(Trajectory.State expected, TrajectorySampler actual) {
+        assertEquals(expected.timeSeconds, actual.getTimeSeconds(), kDelta);
+        assertEquals(expected.velocityMetersPerSecond, actual.getVelocity(), kDelta);
+        assertEquals(expected.accelerationMetersPerSecondSq, actual.getAcceleration(), kDelta);
+        assertEquals(expected.poseMeters.getX(), actual.getX(), kDelta);
+        assertEquals(expected.poseMeters.getY(), actual.getY(), kDelta);
+        assertEquals(0, expected.poseMeters.getRotation().minus(new Rotation2d(actual.getHeading())).getRadians(),
+                kDelta);
+        assertEquals(expected.curvatureRadPerMeter, actual.getCurvature(), kDelta);
+    }
+
+    @Test
+    public void testMatchesSample() {
+        Trajectory t = curve();
+        TrajectorySampler sampler = new TrajectorySampler(t);
+        assertEquals(t.getTotalTimeSeconds(), sampler.getTotalTimeSeconds(), kDelta);
+        for (double time = -0.1; time < t.getTotalTimeSeconds() + 0.1; time += 0.02) {
+            sampler.sample(time);
+            assertSame(t.sample(time), sampler);
+        }
+    }
+
+    @Test
+    public void testBackwards() {
+        Trajectory t = curve();
+        TrajectorySampler sampler = new TrajectorySampler(t);
+        sampler.sample(3);
+        assertSame(t.sample(3), sampler);
+        // the cursor starts over
+        sampler.sample(0.5);
+        assertSame(t.sample(0.5), sampler);
+    }
+
+    @Test
+    public void testReset() {
+        Trajectory t = curve();
+        TrajectorySampler sampler = new TrajectorySampler(t);
+        sampler.sample(2);
+        Trajectory line = TrajectoryGenerator.generateTrajectory(
+                new Pose2d(0, 0, new Rotation2d()),
+                List.of(),
+                new Pose2d(1, 0, new Rotation2d()),
+                new TrajectoryConfig(2, 1));
+        sampler.reset(line);
+        assertEquals(line.getTotalTimeSeconds(), sampler.getTotalTimeSeconds(), kDelta);
+        sampler.sample(0.5);
+        assertSame(line.sample(0.5), sampler);
+        // past the end
+        sampler.sample(10);
+        assertEquals(1, sampler.getX(), kDelta);
+        assertEquals(0, sampler.getVelocity(), kDelta);
+    }
+}
@@ -0,0 +1,116 @@
+package team100.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TrapezoidTest {
+    private static final double kDelta = 0.001;
+
+    /** 4 m at 1 m/s^2, max 1.5 m/s: 1.5 s up, 1.17 s cruising, 1.5 s down. */
+    @Test
+    public void testRestToRest() {
+        Trapezoid profile = new Trapezoid(1.5, 1);
+        profile.calculate(1, 0, 0, 4);
+        assertEquals(0.5, profile.getPosition(), kDelta);
+        assertEquals(1, profile.getVelocity(), kDelta);
+        profile.calculate(2, 0, 0, 4);
+        assertEquals(1.125 + 0.75, profile.getPosition(), kDelta);
+        assertEquals(1.5, profile.getVelocity(), kDelta);
+        // one second before the end
+        double total = 1.5 + (4 - 2.25) / 1.5 + 1.5;
+        profile.calculate(total - 1, 0, 0, 4);
+        assertEquals(3.5, profile.getPosition(), kDelta);
+        assertEquals(1, profile.getVelocity(), kDelta);
+        profile.calculate(total + 1, 0, 0, 4);
+        assertEquals(4, profile.getPosition(), kDelta);
+        assertEquals(0, profile.getVelocity(), kDelta);
+    }
+
+    /** Backwards is the same. */
+    @Test
+    public void testNegative() {
+        Trapezoid profile = new Trapezoid(1.5, 1);
+        profile.calculate(1, 0, 0, -4);
+        assertEquals(-0.5, profile.getPosition(), kDelta);
+        assertEquals(-1, profile.getVelocity(), kDelta);
+    }
+
+    /** Sampling a cycle at a time lands in the same place as all at once. */
+    @Test
+    public void testSteps() {
+        Trapezoid profile = new Trapezoid(2, 3);
+        double position = 0;
+        double velocity = -1;
+        for (int i = 0; i < 50; ++i) {
+            profile.calculate(0.02, position, velocity, 2);
+            position = profile.getPosition();
+            velocity = profile.getVelocity();
+        }
+        profile.calculate(1, 0, -1, 2);
+        assertEquals(profile.getPosition(), position, kDelta);
+        assertEquals(profile.getVelocity(), velocity, kDelta);
+    }
+
+    /** Moving away: stop, come back. */
+    @Test
+    public void testTurnAround() {
+        Trapezoid profile = new Trapezoid(2, 1);
+        profile.calculate(1, 0, -1, 1);
+        assertEquals(-0.5, profile.getPosition(), kDelta);
+        assertEquals(0, profile.getVelocity(), kDelta);
+        profile.calculate(10, 0, -1, 1);
+        assertEquals(1, profile.getPosition(), kDelta);
+        assertEquals(0, profile.getVelocity(), kDelta);
+    }
+
+    /** Faster than the max slows down to it. */
+    @Test
+    public void testTooFast() {
+        Trapezoid profile = new Trapezoid(1, 1);
+        profile.calculate(0.5, 0, 2, 10);
+        assertEquals(1.5, profile.getVelocity(), kDelta);
+        profile.calculate(2, 0, 2, 10);
+        assertEquals(1, profile.getVelocity(), kDelta);
+    }
+
+    /** Too fast to stop: overshoot, stop, and come back. */
+    @Test
+    public void testOvershoot() {
+        Trapezoid profile = new Trapezoid(2, 1);
+        double farthest = 0;
+        for (double t = 0.02; t < 10; t += 0.02) {
+            profile.calculate(t, 0, 2, 1);
+            farthest = Math.max(farthest, profile.getPosition());
+        }
+        // stopping from 2 m/s takes 2 m.
+        assertEquals(2, farthest, 0.01);
+        assertEquals(1, profile.getPosition(), kDelta);
+        assertEquals(0, profile.getVelocity(), kDelta);
+    }
+
+    /** With more braking available, it stops at the goal instead. */
+    @Test
+    public void testBraking() {
+        Trapezoid profile = new Trapezoid(2, 1, 4);
+        // needs 2 m/s^2 to stop in 1 m.
+        profile.calculate(0.5, 0, 2, 1);
+        assertEquals(1, profile.getVelocity(), kDelta);
+        profile.calculate(1, 0, 2, 1);
+        assertEquals(1, profile.getPosition(), kDelta);
+        assertEquals(0, profile.getVelocity(), kDelta);
+        // even that isn't enough, so it uses all of it, and overshoots a bit.
+        profile.calculate(1, 0, 4, 1);
+        assertEquals(0, profile.getVelocity(), kDelta);
+        assertEquals(2, profile.getPosition(), kDelta);
+        assertTrue(profile.getPosition() > 1);
+    }
+
+    @Test
+    public void testConstraints() {
+        assertThrows(IllegalArgumentException.class, () -> new Trapezoid(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Trapezoid(1, 1, 0.5));
+    }
+}